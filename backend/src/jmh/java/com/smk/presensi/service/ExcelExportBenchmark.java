@@ -0,0 +1,68 @@
+package com.smk.presensi.service;
+
+import com.smk.presensi.dto.presensi.PresensiResponse;
+import com.smk.presensi.enums.MethodPresensi;
+import com.smk.presensi.enums.StatusPresensi;
+import com.smk.presensi.enums.TipeUser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Export presensi ke Excel (SXSSF streaming) untuk 10k dan 100k baris.
+ *
+ * Output dibuang (nullOutputStream): yang diukur pembuatan sheet + kompresi xlsx,
+ * bukan kecepatan jaringan/disk.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx512m")
+public class ExcelExportBenchmark {
+
+    @Param({"10000", "100000"})
+    private int rows;
+
+    private ExcelService service;
+    private List<PresensiResponse> data;
+
+    @Setup
+    public void setup() {
+        service = new ExcelService();
+        data = new ArrayList<>(rows);
+        LocalDate start = LocalDate.of(2025, 1, 1);
+        for (int i = 0; i < rows; i++) {
+            boolean terlambat = i % 7 == 0;
+            data.add(new PresensiResponse(
+                    (long) i, (long) (i % 1200), "siswa" + (i % 1200), TipeUser.SISWA,
+                    start.plusDays(i / 1200), LocalTime.of(terlambat ? 7 : 6, (i * 7) % 60),
+                    LocalTime.of(15, (i * 3) % 60),
+                    terlambat ? StatusPresensi.TERLAMBAT : StatusPresensi.HADIR,
+                    MethodPresensi.RFID, null, null, i % 50 == 0 ? "Izin pulang awal" : null,
+                    (long) (i % 36), "Kelas " + (i % 36), null, null));
+        }
+    }
+
+    @Benchmark
+    public void writePresensiToExcel() throws IOException {
+        service.writePresensiToExcel(data.stream(), OutputStream.nullOutputStream());
+    }
+}
@@ -0,0 +1,93 @@
+package com.smk.presensi.service;
+
+import com.smk.presensi.enums.SimilarityMetric;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Face recognition: encoding dari foto + pencocokan terhadap semua wajah yang sudah enroll.
+ *
+ * enrolled = jumlah encoding yang dibandingkan per scan (satu kelas, satu jurusan, satu sekolah).
+ * findFirstMatch memakai probe yang TIDAK ada di daftar → kasus terburuk (scan sampai habis).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FaceRecognitionBenchmark {
+
+    @Param({"LEVENSHTEIN", "HAMMING", "COSINE"})
+    private SimilarityMetric metric;
+
+    @Param({"36", "500", "2000"})
+    private int enrolled;
+
+    /** Ukuran foto JPEG dari kamera gate (base64) */
+    @Param({"65536"})
+    private int imageBytes;
+
+    private FaceRecognitionService service;
+    private String image;
+    private String probe;
+    private String candidate;
+    private List<String> encodings;
+
+    @Setup
+    public void setup() {
+        service = new FaceRecognitionService();
+        ReflectionTestUtils.setField(service, "metric", metric);
+
+        Random random = new Random(42);
+        image = randomImage(random, imageBytes);
+        probe = service.generateFaceEncoding(randomImage(random, 2048));
+        encodings = new ArrayList<>(enrolled);
+        for (int i = 0; i < enrolled; i++) {
+            encodings.add(service.generateFaceEncoding(randomImage(random, 2048)));
+        }
+        candidate = encodings.get(enrolled / 2);
+    }
+
+    private static String randomImage(Random random, int size) {
+        byte[] bytes = new byte[size];
+        random.nextBytes(bytes);
+        return "data:image/jpeg;base64," + Base64.getEncoder().encodeToString(bytes);
+    }
+
+    @Benchmark
+    public String generateFaceEncoding() {
+        return service.generateFaceEncoding(image);
+    }
+
+    @Benchmark
+    public double calculateSimilarity() {
+        return service.calculateSimilarity(probe, candidate);
+    }
+
+    @Benchmark
+    public double[] calculateSimilarities() {
+        return service.calculateSimilarities(probe, encodings);
+    }
+
+    @Benchmark
+    public int findFirstMatch() {
+        return service.findFirstMatch(probe, encodings);
+    }
+}
@@ -0,0 +1,61 @@
+package com.smk.presensi.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jarak haversine antara posisi HP dan lokasi sekolah (dipanggil di setiap checkin GPS).
+ *
+ * Koordinat diambil bergiliran dari array supaya JIT tidak melipat hasilnya jadi konstanta.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GeolocationBenchmark {
+
+    private static final int POINTS = 1024;
+    private static final double SEKOLAH_LAT = -6.200000;
+    private static final double SEKOLAH_LON = 106.816666;
+
+    private GeolocationService service;
+    private Double[] latitudes;
+    private Double[] longitudes;
+    private Double sekolahLat;
+    private Double sekolahLon;
+    private int index;
+
+    @Setup
+    public void setup() {
+        service = new GeolocationService();
+        Random random = new Random(42);
+        latitudes = new Double[POINTS];
+        longitudes = new Double[POINTS];
+        for (int i = 0; i < POINTS; i++) {
+            // Sekitar ±1 km dari sekolah
+            latitudes[i] = SEKOLAH_LAT + (random.nextDouble() - 0.5) * 0.02;
+            longitudes[i] = SEKOLAH_LON + (random.nextDouble() - 0.5) * 0.02;
+        }
+        sekolahLat = SEKOLAH_LAT;
+        sekolahLon = SEKOLAH_LON;
+    }
+
+    @Benchmark
+    public double calculateDistance() {
+        int i = index++ & (POINTS - 1);
+        return service.calculateDistance(latitudes[i], longitudes[i], sekolahLat, sekolahLon);
+    }
+}
@@ -0,0 +1,104 @@
+package com.smk.presensi.service;
+
+import com.smk.presensi.dto.presensi.PresensiResponse;
+import com.smk.presensi.entity.Kelas;
+import com.smk.presensi.entity.Presensi;
+import com.smk.presensi.entity.User;
+import com.smk.presensi.enums.MethodPresensi;
+import com.smk.presensi.enums.StatusPresensi;
+import com.smk.presensi.enums.TipeUser;
+import com.smk.presensi.repository.PresensiRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.reflect.Proxy;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bagian CPU dari jalur checkin: hitung status (HADIR/TERLAMBAT) dan mapping entity → DTO.
+ *
+ * Status diukur lewat BatasWaktuMasuk (sama persis dengan yang dipanggil PresensiService),
+ * mapping lewat findAll() dengan repository palsu yang mengembalikan list tetap,
+ * jadi benchmark tidak butuh method service yang dibuka khusus.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PresensiServiceBenchmark {
+
+    private static final int TIMES = 256;
+
+    private PresensiService service;
+    private LocalTime[] jamMasuk;
+    private int index;
+
+    @Setup
+    public void setup() {
+        // 06:30 - 07:34, separuh HADIR separuh TERLAMBAT
+        jamMasuk = new LocalTime[TIMES];
+        for (int i = 0; i < TIMES; i++) {
+            jamMasuk[i] = LocalTime.of(6, 30).plusSeconds(i * 15L);
+        }
+
+        Kelas kelas = new Kelas();
+        kelas.setId(12L);
+        kelas.setNama("XII RPL 1");
+        List<Presensi> rows = new ArrayList<>(TIMES);
+        for (int i = 0; i < TIMES; i++) {
+            User user = new User();
+            user.setId(1001L + i);
+            user.setUsername("siswa" + (1001 + i));
+            Presensi presensi = new Presensi();
+            presensi.setId(500_000L + i);
+            presensi.setUser(user);
+            presensi.setTipe(TipeUser.SISWA);
+            presensi.setTanggal(LocalDate.of(2025, 1, 17));
+            presensi.setJamMasuk(jamMasuk[i]);
+            presensi.setStatus(StatusPresensi.HADIR);
+            presensi.setMethod(MethodPresensi.FACE);
+            presensi.setLatitude(-6.2);
+            presensi.setLongitude(106.816666);
+            presensi.setKelas(kelas);
+            rows.add(presensi);
+        }
+
+        // Hanya findAll() yang dipakai; dependency lain tidak disentuh
+        PresensiRepository repository = (PresensiRepository) Proxy.newProxyInstance(
+                PresensiRepository.class.getClassLoader(),
+                new Class<?>[]{PresensiRepository.class},
+                (proxy, method, args) -> {
+                    if (method.getName().equals("findAll") && method.getParameterCount() == 0) {
+                        return rows;
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+        service = new PresensiService(repository, null, null, null, null, null, null, null, null, null, null);
+    }
+
+    @Benchmark
+    public StatusPresensi hitungStatus() {
+        return new BatasWaktuMasuk("07:00:00", 15).statusUntuk(jamMasuk[index++ & (TIMES - 1)]);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(TIMES)
+    public List<PresensiResponse> toResponse() {
+        return service.findAll();
+    }
+}
@@ -0,0 +1,51 @@
+package com.smk.presensi.loadsim;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+
+import java.io.IOException;
+
+/**
+ * Database embedded untuk load simulator.
+ *
+ * PostgreSQL asli (binary di-download sebagai dependency Maven, dijalankan di
+ * folder sementara) - bukan H2: jalur checkin memakai SQL khusus PostgreSQL
+ * (INSERT ... ON CONFLICT ... RETURNING, nextval, EXTRACT(EPOCH ...)),
+ * jadi hasil load test hanya berarti jika dijalankan di PostgreSQL.
+ *
+ * Database kosong setiap kali dijalankan, dihapus saat aplikasi berhenti.
+ */
+@Configuration
+@Profile("loadsim")
+public class EmbeddedDatabaseConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(EmbeddedDatabaseConfig.class);
+
+    @Bean(destroyMethod = "close")
+    public EmbeddedPostgres embeddedPostgres() throws IOException {
+        EmbeddedPostgres postgres = EmbeddedPostgres.builder().start();
+        logger.info("Embedded PostgreSQL started on port {}", postgres.getPort());
+        return postgres;
+    }
+
+    /**
+     * Hikari ke database embedded; setting pool tetap dari spring.datasource.hikari.*
+     */
+    @Bean
+    @Primary
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource dataSource(EmbeddedPostgres embeddedPostgres) {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl(embeddedPostgres.getJdbcUrl("postgres", "postgres") + "&reWriteBatchedInserts=true");
+        dataSource.setUsername("postgres");
+        dataSource.setPassword("postgres");
+        return dataSource;
+    }
+}
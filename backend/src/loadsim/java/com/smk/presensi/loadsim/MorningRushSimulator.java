@@ -0,0 +1,541 @@
+package com.smk.presensi.loadsim;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.smk.presensi.loadsim.SyntheticSchoolSeeder.Person;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * LOAD SIMULATOR - jam masuk sekolah (06:45-07:15) terhadap aplikasi yang sedang jalan.
+ *
+ * Open model: request dikirim menurut jadwal kedatangan Poisson dengan rate
+ * loadsim.rate per detik, TIDAK menunggu response sebelumnya. Latency dihitung
+ * dari waktu kedatangan yang dijadwalkan (bukan waktu kirim), jadi antrean di
+ * sisi client juga ikut terukur saat server melambat.
+ *
+ * Jenis request (bobot lewat loadsim.mix):
+ * - rfid, barcode, face : checkin gate, satu orang satu kali (+ loadsim.duplicate-percent scan ulang)
+ * - laporan             : GET /api/laporan/harian (laporan lengkap, admin)
+ * - poll                : GET /api/sync/changes dengan cursor (polling desktop)
+ *
+ * Hasil: latency p50/p90/p99/max, throughput, error rate dan query SQL per request
+ * (QueryCounter), ditulis ke log dan ke loadsim.report-file (JSON).
+ */
+@Component
+@Profile("loadsim")
+public class MorningRushSimulator {
+
+    private static final Logger logger = LoggerFactory.getLogger(MorningRushSimulator.class);
+
+    enum RequestType {
+        RFID, BARCODE, FACE, LAPORAN, POLL;
+
+        String key() {
+            return name().toLowerCase();
+        }
+    }
+
+    private final SyntheticSchoolSeeder seeder;
+    private final ObjectMapper objectMapper;
+    private final ConfigurableApplicationContext context;
+
+    @Value("${loadsim.rate:120}")
+    private double rate;
+
+    @Value("${loadsim.duration-seconds:60}")
+    private int durationSeconds;
+
+    @Value("${loadsim.warmup-seconds:10}")
+    private int warmupSeconds;
+
+    @Value("${loadsim.mix:rfid:50,barcode:20,face:10,laporan:5,poll:15}")
+    private String mix;
+
+    @Value("${loadsim.duplicate-percent:3}")
+    private int duplicatePercent;
+
+    @Value("${loadsim.max-in-flight:1000}")
+    private int maxInFlight;
+
+    @Value("${loadsim.timeout-seconds:30}")
+    private int timeoutSeconds;
+
+    @Value("${loadsim.seed:42}")
+    private long seed;
+
+    @Value("${loadsim.report-file:target/loadsim-report.json}")
+    private String reportFile;
+
+    @Value("${loadsim.max-error-percent:1.0}")
+    private double maxErrorPercent;
+
+    @Value("${loadsim.exit-on-finish:true}")
+    private boolean exitOnFinish;
+
+    private HttpClient httpClient;
+    private String baseUrl;
+    private String adminToken;
+    private final AtomicLong pollCursor = new AtomicLong();
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    public MorningRushSimulator(SyntheticSchoolSeeder seeder, ObjectMapper objectMapper,
+                                ConfigurableApplicationContext context) {
+        this.seeder = seeder;
+        this.objectMapper = objectMapper;
+        this.context = context;
+    }
+
+    /**
+     * Mulai setelah semua listener ApplicationReadyEvent lain (rebuild directory/index) selesai
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    public void start() {
+        int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+        baseUrl = "http://localhost:" + port;
+        Thread thread = new Thread(this::runSafely, "loadsim");
+        thread.setDaemon(false);
+        thread.start();
+    }
+
+    private void runSafely() {
+        int exitCode;
+        try {
+            exitCode = run();
+        } catch (Exception e) {
+            logger.error("Load simulation failed", e);
+            exitCode = 2;
+        }
+        if (exitOnFinish) {
+            int code = exitCode;
+            System.exit(SpringApplication.exit(context, () -> code));
+        }
+    }
+
+    private int run() throws IOException, InterruptedException {
+        Map<RequestType, Integer> weights = parseMix(mix);
+        ExecutorService callbacks = Executors.newFixedThreadPool(8, runnable -> {
+            Thread thread = new Thread(runnable, "loadsim-http");
+            thread.setDaemon(true);
+            return thread;
+        });
+        httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .executor(callbacks)
+                .build();
+        try {
+            adminToken = login("admin", "admin123");
+
+            Random random = new Random(seed);
+            Roster roster = new Roster(seeder.getRoster(), random);
+            logger.info("Load simulation: rate={}/s, duration={}s, warmup={}s, mix={}, people={}",
+                    rate, durationSeconds, warmupSeconds, weights, seeder.getRoster().size());
+            warnIfRosterTooSmall(weights, seeder.getRoster().size());
+
+            if (warmupSeconds > 0) {
+                runPhase(warmupSeconds, weights, roster, random);
+                QueryCounter.reset();
+            }
+            long started = System.nanoTime();
+            Map<RequestType, TypeStats> stats = runPhase(durationSeconds, weights, roster, random);
+            double elapsedSeconds = (System.nanoTime() - started) / 1e9;
+
+            return report(stats, elapsedSeconds, weights);
+        } finally {
+            callbacks.shutdownNow();
+        }
+    }
+
+    // ===== Dispatcher =====
+
+    private Map<RequestType, TypeStats> runPhase(int seconds, Map<RequestType, Integer> weights,
+                                                 Roster roster, Random random) throws InterruptedException {
+        Map<RequestType, TypeStats> stats = new EnumMap<>(RequestType.class);
+        for (RequestType type : RequestType.values()) {
+            stats.put(type, new TypeStats());
+        }
+        RequestType[] picker = toPicker(weights);
+
+        long start = System.nanoTime();
+        long end = start + TimeUnit.SECONDS.toNanos(seconds);
+        double offsetSeconds = 0;
+        while (true) {
+            // Jarak antar kedatangan eksponensial → kedatangan Poisson
+            offsetSeconds += -Math.log(1.0 - random.nextDouble()) / rate;
+            long intended = start + (long) (offsetSeconds * 1e9);
+            if (intended >= end) {
+                break;
+            }
+            long wait = intended - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+
+            RequestType type = picker[random.nextInt(picker.length)];
+            TypeStats typeStats = stats.get(type);
+            if (inFlight.get() >= maxInFlight) {
+                typeStats.dropped.increment();
+                continue;
+            }
+            HttpRequest request = buildRequest(type, roster, random);
+            send(type, request, intended, typeStats);
+        }
+
+        // Tunggu request yang masih jalan
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(timeoutSeconds);
+        while (inFlight.get() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(50);
+        }
+        return stats;
+    }
+
+    private void send(RequestType type, HttpRequest request, long intended, TypeStats stats) {
+        inFlight.incrementAndGet();
+        stats.sent.increment();
+        httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString())
+                .whenComplete((response, error) -> {
+                    try {
+                        stats.latencies.add(System.nanoTime() - intended);
+                        if (error != null) {
+                            stats.errors.increment();
+                        } else if (response.statusCode() < 300 || response.statusCode() == 304) {
+                            stats.ok.increment();
+                            if (type == RequestType.POLL) {
+                                advanceCursor(response.body());
+                            }
+                        } else if (response.statusCode() < 500) {
+                            stats.rejected.increment();
+                        } else {
+                            stats.errors.increment();
+                        }
+                    } finally {
+                        inFlight.decrementAndGet();
+                    }
+                });
+    }
+
+    private HttpRequest buildRequest(RequestType type, Roster roster, Random random) {
+        return switch (type) {
+            case RFID -> post("/api/presensi/rfid/checkin",
+                    Map.of("rfidCardId", roster.next(false, random, duplicatePercent).rfidCardId()), type);
+            case BARCODE -> post("/api/presensi/barcode/checkin",
+                    Map.of("barcodeId", roster.next(false, random, duplicatePercent).barcodeId()), type);
+            case FACE -> post("/api/presensi/face/checkin",
+                    Map.of("imageBase64", SyntheticSchoolSeeder.faceImage(
+                            roster.next(true, random, duplicatePercent))), type);
+            case LAPORAN -> get("/api/laporan/harian?detail=true", type);
+            case POLL -> get("/api/sync/changes?since=" + pollCursor.get() + "&limit=500", type);
+        };
+    }
+
+    private HttpRequest post(String path, Map<String, String> body, RequestType type) {
+        try {
+            return newRequest(path, type)
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(body)))
+                    .build();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private HttpRequest get(String path, RequestType type) {
+        return newRequest(path, type)
+                .header("Authorization", "Bearer " + adminToken)
+                .GET()
+                .build();
+    }
+
+    private HttpRequest.Builder newRequest(String path, RequestType type) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(Duration.ofSeconds(timeoutSeconds))
+                .header(QueryCountFilter.HEADER, type.key());
+    }
+
+    private void advanceCursor(String body) {
+        try {
+            JsonNode next = objectMapper.readTree(body).path("nextCursor");
+            if (next.canConvertToLong()) {
+                pollCursor.accumulateAndGet(next.asLong(), Math::max);
+            }
+        } catch (IOException e) {
+            // cursor tetap, poll berikutnya mengulang dari posisi yang sama
+        }
+    }
+
+    private String login(String username, String password) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/api/auth/login"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(
+                        Map.of("username", username, "password", password))))
+                .build();
+        HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("Login " + username + " gagal: " + response.statusCode());
+        }
+        return objectMapper.readTree(response.body()).path("token").asText();
+    }
+
+    // ===== Report =====
+
+    private int report(Map<RequestType, TypeStats> stats, double elapsedSeconds,
+                       Map<RequestType, Integer> weights) throws IOException {
+        List<Map<String, Object>> rows = new ArrayList<>();
+        TypeStats total = new TypeStats();
+        long totalQueries = 0;
+
+        logger.info(String.format("%-9s %7s %7s %7s %6s %7s %6s %8s %8s %8s %8s %8s %7s",
+                "type", "sent", "ok", "reject", "error", "dropped", "err%",
+                "p50 ms", "p90 ms", "p99 ms", "max ms", "ok/s", "q/req"));
+        for (RequestType type : RequestType.values()) {
+            if (!weights.containsKey(type)) {
+                continue;
+            }
+            TypeStats typeStats = stats.get(type);
+            long queries = QueryCounter.count(type.key());
+            totalQueries += queries;
+            total.merge(typeStats);
+            rows.add(row(type.key(), typeStats, queries, elapsedSeconds));
+        }
+        Map<String, Object> totalRow = row("total", total, totalQueries, elapsedSeconds);
+        rows.add(totalRow);
+
+        long background = QueryCounter.count(QueryCounter.BACKGROUND);
+        logger.info("Background SQL (outside request threads): {}", background);
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("rate", rate);
+        report.put("durationSeconds", durationSeconds);
+        report.put("elapsedSeconds", elapsedSeconds);
+        report.put("mix", mix);
+        report.put("people", seeder.getRoster().size());
+        report.put("duplicatePercent", duplicatePercent);
+        report.put("results", rows);
+        report.put("backgroundQueries", background);
+
+        File file = new File(reportFile);
+        if (file.getParentFile() != null) {
+            file.getParentFile().mkdirs();
+        }
+        objectMapper.writerWithDefaultPrettyPrinter().writeValue(file, report);
+        logger.info("Load simulation report written to {}", file.getAbsolutePath());
+
+        double errorPercent = (double) totalRow.get("errorPercent");
+        if (errorPercent > maxErrorPercent) {
+            logger.warn("Error rate {}% exceeds loadsim.max-error-percent={}%",
+                    String.format("%.2f", errorPercent), maxErrorPercent);
+            return 1;
+        }
+        return 0;
+    }
+
+    private Map<String, Object> row(String name, TypeStats stats, long queries, double elapsedSeconds) {
+        long[] latencies = stats.latencies.sorted();
+        long sent = stats.sent.sum();
+        long ok = stats.ok.sum();
+        long rejected = stats.rejected.sum();
+        long errors = stats.errors.sum();
+        long dropped = stats.dropped.sum();
+        long completed = ok + rejected + errors;
+        double errorPercent = sent + dropped == 0 ? 0.0 : 100.0 * (errors + dropped) / (sent + dropped);
+        double throughput = ok / elapsedSeconds;
+        double queriesPerRequest = completed == 0 ? 0.0 : (double) queries / completed;
+
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put("type", name);
+        row.put("sent", sent);
+        row.put("ok", ok);
+        row.put("rejected", rejected);
+        row.put("errors", errors);
+        row.put("dropped", dropped);
+        row.put("errorPercent", errorPercent);
+        row.put("p50Ms", percentileMs(latencies, 0.50));
+        row.put("p90Ms", percentileMs(latencies, 0.90));
+        row.put("p99Ms", percentileMs(latencies, 0.99));
+        row.put("maxMs", percentileMs(latencies, 1.0));
+        row.put("throughputPerSecond", throughput);
+        row.put("queries", queries);
+        row.put("queriesPerRequest", queriesPerRequest);
+
+        logger.info(String.format("%-9s %7d %7d %7d %6d %7d %6.2f %8.1f %8.1f %8.1f %8.1f %8.1f %7.2f",
+                name, sent, ok, rejected, errors, dropped, errorPercent,
+                row.get("p50Ms"), row.get("p90Ms"), row.get("p99Ms"), row.get("maxMs"),
+                throughput, queriesPerRequest));
+        return row;
+    }
+
+    private static double percentileMs(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0.0;
+        }
+        int index = (int) Math.ceil(percentile * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))] / 1e6;
+    }
+
+    // ===== Helpers =====
+
+    private static Map<RequestType, Integer> parseMix(String mix) {
+        Map<RequestType, Integer> weights = new EnumMap<>(RequestType.class);
+        for (String part : mix.split(",")) {
+            String[] pair = part.trim().split(":");
+            if (pair.length != 2) {
+                throw new IllegalArgumentException("Format loadsim.mix salah: " + part + " (contoh rfid:50)");
+            }
+            int weight = Integer.parseInt(pair[1].trim());
+            if (weight > 0) {
+                weights.put(RequestType.valueOf(pair[0].trim().toUpperCase()), weight);
+            }
+        }
+        if (weights.isEmpty()) {
+            throw new IllegalArgumentException("loadsim.mix kosong");
+        }
+        return weights;
+    }
+
+    /**
+     * Jadwal butuh lebih banyak checkin daripada orang → sisa checkin jadi scan ulang
+     * (ditolak "sudah checkin"), bukan beban checkin baru. Naikkan loadsim.siswa.
+     */
+    private void warnIfRosterTooSmall(Map<RequestType, Integer> weights, int people) {
+        int total = weights.values().stream().mapToInt(Integer::intValue).sum();
+        int checkin = weights.getOrDefault(RequestType.RFID, 0) + weights.getOrDefault(RequestType.BARCODE, 0)
+                + weights.getOrDefault(RequestType.FACE, 0);
+        long expected = Math.round(rate * (warmupSeconds + durationSeconds) * checkin / total);
+        if (expected > people) {
+            logger.warn("Jadwal berisi ~{} checkin untuk {} orang: sisanya scan ulang. Naikkan loadsim.siswa",
+                    expected, people);
+        }
+    }
+
+    /**
+     * Array berisi jenis request sesuai bobot (bobot 50 → 50 slot), dipilih acak per kedatangan
+     */
+    private static RequestType[] toPicker(Map<RequestType, Integer> weights) {
+        List<RequestType> slots = new ArrayList<>();
+        weights.forEach((type, weight) -> slots.addAll(Collections.nCopies(weight, type)));
+        return slots.toArray(new RequestType[0]);
+    }
+
+    /**
+     * Antrean orang yang belum checkin (hanya dipakai thread dispatcher).
+     * Habis, atau kena duplicate-percent → scan ulang orang yang sudah checkin.
+     */
+    private static final class Roster {
+        private final Deque<Person> card = new ArrayDeque<>();
+        private final Deque<Person> face = new ArrayDeque<>();
+        private final List<Person> done = new ArrayList<>();
+        private final List<Person> doneFace = new ArrayList<>();
+
+        Roster(List<Person> people, Random random) {
+            List<Person> shuffled = new ArrayList<>(people);
+            Collections.shuffle(shuffled, random);
+            for (Person person : shuffled) {
+                (person.faceEnrolled() ? face : card).add(person);
+            }
+        }
+
+        Person next(boolean needFace, Random random, int duplicatePercent) {
+            List<Person> pool = needFace ? doneFace : done;
+            if (!pool.isEmpty() && random.nextInt(100) < duplicatePercent) {
+                return pool.get(random.nextInt(pool.size()));
+            }
+            Person person = needFace ? face.poll() : card.isEmpty() ? face.poll() : card.poll();
+            if (person == null) {
+                if (pool.isEmpty()) {
+                    throw new IllegalStateException("Tidak ada orang" + (needFace ? " dengan wajah terdaftar" : ""));
+                }
+                return pool.get(random.nextInt(pool.size()));
+            }
+            done.add(person);
+            if (person.faceEnrolled()) {
+                doneFace.add(person);
+            }
+            return person;
+        }
+    }
+
+    /**
+     * Statistik satu jenis request
+     */
+    private static final class TypeStats {
+        final LongAdder sent = new LongAdder();
+        final LongAdder ok = new LongAdder();
+        final LongAdder rejected = new LongAdder();
+        final LongAdder errors = new LongAdder();
+        final LongAdder dropped = new LongAdder();
+        final LatencyLog latencies = new LatencyLog();
+
+        void merge(TypeStats other) {
+            sent.add(other.sent.sum());
+            ok.add(other.ok.sum());
+            rejected.add(other.rejected.sum());
+            errors.add(other.errors.sum());
+            dropped.add(other.dropped.sum());
+            latencies.addAll(other.latencies.sorted());
+        }
+    }
+
+    /**
+     * Latency (nanodetik) semua request, di-sort saat report
+     */
+    private static final class LatencyLog {
+        private long[] values = new long[1024];
+        private int size;
+
+        synchronized void add(long value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        synchronized void addAll(long[] other) {
+            for (long value : other) {
+                add(value);
+            }
+        }
+
+        synchronized long[] sorted() {
+            long[] copy = Arrays.copyOf(values, size);
+            Arrays.sort(copy);
+            return copy;
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.smk.presensi.loadsim;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Tandai thread request dengan jenis request dari header X-Loadsim-Type,
+ * supaya QueryCounter bisa menghitung query per jenis request.
+ *
+ * Paling depan (sebelum Spring Security): query lookup user dari JWT ikut terhitung.
+ */
+@Component
+@Profile("loadsim")
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class QueryCountFilter extends OncePerRequestFilter {
+
+    static final String HEADER = "X-Loadsim-Type";
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String type = request.getHeader(HEADER);
+        if (type == null) {
+            chain.doFilter(request, response);
+            return;
+        }
+        QueryCounter.enter(type);
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            QueryCounter.exit();
+        }
+    }
+}
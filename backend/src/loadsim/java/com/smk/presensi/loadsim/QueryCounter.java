@@ -0,0 +1,49 @@
+package com.smk.presensi.loadsim;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Hitung SQL yang dijalankan Hibernate, per jenis request load simulator.
+ *
+ * Didaftarkan lewat hibernate.session_factory.statement_inspector (dibuat oleh
+ * Hibernate, bukan Spring), jadi state-nya static. Jenis request diisi
+ * QueryCountFilter di thread request; SQL dari thread lain (event pump,
+ * rollup, dll.) masuk ke BACKGROUND.
+ *
+ * Query lewat JdbcTemplate (mis. RowVersionService) tidak lewat Hibernate dan tidak terhitung.
+ */
+public class QueryCounter implements StatementInspector {
+
+    public static final String BACKGROUND = "background";
+
+    private static final ThreadLocal<String> CURRENT = new ThreadLocal<>();
+    private static final Map<String, LongAdder> COUNTS = new ConcurrentHashMap<>();
+
+    @Override
+    public String inspect(String sql) {
+        String type = CURRENT.get();
+        COUNTS.computeIfAbsent(type != null ? type : BACKGROUND, key -> new LongAdder()).increment();
+        return sql;
+    }
+
+    static void enter(String type) {
+        CURRENT.set(type);
+    }
+
+    static void exit() {
+        CURRENT.remove();
+    }
+
+    static long count(String type) {
+        LongAdder adder = COUNTS.get(type);
+        return adder != null ? adder.sum() : 0;
+    }
+
+    static void reset() {
+        COUNTS.clear();
+    }
+}
@@ -0,0 +1,212 @@
+package com.smk.presensi.loadsim;
+
+import com.smk.presensi.entity.Guru;
+import com.smk.presensi.entity.Role;
+import com.smk.presensi.entity.Role.RoleName;
+import com.smk.presensi.entity.Siswa;
+import com.smk.presensi.entity.User;
+import com.smk.presensi.enums.TipeUser;
+import com.smk.presensi.repository.GuruRepository;
+import com.smk.presensi.repository.RoleRepository;
+import com.smk.presensi.repository.SiswaRepository;
+import com.smk.presensi.repository.UserRepository;
+import com.smk.presensi.service.FaceRecognitionService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.context.annotation.Profile;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Seeder sekolah sintetis untuk load simulator (melanjutkan pola DataSeeder).
+ *
+ * Yang di-seed:
+ * - loadsim.siswa siswa + loadsim.guru guru, masing-masing dengan akun User
+ * - Semua punya kartu RFID dan barcode
+ * - loadsim.face-percent persen sudah enroll wajah
+ *
+ * Foto wajah dibuat deterministik dari index (lihat faceImage), jadi simulator
+ * bisa mengirim foto yang sama persis dengan saat enrollment tanpa menyimpannya.
+ *
+ * Jalan sebelum ApplicationReadyEvent, jadi CredentialDirectory dan
+ * FaceEmbeddingIndex yang di-rebuild saat ready sudah melihat semua data ini.
+ */
+@Component
+@Profile("loadsim")
+public class SyntheticSchoolSeeder implements CommandLineRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(SyntheticSchoolSeeder.class);
+
+    private static final int CHUNK_SIZE = 500;
+    private static final int FACE_IMAGE_BYTES = 4096;
+    private static final String PASSWORD = "loadsim123";
+    private static final String[] JURUSAN = {"RPL", "TKJ", "MM", "AKL", "OTKP", "BDP"};
+    private static final String[] TINGKAT = {"X", "XI", "XII"};
+
+    /**
+     * Satu orang di sekolah sintetis (cukup untuk membuat request checkin)
+     */
+    public record Person(TipeUser tipe, int index, String username, String rfidCardId, String barcodeId,
+                         boolean faceEnrolled) {
+    }
+
+    private final UserRepository userRepository;
+    private final SiswaRepository siswaRepository;
+    private final GuruRepository guruRepository;
+    private final RoleRepository roleRepository;
+    private final PasswordEncoder passwordEncoder;
+    private final FaceRecognitionService faceRecognitionService;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${loadsim.siswa:7000}")
+    private int siswaCount;
+
+    @Value("${loadsim.guru:150}")
+    private int guruCount;
+
+    @Value("${loadsim.face-percent:40}")
+    private int facePercent;
+
+    private final List<Person> roster = new ArrayList<>();
+
+    public SyntheticSchoolSeeder(
+            UserRepository userRepository,
+            SiswaRepository siswaRepository,
+            GuruRepository guruRepository,
+            RoleRepository roleRepository,
+            PasswordEncoder passwordEncoder,
+            FaceRecognitionService faceRecognitionService,
+            PlatformTransactionManager transactionManager
+    ) {
+        this.userRepository = userRepository;
+        this.siswaRepository = siswaRepository;
+        this.guruRepository = guruRepository;
+        this.roleRepository = roleRepository;
+        this.passwordEncoder = passwordEncoder;
+        this.faceRecognitionService = faceRecognitionService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Override
+    public void run(String... args) {
+        long start = System.currentTimeMillis();
+        logger.info("Seeding synthetic school: {} siswa, {} guru, {}% face enrolled", siswaCount, guruCount, facePercent);
+
+        // BCrypt sengaja lambat: hash sekali, dipakai semua akun
+        String passwordHash = passwordEncoder.encode(PASSWORD);
+        Role siswaRole = ensureRole(RoleName.ROLE_SISWA);
+        Role guruRole = ensureRole(RoleName.ROLE_GURU);
+
+        for (int from = 0; from < siswaCount; from += CHUNK_SIZE) {
+            int to = Math.min(from + CHUNK_SIZE, siswaCount);
+            int chunkStart = from;
+            transactionTemplate.executeWithoutResult(status -> seedSiswa(chunkStart, to, passwordHash, siswaRole));
+        }
+        for (int from = 0; from < guruCount; from += CHUNK_SIZE) {
+            int to = Math.min(from + CHUNK_SIZE, guruCount);
+            int chunkStart = from;
+            transactionTemplate.executeWithoutResult(status -> seedGuru(chunkStart, to, passwordHash, guruRole));
+        }
+
+        logger.info("Synthetic school seeded: {} people in {} ms", roster.size(), System.currentTimeMillis() - start);
+    }
+
+    private void seedSiswa(int from, int to, String passwordHash, Role role) {
+        List<User> users = new ArrayList<>();
+        List<Siswa> siswaList = new ArrayList<>();
+        for (int i = from; i < to; i++) {
+            Person person = newPerson(TipeUser.SISWA, i, "ls_s" + i, "RFS" + i, "BCS" + i);
+            User user = newUser(person, passwordHash, role);
+            users.add(user);
+
+            String jurusan = JURUSAN[i % JURUSAN.length];
+            Siswa siswa = new Siswa();
+            siswa.setNis("LS" + i);
+            siswa.setNama("Siswa Simulasi " + i);
+            siswa.setJurusan(jurusan);
+            siswa.setKelas(TINGKAT[(i / JURUSAN.length) % TINGKAT.length] + " " + jurusan + " " + (i % 2 + 1));
+            siswa.setRfidCardId(person.rfidCardId());
+            siswa.setBarcodeId(person.barcodeId());
+            if (person.faceEnrolled()) {
+                siswa.setFaceEncoding(faceRecognitionService.generateFaceEncoding(faceImage(person)));
+                siswa.setFaceEnrolledAt(LocalDateTime.now());
+            }
+            siswa.setUser(user);
+            siswaList.add(siswa);
+            roster.add(person);
+        }
+        userRepository.saveAll(users);
+        siswaRepository.saveAll(siswaList);
+    }
+
+    private void seedGuru(int from, int to, String passwordHash, Role role) {
+        List<User> users = new ArrayList<>();
+        List<Guru> guruList = new ArrayList<>();
+        for (int i = from; i < to; i++) {
+            Person person = newPerson(TipeUser.GURU, i, "ls_g" + i, "RFG" + i, "BCG" + i);
+            User user = newUser(person, passwordHash, role);
+            users.add(user);
+
+            Guru guru = new Guru();
+            guru.setNip("LSG" + i);
+            guru.setNama("Guru Simulasi " + i);
+            guru.setMapel("Mapel " + (i % 20));
+            guru.setRfidCardId(person.rfidCardId());
+            guru.setBarcodeId(person.barcodeId());
+            if (person.faceEnrolled()) {
+                guru.setFaceEncoding(faceRecognitionService.generateFaceEncoding(faceImage(person)));
+                guru.setFaceEnrolledAt(LocalDateTime.now());
+            }
+            guru.setUser(user);
+            guruList.add(guru);
+            roster.add(person);
+        }
+        userRepository.saveAll(users);
+        guruRepository.saveAll(guruList);
+    }
+
+    private Person newPerson(TipeUser tipe, int index, String username, String rfid, String barcode) {
+        // Sebar merata: setiap 100 orang, facePercent orang pertama sudah enroll
+        boolean faceEnrolled = index % 100 < facePercent;
+        return new Person(tipe, index, username, rfid, barcode, faceEnrolled);
+    }
+
+    private User newUser(Person person, String passwordHash, Role role) {
+        User user = new User(person.username(), null, passwordHash);
+        user.addRole(role);
+        return user;
+    }
+
+    private Role ensureRole(RoleName roleName) {
+        return roleRepository.findByName(roleName)
+                .orElseGet(() -> roleRepository.save(new Role(roleName)));
+    }
+
+    /**
+     * Foto wajah (base64) untuk orang ini: selalu sama untuk tipe + index yang sama
+     */
+    public static String faceImage(Person person) {
+        long seed = person.tipe().ordinal() * 1_000_000L + person.index();
+        byte[] bytes = new byte[FACE_IMAGE_BYTES];
+        new Random(seed).nextBytes(bytes);
+        return "data:image/jpeg;base64," + Base64.getEncoder().encodeToString(bytes);
+    }
+
+    /**
+     * Semua orang yang sudah di-seed
+     */
+    public List<Person> getRoster() {
+        return Collections.unmodifiableList(roster);
+    }
+}
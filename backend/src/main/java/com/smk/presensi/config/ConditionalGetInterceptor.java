@@ -0,0 +1,146 @@
+package com.smk.presensi.config;
+
+import com.smk.presensi.entity.Jurusan;
+import com.smk.presensi.entity.Kelas;
+import com.smk.presensi.entity.LokasiKantor;
+import com.smk.presensi.entity.Mapel;
+import com.smk.presensi.entity.Presensi;
+import com.smk.presensi.entity.Siswa;
+import com.smk.presensi.service.TableVersions;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.authorization.AuthorizationDecision;
+import org.springframework.security.authorization.method.PreAuthorizeAuthorizationManager;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.util.SimpleMethodInvocation;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * CONDITIONAL GET - ETag + 304 Not Modified untuk endpoint referensi & laporan.
+ *
+ * ETag dihitung dari TableVersions (counter perubahan tabel sumber), SEBELUM
+ * controller dipanggil. Jika If-None-Match dari client sama → langsung 304,
+ * controller tidak jalan dan tidak ada query database sama sekali.
+ *
+ * ETag dihitung sebelum data dibaca, jadi jika data berubah di tengah request
+ * client paling buruk menerima data baru dengan ETag lama → request berikutnya
+ * tetap 200 (tidak pernah 304 untuk data yang sudah berubah).
+ *
+ * Interceptor jalan SEBELUM @PreAuthorize di controller. Karena itu @PreAuthorize
+ * handler dicek dulu di sini: user tanpa akses tidak pernah dapat 304/ETag,
+ * request diteruskan ke controller dan ditolak 403 seperti biasa.
+ */
+@Component
+public class ConditionalGetInterceptor implements HandlerInterceptor {
+
+    /** Data referensi jarang berubah: boleh dipakai 1 menit tanpa revalidasi */
+    private static final String REFERENCE = "private, max-age=60";
+    /** Selalu revalidasi (ETag), tapi 304 murah */
+    private static final String REVALIDATE = "private, no-cache";
+
+    /**
+     * @param pattern      Path endpoint (Ant pattern)
+     * @param sources      Tabel yang menentukan isi response
+     * @param cacheControl Header Cache-Control
+     * @param dayScoped    Isi ikut berubah saat ganti hari (mis. default tanggal = hari ini)
+     */
+    private record Policy(String pattern, List<Class<?>> sources, String cacheControl, boolean dayScoped) {
+    }
+
+    private static final List<Policy> POLICIES = List.of(
+            new Policy("/api/kelas/**", List.of(Kelas.class), REFERENCE, false),
+            new Policy("/api/jurusan/**", List.of(Jurusan.class), REFERENCE, false),
+            new Policy("/api/mapel/**", List.of(Mapel.class), REFERENCE, false),
+            // Lokasi dipakai validasi geofence: perubahan harus langsung terlihat
+            new Policy("/api/lokasi-kantor/**", List.of(LokasiKantor.class), REVALIDATE, false),
+            new Policy("/api/laporan/rekap-siswa/**", List.of(Siswa.class, Kelas.class, Jurusan.class), REVALIDATE, false),
+            // Tanpa parameter tanggal = hari ini, jadi ETag ikut tanggal
+            new Policy("/api/laporan/harian/**", List.of(Presensi.class, Kelas.class), REVALIDATE, true)
+    );
+
+    private final AntPathMatcher matcher = new AntPathMatcher();
+    private final PreAuthorizeAuthorizationManager preAuthorize = new PreAuthorizeAuthorizationManager();
+    private final TableVersions tableVersions;
+
+    public ConditionalGetInterceptor(TableVersions tableVersions) {
+        this.tableVersions = tableVersions;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!"GET".equals(request.getMethod())) {
+            return true;
+        }
+        Policy policy = findPolicy(request.getRequestURI().substring(request.getContextPath().length()));
+        if (policy == null || !isAuthorized(handler)) {
+            return true;
+        }
+
+        String tag = tableVersions.tag(policy.sources());
+        if (policy.dayScoped()) {
+            tag += "-" + LocalDate.now();
+        }
+        String etag = "\"" + tag + "\"";
+
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.setHeader(HttpHeaders.CACHE_CONTROL, policy.cacheControl());
+
+        if (matches(request.getHeader(HttpHeaders.IF_NONE_MATCH), etag)) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Evaluasi @PreAuthorize milik handler untuk user saat ini (tanpa @PreAuthorize = boleh).
+     */
+    private boolean isAuthorized(Object handler) {
+        if (!(handler instanceof HandlerMethod method)) {
+            return true;
+        }
+        AuthorizationDecision decision = preAuthorize.check(
+                () -> SecurityContextHolder.getContext().getAuthentication(),
+                new SimpleMethodInvocation(method.getBean(), method.getMethod()));
+        return decision == null || decision.isGranted();
+    }
+
+    private Policy findPolicy(String path) {
+        for (Policy policy : POLICIES) {
+            if (matcher.match(policy.pattern(), path)) {
+                return policy;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Perbandingan weak (RFC 9110): W/"x" sama dengan "x".
+     * Tomcat mengubah ETag jadi weak saat response di-gzip, jadi client bisa mengirim keduanya.
+     */
+    private static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String value = candidate.trim();
+            if (value.equals("*")) {
+                return true;
+            }
+            if (value.startsWith("W/")) {
+                value = value.substring(2);
+            }
+            if (value.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
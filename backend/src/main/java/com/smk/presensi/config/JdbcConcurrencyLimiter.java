@@ -0,0 +1,165 @@
+package com.smk.presensi.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * JDBC CONCURRENCY LIMITER - Semaphore di depan connection pool.
+ *
+ * Dengan virtual thread, jumlah request yang berjalan bersamaan tidak lagi
+ * dibatasi 200 thread Tomcat: saat jam 07:00 bisa ribuan request sekaligus
+ * meminta koneksi ke pool yang hanya berisi 10. Tanpa batas, semuanya antre
+ * di dalam Hikari lalu gagal bersamaan setelah connection-timeout (30 detik).
+ *
+ * Semaphore ini (fair, urut kedatangan) membatasi berapa koneksi yang boleh
+ * dipinjam sekaligus dan berapa lama request boleh menunggu. Request yang
+ * tidak kebagian dalam acquire-timeout-ms langsung gagal dengan pesan
+ * "database sibuk", bukan menggantung 30 detik.
+ *
+ * Hanya aktif jika virtual thread benar-benar dipakai: spring.threads.virtual.enabled=true
+ * DAN runtime Java 21+ (kondisi yang sama dengan executor Tomcat/@Async milik Spring Boot).
+ * Di Java 17 property itu diabaikan, request tetap dibatasi 200 thread Tomcat,
+ * jadi semaphore ini hanya menambah antrian kedua di depan Hikari.
+ * Permit dilepas saat Connection.close().
+ */
+@Component
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class JdbcConcurrencyLimiter implements BeanPostProcessor {
+
+    private static final Logger logger = LoggerFactory.getLogger(JdbcConcurrencyLimiter.class);
+
+    private final int maxConcurrent;
+    private final long acquireTimeoutMs;
+
+    public JdbcConcurrencyLimiter(
+            @Value("${presensi.jdbc.limit.max-concurrent:${spring.datasource.hikari.maximum-pool-size:10}}") int maxConcurrent,
+            @Value("${presensi.jdbc.limit.acquire-timeout-ms:5000}") long acquireTimeoutMs) {
+        this.maxConcurrent = maxConcurrent;
+        this.acquireTimeoutMs = acquireTimeoutMs;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (!(bean instanceof DataSource dataSource) || bean instanceof LimitedDataSource) {
+            return bean;
+        }
+        logger.info("JDBC concurrency limit aktif untuk '{}': {} koneksi, tunggu maksimal {} ms",
+                beanName, maxConcurrent, acquireTimeoutMs);
+        return new LimitedDataSource(dataSource, new Semaphore(maxConcurrent, true), acquireTimeoutMs);
+    }
+
+    /**
+     * DataSource yang meminjam permit sebelum meminta koneksi ke pool
+     */
+    static final class LimitedDataSource extends DelegatingDataSource {
+
+        private final Semaphore permits;
+        private final long acquireTimeoutMs;
+
+        LimitedDataSource(DataSource target, Semaphore permits, long acquireTimeoutMs) {
+            super(target);
+            this.permits = permits;
+            this.acquireTimeoutMs = acquireTimeoutMs;
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            acquire();
+            try {
+                return releaseOnClose(super.getConnection());
+            } catch (SQLException | RuntimeException e) {
+                permits.release();
+                throw e;
+            }
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            acquire();
+            try {
+                return releaseOnClose(super.getConnection(username, password));
+            } catch (SQLException | RuntimeException e) {
+                permits.release();
+                throw e;
+            }
+        }
+
+        /**
+         * Request yang sedang menunggu permit (metrics)
+         */
+        int getWaitingCount() {
+            return permits.getQueueLength();
+        }
+
+        int getAvailablePermits() {
+            return permits.availablePermits();
+        }
+
+        private void acquire() throws SQLException {
+            try {
+                if (!permits.tryAcquire(acquireTimeoutMs, TimeUnit.MILLISECONDS)) {
+                    throw new SQLTransientConnectionException("Database sedang sibuk, coba lagi ("
+                            + permits.getQueueLength() + " request menunggu koneksi)");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new SQLTransientConnectionException("Interrupted saat menunggu koneksi database", e);
+            }
+        }
+
+        /**
+         * Proxy Connection: close() pertama mengembalikan permit (close kedua diabaikan).
+         *
+         * equals/hashCode memakai identitas proxy, bukan koneksi asli: proxy
+         * dipakai sebagai key (mis. ConnectionHolder transaksi), dan
+         * proxy.equals(proxy) harus true.
+         */
+        private Connection releaseOnClose(Connection connection) {
+            AtomicBoolean released = new AtomicBoolean(false);
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                    new Class<?>[] {Connection.class},
+                    (proxy, method, args) -> {
+                        if ("close".equals(method.getName()) && method.getParameterCount() == 0) {
+                            try {
+                                connection.close();
+                            } finally {
+                                if (released.compareAndSet(false, true)) {
+                                    permits.release();
+                                }
+                            }
+                            return null;
+                        }
+                        if ("equals".equals(method.getName()) && method.getParameterCount() == 1) {
+                            return proxy == args[0];
+                        }
+                        if ("hashCode".equals(method.getName()) && method.getParameterCount() == 0) {
+                            return System.identityHashCode(proxy);
+                        }
+                        if ("unwrap".equals(method.getName()) && Connection.class.equals(args[0])) {
+                            return proxy;
+                        }
+                        try {
+                            return method.invoke(connection, args);
+                        } catch (InvocationTargetException e) {
+                            throw e.getTargetException();
+                        }
+                    });
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.smk.presensi.config;
+
+import com.smk.presensi.service.GateIngestionService;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+/**
+ * Gauge tambahan di luar yang sudah dicatat Actuator.
+ *
+ * Pool koneksi (hikaricp.connections.active/idle/pending, acquire time) sudah
+ * otomatis; di sini antrian yang ada DI DEPAN pool: semaphore
+ * JdbcConcurrencyLimiter (virtual thread) dan antrian scan gate.
+ */
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public MeterBinder presensiQueueMetrics(DataSource dataSource, GateIngestionService gateIngestionService) {
+        return registry -> {
+            Gauge.builder("presensi.gate.queue", gateIngestionService, GateIngestionService::getQueueSize)
+                    .description("Scan gate yang menunggu ditulis")
+                    .register(registry);
+
+            // Limiter hanya aktif dengan virtual thread (Java 21+)
+            if (dataSource instanceof JdbcConcurrencyLimiter.LimitedDataSource limited) {
+                Gauge.builder("presensi.jdbc.limiter.waiting", limited,
+                                JdbcConcurrencyLimiter.LimitedDataSource::getWaitingCount)
+                        .description("Request yang menunggu izin koneksi database")
+                        .register(registry);
+                Gauge.builder("presensi.jdbc.limiter.available", limited,
+                                JdbcConcurrencyLimiter.LimitedDataSource::getAvailablePermits)
+                        .description("Izin koneksi database yang masih tersedia")
+                        .register(registry);
+            }
+        };
+    }
+}
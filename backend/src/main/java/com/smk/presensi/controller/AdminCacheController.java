@@ -0,0 +1,43 @@
+package com.smk.presensi.controller;
+
+import com.smk.presensi.dto.MessageResponse;
+import com.smk.presensi.service.ReferenceCacheService;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * ADMIN CACHE CONTROLLER
+ *
+ * Endpoint khusus ADMIN untuk membuang second-level cache data referensi.
+ * Base URL: /api/admin/cache
+ *
+ * Dipakai setelah data referensi diubah langsung di database (bukan lewat API).
+ */
+@RestController
+@RequestMapping("/api/admin/cache")
+@PreAuthorize("hasRole('ADMIN')")
+public class AdminCacheController {
+
+    private final ReferenceCacheService referenceCacheService;
+
+    public AdminCacheController(ReferenceCacheService referenceCacheService) {
+        this.referenceCacheService = referenceCacheService;
+    }
+
+    /**
+     * EVICT CACHE
+     *
+     * URL: POST /api/admin/cache/evict            → semua region
+     *      POST /api/admin/cache/evict?region=kelas
+     */
+    @PostMapping("/evict")
+    public MessageResponse evict(@RequestParam(required = false) String region) {
+        List<String> evicted = referenceCacheService.evict(region);
+        return new MessageResponse("Cache di-evict: " + String.join(", ", evicted));
+    }
+}
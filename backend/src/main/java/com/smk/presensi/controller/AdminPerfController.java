@@ -0,0 +1,51 @@
+package com.smk.presensi.controller;
+
+import com.smk.presensi.service.AttendanceMetrics;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * ADMIN PERF CONTROLLER
+ *
+ * Ringkasan performa jalur presensi untuk desktop admin.
+ * Base URL: /api/admin/perf
+ *
+ * Data lengkap (histogram, format Prometheus) ada di Actuator
+ * /actuator/prometheus pada management port (default 127.0.0.1:8082).
+ */
+@RestController
+@RequestMapping("/api/admin/perf")
+@PreAuthorize("hasRole('ADMIN')")
+public class AdminPerfController {
+
+    private final AttendanceMetrics attendanceMetrics;
+
+    public AdminPerfController(AttendanceMetrics attendanceMetrics) {
+        this.attendanceMetrics = attendanceMetrics;
+    }
+
+    /**
+     * PERF SUMMARY
+     *
+     * URL: GET /api/admin/perf
+     *
+     * data.checkin   : per method/source/outcome → count, meanMs, maxMs, p50Ms, p95Ms, p99Ms
+     * data.faceMatch : pencarian wajah (match/no_match), data.faceCandidates: kandidat per scan
+     * data.jwtFilter : waktu verifikasi token per request
+     * data.report    : waktu per laporan, data.export* : durasi, baris dan ukuran export
+     * data.pool      : koneksi Hikari active/idle/pending/max + antrian di depannya
+     */
+    @GetMapping
+    public ResponseEntity<?> getPerf() {
+        Map<String, Object> response = new HashMap<>();
+        response.put("message", "Ringkasan performa berhasil diambil");
+        response.put("data", attendanceMetrics.summary());
+        return ResponseEntity.ok(response);
+    }
+}
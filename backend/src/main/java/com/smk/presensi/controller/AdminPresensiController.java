@@ -3,6 +3,10 @@ package com.smk.presensi.controller;
 import com.smk.presensi.dto.MessageResponse;
 import com.smk.presensi.dto.presensi.AdminPresensiRequest;
 import com.smk.presensi.dto.presensi.PresensiResponse;
+import com.smk.presensi.dto.presensi.PresensiSyncItem;
+import com.smk.presensi.dto.presensi.PresensiSyncRequest;
+import com.smk.presensi.dto.presensi.PresensiSyncResult;
+import com.smk.presensi.enums.SyncItemStatus;
 import com.smk.presensi.service.AdminPresensiService;
 import jakarta.validation.Valid;
 import org.springframework.http.HttpStatus;
@@ -11,6 +15,7 @@ import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -26,6 +31,7 @@ import java.util.Map;
  * - Create presensi manual
  * - Update presensi
  * - Delete presensi
+ * - Bulk sync presensi offline dari desktop
  */
 @RestController
 @RequestMapping("/api/admin/presensi")
@@ -72,6 +78,35 @@ public class AdminPresensiController {
         return ResponseEntity.status(HttpStatus.CREATED).body(created);
     }
 
+    /**
+     * POST /api/admin/presensi/bulk
+     * Upload presensi offline dari desktop (maksimal 500 per request).
+     *
+     * Response (200 OK): list PresensiSyncResult, urutan sama dengan items.
+     * Client cukup mengirim ulang item dengan result ERROR
+     * (idempotency key yang sama → ALREADY_SYNCED, bukan duplikat).
+     */
+    @PostMapping("/bulk")
+    public ResponseEntity<List<PresensiSyncResult>> syncBulk(
+            @Valid @RequestBody PresensiSyncRequest request
+    ) {
+        try {
+            return ResponseEntity.ok(adminPresensiService.syncBulk(request.items()));
+        } catch (RuntimeException e) {
+            // Satu item bermasalah (mis. bentrok unique dengan checkin yang masuk bersamaan)
+            // membatalkan satu transaksi → ulangi per item supaya yang lain tetap masuk
+            List<PresensiSyncResult> results = new ArrayList<>(request.items().size());
+            for (PresensiSyncItem item : request.items()) {
+                try {
+                    results.add(adminPresensiService.syncBulk(List.of(item)).get(0));
+                } catch (RuntimeException ex) {
+                    results.add(PresensiSyncResult.gagal(item, SyncItemStatus.ERROR, ex.getMessage()));
+                }
+            }
+            return ResponseEntity.ok(results);
+        }
+    }
+
     /**
      * PUT /api/admin/presensi/{id}
      * Update presensi.
@@ -2,6 +2,8 @@ package com.smk.presensi.controller;
 
 import com.smk.presensi.dto.presensi.BarcodeCheckinRequest;
 import com.smk.presensi.dto.presensi.PresensiResponse;
+import com.smk.presensi.enums.MethodPresensi;
+import com.smk.presensi.service.AttendanceMetrics;
 import com.smk.presensi.service.PresensiService;
 import jakarta.validation.Valid;
 import org.springframework.http.ResponseEntity;
@@ -27,9 +29,11 @@ import org.springframework.web.bind.annotation.*;
 public class BarcodeController {
 
     private final PresensiService presensiService;
+    private final AttendanceMetrics attendanceMetrics;
 
-    public BarcodeController(PresensiService presensiService) {
+    public BarcodeController(PresensiService presensiService, AttendanceMetrics attendanceMetrics) {
         this.presensiService = presensiService;
+        this.attendanceMetrics = attendanceMetrics;
     }
 
     /**
@@ -41,7 +45,8 @@ public class BarcodeController {
      */
     @PostMapping("/checkin")
     public ResponseEntity<PresensiResponse> checkinBarcode(@Valid @RequestBody BarcodeCheckinRequest request) {
-        PresensiResponse response = presensiService.checkinBarcode(request);
+        PresensiResponse response = attendanceMetrics.timeCheckin(MethodPresensi.BARCODE,
+                () -> presensiService.checkinBarcode(request));
         return ResponseEntity.ok(response);
     }
     
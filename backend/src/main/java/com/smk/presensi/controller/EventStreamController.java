@@ -0,0 +1,80 @@
+package com.smk.presensi.controller;
+
+import com.smk.presensi.service.AttendanceEventBus;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * CONTROLLER EVENT STREAM - Event live presensi untuk dashboard (Server-Sent Events).
+ *
+ * Base URL: /api/events
+ *
+ * Pengganti polling dashboard: satu koneksi HTTP terbuka, server mengirim
+ * event setiap ada checkin/checkout/koreksi yang sudah di-commit.
+ */
+@RestController
+@RequestMapping("/api/events")
+public class EventStreamController {
+
+    private final AttendanceEventBus eventBus;
+
+    public EventStreamController(AttendanceEventBus eventBus) {
+        this.eventBus = eventBus;
+    }
+
+    /**
+     * ENDPOINT: GET /api/events/presensi
+     *
+     * Query param (opsional, tanpa param = seluruh sekolah):
+     * - kelas   : hanya event siswa kelas ini, mis. "XII RPL 1"
+     * - jurusan : hanya event siswa jurusan ini, mis. "RPL"
+     *
+     * Resume: header Last-Event-ID (dikirim otomatis oleh EventSource saat
+     * reconnect) atau query param lastEventId.
+     *
+     * Stream (text/event-stream):
+     *   event: counters              ← snapshot counter hari ini (koneksi baru)
+     *   event: CHECKIN / CHECKOUT / UPDATE / DELETE / KOREKSI / IZIN
+     *   id: 1718000000123
+     *   data: { "type": "CHECKIN", "userId": 12, "kelas": "XII RPL 1", ..., "counters": {...} }
+     *   event: reset                 ← client tertinggal terlalu jauh, ambil ulang data via REST
+     *
+     * Counter di setiap event adalah counter SELURUH sekolah, walaupun
+     * event-nya difilter per kelas/jurusan.
+     *
+     * Response 503 jika jumlah koneksi live sudah maksimal.
+     */
+    @GetMapping(value = "/presensi", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @PreAuthorize("hasAnyRole('ADMIN','GURU','GURU_PIKET','GURU_BK','WAKAKURIKULUM','WAKAHUBIN','KAPROG')")
+    public ResponseEntity<SseEmitter> presensi(
+            @RequestParam(required = false) String kelas,
+            @RequestParam(required = false) String jurusan,
+            @RequestParam(required = false) Long lastEventId,
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventIdHeader
+    ) {
+        Long resumeFrom = lastEventId;
+        if (lastEventIdHeader != null && !lastEventIdHeader.isBlank()) {
+            try {
+                resumeFrom = Long.parseLong(lastEventIdHeader.trim());
+            } catch (NumberFormatException e) {
+                throw new RuntimeException("Last-Event-ID tidak valid");
+            }
+        }
+        AttendanceEventBus.Topic topic = new AttendanceEventBus.Topic(blankToNull(kelas), blankToNull(jurusan));
+        return eventBus.subscribe(topic, resumeFrom)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build());
+    }
+
+    private static String blankToNull(String value) {
+        return value == null || value.isBlank() ? null : value.trim();
+    }
+}
@@ -7,16 +7,22 @@ import com.smk.presensi.dto.presensi.PresensiResponse;
 import com.smk.presensi.entity.Guru;
 import com.smk.presensi.entity.Siswa;
 import com.smk.presensi.entity.User;
+import com.smk.presensi.enums.MethodPresensi;
+import com.smk.presensi.enums.TipeUser;
 import com.smk.presensi.repository.GuruRepository;
 import com.smk.presensi.repository.SiswaRepository;
 import com.smk.presensi.repository.UserRepository;
+import com.smk.presensi.service.AttendanceMetrics;
+import com.smk.presensi.service.FaceEmbeddingIndex;
 import com.smk.presensi.service.FaceRecognitionService;
 import com.smk.presensi.service.PresensiService;
+import io.micrometer.core.instrument.Timer;
 import jakarta.validation.Valid;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -38,24 +44,36 @@ import java.util.Optional;
 @RequestMapping("/api/presensi/face")
 public class FaceController {
 
+    /**
+     * Jumlah kandidat teratas dari index yang diverifikasi dengan threshold.
+     * Jika tidak ada yang lolos, sisa encoding tetap dicek (lihat identify()).
+     */
+    private static final int CANDIDATE_COUNT = 5;
+
     private final FaceRecognitionService faceRecognitionService;
+    private final FaceEmbeddingIndex faceEmbeddingIndex;
     private final PresensiService presensiService;
     private final SiswaRepository siswaRepository;
     private final GuruRepository guruRepository;
     private final UserRepository userRepository;
+    private final AttendanceMetrics attendanceMetrics;
 
     public FaceController(
             FaceRecognitionService faceRecognitionService,
+            FaceEmbeddingIndex faceEmbeddingIndex,
             PresensiService presensiService,
             SiswaRepository siswaRepository,
             GuruRepository guruRepository,
-            UserRepository userRepository
+            UserRepository userRepository,
+            AttendanceMetrics attendanceMetrics
     ) {
         this.faceRecognitionService = faceRecognitionService;
+        this.faceEmbeddingIndex = faceEmbeddingIndex;
         this.presensiService = presensiService;
         this.siswaRepository = siswaRepository;
         this.guruRepository = guruRepository;
         this.userRepository = userRepository;
+        this.attendanceMetrics = attendanceMetrics;
     }
 
     /**
@@ -86,7 +104,8 @@ public class FaceController {
      * 2. Cari user di database (siswa atau guru)
      * 3. Generate face encoding dari image
      * 4. Save encoding ke database
-     * 5. Return success response
+     * 5. FaceEmbeddingIndex ter-update otomatis (IdentityEntityListener)
+     * 6. Return success response
      * 
      * Note:
      * - Admin/Operator yang jalankan enrollment
@@ -161,8 +180,8 @@ public class FaceController {
      * Flow:
      * 1. Terima imageBase64 (foto wajah dari kamera)
      * 2. Generate encoding dari image
-     * 3. Loop semua siswa & guru yang sudah enroll face
-     * 4. Calculate similarity dengan setiap enrolled face
+     * 3. Ambil top-k kandidat dari FaceEmbeddingIndex (in-memory, cosine)
+     * 4. Verifikasi kandidat dengan calculateSimilarity (threshold sama)
      * 5. Jika ada yang match (similarity > threshold):
      *    - User identified!
      *    - Call presensiService.checkinFace()
@@ -173,54 +192,46 @@ public class FaceController {
      * Note:
      * - NO userId di request (sistem harus auto-detect)
      * - Public endpoint (no JWT)
-     * - Response time: 1-3 detik (tergantung jumlah enrolled users)
+     * - Tidak load semua siswa/guru, hanya entity yang match
      * 
      * @param request FaceCheckinRequest (imageBase64)
      * @return PresensiResponse atau error message
      */
     @PostMapping("/checkin")
     public ResponseEntity<?> checkin(@Valid @RequestBody FaceCheckinRequest request) {
+        // Durasi termasuk generate encoding + pencarian kandidat (seluruh request checkin)
+        Timer.Sample sample = attendanceMetrics.start();
+        String outcome = AttendanceMetrics.OUTCOME_ERROR;
         try {
             String imageBase64 = request.imageBase64();
 
             // 1. Generate encoding dari input image
             String inputEncoding = faceRecognitionService.generateFaceEncoding(imageBase64);
 
-            // 2. Cari match di semua siswa yang sudah enroll face
-            for (Siswa siswa : siswaRepository.findByFaceEncodingIsNotNull()) {
-                double similarity = faceRecognitionService.calculateSimilarity(
-                        inputEncoding,
-                        siswa.getFaceEncoding()
-                );
-
-                if (faceRecognitionService.isMatch(similarity)) {
-                    // MATCH! Checkin via PresensiService
-                    PresensiResponse response = presensiService.checkinFace(siswa);
-                    return ResponseEntity.ok(response);
-                }
-            }
+            // 2. Cari kandidat di FaceEmbeddingIndex, verifikasi dengan threshold
+            Optional<FaceEmbeddingIndex.Candidate> match = identify(inputEncoding);
+            if (match.isPresent()) {
+                FaceEmbeddingIndex.Candidate candidate = match.get();
 
-            // 3. Jika tidak match di siswa, cari di guru
-            for (Guru guru : guruRepository.findByFaceEncodingIsNotNull()) {
-                double similarity = faceRecognitionService.calculateSimilarity(
-                        inputEncoding,
-                        guru.getFaceEncoding()
-                );
-
-                if (faceRecognitionService.isMatch(similarity)) {
-                    // MATCH! Checkin via PresensiService
-                    PresensiResponse response = presensiService.checkinFace(guru);
-                    return ResponseEntity.ok(response);
-                }
+                // 3. MATCH! Load hanya entity yang cocok, lalu checkin
+                PresensiResponse response = candidate.tipe() == TipeUser.SISWA
+                        ? presensiService.checkinFace(findSiswa(candidate))
+                        : presensiService.checkinFace(findGuru(candidate));
+                outcome = AttendanceMetrics.OUTCOME_OK;
+                return ResponseEntity.ok(response);
             }
 
             // 4. Jika tidak ada yang match
+            outcome = AttendanceMetrics.OUTCOME_NOT_RECOGNIZED;
             return ResponseEntity.status(404).body(
                     "Face tidak dikenali. Pastikan sudah enrollment dan foto clear."
             );
 
         } catch (Exception e) {
+            outcome = AttendanceMetrics.outcomeOf(e);
             return ResponseEntity.badRequest().body("Checkin gagal: " + e.getMessage());
+        } finally {
+            attendanceMetrics.stopCheckin(sample, MethodPresensi.FACE, AttendanceMetrics.SOURCE_API, outcome);
         }
     }
 
@@ -243,32 +254,16 @@ public class FaceController {
             // 1. Generate encoding dari input image
             String inputEncoding = faceRecognitionService.generateFaceEncoding(imageBase64);
 
-            // 2. Cari match di semua siswa yang sudah enroll face
-            for (Siswa siswa : siswaRepository.findByFaceEncodingIsNotNull()) {
-                double similarity = faceRecognitionService.calculateSimilarity(
-                        inputEncoding,
-                        siswa.getFaceEncoding()
-                );
-
-                if (faceRecognitionService.isMatch(similarity)) {
-                    // MATCH! Checkout via PresensiService
-                    PresensiResponse response = presensiService.checkoutFace(siswa);
-                    return ResponseEntity.ok(response);
-                }
-            }
+            // 2. Cari kandidat di FaceEmbeddingIndex, verifikasi dengan threshold
+            Optional<FaceEmbeddingIndex.Candidate> match = identify(inputEncoding);
+            if (match.isPresent()) {
+                FaceEmbeddingIndex.Candidate candidate = match.get();
 
-            // 3. Jika tidak match di siswa, cari di guru
-            for (Guru guru : guruRepository.findByFaceEncodingIsNotNull()) {
-                double similarity = faceRecognitionService.calculateSimilarity(
-                        inputEncoding,
-                        guru.getFaceEncoding()
-                );
-
-                if (faceRecognitionService.isMatch(similarity)) {
-                    // MATCH! Checkout via PresensiService
-                    PresensiResponse response = presensiService.checkoutFace(guru);
-                    return ResponseEntity.ok(response);
-                }
+                // 3. MATCH! Load hanya entity yang cocok, lalu checkout
+                PresensiResponse response = candidate.tipe() == TipeUser.SISWA
+                        ? presensiService.checkoutFace(findSiswa(candidate))
+                        : presensiService.checkoutFace(findGuru(candidate));
+                return ResponseEntity.ok(response);
             }
 
             // 4. Jika tidak ada yang match
@@ -280,4 +275,72 @@ public class FaceController {
             return ResponseEntity.badRequest().body("Checkout gagal: " + e.getMessage());
         }
     }
+
+    // ═════════════════════════════════════════════════════════════
+    // PRIVATE HELPER METHODS
+    // ═════════════════════════════════════════════════════════════
+
+    /**
+     * Cari kandidat terbaik yang lolos threshold.
+     *
+     * Index hanya mengurutkan kandidat (cosine similarity);
+     * keputusan match tetap pakai FaceRecognitionService.isMatch().
+     *
+     * Urutan cosine tidak sama dengan jarak Levenshtein (encoding yang bergeser
+     * satu karakter tetap lolos threshold tapi cosine-nya rendah), jadi jika
+     * top-k tidak ada yang lolos, semua encoding lain dicek juga. Wajah yang
+     * dulu diterima scan penuh tetap diterima; hanya wajah yang tidak dikenal
+     * yang membayar biaya scan penuh.
+     */
+    private Optional<FaceEmbeddingIndex.Candidate> identify(String inputEncoding) {
+        Timer.Sample sample = attendanceMetrics.start();
+        String outcome = AttendanceMetrics.OUTCOME_ERROR;
+        int candidateCount = -1;
+        try {
+            List<FaceEmbeddingIndex.Candidate> candidates = faceEmbeddingIndex.search(inputEncoding, CANDIDATE_COUNT);
+            Optional<FaceEmbeddingIndex.Candidate> match = firstMatch(inputEncoding, candidates);
+            candidateCount = candidates.size();
+
+            if (match.isEmpty() && candidates.size() < faceEmbeddingIndex.size()) {
+                // Fallback: sisa encoding di luar top-k (yang sudah dicek dilewati)
+                List<FaceEmbeddingIndex.Candidate> rest = faceEmbeddingIndex.searchAll(inputEncoding).stream()
+                        .filter(candidate -> candidates.stream().noneMatch(checked ->
+                                checked.tipe() == candidate.tipe()
+                                        && checked.entityId().equals(candidate.entityId())))
+                        .toList();
+                match = firstMatch(inputEncoding, rest);
+                candidateCount += rest.size();
+            }
+
+            outcome = match.isPresent() ? AttendanceMetrics.OUTCOME_OK : AttendanceMetrics.OUTCOME_NOT_RECOGNIZED;
+            return match;
+        } finally {
+            attendanceMetrics.stopFaceMatch(sample, outcome, candidateCount);
+        }
+    }
+
+    private Optional<FaceEmbeddingIndex.Candidate> firstMatch(String inputEncoding,
+                                                              List<FaceEmbeddingIndex.Candidate> candidates) {
+        int matched = faceRecognitionService.findFirstMatch(
+                inputEncoding,
+                candidates.stream().map(FaceEmbeddingIndex.Candidate::encoding).toList()
+        );
+        return matched >= 0 ? Optional.of(candidates.get(matched)) : Optional.empty();
+    }
+
+    private Siswa findSiswa(FaceEmbeddingIndex.Candidate candidate) {
+        return siswaRepository.findById(candidate.entityId())
+                .orElseThrow(() -> {
+                    faceEmbeddingIndex.remove(TipeUser.SISWA, candidate.entityId());
+                    return new RuntimeException("Siswa ID " + candidate.entityId() + " tidak ditemukan");
+                });
+    }
+
+    private Guru findGuru(FaceEmbeddingIndex.Candidate candidate) {
+        return guruRepository.findById(candidate.entityId())
+                .orElseThrow(() -> {
+                    faceEmbeddingIndex.remove(TipeUser.GURU, candidate.entityId());
+                    return new RuntimeException("Guru ID " + candidate.entityId() + " tidak ditemukan");
+                });
+    }
 }
@@ -0,0 +1,61 @@
+package com.smk.presensi.controller;
+
+import com.smk.presensi.dto.presensi.GateBatchRequest;
+import com.smk.presensi.dto.presensi.GateScanResult;
+import com.smk.presensi.service.GateIngestionService;
+import com.smk.presensi.service.PresensiService;
+import jakarta.validation.Valid;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * CONTROLLER GATE - Bulk checkin dari gate RFID/barcode.
+ * 
+ * Base URL: /api/presensi/gate
+ * 
+ * Beda dengan RfidController/BarcodeController:
+ * - Satu request berisi banyak scan (gate mengumpulkan dulu, lalu kirim)
+ * - Jam presensi = jam device saat tap (scannedAt), maksimal presensi.gate.max-offline-minutes
+ *   yang lalu dan hari ini juga (scan lebih lama → INVALID)
+ * - Scan diproses oleh writer micro-batch (GateIngestionService),
+ *   thread request tidak ditahan selama menunggu database
+ * 
+ * Security: PUBLIC seperti endpoint RFID/barcode (hardware tidak bisa login).
+ */
+@RestController
+@RequestMapping("/api/presensi/gate")
+public class GateController {
+
+    private final GateIngestionService gateIngestionService;
+
+    public GateController(GateIngestionService gateIngestionService) {
+        this.gateIngestionService = gateIngestionService;
+    }
+
+    /**
+     * ENDPOINT: POST /api/presensi/gate/checkin
+     * 
+     * Request body: lihat GateBatchRequest
+     * 
+     * Response (200 OK): list GateScanResult, urutan sama dengan scans
+     * [
+     *   { "credential": "RF001234", "result": "ACCEPTED", "presensiId": 120,
+     *     "username": "budi", "tanggal": "2024-01-15", "status": "HADIR", "message": null },
+     *   { "credential": "BC999999", "result": "UNKNOWN_CREDENTIAL", ... }
+     * ]
+     * 
+     * Device cukup mengirim ulang scan dengan result REJECTED/ERROR
+     * (pakai idempotencyKey supaya retry aman).
+     */
+    @PostMapping("/checkin")
+    public CompletableFuture<ResponseEntity<List<GateScanResult>>> checkin(
+            @Valid @RequestBody GateBatchRequest request) {
+        List<PresensiService.GateScan> scans = request.scans().stream()
+                .map(scan -> new PresensiService.GateScan(request.deviceId(), scan))
+                .toList();
+        return gateIngestionService.submit(scans).thenApply(ResponseEntity::ok);
+    }
+}
@@ -1,5 +1,6 @@
 package com.smk.presensi.controller;
 
+import com.smk.presensi.dto.CursorPage;
 import com.smk.presensi.dto.jurnal.GuruJurnalRequest;
 import com.smk.presensi.dto.jurnal.GuruJurnalResponse;
 import com.smk.presensi.service.GuruJurnalService;
@@ -43,4 +44,17 @@ public class GuruJurnalController {
     ) {
         return guruJurnalService.list(guruId, startDate, endDate);
     }
+
+    @GetMapping("/page")
+    @PreAuthorize("hasAnyRole('ADMIN','GURU')")
+    public CursorPage<GuruJurnalResponse> page(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) Long guruId,
+            @RequestParam(required = false) Long kelasId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate
+    ) {
+        return guruJurnalService.page(cursor, size, guruId, kelasId, startDate, endDate);
+    }
 }
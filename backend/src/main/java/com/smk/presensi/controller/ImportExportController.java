@@ -1,12 +1,6 @@
 package com.smk.presensi.controller;
 
-import com.smk.presensi.dto.SiswaResponse;
-import com.smk.presensi.dto.pkl.DudiResponse;
-import com.smk.presensi.dto.GuruResponse;
-import com.smk.presensi.dto.KelasResponse;
-import com.smk.presensi.dto.JurusanResponse;
-import com.smk.presensi.dto.UserResponse;
-import com.smk.presensi.dto.presensi.PresensiResponse;
+import com.smk.presensi.service.AttendanceMetrics;
 import com.smk.presensi.service.DudiService;
 import com.smk.presensi.service.ExcelService;
 import com.smk.presensi.service.SiswaService;
@@ -15,7 +9,9 @@ import com.smk.presensi.service.KelasService;
 import com.smk.presensi.service.JurusanService;
 import com.smk.presensi.service.UserService;
 import com.smk.presensi.service.PresensiService;
+import io.micrometer.core.instrument.Timer;
 import org.springframework.core.io.InputStreamResource;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -23,10 +19,19 @@ import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.io.ByteArrayInputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
 import java.util.List;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 @RestController
 @RequestMapping("/api/export")
@@ -40,10 +45,12 @@ public class ImportExportController {
     private final JurusanService jurusanService;
     private final UserService userService;
     private final PresensiService presensiService;
+    private final AttendanceMetrics attendanceMetrics;
 
     public ImportExportController(ExcelService excelService, SiswaService siswaService, DudiService dudiService,
                                   GuruService guruService, KelasService kelasService, JurusanService jurusanService,
-                                  UserService userService, PresensiService presensiService) {
+                                  UserService userService, PresensiService presensiService,
+                                  AttendanceMetrics attendanceMetrics) {
         this.excelService = excelService;
         this.siswaService = siswaService;
         this.dudiService = dudiService;
@@ -52,13 +59,13 @@ public class ImportExportController {
         this.jurusanService = jurusanService;
         this.userService = userService;
         this.presensiService = presensiService;
+        this.attendanceMetrics = attendanceMetrics;
     }
 
     @GetMapping("/siswa")
     @PreAuthorize("hasAnyRole('ADMIN', 'KAPROG', 'WAKAKURIKULUM')")
     public ResponseEntity<InputStreamResource> exportSiswa() {
-        List<SiswaResponse> siswaList = siswaService.findAll();
-        ByteArrayInputStream in = excelService.exportSiswaToExcel(siswaList);
+        ByteArrayInputStream in = timedExport("siswa", siswaService::findAll, excelService::exportSiswaToExcel);
 
         HttpHeaders headers = new HttpHeaders();
         headers.add("Content-Disposition", "attachment; filename=siswa.xlsx");
@@ -72,8 +79,7 @@ public class ImportExportController {
     @GetMapping("/dudi")
     @PreAuthorize("hasAnyRole('ADMIN', 'WAKAHUBIN', 'GURU_PEMBIMBING')")
     public ResponseEntity<InputStreamResource> exportDudi() {
-        List<DudiResponse> dudiList = dudiService.findAll();
-        ByteArrayInputStream in = excelService.exportDudiToExcel(dudiList);
+        ByteArrayInputStream in = timedExport("dudi", dudiService::findAll, excelService::exportDudiToExcel);
 
         HttpHeaders headers = new HttpHeaders();
         headers.add("Content-Disposition", "attachment; filename=dudi.xlsx");
@@ -87,41 +93,74 @@ public class ImportExportController {
     @GetMapping("/guru")
     @PreAuthorize("hasAnyRole('ADMIN', 'WAKAKURIKULUM')")
     public ResponseEntity<InputStreamResource> exportGuru() {
-        List<GuruResponse> guruList = guruService.findAll();
-        ByteArrayInputStream in = excelService.exportGuruToExcel(guruList);
+        ByteArrayInputStream in = timedExport("guru", guruService::findAll, excelService::exportGuruToExcel);
         return createExcelResponse(in, "guru.xlsx");
     }
 
     @GetMapping("/kelas")
     @PreAuthorize("hasAnyRole('ADMIN', 'WAKAKURIKULUM')")
     public ResponseEntity<InputStreamResource> exportKelas() {
-        List<KelasResponse> kelasList = kelasService.findAll();
-        ByteArrayInputStream in = excelService.exportKelasToExcel(kelasList);
+        ByteArrayInputStream in = timedExport("kelas", kelasService::findAll, excelService::exportKelasToExcel);
         return createExcelResponse(in, "kelas.xlsx");
     }
 
     @GetMapping("/jurusan")
     @PreAuthorize("hasAnyRole('ADMIN', 'WAKAKURIKULUM')")
     public ResponseEntity<InputStreamResource> exportJurusan() {
-        List<JurusanResponse> jurusanList = jurusanService.findAll();
-        ByteArrayInputStream in = excelService.exportJurusanToExcel(jurusanList);
+        ByteArrayInputStream in = timedExport("jurusan", jurusanService::findAll, excelService::exportJurusanToExcel);
         return createExcelResponse(in, "jurusan.xlsx");
     }
 
     @GetMapping("/users")
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<InputStreamResource> exportUsers() {
-        List<UserResponse> userList = userService.findAll();
-        ByteArrayInputStream in = excelService.exportUserToExcel(userList);
+        ByteArrayInputStream in = timedExport("users", userService::findAll, excelService::exportUserToExcel);
         return createExcelResponse(in, "users.xlsx");
     }
 
+    /**
+     * Export presensi ke Excel (streaming).
+     *
+     * Data dibaca dari database per batch (cursor) dan ditulis langsung ke response,
+     * jadi export multi-tahun tidak menumpuk di memory server.
+     *
+     * Query Parameters (semua opsional):
+     * - startDate, endDate: rentang tanggal (default: semua data s/d hari ini)
+     * - kelasId: filter kelas
+     */
     @GetMapping("/presensi")
     @PreAuthorize("hasAnyRole('ADMIN', 'GURU_PIKET', 'WAKAKURIKULUM')")
-    public ResponseEntity<InputStreamResource> exportPresensi() {
-        List<PresensiResponse> presensiList = presensiService.findAll();
-        ByteArrayInputStream in = excelService.exportPresensiToExcel(presensiList);
-        return createExcelResponse(in, "presensi.xlsx");
+    public ResponseEntity<StreamingResponseBody> exportPresensi(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(required = false) Long kelasId
+    ) {
+        StreamingResponseBody body = out -> {
+            Timer.Sample sample = attendanceMetrics.start();
+            String outcome = AttendanceMetrics.OUTCOME_ERROR;
+            long[] rowCount = {0};
+            CountingOutputStream counted = new CountingOutputStream(out);
+            try {
+                presensiService.streamPresensi(startDate, endDate, kelasId, rows -> {
+                    try {
+                        excelService.writePresensiToExcel(rows.peek(row -> rowCount[0]++), counted);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                outcome = AttendanceMetrics.OUTCOME_OK;
+            } finally {
+                attendanceMetrics.stopExport(sample, "presensi", outcome, rowCount[0], counted.count);
+            }
+        };
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.add("Content-Disposition", "attachment; filename=presensi.xlsx");
+
+        return ResponseEntity.ok()
+                .headers(headers)
+                .contentType(MediaType.parseMediaType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet"))
+                .body(body);
     }
 
     @GetMapping("/template/{type}")
@@ -130,6 +169,28 @@ public class ImportExportController {
         return createExcelResponse(in, "template_" + type + ".xlsx");
     }
 
+    /**
+     * Ambil data lalu tulis ke Excel, dengan durasi, jumlah baris dan ukuran
+     * file dicatat ke presensi.export.* (export yang gagal tetap tercatat)
+     */
+    private <T> ByteArrayInputStream timedExport(String type, Supplier<List<T>> loader,
+                                                 Function<List<T>, ByteArrayInputStream> writer) {
+        Timer.Sample sample = attendanceMetrics.start();
+        String outcome = AttendanceMetrics.OUTCOME_ERROR;
+        long rows = -1;
+        long bytes = -1;
+        try {
+            List<T> data = loader.get();
+            rows = data.size();
+            ByteArrayInputStream in = writer.apply(data);
+            bytes = in.available();
+            outcome = AttendanceMetrics.OUTCOME_OK;
+            return in;
+        } finally {
+            attendanceMetrics.stopExport(sample, type, outcome, rows, bytes);
+        }
+    }
+
     private ResponseEntity<InputStreamResource> createExcelResponse(ByteArrayInputStream in, String filename) {
         HttpHeaders headers = new HttpHeaders();
         headers.add("Content-Disposition", "attachment; filename=" + filename);
@@ -139,4 +200,27 @@ public class ImportExportController {
                 .contentType(MediaType.parseMediaType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet"))
                 .body(new InputStreamResource(in));
     }
+
+    /**
+     * Hitung byte yang ditulis ke response (ukuran export streaming)
+     */
+    private static final class CountingOutputStream extends FilterOutputStream {
+        private long count;
+
+        CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+    }
 }
@@ -1,5 +1,6 @@
 package com.smk.presensi.controller;
 
+import com.smk.presensi.dto.CursorPage;
 import com.smk.presensi.dto.izin.IzinApprovalRequest;
 import com.smk.presensi.dto.izin.IzinRequest;
 import com.smk.presensi.dto.izin.IzinResponse;
@@ -90,6 +91,23 @@ public class IzinController {
         return izinService.getAll();
     }
 
+    /**
+     * Daftar izin per halaman (keyset, terbaru dulu) dengan filter status/siswaId/kelas.
+     *
+     * Access: ADMIN, GURU_PIKET, GURU_BK, WAKAKURIKULUM
+     */
+    @GetMapping("/page")
+    @PreAuthorize("hasAnyRole('ADMIN','GURU_PIKET','GURU_BK','WAKAKURIKULUM')")
+    public CursorPage<IzinResponse> getPage(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) Long siswaId,
+            @RequestParam(required = false) String kelas
+    ) {
+        return izinService.getPage(cursor, size, status, siswaId, kelas);
+    }
+
     /**
      * Approve / reject izin.
      *
@@ -1,5 +1,6 @@
 package com.smk.presensi.controller;
 
+import com.smk.presensi.dto.CursorPage;
 import com.smk.presensi.dto.jadwal.JadwalMengajarRequest;
 import com.smk.presensi.dto.jadwal.JadwalMengajarResponse;
 import com.smk.presensi.service.JadwalMengajarService;
@@ -10,6 +11,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.DayOfWeek;
 import java.time.LocalDate;
 import java.util.List;
 
@@ -33,6 +35,19 @@ public class JadwalMengajarController {
         return jadwalMengajarService.list(guruId, kelasId, tanggal);
     }
 
+    @GetMapping("/page")
+    @PreAuthorize("hasAnyRole('ADMIN','GURU')")
+    public CursorPage<JadwalMengajarResponse> page(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) Long guruId,
+            @RequestParam(required = false) Long kelasId,
+            @RequestParam(required = false) DayOfWeek hari,
+            @RequestParam(required = false) Boolean aktif
+    ) {
+        return jadwalMengajarService.page(cursor, size, guruId, kelasId, hari, aktif);
+    }
+
     @PostMapping
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<JadwalMengajarResponse> create(@Valid @RequestBody JadwalMengajarRequest request) {
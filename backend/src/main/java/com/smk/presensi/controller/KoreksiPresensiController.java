@@ -1,5 +1,6 @@
 package com.smk.presensi.controller;
 
+import com.smk.presensi.dto.CursorPage;
 import com.smk.presensi.dto.koreksi.KoreksiPresensiApprovalRequest;
 import com.smk.presensi.dto.koreksi.KoreksiPresensiRequest;
 import com.smk.presensi.dto.koreksi.KoreksiPresensiResponse;
@@ -82,4 +83,22 @@ public class KoreksiPresensiController {
         }
         return koreksiPresensiService.findAll(filter);
     }
+
+    /**
+     * Daftar koreksi per halaman (keyset, terbaru dulu) dengan filter status/username.
+     */
+    @GetMapping("/page")
+    @PreAuthorize("hasAnyRole('ADMIN','GURU_PIKET','GURU_BK','WAKAKURIKULUM','WAKAHUBIN')")
+    public CursorPage<KoreksiPresensiResponse> getPage(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(value = "status", required = false) String status,
+            @RequestParam(required = false) String username
+    ) {
+        KoreksiStatus filter = null;
+        if (status != null && !status.isBlank()) {
+            filter = KoreksiStatus.valueOf(status.toUpperCase());
+        }
+        return koreksiPresensiService.findPage(cursor, size, filter, username);
+    }
 }
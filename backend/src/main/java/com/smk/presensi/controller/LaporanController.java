@@ -5,8 +5,13 @@ import com.smk.presensi.dto.laporan.LaporanHarianResponse;
 import com.smk.presensi.dto.laporan.RekapSiswaPerJurusanResponse;
 import com.smk.presensi.dto.laporan.RekapSiswaPerKelasResponse;
 import com.smk.presensi.dto.laporan.StatistikResponse;
+import com.smk.presensi.dto.presensi.PresensiResponse;
+import com.smk.presensi.service.AttendanceMetrics;
 import com.smk.presensi.service.LaporanService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -25,9 +30,11 @@ import java.util.Map;
  * 
  * Endpoints:
  * - GET /api/laporan/harian?tanggal=2025-01-17 → Daily report
+ * - GET /api/laporan/harian/detail?tanggal=2025-01-17&page=0 → Daily list (paged)
  * - GET /api/laporan/bulanan?bulan=1&tahun=2025 → Monthly report
  * - GET /api/laporan/statistik → Overall statistics
  * - GET /api/laporan/statistik?start=2025-01-01&end=2025-01-31 → Period statistics
+ * - POST /api/laporan/rollup/rebuild?start=...&end=... → Rebuild rollup (ADMIN)
  * 
  * @author Copilot Assistant
  * @since Tahap 9 (Reporting & Analytics)
@@ -36,9 +43,15 @@ import java.util.Map;
 @RequestMapping("/api/laporan")
 public class LaporanController {
     
+    /** Batas ukuran halaman untuk endpoint detail */
+    private static final int MAX_PAGE_SIZE = 500;
+    
     @Autowired
     private LaporanService laporanService;
     
+    @Autowired
+    private AttendanceMetrics attendanceMetrics;
+    
     /**
      * GET /api/laporan/harian?tanggal=2025-01-17
      * Get daily report for specific date.
@@ -47,6 +60,7 @@ public class LaporanController {
      * 
      * Query Parameters:
      * - tanggal (optional): Date in format yyyy-MM-dd (default: today)
+     * - detail (optional): false = ringkasan saja, tanpa daftarPresensi (default: true)
      * 
      * Response:
      * {
@@ -69,14 +83,16 @@ public class LaporanController {
     public ResponseEntity<Map<String, Object>> getLaporanHarian(
             @RequestParam(required = false) 
             @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) 
-            LocalDate tanggal
+            LocalDate tanggal,
+            
+            @RequestParam(defaultValue = "true") 
+            boolean detail
     ) {
         // Default to today if no date provided
-        if (tanggal == null) {
-            tanggal = LocalDate.now();
-        }
+        LocalDate hari = tanggal != null ? tanggal : LocalDate.now();
         
-        LaporanHarianResponse laporan = laporanService.getLaporanHarian(tanggal);
+        LaporanHarianResponse laporan = attendanceMetrics.timeReport("harian",
+                () -> laporanService.getLaporanHarian(hari, detail));
         
         Map<String, Object> response = new HashMap<>();
         response.put("message", "Laporan harian berhasil diambil");
@@ -85,6 +101,58 @@ public class LaporanController {
         return ResponseEntity.ok(response);
     }
     
+    /**
+     * GET /api/laporan/harian/detail?tanggal=2025-01-17&page=0&size=50
+     * Daftar presensi satu tanggal, per halaman.
+     * 
+     * Access: ADMIN or GURU
+     * 
+     * Pasangan dari /harian?detail=false: ringkasan diambil sekali,
+     * daftar presensi di-load per halaman sesuai kebutuhan tabel UI.
+     * 
+     * Response:
+     * {
+     *   "message": "Detail presensi harian berhasil diambil",
+     *   "data": {
+     *     "content": [...],
+     *     "page": 0,
+     *     "size": 50,
+     *     "totalElements": 100,
+     *     "totalPages": 2
+     *   }
+     * }
+     */
+    @GetMapping("/harian/detail")
+    @PreAuthorize("hasAnyRole('ADMIN', 'GURU')")
+    public ResponseEntity<Map<String, Object>> getDetailHarian(
+            @RequestParam(required = false) 
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) 
+            LocalDate tanggal,
+            
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "50") int size
+    ) {
+        LocalDate hari = tanggal != null ? tanggal : LocalDate.now();
+        PageRequest pageRequest = PageRequest.of(Math.max(page, 0), Math.min(Math.max(size, 1), MAX_PAGE_SIZE),
+                Sort.by("id"));
+        
+        Page<PresensiResponse> hasil = attendanceMetrics.timeReport("harian_detail",
+                () -> laporanService.getDetailHarian(hari, pageRequest));
+        
+        Map<String, Object> data = new HashMap<>();
+        data.put("content", hasil.getContent());
+        data.put("page", hasil.getNumber());
+        data.put("size", hasil.getSize());
+        data.put("totalElements", hasil.getTotalElements());
+        data.put("totalPages", hasil.getTotalPages());
+        
+        Map<String, Object> response = new HashMap<>();
+        response.put("message", "Detail presensi harian berhasil diambil");
+        response.put("data", data);
+        
+        return ResponseEntity.ok(response);
+    }
+    
     /**
      * GET /api/laporan/bulanan?bulan=1&tahun=2025
      * Get monthly report (rekapitulasi).
@@ -125,21 +193,18 @@ public class LaporanController {
     ) {
         // Default to current month/year if not provided
         LocalDate now = LocalDate.now();
-        if (bulan == null) {
-            bulan = now.getMonthValue();
-        }
-        if (tahun == null) {
-            tahun = now.getYear();
-        }
+        int bulanLaporan = bulan != null ? bulan : now.getMonthValue();
+        int tahunLaporan = tahun != null ? tahun : now.getYear();
         
         // Validate month range
-        if (bulan < 1 || bulan > 12) {
+        if (bulanLaporan < 1 || bulanLaporan > 12) {
             Map<String, Object> errorResponse = new HashMap<>();
             errorResponse.put("message", "Bulan harus antara 1-12");
             return ResponseEntity.badRequest().body(errorResponse);
         }
         
-        LaporanBulananResponse laporan = laporanService.getLaporanBulanan(bulan, tahun);
+        LaporanBulananResponse laporan = attendanceMetrics.timeReport("bulanan",
+                () -> laporanService.getLaporanBulanan(bulanLaporan, tahunLaporan));
         
         Map<String, Object> response = new HashMap<>();
         response.put("message", "Laporan bulanan berhasil diambil");
@@ -195,7 +260,8 @@ public class LaporanController {
             @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) 
             LocalDate end
     ) {
-        StatistikResponse statistik = laporanService.getStatistik(start, end);
+        StatistikResponse statistik = attendanceMetrics.timeReport("statistik",
+                () -> laporanService.getStatistik(start, end));
         
         Map<String, Object> response = new HashMap<>();
         if (start != null && end != null) {
@@ -208,6 +274,42 @@ public class LaporanController {
         return ResponseEntity.ok(response);
     }
 
+    /**
+     * POST /api/laporan/rollup/rebuild?start=2025-01-01&end=2025-01-31
+     * Hitung ulang tabel rollup (presensi_daily_rollup) dari data presensi.
+     * 
+     * Access: ADMIN only
+     * 
+     * Laporan bulanan & statistik membaca tabel rollup. Normalnya rollup selalu
+     * sinkron otomatis; endpoint ini untuk memperbaiki jika data presensi
+     * diubah langsung di database.
+     */
+    @PostMapping("/rollup/rebuild")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> rebuildRollup(
+            @RequestParam 
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) 
+            LocalDate start,
+            
+            @RequestParam 
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) 
+            LocalDate end
+    ) {
+        if (start.isAfter(end)) {
+            Map<String, Object> error = new HashMap<>();
+            error.put("message", "start harus lebih kecil atau sama dengan end");
+            return ResponseEntity.badRequest().body(error);
+        }
+
+        int rows = laporanService.rebuildRollup(start, end);
+        
+        Map<String, Object> response = new HashMap<>();
+        response.put("message", "Rollup " + start + " hingga " + end + " berhasil di-rebuild");
+        response.put("data", Map.of("rows", rows));
+        
+        return ResponseEntity.ok(response);
+    }
+
     /**
      * GET /api/laporan/rekap-siswa/kelas
      * Rekap jumlah siswa per kelas.
@@ -217,7 +319,8 @@ public class LaporanController {
     @GetMapping("/rekap-siswa/kelas")
     @PreAuthorize("hasAnyRole('ADMIN', 'GURU')")
     public ResponseEntity<Map<String, Object>> getRekapSiswaPerKelas() {
-        List<RekapSiswaPerKelasResponse> data = laporanService.getRekapSiswaPerKelas();
+        List<RekapSiswaPerKelasResponse> data = attendanceMetrics.timeReport("rekap_kelas",
+                laporanService::getRekapSiswaPerKelas);
 
         Map<String, Object> response = new HashMap<>();
         response.put("message", "Rekap siswa per kelas berhasil diambil");
@@ -235,7 +338,8 @@ public class LaporanController {
     @GetMapping("/rekap-siswa/jurusan")
     @PreAuthorize("hasAnyRole('ADMIN', 'GURU')")
     public ResponseEntity<Map<String, Object>> getRekapSiswaPerJurusan() {
-        List<RekapSiswaPerJurusanResponse> data = laporanService.getRekapSiswaPerJurusan();
+        List<RekapSiswaPerJurusanResponse> data = attendanceMetrics.timeReport("rekap_jurusan",
+                laporanService::getRekapSiswaPerJurusan);
 
         Map<String, Object> response = new HashMap<>();
         response.put("message", "Rekap siswa per jurusan berhasil diambil");
@@ -277,7 +381,8 @@ public class LaporanController {
             return ResponseEntity.badRequest().body(error);
         }
 
-        var daftarPresensi = laporanService.getPresensiPeriode(startDate, endDate);
+        var daftarPresensi = attendanceMetrics.timeReport("periode",
+                () -> laporanService.getPresensiPeriode(startDate, endDate));
 
         Map<String, Object> data = new HashMap<>();
         data.put("startDate", startDate);
@@ -1,7 +1,10 @@
 package com.smk.presensi.controller;
 
+import com.smk.presensi.dto.lokasi.GeofenceBatchRequest;
+import com.smk.presensi.dto.lokasi.GeofenceCheckResult;
 import com.smk.presensi.dto.lokasi.LokasiKantorRequest;
 import com.smk.presensi.dto.lokasi.LokasiKantorResponse;
+import com.smk.presensi.service.GeolocationService;
 import com.smk.presensi.service.LokasiKantorService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -28,6 +31,7 @@ import java.util.Map;
  * - PUT /api/lokasi-kantor/{id} → Update existing
  * - DELETE /api/lokasi-kantor/{id} → Delete location
  * - POST /api/lokasi-kantor/{id}/activate → Set as active
+ * - POST /api/lokasi-kantor/validate → Validasi geofence batch
  * 
  * @author Copilot Assistant
  * @since Tahap 8 (Geolocation Validation)
@@ -39,6 +43,9 @@ public class LokasiKantorController {
     @Autowired
     private LokasiKantorService lokasiKantorService;
     
+    @Autowired
+    private GeolocationService geolocationService;
+    
     /**
      * GET /api/lokasi-kantor
      * List all locations (active and inactive).
@@ -225,8 +232,9 @@ public class LokasiKantorController {
      * Access: ADMIN only
      * 
      * Business rule:
-     * - Only 1 location can be active at a time
-     * - GPS validation will use this active location
+     * - Default: only 1 location active at a time (others deactivated)
+     * - ?exclusive=false: keep other locations active (multi-kampus)
+     * - GPS validation accepts any active location
      * 
      * Response:
      * {
@@ -236,8 +244,11 @@ public class LokasiKantorController {
      */
     @PostMapping("/{id}/activate")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<Map<String, Object>> activate(@PathVariable Long id) {
-        LokasiKantorResponse activated = lokasiKantorService.activate(id);
+    public ResponseEntity<Map<String, Object>> activate(
+            @PathVariable Long id,
+            @RequestParam(defaultValue = "true") boolean exclusive
+    ) {
+        LokasiKantorResponse activated = lokasiKantorService.activate(id, exclusive);
         
         Map<String, Object> response = new HashMap<>();
         response.put("message", "Lokasi '" + activated.nama() + "' berhasil diaktifkan");
@@ -245,4 +256,36 @@ public class LokasiKantorController {
         
         return ResponseEntity.ok(response);
     }
+    
+    /**
+     * POST /api/lokasi-kantor/validate
+     * Validasi banyak titik GPS sekaligus terhadap semua lokasi aktif
+     * (kampus + tempat PKL siswa jika userId diisi).
+     * 
+     * Access: ADMIN only
+     * 
+     * Request Body:
+     * {
+     *   "points": [
+     *     { "userId": 12, "latitude": -6.200100, "longitude": 106.816700 }
+     *   ]
+     * }
+     * 
+     * Response:
+     * {
+     *   "message": "Validasi 1 titik selesai",
+     *   "data": [ { "allowed": true, "siteType": "SEKOLAH", "siteNama": "SMK Campus A", "jarakMeter": 12, ... } ]
+     * }
+     */
+    @PostMapping("/validate")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> validate(@Valid @RequestBody GeofenceBatchRequest request) {
+        List<GeofenceCheckResult> results = geolocationService.validateBatch(request.points());
+        
+        Map<String, Object> response = new HashMap<>();
+        response.put("message", "Validasi " + results.size() + " titik selesai");
+        response.put("data", results);
+        
+        return ResponseEntity.ok(response);
+    }
 }
@@ -1,8 +1,13 @@
 package com.smk.presensi.controller;
 
+import com.smk.presensi.dto.CursorPage;
 import com.smk.presensi.dto.presensi.CheckinRequest;
 import com.smk.presensi.dto.presensi.CheckoutRequest;
 import com.smk.presensi.dto.presensi.PresensiResponse;
+import com.smk.presensi.enums.MethodPresensi;
+import com.smk.presensi.enums.StatusPresensi;
+import com.smk.presensi.enums.TipeUser;
+import com.smk.presensi.service.AttendanceMetrics;
 import com.smk.presensi.service.PresensiService;
 import jakarta.validation.Valid;
 import org.springframework.format.annotation.DateTimeFormat;
@@ -28,9 +33,11 @@ import java.util.List;
 public class PresensiController {
 
     private final PresensiService presensiService;
+    private final AttendanceMetrics attendanceMetrics;
 
-    public PresensiController(PresensiService presensiService) {
+    public PresensiController(PresensiService presensiService, AttendanceMetrics attendanceMetrics) {
         this.presensiService = presensiService;
+        this.attendanceMetrics = attendanceMetrics;
     }
 
     /**
@@ -43,7 +50,8 @@ public class PresensiController {
     @PreAuthorize("hasAnyRole('SISWA', 'GURU')")
     public ResponseEntity<PresensiResponse> checkin(@RequestBody @Valid CheckinRequest request) {
         return ResponseEntity.status(HttpStatus.CREATED)
-                .body(presensiService.checkin(request));
+                .body(attendanceMetrics.timeCheckin(MethodPresensi.MANUAL,
+                        () -> presensiService.checkin(request)));
     }
 
     /**
@@ -87,6 +95,28 @@ public class PresensiController {
         return presensiService.getAllPresensi(tanggal);
     }
 
+    /**
+     * PAGE PRESENSI - Daftar presensi per halaman (keyset), terbaru dulu.
+     * 
+     * Access: ADMIN, GURU
+     * URL: GET /api/presensi/page?size=50&status=TERLAMBAT&tipe=SISWA&kelasId=3&username=bud
+     * Halaman berikutnya: tambahkan &cursor={nextCursor dari response sebelumnya}
+     */
+    @GetMapping("/page")
+    @PreAuthorize("hasAnyRole('ADMIN', 'GURU')")
+    public CursorPage<PresensiResponse> getPresensiPage(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(required = false) StatusPresensi status,
+            @RequestParam(required = false) TipeUser tipe,
+            @RequestParam(required = false) Long kelasId,
+            @RequestParam(required = false) String username
+    ) {
+        return presensiService.getPresensiPage(cursor, size, startDate, endDate, status, tipe, kelasId, username);
+    }
+
     /**
      * GET WORK HOURS - Hitung jam kerja dari presensi ID.
      * 
@@ -2,6 +2,8 @@ package com.smk.presensi.controller;
 
 import com.smk.presensi.dto.presensi.PresensiResponse;
 import com.smk.presensi.dto.presensi.RfidCheckinRequest;
+import com.smk.presensi.enums.MethodPresensi;
+import com.smk.presensi.service.AttendanceMetrics;
 import com.smk.presensi.service.PresensiService;
 import jakarta.validation.Valid;
 import org.springframework.http.ResponseEntity;
@@ -31,9 +33,11 @@ import org.springframework.web.bind.annotation.*;
 public class RfidController {
 
     private final PresensiService presensiService;
+    private final AttendanceMetrics attendanceMetrics;
 
-    public RfidController(PresensiService presensiService) {
+    public RfidController(PresensiService presensiService, AttendanceMetrics attendanceMetrics) {
         this.presensiService = presensiService;
+        this.attendanceMetrics = attendanceMetrics;
     }
 
     /**
@@ -92,7 +96,8 @@ public class RfidController {
      */
     @PostMapping("/checkin")
     public ResponseEntity<PresensiResponse> checkinRfid(@Valid @RequestBody RfidCheckinRequest request) {
-        PresensiResponse response = presensiService.checkinRfid(request);
+        PresensiResponse response = attendanceMetrics.timeCheckin(MethodPresensi.RFID,
+                () -> presensiService.checkinRfid(request));
         return ResponseEntity.ok(response);
     }
     
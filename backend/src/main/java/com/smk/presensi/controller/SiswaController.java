@@ -1,5 +1,6 @@
 package com.smk.presensi.controller;
 
+import com.smk.presensi.dto.CursorPage;
 import com.smk.presensi.dto.SiswaRequest;
 import com.smk.presensi.dto.SiswaResponse;
 import com.smk.presensi.service.SiswaService;
@@ -128,6 +129,36 @@ public class SiswaController {
         return siswaService.findAll();
     }
 
+    /**
+     * ENDPOINT 1b: GET PAGE - Ambil siswa per halaman (keyset pagination).
+     * 
+     * HTTP Method: GET
+     * URL: GET /api/siswa/page?size=50&kelas=XII RPL 1&nama=bud
+     * 
+     * Response:
+     * {
+     *   "items": [ {siswa}, {siswa}, ... ],
+     *   "nextCursor": "NTA",
+     *   "hasMore": true
+     * }
+     * 
+     * Halaman berikutnya: GET /api/siswa/page?cursor=NTA (filter yang sama)
+     * 
+     * Kenapa endpoint baru?
+     * - GET /api/siswa tetap return JSON array (client lama tidak rusak)
+     * - Client baru pakai /page supaya response tetap kecil walau siswa ribuan
+     */
+    @GetMapping("/page")
+    @PreAuthorize("hasAnyRole('ADMIN', 'GURU')")
+    public CursorPage<SiswaResponse> getPage(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) String kelas,
+            @RequestParam(required = false) String nama
+    ) {
+        return siswaService.findPage(cursor, size, kelas, nama);
+    }
+
     /**
      * ENDPOINT 2: GET BY ID - Ambil 1 siswa berdasarkan ID.
      * 
@@ -0,0 +1,50 @@
+package com.smk.presensi.controller;
+
+import com.smk.presensi.dto.sync.SyncChangesResponse;
+import com.smk.presensi.enums.SyncEntityType;
+import com.smk.presensi.service.ChangeFeedService;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Set;
+
+/**
+ * CONTROLLER SYNC - Change feed untuk sync incremental client.
+ *
+ * Base URL: /api/sync
+ */
+@RestController
+@RequestMapping("/api/sync")
+public class SyncController {
+
+    private static final int MAX_LIMIT = 2000;
+
+    private final ChangeFeedService changeFeedService;
+
+    public SyncController(ChangeFeedService changeFeedService) {
+        this.changeFeedService = changeFeedService;
+    }
+
+    /**
+     * ENDPOINT: GET /api/sync/changes?since=0&limit=500&types=PRESENSI,IZIN
+     *
+     * - since : nextCursor dari response sebelumnya (0 = sync awal)
+     * - limit : maksimal perubahan per halaman (1-2000, default 500)
+     * - types : entity yang diminta (default semua)
+     *
+     * Response: { changes: [...], nextCursor, hasMore }
+     * Setiap change: UPSERT membawa data terbaru, DELETE hanya id.
+     */
+    @GetMapping("/changes")
+    @PreAuthorize("hasAnyRole('ADMIN','GURU','GURU_PIKET','GURU_BK','WAKAKURIKULUM','WAKAHUBIN','KAPROG')")
+    public SyncChangesResponse changes(
+            @RequestParam(defaultValue = "0") long since,
+            @RequestParam(defaultValue = "500") int limit,
+            @RequestParam(required = false) Set<SyncEntityType> types) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_LIMIT));
+        return changeFeedService.getChanges(Math.max(0, since), pageSize, types);
+    }
+}
@@ -1,5 +1,6 @@
 package com.smk.presensi.controller;
 
+import com.smk.presensi.dto.CursorPage;
 import com.smk.presensi.dto.UserRequest;
 import com.smk.presensi.dto.UserResponse;
 import com.smk.presensi.service.UserService;
@@ -39,6 +40,20 @@ public class UserController {
         return userService.findAll();
     }
     
+    /**
+     * GET /api/users/page?size=50&username=adm&cursor=...
+     * Get users page by page (keyset by id)
+     */
+    @GetMapping("/page")
+    @PreAuthorize("hasRole('ADMIN')")
+    public CursorPage<UserResponse> getUsersPage(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) String username
+    ) {
+        return userService.findPage(cursor, size, username);
+    }
+    
     /**
      * GET /api/users/{id}
      * Get user by ID
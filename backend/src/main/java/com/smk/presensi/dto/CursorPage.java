@@ -0,0 +1,38 @@
+package com.smk.presensi.dto;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Generic DTO untuk satu halaman hasil KEYSET PAGINATION.
+ *
+ * Contoh response:
+ * {
+ *   "items": [ ... ],
+ *   "nextCursor": "MjAyNC0wMS0zMV8xMjM",
+ *   "hasMore": true
+ * }
+ *
+ * Halaman berikutnya: kirim nextCursor sebagai ?cursor=...
+ * Jika hasMore = false, nextCursor = null (sudah halaman terakhir).
+ */
+public record CursorPage<T>(
+        List<T> items,
+        String nextCursor,
+        boolean hasMore
+) {
+
+    /**
+     * Bangun halaman dari hasil query yang mengambil limit + 1 baris.
+     *
+     * @param rows     Hasil query (maksimal limit + 1)
+     * @param limit    Ukuran halaman
+     * @param cursorOf Cara membuat cursor dari item terakhir
+     */
+    public static <T> CursorPage<T> of(List<T> rows, int limit, Function<T, String> cursorOf) {
+        boolean hasMore = rows.size() > limit;
+        List<T> items = hasMore ? rows.subList(0, limit) : rows;
+        String nextCursor = hasMore ? cursorOf.apply(items.get(items.size() - 1)) : null;
+        return new CursorPage<>(List.copyOf(items), nextCursor, hasMore);
+    }
+}
@@ -0,0 +1,25 @@
+package com.smk.presensi.dto.lokasi;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+/**
+ * Request validasi geofence untuk banyak titik sekaligus.
+ * 
+ * Contoh:
+ * {
+ *   "points": [
+ *     { "userId": 12, "latitude": -6.200100, "longitude": 106.816700 },
+ *     { "latitude": -6.250000, "longitude": 106.900000 }
+ *   ]
+ * }
+ */
+public record GeofenceBatchRequest(
+        @NotEmpty(message = "Points tidak boleh kosong")
+        @Size(max = 1000, message = "Maksimal 1000 titik per request")
+        List<@Valid GeofencePointRequest> points
+) {
+}
@@ -0,0 +1,26 @@
+package com.smk.presensi.dto.lokasi;
+
+import com.smk.presensi.enums.GeofenceSiteType;
+
+/**
+ * Hasil validasi geofence satu titik.
+ * 
+ * @param allowed     true jika di dalam lokasi yang sah (atau belum ada lokasi dikonfigurasi)
+ * @param siteType    SEKOLAH / DUDI (lokasi yang cocok, atau terdekat jika tidak allowed)
+ * @param siteId      ID LokasiKantor atau Dudi
+ * @param siteNama    Nama lokasi
+ * @param jarakMeter  Jarak ke lokasi tersebut (dibulatkan)
+ * @param radiusMeter Radius validasi lokasi tersebut
+ */
+public record GeofenceCheckResult(
+        Long userId,
+        Double latitude,
+        Double longitude,
+        boolean allowed,
+        GeofenceSiteType siteType,
+        Long siteId,
+        String siteNama,
+        Long jarakMeter,
+        Integer radiusMeter
+) {
+}
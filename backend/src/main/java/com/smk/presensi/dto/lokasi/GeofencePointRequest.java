@@ -0,0 +1,21 @@
+package com.smk.presensi.dto.lokasi;
+
+import jakarta.validation.constraints.NotNull;
+
+/**
+ * Satu titik GPS untuk validasi geofence batch.
+ * 
+ * @param userId    User pemilik titik (opsional). Jika diisi, tempat PKL siswa ikut dicek.
+ * @param latitude  Latitude (derajat)
+ * @param longitude Longitude (derajat)
+ */
+public record GeofencePointRequest(
+        Long userId,
+
+        @NotNull(message = "Latitude wajib diisi")
+        Double latitude,
+
+        @NotNull(message = "Longitude wajib diisi")
+        Double longitude
+) {
+}
@@ -0,0 +1,25 @@
+package com.smk.presensi.dto.presensi;
+
+import com.smk.presensi.enums.StatusPresensi;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+/**
+ * DTO counter berjalan presensi satu hari (semua siswa + guru).
+ *
+ * Dikirim bersama setiap event live, jadi dashboard tidak perlu
+ * memanggil ulang endpoint laporan untuk angka ringkasan.
+ *
+ * @param tanggal     Tanggal yang dihitung (hari ini)
+ * @param total       Jumlah presensi tercatat
+ * @param sudahPulang Jumlah yang sudah checkout
+ * @param perStatus   Jumlah per status (HADIR, TERLAMBAT, ...)
+ */
+public record AttendanceCounters(
+        LocalDate tanggal,
+        long total,
+        long sudahPulang,
+        Map<StatusPresensi, Long> perStatus
+) {
+}
@@ -0,0 +1,58 @@
+package com.smk.presensi.dto.presensi;
+
+import com.smk.presensi.enums.AttendanceEventType;
+import com.smk.presensi.enums.MethodPresensi;
+import com.smk.presensi.enums.TipeUser;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+
+/**
+ * DTO event live presensi (isi "data:" di stream SSE).
+ *
+ * Sengaja ringkas: dashboard cukup tahu siapa, kapan, dan status apa.
+ * Detail lengkap tetap diambil lewat endpoint REST jika dibutuhkan.
+ *
+ * @param id         Nomor urut event (= SSE id, dipakai untuk resume)
+ * @param type       CHECKIN, CHECKOUT, UPDATE, DELETE, KOREKSI, IZIN
+ * @param at         Waktu event di server
+ * @param presensiId ID presensi (null untuk koreksi tanpa presensi)
+ * @param koreksiId  ID koreksi (hanya untuk KOREKSI)
+ * @param izinId     ID izin (hanya untuk IZIN)
+ * @param userId     User pemilik presensi/koreksi/izin
+ * @param username   Username pemilik
+ * @param nama       Nama siswa (null jika bukan siswa)
+ * @param tipe       SISWA/GURU
+ * @param tanggal    Tanggal presensi
+ * @param jamMasuk   Jam masuk
+ * @param jamPulang  Jam pulang
+ * @param status     Status presensi, atau status koreksi/izin untuk KOREKSI/IZIN
+ * @param method     Metode presensi (MANUAL, RFID, ...)
+ * @param keterangan Keterangan presensi
+ * @param kelas      Kelas siswa (topik filter)
+ * @param jurusan    Jurusan siswa (topik filter)
+ * @param counters   Counter hari ini setelah event diterapkan
+ */
+public record AttendanceEvent(
+        long id,
+        AttendanceEventType type,
+        LocalDateTime at,
+        Long presensiId,
+        Long koreksiId,
+        Long izinId,
+        Long userId,
+        String username,
+        String nama,
+        TipeUser tipe,
+        LocalDate tanggal,
+        LocalTime jamMasuk,
+        LocalTime jamPulang,
+        String status,
+        MethodPresensi method,
+        String keterangan,
+        String kelas,
+        String jurusan,
+        AttendanceCounters counters
+) {
+}
@@ -1,6 +1,7 @@
 package com.smk.presensi.dto.presensi;
 
 import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
 
 /**
  * DTO untuk request checkin via Barcode/QR Code.
@@ -33,5 +34,16 @@ public record BarcodeCheckinRequest(
      * @NotBlank: Wajib diisi, tidak boleh kosong
      */
     @NotBlank(message = "Barcode ID harus diisi")
-    String barcodeId
+    String barcodeId,
+
+    /**
+     * Idempotency key (opsional) - ID unik per tap dari Scanner.
+     * 
+     * Jika request dikirim ulang (timeout, retry jaringan) dengan key yang sama,
+     * backend mengembalikan presensi yang sudah tercatat, bukan error duplikat.
+     * 
+     * Contoh: UUID "3f2b9c1e-8a4d-4e0f-9b7a-1c2d3e4f5a6b"
+     */
+    @Size(max = 64, message = "Idempotency key maksimal 64 karakter")
+    String idempotencyKey
 ) {}
@@ -0,0 +1,31 @@
+package com.smk.presensi.dto.presensi;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+/**
+ * DTO untuk request bulk checkin dari gate (RFID/barcode).
+ * 
+ * Contoh:
+ * {
+ *   "deviceId": "GATE-01",
+ *   "scans": [
+ *     { "method": "RFID", "credential": "RF001234", "scannedAt": "2024-01-15T06:58:12" },
+ *     { "method": "BARCODE", "credential": "BC123456", "scannedAt": "2024-01-15T06:58:13" }
+ *   ]
+ * }
+ */
+public record GateBatchRequest(
+    /**
+     * ID gate/device pengirim (untuk keterangan presensi).
+     */
+    @Size(max = 50, message = "Device ID maksimal 50 karakter")
+    String deviceId,
+
+    @NotEmpty(message = "Scans tidak boleh kosong")
+    @Size(max = 1000, message = "Maksimal 1000 scan per request")
+    List<@Valid GateScanRequest> scans
+) {}
@@ -0,0 +1,43 @@
+package com.smk.presensi.dto.presensi;
+
+import com.smk.presensi.enums.MethodPresensi;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.time.LocalDateTime;
+
+/**
+ * DTO untuk satu scan dari gate (bagian dari GateBatchRequest).
+ * 
+ * Beda dengan RfidCheckinRequest/BarcodeCheckinRequest:
+ * - Gate mengumpulkan beberapa scan lalu kirim sekaligus
+ * - Jam presensi = jam di DEVICE saat kartu di-tap (scannedAt),
+ *   bukan jam server saat request diterima
+ */
+public record GateScanRequest(
+    /**
+     * Jenis kredensial: RFID atau BARCODE.
+     */
+    @NotNull(message = "Method harus diisi")
+    MethodPresensi method,
+
+    /**
+     * ID kartu RFID atau barcode (sesuai method).
+     */
+    @NotBlank(message = "Credential harus diisi")
+    String credential,
+
+    /**
+     * Waktu scan di device (format ISO: "2024-01-15T07:05:30").
+     * Harus hari ini dan tidak lebih lama dari presensi.gate.max-offline-minutes.
+     */
+    @NotNull(message = "Waktu scan harus diisi")
+    LocalDateTime scannedAt,
+
+    /**
+     * Idempotency key (opsional), sama seperti di RfidCheckinRequest.
+     */
+    @Size(max = 64, message = "Idempotency key maksimal 64 karakter")
+    String idempotencyKey
+) {}
@@ -0,0 +1,33 @@
+package com.smk.presensi.dto.presensi;
+
+import com.smk.presensi.enums.GateScanStatus;
+import com.smk.presensi.enums.StatusPresensi;
+
+import java.time.LocalDate;
+
+/**
+ * DTO hasil per scan. Urutan list response = urutan scans di request.
+ * 
+ * @param credential    ID kartu/barcode yang di-scan
+ * @param result        ACCEPTED, DUPLICATE, UNKNOWN_CREDENTIAL, ...
+ * @param presensiId    ID presensi (jika ACCEPTED)
+ * @param username      Pemilik kartu (jika dikenal)
+ * @param tanggal       Tanggal presensi (dari scannedAt)
+ * @param status        HADIR/TERLAMBAT (jika ACCEPTED)
+ * @param message       Keterangan error (jika tidak ACCEPTED)
+ */
+public record GateScanResult(
+        String credential,
+        GateScanStatus result,
+        Long presensiId,
+        String username,
+        LocalDate tanggal,
+        StatusPresensi status,
+        String message
+) {
+
+    public static GateScanResult gagal(GateScanRequest scan, GateScanStatus result, String message) {
+        return new GateScanResult(scan.credential(), result, null, null,
+                scan.scannedAt() != null ? scan.scannedAt().toLocalDate() : null, null, message);
+    }
+}
@@ -0,0 +1,23 @@
+package com.smk.presensi.dto.presensi;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+/**
+ * DTO untuk satu presensi offline (bagian dari PresensiSyncRequest).
+ *
+ * @param idempotencyKey Key unik buatan client (UUID), tetap sama saat dikirim ulang
+ * @param presensi       Data presensi, sama seperti POST /api/admin/presensi
+ */
+public record PresensiSyncItem(
+        @NotBlank(message = "Idempotency key harus diisi")
+        @Size(max = 64, message = "Idempotency key maksimal 64 karakter")
+        String idempotencyKey,
+
+        @NotNull(message = "Data presensi harus diisi")
+        @Valid
+        AdminPresensiRequest presensi
+) {
+}
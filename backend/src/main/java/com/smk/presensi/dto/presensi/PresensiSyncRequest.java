@@ -0,0 +1,24 @@
+package com.smk.presensi.dto.presensi;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+/**
+ * DTO untuk upload presensi offline secara bulk (desktop sync).
+ *
+ * Contoh:
+ * {
+ *   "items": [
+ *     { "idempotencyKey": "3f0c...", "presensi": { "userId": 12, "tipe": "SISWA", "tanggal": "2024-01-15", ... } }
+ *   ]
+ * }
+ */
+public record PresensiSyncRequest(
+        @NotEmpty(message = "Items tidak boleh kosong")
+        @Size(max = 500, message = "Maksimal 500 presensi per request")
+        List<@Valid PresensiSyncItem> items
+) {
+}
@@ -0,0 +1,25 @@
+package com.smk.presensi.dto.presensi;
+
+import com.smk.presensi.enums.SyncItemStatus;
+
+/**
+ * DTO hasil per item bulk sync. Urutan list response = urutan items di request.
+ *
+ * @param idempotencyKey Key dari request
+ * @param result         CREATED, ALREADY_SYNCED, CONFLICT, INVALID, ERROR
+ * @param presensiId     ID presensi di server (CREATED/ALREADY_SYNCED)
+ * @param existing       Presensi yang sudah ada di server (CONFLICT)
+ * @param message        Keterangan (CONFLICT/INVALID/ERROR)
+ */
+public record PresensiSyncResult(
+        String idempotencyKey,
+        SyncItemStatus result,
+        Long presensiId,
+        PresensiResponse existing,
+        String message
+) {
+
+    public static PresensiSyncResult gagal(PresensiSyncItem item, SyncItemStatus result, String message) {
+        return new PresensiSyncResult(item.idempotencyKey(), result, null, null, message);
+    }
+}
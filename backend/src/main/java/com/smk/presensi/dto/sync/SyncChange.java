@@ -0,0 +1,22 @@
+package com.smk.presensi.dto.sync;
+
+import com.smk.presensi.enums.SyncEntityType;
+import com.smk.presensi.enums.SyncOperation;
+
+/**
+ * DTO satu perubahan di change feed.
+ *
+ * @param version Nomor versi global (urutan perubahan)
+ * @param entity  PRESENSI, SISWA, GURU, KELAS, IZIN, KOREKSI
+ * @param op      UPSERT (data = response terbaru entity) atau DELETE (data = null)
+ * @param id      ID entity
+ * @param data    Sama dengan response endpoint entity tersebut (PresensiResponse, SiswaResponse, ...)
+ */
+public record SyncChange(
+        long version,
+        SyncEntityType entity,
+        SyncOperation op,
+        Long id,
+        Object data
+) {
+}
@@ -0,0 +1,23 @@
+package com.smk.presensi.dto.sync;
+
+import java.util.List;
+
+/**
+ * DTO response GET /api/sync/changes.
+ *
+ * Contoh:
+ * {
+ *   "changes": [ { "version": 1201, "entity": "PRESENSI", "op": "UPSERT", "id": 55, "data": {...} } ],
+ *   "nextCursor": 1201,
+ *   "hasMore": false
+ * }
+ *
+ * Request berikutnya: ?since=nextCursor. Simpan nextCursor walaupun changes kosong.
+ * hasMore = true → langsung ambil halaman berikutnya.
+ */
+public record SyncChangesResponse(
+        List<SyncChange> changes,
+        long nextCursor,
+        boolean hasMore
+) {
+}
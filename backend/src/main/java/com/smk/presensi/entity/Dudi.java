@@ -1,5 +1,6 @@
 package com.smk.presensi.entity;
 
+import com.smk.presensi.entity.listener.GeofenceEntityListener;
 import jakarta.persistence.*;
 
 /**
@@ -15,6 +16,7 @@ import jakarta.persistence.*;
  */
 @Entity
 @Table(name = "dudi")
+@EntityListeners(GeofenceEntityListener.class)  // Koordinat DUDI dipakai GeofenceIndex
 public class Dudi {
 
     @Id
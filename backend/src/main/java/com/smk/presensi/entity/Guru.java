@@ -1,6 +1,8 @@
 package com.smk.presensi.entity;
 
 // Import anotasi JPA untuk database mapping
+import com.smk.presensi.entity.listener.IdentityEntityListener;
+import com.smk.presensi.entity.listener.RowVersionEntityListener;
 import jakarta.persistence.*;
 
 /**
@@ -16,8 +18,9 @@ import jakarta.persistence.*;
  * - Siswa punya kelas & jurusan
  */
 @Entity  // Menandai kelas ini sebagai entity (tabel database)
-@Table(name = "guru")  // Nama tabel di database = "guru"
-public class Guru {
+@Table(name = "guru", indexes = @Index(name = "idx_guru_row_version", columnList = "row_version"))  // Nama tabel di database = "guru"
+@EntityListeners({IdentityEntityListener.class, RowVersionEntityListener.class})  // Sinkronkan cache kartu & wajah setelah save/delete
+public class Guru implements RowVersioned {
 
     /**
      * ID - Primary Key (kunci utama)
@@ -27,6 +30,12 @@ public class Guru {
     @GeneratedValue(strategy = GenerationType.IDENTITY)  // Auto increment
     private Long id;
 
+    /**
+     * Versi baris untuk change feed (diisi RowVersionEntityListener setiap INSERT/UPDATE).
+     */
+    @Column(name = "row_version")
+    private Long rowVersion;
+
     /**
      * NIP - Nomor Induk Pegawai
      * Wajib diisi dan harus unik (tidak boleh ada guru dengan NIP sama)
@@ -197,4 +206,14 @@ public class Guru {
     public void setUser(User user) {
         this.user = user;
     }
+
+    @Override
+    public Long getRowVersion() {
+        return rowVersion;
+    }
+
+    @Override
+    public void setRowVersion(Long rowVersion) {
+        this.rowVersion = rowVersion;
+    }
 }
@@ -1,5 +1,7 @@
 package com.smk.presensi.entity;
 
+import com.smk.presensi.entity.listener.IzinEntityListener;
+import com.smk.presensi.entity.listener.RowVersionEntityListener;
 import com.smk.presensi.enums.IzinJenis;
 import com.smk.presensi.enums.IzinStatus;
 import jakarta.persistence.*;
@@ -23,13 +25,20 @@ import java.time.LocalDateTime;
  * - approvedBy (opsional, user yang menyetujui)
  */
 @Entity
-@Table(name = "izin")
-public class Izin {
+@Table(name = "izin", indexes = @Index(name = "idx_izin_row_version", columnList = "row_version"))
+@EntityListeners({IzinEntityListener.class, RowVersionEntityListener.class})
+public class Izin implements RowVersioned {
 
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
+    /**
+     * Versi baris untuk change feed (diisi RowVersionEntityListener setiap INSERT/UPDATE).
+     */
+    @Column(name = "row_version")
+    private Long rowVersion;
+
     @ManyToOne(optional = false)
     @JoinColumn(name = "siswa_id", nullable = false)
     private Siswa siswa;
@@ -151,5 +160,14 @@ public class Izin {
     public void setUpdatedAt(LocalDateTime updatedAt) {
         this.updatedAt = updatedAt;
     }
-}
 
+    @Override
+    public Long getRowVersion() {
+        return rowVersion;
+    }
+
+    @Override
+    public void setRowVersion(Long rowVersion) {
+        this.rowVersion = rowVersion;
+    }
+}
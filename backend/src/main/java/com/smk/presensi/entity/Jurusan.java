@@ -1,9 +1,15 @@
 package com.smk.presensi.entity;
 
+import com.smk.presensi.entity.listener.ResourceVersionEntityListener;
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 @Entity
 @Table(name = "jurusan")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@EntityListeners(ResourceVersionEntityListener.class)
 public class Jurusan {
 
     @Id
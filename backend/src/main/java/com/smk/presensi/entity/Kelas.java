@@ -1,7 +1,12 @@
 package com.smk.presensi.entity;
 
+import com.smk.presensi.entity.listener.ResourceVersionEntityListener;
+import com.smk.presensi.entity.listener.RowVersionEntityListener;
+
 // Import anotasi JPA untuk database mapping
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 /**
  * ENTITY KELAS - Representasi tabel KELAS di database
@@ -16,8 +21,11 @@ import jakarta.persistence.*;
  * - Wali kelas (ID guru yang jadi wali kelas)
  */
 @Entity  // Menandai kelas ini sebagai entity (tabel database)
-@Table(name = "kelas")  // Nama tabel di database = "kelas"
-public class Kelas {
+@Table(name = "kelas", indexes = @Index(name = "idx_kelas_row_version", columnList = "row_version"))  // Nama tabel di database = "kelas"
+@Cacheable  // Data referensi: disimpan di second-level cache (jarang berubah, sering dibaca)
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)  // Update lewat JPA otomatis menyegarkan cache
+@EntityListeners({RowVersionEntityListener.class, ResourceVersionEntityListener.class})  // Versi baris (change feed) & ETag
+public class Kelas implements RowVersioned {
 
     /**
      * ID - Primary Key (kunci utama)
@@ -27,6 +35,12 @@ public class Kelas {
     @GeneratedValue(strategy = GenerationType.IDENTITY)  // Auto increment
     private Long id;
 
+    /**
+     * Versi baris untuk change feed (diisi RowVersionEntityListener setiap INSERT/UPDATE).
+     */
+    @Column(name = "row_version")
+    private Long rowVersion;
+
     /**
      * NAMA - Nama kelas
      * Contoh: "XII RPL 1", "XI TKJ 2", "X MM 1"
@@ -130,4 +144,14 @@ public class Kelas {
     public void setKapasitas(Integer kapasitas) {
         this.kapasitas = kapasitas;
     }
+
+    @Override
+    public Long getRowVersion() {
+        return rowVersion;
+    }
+
+    @Override
+    public void setRowVersion(Long rowVersion) {
+        this.rowVersion = rowVersion;
+    }
 }
@@ -1,5 +1,7 @@
 package com.smk.presensi.entity;
 
+import com.smk.presensi.entity.listener.KoreksiEntityListener;
+import com.smk.presensi.entity.listener.RowVersionEntityListener;
 import com.smk.presensi.enums.KoreksiStatus;
 import com.smk.presensi.enums.StatusPresensi;
 import jakarta.persistence.*;
@@ -12,13 +14,20 @@ import java.time.LocalTime;
  * Entity permintaan koreksi presensi.
  */
 @Entity
-@Table(name = "koreksi_presensi")
-public class KoreksiPresensi {
+@Table(name = "koreksi_presensi", indexes = @Index(name = "idx_koreksi_presensi_row_version", columnList = "row_version"))
+@EntityListeners({KoreksiEntityListener.class, RowVersionEntityListener.class})
+public class KoreksiPresensi implements RowVersioned {
 
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
+    /**
+     * Versi baris untuk change feed (diisi RowVersionEntityListener setiap INSERT/UPDATE).
+     */
+    @Column(name = "row_version")
+    private Long rowVersion;
+
     /**
      * User yang dikoreksi datanya.
      */
@@ -180,4 +189,14 @@ public class KoreksiPresensi {
     public void setUpdatedAt(LocalDateTime updatedAt) {
         this.updatedAt = updatedAt;
     }
+
+    @Override
+    public Long getRowVersion() {
+        return rowVersion;
+    }
+
+    @Override
+    public void setRowVersion(Long rowVersion) {
+        this.rowVersion = rowVersion;
+    }
 }
@@ -1,6 +1,10 @@
 package com.smk.presensi.entity;
 
+import com.smk.presensi.entity.listener.GeofenceEntityListener;
+import com.smk.presensi.entity.listener.ResourceVersionEntityListener;
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import java.time.LocalDateTime;
 
 /**
@@ -18,6 +22,9 @@ import java.time.LocalDateTime;
  */
 @Entity
 @Table(name = "lokasi_kantor")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@EntityListeners({GeofenceEntityListener.class, ResourceVersionEntityListener.class})
 public class LokasiKantor {
     
     @Id
@@ -1,12 +1,18 @@
 package com.smk.presensi.entity;
 
+import com.smk.presensi.entity.listener.ResourceVersionEntityListener;
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 /**
  * Entity untuk Mata Pelajaran.
  */
 @Entity
 @Table(name = "mapel")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@EntityListeners(ResourceVersionEntityListener.class)
 public class Mapel {
 
     @Id
@@ -1,5 +1,6 @@
 package com.smk.presensi.entity;
 
+import com.smk.presensi.entity.listener.GeofenceEntityListener;
 import jakarta.persistence.*;
 
 import java.time.LocalDate;
@@ -9,6 +10,7 @@ import java.time.LocalDate;
  */
 @Entity
 @Table(name = "penempatan_pkl")
+@EntityListeners(GeofenceEntityListener.class)
 public class PenempatanPkl {
 
     @Id
@@ -1,5 +1,8 @@
 package com.smk.presensi.entity;
 
+import com.smk.presensi.entity.listener.PresensiEntityListener;
+import com.smk.presensi.entity.listener.ResourceVersionEntityListener;
+import com.smk.presensi.entity.listener.RowVersionEntityListener;
 import com.smk.presensi.enums.MethodPresensi;
 import com.smk.presensi.enums.StatusPresensi;
 import com.smk.presensi.enums.TipeUser;
@@ -9,11 +12,40 @@ import java.time.LocalDate;
 import java.time.LocalTime;
 
 @Entity
-@Table(name = "presensi")
-public class Presensi {
-
+@Table(
+        name = "presensi",
+        // Satu user hanya boleh punya satu presensi per tanggal (dijamin database)
+        uniqueConstraints = @UniqueConstraint(
+                name = "uk_presensi_user_tanggal",
+                columnNames = {"user_id", "tanggal"}
+        ),
+        indexes = {
+                // Laporan & export memfilter per rentang tanggal
+                @Index(name = "idx_presensi_tanggal", columnList = "tanggal"),
+                // Change feed (GET /api/sync/changes)
+                @Index(name = "idx_presensi_row_version", columnList = "row_version")
+        }
+)
+@EntityListeners({PresensiEntityListener.class, RowVersionEntityListener.class, ResourceVersionEntityListener.class})
+public class Presensi implements RowVersioned {
+
+    /**
+     * ID dari SEQUENCE (bukan IDENTITY).
+     *
+     * Dengan IDENTITY, Hibernate harus INSERT satu per satu untuk tahu ID-nya.
+     * Dengan sequence, ID diambil di depan (50 sekaligus, allocationSize),
+     * jadi banyak INSERT bisa digabung dalam satu JDBC batch.
+     *
+     * Optimizer pooled-lo (application.properties): nilai sequence = id pertama
+     * blok, jadi nextval mentah di PresensiRepository.insertCheckinIfAbsent
+     * tidak pernah bentrok dengan blok Hibernate.
+     *
+     * Nama sequence sama dengan sequence bawaan kolom identity lama,
+     * jadi database yang sudah ada tetap melanjutkan nomor yang sama.
+     */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "presensi_seq")
+    @SequenceGenerator(name = "presensi_seq", sequenceName = "presensi_id_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne
@@ -60,6 +92,34 @@ public class Presensi {
     @Column(name = "materi", length = 500)
     private String materi;
 
+    /**
+     * Idempotency key dari client (reader RFID/barcode) saat checkin.
+     * Request ulang dengan key yang sama dapat response yang sama, bukan error.
+     */
+    @Column(name = "idempotency_key", length = 64)
+    private String idempotencyKey;
+
+    /**
+     * Versi baris untuk change feed (diisi RowVersionEntityListener setiap INSERT/UPDATE,
+     * insert native checkin mengisinya sendiri).
+     */
+    @Column(name = "row_version")
+    private Long rowVersion;
+
+    /**
+     * Key rollup saat terakhir dibaca/disimpan (tidak disimpan ke database).
+     * Dipakai PresensiEntityListener untuk tahu baris rollup lama saat update.
+     */
+    @Transient
+    private PresensiDailyRollupId rollupKey;
+
+    /**
+     * Jam pulang saat terakhir dibaca/disimpan (tidak disimpan ke database).
+     * Dipakai PresensiEntityListener untuk membedakan event CHECKOUT dari update biasa.
+     */
+    @Transient
+    private LocalTime savedJamPulang;
+
     public Presensi() {
     }
 
@@ -175,4 +235,38 @@ public class Presensi {
     public void setMateri(String materi) {
         this.materi = materi;
     }
+
+    public String getIdempotencyKey() {
+        return idempotencyKey;
+    }
+
+    public void setIdempotencyKey(String idempotencyKey) {
+        this.idempotencyKey = idempotencyKey;
+    }
+
+    public PresensiDailyRollupId getRollupKey() {
+        return rollupKey;
+    }
+
+    public void setRollupKey(PresensiDailyRollupId rollupKey) {
+        this.rollupKey = rollupKey;
+    }
+
+    public LocalTime getSavedJamPulang() {
+        return savedJamPulang;
+    }
+
+    public void setSavedJamPulang(LocalTime savedJamPulang) {
+        this.savedJamPulang = savedJamPulang;
+    }
+
+    @Override
+    public Long getRowVersion() {
+        return rowVersion;
+    }
+
+    @Override
+    public void setRowVersion(Long rowVersion) {
+        this.rowVersion = rowVersion;
+    }
 }
@@ -0,0 +1,47 @@
+package com.smk.presensi.entity;
+
+import jakarta.persistence.*;
+
+/**
+ * ROLLUP HARIAN PRESENSI - Jumlah presensi per (tanggal, tipe, kelas, status, method).
+ *
+ * Laporan bulanan/statistik sebelumnya menjalankan 8 query COUNT terpisah
+ * ke tabel presensi (yang terus bertambah). Tabel ini menyimpan hasil hitungan
+ * yang sudah jadi: satu bulan = paling banyak 31 x (kombinasi tipe/kelas/status/method)
+ * baris kecil.
+ *
+ * Diupdate oleh PresensiRollupService setiap presensi di-insert/update/delete,
+ * dan bisa di-rebuild dari tabel presensi untuk rentang tanggal tertentu.
+ */
+@Entity
+@Table(
+        name = "presensi_daily_rollup",
+        indexes = @Index(name = "idx_presensi_rollup_tanggal", columnList = "tanggal")
+)
+public class PresensiDailyRollup {
+
+    @EmbeddedId
+    private PresensiDailyRollupId id;
+
+    @Column(nullable = false)
+    private long jumlah;
+
+    public PresensiDailyRollup() {
+    }
+
+    public PresensiDailyRollupId getId() {
+        return id;
+    }
+
+    public void setId(PresensiDailyRollupId id) {
+        this.id = id;
+    }
+
+    public long getJumlah() {
+        return jumlah;
+    }
+
+    public void setJumlah(long jumlah) {
+        this.jumlah = jumlah;
+    }
+}
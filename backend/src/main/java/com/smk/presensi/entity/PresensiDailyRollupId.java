@@ -0,0 +1,112 @@
+package com.smk.presensi.entity;
+
+import com.smk.presensi.enums.MethodPresensi;
+import com.smk.presensi.enums.StatusPresensi;
+import com.smk.presensi.enums.TipeUser;
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.util.Objects;
+
+/**
+ * Primary key PresensiDailyRollup: (tanggal, tipe, kelas, status, method).
+ *
+ * Presensi siswa: kelas dari data siswa. Presensi guru: kelas jurnal (presensi.kelas).
+ * kelasId = 0 berarti presensi tanpa kelas.
+ * Pakai 0, bukan NULL, karena kolom primary key tidak boleh NULL.
+ */
+@Embeddable
+public class PresensiDailyRollupId implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    public static final long TANPA_KELAS = 0L;
+
+    @Column(nullable = false)
+    private LocalDate tanggal;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 10)
+    private TipeUser tipe;
+
+    @Column(name = "kelas_id", nullable = false)
+    private long kelasId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 15)
+    private StatusPresensi status;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 10)
+    private MethodPresensi method;
+
+    protected PresensiDailyRollupId() {
+    }
+
+    public PresensiDailyRollupId(LocalDate tanggal, TipeUser tipe, long kelasId,
+                                 StatusPresensi status, MethodPresensi method) {
+        this.tanggal = tanggal;
+        this.tipe = tipe;
+        this.kelasId = kelasId;
+        this.status = status;
+        this.method = method;
+    }
+
+    /**
+     * Key rollup untuk satu presensi (nilai field saat ini).
+     *
+     * @param siswaKelasId Id kelas dari data siswa (null = bukan siswa / kelas tidak ditemukan);
+     *                     jika null dipakai presensi.kelas (jurnal guru)
+     */
+    public static PresensiDailyRollupId of(Presensi presensi, Long siswaKelasId) {
+        long kelasId = siswaKelasId != null ? siswaKelasId
+                : presensi.getKelas() != null ? presensi.getKelas().getId() : TANPA_KELAS;
+        return new PresensiDailyRollupId(
+                presensi.getTanggal(),
+                presensi.getTipe(),
+                kelasId,
+                presensi.getStatus(),
+                presensi.getMethod()
+        );
+    }
+
+    public LocalDate getTanggal() {
+        return tanggal;
+    }
+
+    public TipeUser getTipe() {
+        return tipe;
+    }
+
+    public long getKelasId() {
+        return kelasId;
+    }
+
+    public StatusPresensi getStatus() {
+        return status;
+    }
+
+    public MethodPresensi getMethod() {
+        return method;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof PresensiDailyRollupId that)) return false;
+        return kelasId == that.kelasId
+                && Objects.equals(tanggal, that.tanggal)
+                && tipe == that.tipe
+                && status == that.status
+                && method == that.method;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(tanggal, tipe, kelasId, status, method);
+    }
+}
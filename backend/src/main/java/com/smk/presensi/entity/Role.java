@@ -1,6 +1,8 @@
 package com.smk.presensi.entity;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 /**
  * Entity Role - Mewakili peran/jabatan user di sistem.
@@ -21,6 +23,8 @@ import jakarta.persistence.*;
  */
 @Entity
 @Table(name = "roles")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 public class Role {
     
     /**
@@ -0,0 +1,17 @@
+package com.smk.presensi.entity;
+
+/**
+ * Entity yang ikut change feed (GET /api/sync/changes).
+ *
+ * Setiap INSERT/UPDATE mendapat row_version baru dari RowVersionService
+ * (lewat RowVersionEntityListener), jadi client cukup meminta baris
+ * dengan row_version lebih besar dari cursor terakhirnya.
+ */
+public interface RowVersioned {
+
+    Long getId();
+
+    Long getRowVersion();
+
+    void setRowVersion(Long rowVersion);
+}
@@ -1,6 +1,9 @@
 package com.smk.presensi.entity;
 
 // Import anotasi JPA (Jakarta Persistence API) untuk database
+import com.smk.presensi.entity.listener.IdentityEntityListener;
+import com.smk.presensi.entity.listener.ResourceVersionEntityListener;
+import com.smk.presensi.entity.listener.RowVersionEntityListener;
 import jakarta.persistence.*;  // * artinya import semua kelas di package jakarta.persistence
 
 /**
@@ -18,9 +21,10 @@ import jakarta.persistence.*;  // * artinya import semua kelas di package jakart
  */
 @Entity  // Anotasi ini memberitahu JPA: "Kelas ini adalah entity (akan jadi tabel di database)"
          // JPA otomatis buat tabel dengan nama kelas (Siswa → tabel SISWA)
-@Table(name = "siswa")  // Opsional: paksa nama tabel jadi "siswa" (huruf kecil semua)
+@Table(name = "siswa", indexes = @Index(name = "idx_siswa_row_version", columnList = "row_version"))  // Opsional: paksa nama tabel jadi "siswa" (huruf kecil semua)
                         // Tanpa ini, nama tabel = nama kelas (Siswa dengan huruf besar S)
-public class Siswa {
+@EntityListeners({IdentityEntityListener.class, RowVersionEntityListener.class, ResourceVersionEntityListener.class})  // Sinkronkan cache kartu & wajah setelah save/delete
+public class Siswa implements RowVersioned {
 
     /**
      * ID - Primary Key (kunci utama)
@@ -36,6 +40,12 @@ public class Siswa {
          // Contoh: data pertama id=1, kedua id=2, ketiga id=3, dst
          // Kita TIDAK perlu set id manual, database yang urus!
     private Long id;  // Long adalah tipe data untuk bilangan bulat besar
+
+    /**
+     * Versi baris untuk change feed (diisi RowVersionEntityListener setiap INSERT/UPDATE).
+     */
+    @Column(name = "row_version")
+    private Long rowVersion;
                       // Kenapa Long bukan int? Long bisa null, int tidak bisa
 
     /**
@@ -253,4 +263,14 @@ public class Siswa {
     public void setUser(User user) {
         this.user = user;
     }
+
+    @Override
+    public Long getRowVersion() {
+        return rowVersion;
+    }
+
+    @Override
+    public void setRowVersion(Long rowVersion) {
+        this.rowVersion = rowVersion;
+    }
 }
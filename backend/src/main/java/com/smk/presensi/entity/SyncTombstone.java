@@ -0,0 +1,60 @@
+package com.smk.presensi.entity;
+
+import com.smk.presensi.enums.SyncEntityType;
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Catatan baris yang dihapus, supaya change feed bisa mengirim DELETE.
+ *
+ * Ditulis oleh RowVersionEntityListener (lewat JDBC, di transaksi yang sama
+ * dengan DELETE-nya), dibaca oleh ChangeFeedService.
+ */
+@Entity
+@Table(
+        name = "sync_tombstone",
+        indexes = @Index(name = "idx_sync_tombstone_row_version", columnList = "row_version")
+)
+public class SyncTombstone {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "entity_type", nullable = false, length = 20)
+    private SyncEntityType entityType;
+
+    @Column(name = "entity_id", nullable = false)
+    private Long entityId;
+
+    @Column(name = "row_version", nullable = false)
+    private Long rowVersion;
+
+    @Column(name = "deleted_at", nullable = false)
+    private LocalDateTime deletedAt;
+
+    public SyncTombstone() {
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public SyncEntityType getEntityType() {
+        return entityType;
+    }
+
+    public Long getEntityId() {
+        return entityId;
+    }
+
+    public Long getRowVersion() {
+        return rowVersion;
+    }
+
+    public LocalDateTime getDeletedAt() {
+        return deletedAt;
+    }
+}
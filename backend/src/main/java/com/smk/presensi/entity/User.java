@@ -1,6 +1,8 @@
 package com.smk.presensi.entity;
 
+import com.smk.presensi.entity.listener.IdentityEntityListener;
 import jakarta.persistence.*;
+import org.hibernate.annotations.BatchSize;
 import java.util.HashSet;
 import java.util.Set;
 
@@ -32,6 +34,7 @@ import java.util.Set;
          */
         @UniqueConstraint(columnNames = "username")
 })
+@EntityListeners(IdentityEntityListener.class)
 public class User {
     
     /**
@@ -144,8 +147,12 @@ public class User {
      * |---------|---------|
      * | 1       | 1       |  ← admin punya ROLE_ADMIN
      * | 1       | 2       |  ← admin juga punya ROLE_GURU
+     *
+     * @BatchSize: Load banyak user sekaligus (change feed, daftar presensi)
+     * → roles diambil per 100 user dengan satu query IN, bukan 1 query per user.
      */
     @ManyToMany(fetch = FetchType.EAGER)
+    @BatchSize(size = 100)
     @JoinTable(
             name = "user_roles",
             joinColumns = @JoinColumn(name = "user_id"),
@@ -0,0 +1,31 @@
+package com.smk.presensi.entity.listener;
+
+import com.smk.presensi.service.GeofenceIndex;
+import com.smk.presensi.util.AfterCommit;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+
+/**
+ * ENTITY LISTENER untuk LokasiKantor, Dudi, dan PenempatanPkl.
+ *
+ * Setiap perubahan lokasi atau penempatan PKL menandai GeofenceIndex perlu
+ * di-reload (setelah commit). Reload sendiri terjadi saat lookup berikutnya,
+ * jadi import/update massal tetap hanya memicu satu reload.
+ */
+public class GeofenceEntityListener {
+
+    private final ObjectProvider<GeofenceIndex> geofenceIndex;
+
+    public GeofenceEntityListener(ObjectProvider<GeofenceIndex> geofenceIndex) {
+        this.geofenceIndex = geofenceIndex;
+    }
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void onChanged(Object entity) {
+        AfterCommit.run(() -> geofenceIndex.ifAvailable(GeofenceIndex::invalidate));
+    }
+}
@@ -0,0 +1,125 @@
+package com.smk.presensi.entity.listener;
+
+import com.smk.presensi.entity.Guru;
+import com.smk.presensi.entity.Siswa;
+import com.smk.presensi.entity.User;
+import com.smk.presensi.enums.TipeUser;
+import com.smk.presensi.security.service.PrincipalCache;
+import com.smk.presensi.service.AttendanceEventBus;
+import com.smk.presensi.service.CredentialDirectory;
+import com.smk.presensi.service.FaceEmbeddingIndex;
+import com.smk.presensi.service.GeofenceIndex;
+import com.smk.presensi.service.PresensiRollupService;
+import com.smk.presensi.util.AfterCommit;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+
+/**
+ * ENTITY LISTENER untuk Siswa, Guru, dan User.
+ *
+ * Menjaga cache in-memory tetap sinkron dengan database:
+ * - CredentialDirectory (kartu RFID/barcode → user)
+ * - FaceEmbeddingIndex (encoding wajah)
+ * - PrincipalCache (status aktif user untuk JWT)
+ * - GeofenceIndex (penempatan PKL dipetakan lewat akun siswa)
+ * - AttendanceEventBus (username, kelas/jurusan siswa untuk topik event live)
+ * - PresensiRollupService (kelas siswa untuk rollup presensi)
+ *
+ * Dipasang lewat @EntityListeners di entity. Hibernate membuat instance
+ * listener lewat Spring, jadi dependency bisa di-inject.
+ *
+ * Kenapa ObjectProvider (bukan inject langsung)?
+ * - Listener dibuat saat EntityManagerFactory dibangun
+ * - CredentialDirectory butuh repository → butuh EntityManagerFactory
+ * - Inject langsung = circular dependency; ObjectProvider resolve saat dipakai
+ *
+ * Perubahan baru diterapkan SETELAH COMMIT, supaya transaksi yang
+ * di-rollback tidak meninggalkan data palsu di cache.
+ */
+public class IdentityEntityListener {
+
+    private final ObjectProvider<CredentialDirectory> credentialDirectory;
+    private final ObjectProvider<FaceEmbeddingIndex> faceEmbeddingIndex;
+    private final ObjectProvider<PrincipalCache> principalCache;
+    private final ObjectProvider<GeofenceIndex> geofenceIndex;
+    private final ObjectProvider<AttendanceEventBus> eventBus;
+    private final ObjectProvider<PresensiRollupService> rollupService;
+
+    public IdentityEntityListener(
+            ObjectProvider<CredentialDirectory> credentialDirectory,
+            ObjectProvider<FaceEmbeddingIndex> faceEmbeddingIndex,
+            ObjectProvider<PrincipalCache> principalCache,
+            ObjectProvider<GeofenceIndex> geofenceIndex,
+            ObjectProvider<AttendanceEventBus> eventBus,
+            ObjectProvider<PresensiRollupService> rollupService
+    ) {
+        this.credentialDirectory = credentialDirectory;
+        this.faceEmbeddingIndex = faceEmbeddingIndex;
+        this.principalCache = principalCache;
+        this.geofenceIndex = geofenceIndex;
+        this.eventBus = eventBus;
+        this.rollupService = rollupService;
+    }
+
+    @PostPersist
+    @PostUpdate
+    public void onSaved(Object entity) {
+        if (entity instanceof Siswa siswa) {
+            Long userId = siswa.getUser() != null ? siswa.getUser().getId() : null;
+            String encoding = siswa.getFaceEncoding();
+            // Sudah menunda sendiri sampai setelah commit (sekali per transaksi)
+            rollupService.ifAvailable(PresensiRollupService::invalidateKelas);
+            AfterCommit.run(() -> {
+                credentialDirectory.ifAvailable(directory -> directory.onSaved(siswa));
+                faceEmbeddingIndex.ifAvailable(index ->
+                        index.upsert(TipeUser.SISWA, siswa.getId(), userId, encoding));
+                geofenceIndex.ifAvailable(GeofenceIndex::invalidate);
+                eventBus.ifAvailable(AttendanceEventBus::invalidateTopics);
+            });
+        } else if (entity instanceof Guru guru) {
+            Long userId = guru.getUser() != null ? guru.getUser().getId() : null;
+            String encoding = guru.getFaceEncoding();
+            AfterCommit.run(() -> {
+                credentialDirectory.ifAvailable(directory -> directory.onSaved(guru));
+                faceEmbeddingIndex.ifAvailable(index ->
+                        index.upsert(TipeUser.GURU, guru.getId(), userId, encoding));
+            });
+        } else if (entity instanceof User user) {
+            Long userId = user.getId();
+            String username = user.getUsername();
+            AfterCommit.run(() -> {
+                credentialDirectory.ifAvailable(directory -> directory.onUsernameChanged(userId, username));
+                principalCache.ifAvailable(cache -> cache.evict(username));
+                eventBus.ifAvailable(AttendanceEventBus::invalidateTopics);
+            });
+        }
+    }
+
+    @PostRemove
+    public void onRemoved(Object entity) {
+        if (entity instanceof Siswa siswa) {
+            Long id = siswa.getId();
+            rollupService.ifAvailable(PresensiRollupService::invalidateKelas);
+            AfterCommit.run(() -> {
+                credentialDirectory.ifAvailable(directory -> directory.onRemoved(TipeUser.SISWA, id));
+                faceEmbeddingIndex.ifAvailable(index -> index.remove(TipeUser.SISWA, id));
+                geofenceIndex.ifAvailable(GeofenceIndex::invalidate);
+                eventBus.ifAvailable(AttendanceEventBus::invalidateTopics);
+            });
+        } else if (entity instanceof Guru guru) {
+            Long id = guru.getId();
+            AfterCommit.run(() -> {
+                credentialDirectory.ifAvailable(directory -> directory.onRemoved(TipeUser.GURU, id));
+                faceEmbeddingIndex.ifAvailable(index -> index.remove(TipeUser.GURU, id));
+            });
+        } else if (entity instanceof User user) {
+            String username = user.getUsername();
+            AfterCommit.run(() -> {
+                principalCache.ifAvailable(cache -> cache.evict(username));
+                eventBus.ifAvailable(AttendanceEventBus::invalidateTopics);
+            });
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.smk.presensi.entity.listener;
+
+import com.smk.presensi.entity.Izin;
+import com.smk.presensi.entity.Siswa;
+import com.smk.presensi.service.AttendanceEventBus;
+import com.smk.presensi.util.AfterCommit;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+
+/**
+ * ENTITY LISTENER untuk Izin.
+ *
+ * Pengajuan izin baru dan keputusan approve/reject dikirim sebagai event IZIN
+ * ke AttendanceEventBus (setelah commit), supaya dashboard piket langsung
+ * memperbarui daftar izin pending tanpa polling.
+ */
+public class IzinEntityListener {
+
+    private final ObjectProvider<AttendanceEventBus> eventBus;
+
+    public IzinEntityListener(ObjectProvider<AttendanceEventBus> eventBus) {
+        this.eventBus = eventBus;
+    }
+
+    @PostPersist
+    @PostUpdate
+    public void onSaved(Izin izin) {
+        Siswa siswa = izin.getSiswa();
+        AttendanceEventBus.IzinChange change = new AttendanceEventBus.IzinChange(
+                izin.getId(),
+                siswa.getUser() != null ? siswa.getUser().getId() : null,
+                siswa.getNama(),
+                siswa.getKelas(),
+                siswa.getJurusan(),
+                izin.getTanggalMulai(),
+                izin.getStatus());
+        AfterCommit.run(() -> eventBus.ifAvailable(bus -> bus.publish(change)));
+    }
+}
@@ -0,0 +1,39 @@
+package com.smk.presensi.entity.listener;
+
+import com.smk.presensi.entity.KoreksiPresensi;
+import com.smk.presensi.service.AttendanceEventBus;
+import com.smk.presensi.util.AfterCommit;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+
+/**
+ * ENTITY LISTENER untuk KoreksiPresensi.
+ *
+ * Pengajuan koreksi baru dan keputusan approve/reject dikirim sebagai event
+ * KOREKSI ke AttendanceEventBus (setelah commit), supaya layar piket/admin
+ * langsung melihat antrian koreksi tanpa polling.
+ *
+ * Perubahan Presensi akibat koreksi yang di-approve tetap dikirim terpisah
+ * oleh PresensiEntityListener (event UPDATE).
+ */
+public class KoreksiEntityListener {
+
+    private final ObjectProvider<AttendanceEventBus> eventBus;
+
+    public KoreksiEntityListener(ObjectProvider<AttendanceEventBus> eventBus) {
+        this.eventBus = eventBus;
+    }
+
+    @PostPersist
+    @PostUpdate
+    public void onSaved(KoreksiPresensi koreksi) {
+        AttendanceEventBus.KoreksiChange change = new AttendanceEventBus.KoreksiChange(
+                koreksi.getId(),
+                koreksi.getPresensi() != null ? koreksi.getPresensi().getId() : null,
+                koreksi.getTargetUser().getId(),
+                koreksi.getTanggal(),
+                koreksi.getStatus());
+        AfterCommit.run(() -> eventBus.ifAvailable(bus -> bus.publish(change)));
+    }
+}
@@ -0,0 +1,139 @@
+package com.smk.presensi.entity.listener;
+
+import com.smk.presensi.entity.Presensi;
+import com.smk.presensi.entity.PresensiDailyRollupId;
+import com.smk.presensi.enums.AttendanceEventType;
+import com.smk.presensi.service.AttendanceEventBus;
+import com.smk.presensi.service.DailyAttendanceState;
+import com.smk.presensi.service.PresensiRollupService;
+import com.smk.presensi.util.AfterCommit;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+/**
+ * ENTITY LISTENER untuk Presensi.
+ *
+ * Semua jalur yang menulis Presensi (checkin/checkout, admin, koreksi)
+ * otomatis meng-update, tanpa perlu panggil manual di setiap service:
+ * - DailyAttendanceState (status checkin hari ini)
+ * - PresensiRollupService (tabel presensi_daily_rollup)
+ * - AttendanceEventBus (event live CHECKIN/CHECKOUT/UPDATE/DELETE untuk dashboard)
+ *
+ * Untuk rollup dan counter live, update butuh nilai LAMA (status sebelum
+ * dikoreksi, sudah pulang atau belum). Nilai itu dicatat di @PostLoad ke
+ * field transient Presensi.rollupKey dan Presensi.savedJamPulang.
+ *
+ * Sama seperti IdentityEntityListener: perubahan diterapkan setelah commit,
+ * dan bean di-resolve lewat ObjectProvider untuk hindari circular dependency.
+ */
+public class PresensiEntityListener {
+
+    private final ObjectProvider<DailyAttendanceState> attendanceState;
+    private final ObjectProvider<PresensiRollupService> rollupService;
+    private final ObjectProvider<AttendanceEventBus> eventBus;
+
+    public PresensiEntityListener(
+            ObjectProvider<DailyAttendanceState> attendanceState,
+            ObjectProvider<PresensiRollupService> rollupService,
+            ObjectProvider<AttendanceEventBus> eventBus
+    ) {
+        this.attendanceState = attendanceState;
+        this.rollupService = rollupService;
+        this.eventBus = eventBus;
+    }
+
+    @PostLoad
+    public void onLoaded(Presensi presensi) {
+        presensi.setRollupKey(keyOf(presensi));
+        presensi.setSavedJamPulang(presensi.getJamPulang());
+    }
+
+    @PostPersist
+    public void onPersisted(Presensi presensi) {
+        PresensiDailyRollupId key = keyOf(presensi);
+        rollupService.ifAvailable(rollup -> rollup.record(key, 1));
+        presensi.setRollupKey(key);
+        presensi.setSavedJamPulang(presensi.getJamPulang());
+        trackAttendance(presensi);
+        publish(presensi, AttendanceEventType.CHECKIN, null, false);
+    }
+
+    @PostUpdate
+    public void onUpdated(Presensi presensi) {
+        PresensiDailyRollupId previous = presensi.getRollupKey();
+        PresensiDailyRollupId current = keyOf(presensi);
+        if (previous != null && !previous.equals(current)) {
+            rollupService.ifAvailable(rollup -> {
+                rollup.record(previous, -1);
+                rollup.record(current, 1);
+            });
+        }
+        LocalTime jamPulangLama = presensi.getSavedJamPulang();
+        AttendanceEventType type = jamPulangLama == null && presensi.getJamPulang() != null
+                ? AttendanceEventType.CHECKOUT
+                : AttendanceEventType.UPDATE;
+        // Nilai lama tidak diketahui → anggap sama dengan sekarang (counter tidak berubah)
+        publish(presensi, type, previous != null ? previous : current,
+                previous != null ? jamPulangLama != null : presensi.getJamPulang() != null);
+
+        presensi.setRollupKey(current);
+        presensi.setSavedJamPulang(presensi.getJamPulang());
+        trackAttendance(presensi);
+    }
+
+    @PostRemove
+    public void onRemoved(Presensi presensi) {
+        PresensiDailyRollupId key = presensi.getRollupKey() != null
+                ? presensi.getRollupKey()
+                : keyOf(presensi);
+        rollupService.ifAvailable(rollup -> rollup.record(key, -1));
+
+        Long id = presensi.getId();
+        AfterCommit.run(() -> attendanceState.ifAvailable(state -> state.onRemoved(id)));
+
+        AttendanceEventBus.PresensiChange change = new AttendanceEventBus.PresensiChange(
+                AttendanceEventType.DELETE, id, presensi.getUser().getId(), presensi.getTipe(),
+                key.getTanggal(), key.getStatus(), presensi.getSavedJamPulang() != null,
+                null, null, presensi.getJamMasuk(), null,
+                presensi.getMethod(), presensi.getKeterangan());
+        AfterCommit.run(() -> eventBus.ifAvailable(bus -> bus.publish(change)));
+    }
+
+    private PresensiDailyRollupId keyOf(Presensi presensi) {
+        PresensiRollupService rollup = rollupService.getIfAvailable();
+        return rollup != null ? rollup.keyOf(presensi) : PresensiDailyRollupId.of(presensi, null);
+    }
+
+    private void trackAttendance(Presensi presensi) {
+        Long id = presensi.getId();
+        Long userId = presensi.getUser().getId();
+        LocalDate tanggal = presensi.getTanggal();
+        AfterCommit.run(() -> attendanceState.ifAvailable(
+                state -> state.onSaved(id, userId, tanggal)));
+    }
+
+    /**
+     * Kirim event live setelah commit.
+     *
+     * @param previous       Key rollup sebelum perubahan (null untuk presensi baru)
+     * @param sudahPulangLama Apakah sebelum perubahan sudah checkout
+     */
+    private void publish(Presensi presensi, AttendanceEventType type,
+                         PresensiDailyRollupId previous, boolean sudahPulangLama) {
+        AttendanceEventBus.PresensiChange change = new AttendanceEventBus.PresensiChange(
+                type, presensi.getId(), presensi.getUser().getId(), presensi.getTipe(),
+                previous != null ? previous.getTanggal() : null,
+                previous != null ? previous.getStatus() : null,
+                sudahPulangLama,
+                presensi.getTanggal(), presensi.getStatus(),
+                presensi.getJamMasuk(), presensi.getJamPulang(),
+                presensi.getMethod(), presensi.getKeterangan());
+        AfterCommit.run(() -> eventBus.ifAvailable(bus -> bus.publish(change)));
+    }
+}
@@ -0,0 +1,32 @@
+package com.smk.presensi.entity.listener;
+
+import com.smk.presensi.service.TableVersions;
+import com.smk.presensi.util.AfterCommit;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+
+/**
+ * ENTITY LISTENER untuk ETag endpoint referensi & laporan
+ * (Kelas, Jurusan, Mapel, LokasiKantor, Siswa, Presensi).
+ *
+ * Setiap perubahan menaikkan counter tabel entity tersebut setelah commit,
+ * sehingga ETag response yang dibangun dari tabel itu ikut berubah.
+ */
+public class ResourceVersionEntityListener {
+
+    private final ObjectProvider<TableVersions> tableVersions;
+
+    public ResourceVersionEntityListener(ObjectProvider<TableVersions> tableVersions) {
+        this.tableVersions = tableVersions;
+    }
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void onChanged(Object entity) {
+        Class<?> type = entity.getClass();
+        AfterCommit.run(() -> tableVersions.ifAvailable(versions -> versions.bump(type)));
+    }
+}
@@ -0,0 +1,66 @@
+package com.smk.presensi.entity.listener;
+
+import com.smk.presensi.entity.Guru;
+import com.smk.presensi.entity.Izin;
+import com.smk.presensi.entity.Kelas;
+import com.smk.presensi.entity.KoreksiPresensi;
+import com.smk.presensi.entity.Presensi;
+import com.smk.presensi.entity.RowVersioned;
+import com.smk.presensi.entity.Siswa;
+import com.smk.presensi.enums.SyncEntityType;
+import com.smk.presensi.service.RowVersionService;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+
+/**
+ * ENTITY LISTENER untuk change feed (Presensi, Siswa, Guru, Kelas, Izin, KoreksiPresensi).
+ *
+ * - INSERT/UPDATE → row_version diisi versi baru (ikut di statement yang sama)
+ * - DELETE → tombstone dengan versi baru
+ *
+ * Berbeda dengan listener lain, ini TIDAK menunggu commit: versi harus ikut
+ * tersimpan di transaksi yang sama. Urutan commit dijaga RowVersionService.
+ */
+public class RowVersionEntityListener {
+
+    private final ObjectProvider<RowVersionService> rowVersionService;
+
+    public RowVersionEntityListener(ObjectProvider<RowVersionService> rowVersionService) {
+        this.rowVersionService = rowVersionService;
+    }
+
+    @PrePersist
+    @PreUpdate
+    public void onWrite(Object entity) {
+        if (entity instanceof RowVersioned versioned) {
+            rowVersionService.ifAvailable(service -> versioned.setRowVersion(service.next()));
+        }
+    }
+
+    @PostRemove
+    public void onRemoved(Object entity) {
+        SyncEntityType type = typeOf(entity);
+        if (type != null && entity instanceof RowVersioned versioned) {
+            rowVersionService.ifAvailable(service -> service.recordDelete(type, versioned.getId()));
+        }
+    }
+
+    private static SyncEntityType typeOf(Object entity) {
+        if (entity instanceof Presensi) {
+            return SyncEntityType.PRESENSI;
+        } else if (entity instanceof Siswa) {
+            return SyncEntityType.SISWA;
+        } else if (entity instanceof Guru) {
+            return SyncEntityType.GURU;
+        } else if (entity instanceof Kelas) {
+            return SyncEntityType.KELAS;
+        } else if (entity instanceof Izin) {
+            return SyncEntityType.IZIN;
+        } else if (entity instanceof KoreksiPresensi) {
+            return SyncEntityType.KOREKSI;
+        }
+        return null;
+    }
+}
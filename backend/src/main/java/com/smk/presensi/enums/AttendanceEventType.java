@@ -0,0 +1,19 @@
+package com.smk.presensi.enums;
+
+/**
+ * Jenis event live presensi (dikirim ke dashboard lewat SSE).
+ */
+public enum AttendanceEventType {
+    /** Presensi baru tercatat */
+    CHECKIN,
+    /** Jam pulang baru terisi */
+    CHECKOUT,
+    /** Presensi diubah (admin/koreksi), selain checkout */
+    UPDATE,
+    /** Presensi dihapus */
+    DELETE,
+    /** Pengajuan koreksi dibuat atau diputuskan */
+    KOREKSI,
+    /** Pengajuan izin dibuat atau diputuskan */
+    IZIN
+}
@@ -0,0 +1,19 @@
+package com.smk.presensi.enums;
+
+/**
+ * Hasil pemrosesan satu scan dari gate (bulk ingestion).
+ */
+public enum GateScanStatus {
+    /** Presensi tercatat (atau retry dengan idempotency key yang sama) */
+    ACCEPTED,
+    /** User sudah checkin di tanggal tersebut */
+    DUPLICATE,
+    /** Kartu RFID/barcode tidak terdaftar */
+    UNKNOWN_CREDENTIAL,
+    /** Data scan tidak valid (method tidak didukung, jam device di masa depan/terlalu lama) */
+    INVALID,
+    /** Antrian penuh, scan tidak diproses → device kirim ulang nanti */
+    REJECTED,
+    /** Error tak terduga saat menyimpan */
+    ERROR
+}
@@ -0,0 +1,11 @@
+package com.smk.presensi.enums;
+
+/**
+ * Jenis lokasi yang boleh dipakai untuk checkin (geofence).
+ */
+public enum GeofenceSiteType {
+    /** Kampus sekolah (LokasiKantor aktif) → berlaku untuk semua user */
+    SEKOLAH,
+    /** Tempat PKL (Dudi) → hanya untuk siswa yang ditempatkan di sana */
+    DUDI
+}
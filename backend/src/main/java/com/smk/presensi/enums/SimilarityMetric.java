@@ -0,0 +1,7 @@
+package com.smk.presensi.enums;
+
+public enum SimilarityMetric {
+    LEVENSHTEIN,
+    HAMMING,
+    COSINE
+}
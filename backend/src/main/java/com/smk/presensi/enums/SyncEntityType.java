@@ -0,0 +1,13 @@
+package com.smk.presensi.enums;
+
+/**
+ * Jenis data yang ikut change feed (GET /api/sync/changes).
+ */
+public enum SyncEntityType {
+    PRESENSI,
+    SISWA,
+    GURU,
+    KELAS,
+    IZIN,
+    KOREKSI
+}
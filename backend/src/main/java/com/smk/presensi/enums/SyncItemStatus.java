@@ -0,0 +1,17 @@
+package com.smk.presensi.enums;
+
+/**
+ * Hasil pemrosesan satu presensi offline dari client (bulk sync desktop).
+ */
+public enum SyncItemStatus {
+    /** Presensi baru tercatat */
+    CREATED,
+    /** Retry dengan idempotency key yang sama, presensi sudah tercatat sebelumnya */
+    ALREADY_SYNCED,
+    /** Server sudah punya presensi lain untuk user + tanggal tersebut */
+    CONFLICT,
+    /** Data tidak valid (user/kelas tidak ditemukan) → tidak perlu dikirim ulang */
+    INVALID,
+    /** Error tak terduga saat menyimpan → client kirim ulang nanti */
+    ERROR
+}
@@ -0,0 +1,11 @@
+package com.smk.presensi.enums;
+
+/**
+ * Jenis perubahan di change feed.
+ */
+public enum SyncOperation {
+    /** Baris baru atau berubah → data lengkap ikut dikirim */
+    UPSERT,
+    /** Baris dihapus (tombstone) → hanya ID */
+    DELETE
+}
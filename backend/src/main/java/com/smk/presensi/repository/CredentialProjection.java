@@ -0,0 +1,20 @@
+package com.smk.presensi.repository;
+
+/**
+ * PROJECTION untuk CredentialDirectory.
+ * 
+ * Hanya kolom yang dibutuhkan untuk mapping kartu → user,
+ * tanpa load entity Siswa/Guru/User lengkap (dan tanpa EAGER roles).
+ */
+public interface CredentialProjection {
+
+    Long getEntityId();
+
+    Long getUserId();
+
+    String getUsername();
+
+    String getRfidCardId();
+
+    String getBarcodeId();
+}
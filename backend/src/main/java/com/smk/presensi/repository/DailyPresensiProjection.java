@@ -0,0 +1,13 @@
+package com.smk.presensi.repository;
+
+/**
+ * PROJECTION untuk DailyAttendanceState.
+ * 
+ * Cukup id presensi dan id user.
+ */
+public interface DailyPresensiProjection {
+
+    Long getId();
+
+    Long getUserId();
+}
@@ -2,6 +2,7 @@ package com.smk.presensi.repository;
 
 import com.smk.presensi.entity.Dudi;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -10,5 +11,11 @@ import java.util.List;
 public interface DudiRepository extends JpaRepository<Dudi, Long> {
 
     List<Dudi> findByNamaContainingIgnoreCase(String nama);
+
+    /**
+     * DUDI aktif yang punya koordinat → dipakai sebagai lokasi geofence.
+     */
+    @Query("SELECT d FROM Dudi d WHERE d.aktif = true AND d.latitude IS NOT NULL AND d.longitude IS NOT NULL")
+    List<Dudi> findGeofenceSites();
 }
 
@@ -1,7 +1,10 @@
 package com.smk.presensi.repository;
 
 import com.smk.presensi.entity.GuruJurnal;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
@@ -11,4 +14,21 @@ import java.util.List;
 public interface GuruJurnalRepository extends JpaRepository<GuruJurnal, Long> {
     List<GuruJurnal> findByGuru_IdOrderByTanggalDesc(Long guruId);
     List<GuruJurnal> findByGuru_IdAndTanggalBetweenOrderByTanggalDesc(Long guruId, LocalDate start, LocalDate end);
+
+    /**
+     * Satu halaman jurnal (keyset (tanggal, id), terbaru dulu) dengan filter opsional.
+     */
+    @Query("SELECT j FROM GuruJurnal j JOIN FETCH j.guru g LEFT JOIN FETCH j.kelas k "
+            + "WHERE (j.tanggal < :tanggal OR (j.tanggal = :tanggal AND j.id < :id)) "
+            + "AND j.tanggal BETWEEN :startDate AND :endDate "
+            + "AND (:guruId IS NULL OR g.id = :guruId) "
+            + "AND (:kelasId IS NULL OR k.id = :kelasId) "
+            + "ORDER BY j.tanggal DESC, j.id DESC")
+    List<GuruJurnal> findPage(@Param("tanggal") LocalDate tanggal,
+                              @Param("id") long id,
+                              @Param("startDate") LocalDate startDate,
+                              @Param("endDate") LocalDate endDate,
+                              @Param("guruId") Long guruId,
+                              @Param("kelasId") Long kelasId,
+                              Pageable pageable);
 }
@@ -1,7 +1,10 @@
 package com.smk.presensi.repository;
 
 import com.smk.presensi.entity.Guru;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -125,6 +128,13 @@ public interface GuruRepository extends JpaRepository<Guru, Long> {
      */
     Optional<Guru> findByUser(com.smk.presensi.entity.User user);
     
+    // Semua guru yang punya kartu RFID/barcode dan akun (untuk CredentialDirectory)
+    @Query("SELECT g.id AS entityId, u.id AS userId, u.username AS username, "
+            + "g.rfidCardId AS rfidCardId, g.barcodeId AS barcodeId "
+            + "FROM Guru g JOIN g.user u "
+            + "WHERE g.rfidCardId IS NOT NULL OR g.barcodeId IS NOT NULL")
+    List<CredentialProjection> findAllCredentials();
+    
     // Query method lain yang bisa ditambahkan (belum kita pakai):
     // Optional<Guru> findByNama(String nama); → cari guru berdasarkan nama
     // List<Guru> findByMapel(String mapel); → cari semua guru yang mengajar mata pelajaran tertentu
@@ -133,4 +143,11 @@ public interface GuruRepository extends JpaRepository<Guru, Long> {
     
     // Semua query method ini TIDAK PERLU implementasi!
     // Spring Data JPA akan otomatis generate SQL-nya berdasarkan nama method.
+
+    /**
+     * Baris yang berubah dengan since < rowVersion <= until, urut rowVersion (change feed).
+     * User ikut di-fetch: relasinya EAGER, tanpa JOIN FETCH = 1 query per baris.
+     */
+    @Query("SELECT g FROM Guru g LEFT JOIN FETCH g.user WHERE g.rowVersion > :since AND g.rowVersion <= :until ORDER BY g.rowVersion")
+    List<Guru> findChangedSince(@Param("since") long since, @Param("until") long until, Pageable pageable);
 }
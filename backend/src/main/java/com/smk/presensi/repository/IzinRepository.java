@@ -2,7 +2,10 @@ package com.smk.presensi.repository;
 
 import com.smk.presensi.entity.Izin;
 import com.smk.presensi.enums.IzinStatus;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
@@ -22,5 +25,28 @@ public interface IzinRepository extends JpaRepository<Izin, Long> {
     List<Izin> findBySiswa_Id(Long siswaId);
 
     List<Izin> findBySiswa_IdAndStatus(Long siswaId, IzinStatus status);
-}
 
+    /**
+     * Satu halaman izin (keyset (tanggalMulai, id), terbaru dulu) dengan filter opsional.
+     * Siswa dan approver ikut di-fetch supaya mapping ke DTO tanpa query tambahan.
+     */
+    @Query("SELECT i FROM Izin i LEFT JOIN FETCH i.siswa s LEFT JOIN FETCH i.approvedBy "
+            + "WHERE (i.tanggalMulai < :tanggal OR (i.tanggalMulai = :tanggal AND i.id < :id)) "
+            + "AND (:status IS NULL OR i.status = :status) "
+            + "AND (:siswaId IS NULL OR s.id = :siswaId) "
+            + "AND (:kelas IS NULL OR s.kelas = :kelas) "
+            + "ORDER BY i.tanggalMulai DESC, i.id DESC")
+    List<Izin> findPage(@Param("tanggal") LocalDate tanggal,
+                        @Param("id") long id,
+                        @Param("status") IzinStatus status,
+                        @Param("siswaId") Long siswaId,
+                        @Param("kelas") String kelas,
+                        Pageable pageable);
+
+    /**
+     * Baris yang berubah dengan since < rowVersion <= until, urut rowVersion (change feed).
+     */
+    @Query("SELECT i FROM Izin i LEFT JOIN FETCH i.siswa LEFT JOIN FETCH i.approvedBy "
+            + "WHERE i.rowVersion > :since AND i.rowVersion <= :until ORDER BY i.rowVersion")
+    List<Izin> findChangedSince(@Param("since") long since, @Param("until") long until, Pageable pageable);
+}
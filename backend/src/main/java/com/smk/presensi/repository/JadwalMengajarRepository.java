@@ -1,7 +1,10 @@
 package com.smk.presensi.repository;
 
 import com.smk.presensi.entity.JadwalMengajar;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.DayOfWeek;
@@ -12,4 +15,21 @@ public interface JadwalMengajarRepository extends JpaRepository<JadwalMengajar,
     List<JadwalMengajar> findByGuru_IdAndHariAndAktifTrue(Long guruId, DayOfWeek hari);
     List<JadwalMengajar> findByGuru_IdAndAktifTrue(Long guruId);
     List<JadwalMengajar> findByKelas_IdAndAktifTrue(Long kelasId);
+
+    /**
+     * Satu halaman jadwal (keyset by id) dengan filter opsional.
+     */
+    @Query("SELECT j FROM JadwalMengajar j JOIN FETCH j.guru g JOIN FETCH j.kelas k "
+            + "WHERE j.id > :afterId "
+            + "AND (:guruId IS NULL OR g.id = :guruId) "
+            + "AND (:kelasId IS NULL OR k.id = :kelasId) "
+            + "AND (:hari IS NULL OR j.hari = :hari) "
+            + "AND (:aktif IS NULL OR j.aktif = :aktif) "
+            + "ORDER BY j.id")
+    List<JadwalMengajar> findPage(@Param("afterId") long afterId,
+                                  @Param("guruId") Long guruId,
+                                  @Param("kelasId") Long kelasId,
+                                  @Param("hari") DayOfWeek hari,
+                                  @Param("aktif") Boolean aktif,
+                                  Pageable pageable);
 }
@@ -1,7 +1,13 @@
 package com.smk.presensi.repository;
 
 import com.smk.presensi.entity.Kelas;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -75,7 +81,26 @@ public interface KelasRepository extends JpaRepository<Kelas, Long> {
     
     // Semua query method ini TIDAK PERLU kita implementasi!
     // Cukup tulis nama method sesuai pattern, Spring Data JPA handle sisanya.
+    // findById(id) tidak perlu hint: lookup by primary key langsung dilayani second-level cache.
+    // Daftar kelas (dropdown di desktop/web) diambil dari query cache.
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "reference-queries")
+    })
+    @Override
+    List<Kelas> findAll();
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "reference-queries")
+    })
     Optional<Kelas> findByNama(String nama);
 
     boolean existsByNama(String nama);
+
+    /**
+     * Baris yang berubah dengan since < rowVersion <= until, urut rowVersion (change feed).
+     */
+    @Query("SELECT k FROM Kelas k WHERE k.rowVersion > :since AND k.rowVersion <= :until ORDER BY k.rowVersion")
+    List<Kelas> findChangedSince(@Param("since") long since, @Param("until") long until, Pageable pageable);
 }
@@ -3,7 +3,12 @@ package com.smk.presensi.repository;
 import com.smk.presensi.entity.KoreksiPresensi;
 import com.smk.presensi.entity.User;
 import com.smk.presensi.enums.KoreksiStatus;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
 
 import java.util.List;
 
@@ -12,4 +17,25 @@ public interface KoreksiPresensiRepository extends JpaRepository<KoreksiPresensi
     List<KoreksiPresensi> findByTargetUser(User user);
 
     List<KoreksiPresensi> findByStatus(KoreksiStatus status);
+
+    /**
+     * Satu halaman koreksi (keyset (tanggal, id), terbaru dulu) dengan filter opsional.
+     */
+    @Query("SELECT k FROM KoreksiPresensi k LEFT JOIN FETCH k.targetUser t LEFT JOIN FETCH k.approver "
+            + "WHERE (k.tanggal < :tanggal OR (k.tanggal = :tanggal AND k.id < :id)) "
+            + "AND (:status IS NULL OR k.status = :status) "
+            + "AND (:usernamePrefix IS NULL OR LOWER(t.username) LIKE :usernamePrefix ESCAPE '\\') "
+            + "ORDER BY k.tanggal DESC, k.id DESC")
+    List<KoreksiPresensi> findPage(@Param("tanggal") LocalDate tanggal,
+                                   @Param("id") long id,
+                                   @Param("status") KoreksiStatus status,
+                                   @Param("usernamePrefix") String usernamePrefix,
+                                   Pageable pageable);
+
+    /**
+     * Baris yang berubah dengan since < rowVersion <= until, urut rowVersion (change feed).
+     */
+    @Query("SELECT k FROM KoreksiPresensi k LEFT JOIN FETCH k.targetUser LEFT JOIN FETCH k.approver "
+            + "WHERE k.rowVersion > :since AND k.rowVersion <= :until ORDER BY k.rowVersion")
+    List<KoreksiPresensi> findChangedSince(@Param("since") long since, @Param("until") long until, Pageable pageable);
 }
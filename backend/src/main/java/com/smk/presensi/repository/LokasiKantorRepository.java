@@ -1,7 +1,10 @@
 package com.smk.presensi.repository;
 
 import com.smk.presensi.entity.LokasiKantor;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -41,9 +44,14 @@ public interface LokasiKantorRepository extends JpaRepository<LokasiKantor, Long
      * Use case:
      * - Quick access untuk active location
      * - Digunakan di GeolocationService untuk validasi GPS
+     * - Dipanggil di setiap checkin manual → hasil di-cache (query cache)
      * 
      * @return Optional<LokasiKantor> - active location atau empty jika belum setup
      */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "reference-queries")
+    })
     Optional<LokasiKantor> findFirstByIsActive(Boolean isActive);
     
     /**
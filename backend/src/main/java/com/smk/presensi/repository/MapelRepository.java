@@ -1,11 +1,21 @@
 package com.smk.presensi.repository;
 
 import com.smk.presensi.entity.Mapel;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 
 import java.util.List;
 
 public interface MapelRepository extends JpaRepository<Mapel, Long> {
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "reference-queries")
+    })
+    @Override
+    List<Mapel> findAll();
+
     boolean existsByKodeIgnoreCase(String kode);
 
     List<Mapel> findByKodeContainingIgnoreCaseOrNamaContainingIgnoreCase(String kode, String nama);
@@ -2,8 +2,11 @@ package com.smk.presensi.repository;
 
 import com.smk.presensi.entity.PenempatanPkl;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
 import java.util.List;
 
 @Repository
@@ -12,5 +15,15 @@ public interface PenempatanPklRepository extends JpaRepository<PenempatanPkl, Lo
     List<PenempatanPkl> findByDudi_Id(Long dudiId);
 
     List<PenempatanPkl> findBySiswa_Id(Long siswaId);
+
+    /**
+     * Penempatan yang belum selesai per tanggal tersebut, dengan user siswanya.
+     * Siswa tanpa akun (user null) tidak bisa checkin, jadi tidak ikut.
+     */
+    @Query("SELECT u.id AS userId, d.id AS dudiId, p.tanggalMulai AS tanggalMulai, "
+            + "p.tanggalSelesai AS tanggalSelesai "
+            + "FROM PenempatanPkl p JOIN p.siswa s JOIN s.user u JOIN p.dudi d "
+            + "WHERE d.aktif = true AND p.tanggalSelesai >= :tanggal")
+    List<PklPlacementProjection> findActivePlacements(@Param("tanggal") LocalDate tanggal);
 }
 
@@ -0,0 +1,17 @@
+package com.smk.presensi.repository;
+
+import java.time.LocalDate;
+
+/**
+ * PROJECTION untuk GeofenceIndex: user siswa → DUDI tempat PKL-nya.
+ */
+public interface PklPlacementProjection {
+
+    Long getUserId();
+
+    Long getDudiId();
+
+    LocalDate getTanggalMulai();
+
+    LocalDate getTanggalSelesai();
+}
@@ -0,0 +1,19 @@
+package com.smk.presensi.repository;
+
+import com.smk.presensi.enums.StatusPresensi;
+
+import java.time.LocalTime;
+
+/**
+ * PROJECTION untuk counter live AttendanceEventBus.
+ *
+ * Satu baris per presensi: cukup id, status dan jam pulang.
+ */
+public interface PresensiCounterProjection {
+
+    Long getId();
+
+    StatusPresensi getStatus();
+
+    LocalTime getJamPulang();
+}
@@ -0,0 +1,46 @@
+package com.smk.presensi.repository;
+
+import com.smk.presensi.entity.PresensiDailyRollup;
+import com.smk.presensi.entity.PresensiDailyRollupId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface PresensiDailyRollupRepository extends JpaRepository<PresensiDailyRollup, PresensiDailyRollupId> {
+
+    @Modifying
+    @Query("DELETE FROM PresensiDailyRollup r WHERE r.id.tanggal BETWEEN :startDate AND :endDate")
+    int deleteByTanggalBetween(@Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
+
+    /**
+     * Hitung ulang rollup dari tabel presensi (satu INSERT ... SELECT ... GROUP BY).
+     * Baris di rentang ini harus sudah dihapus dulu.
+     *
+     * Kelas presensi siswa diambil dari data siswa (presensi.kelas_id hanya
+     * terisi untuk jurnal guru); aturannya sama dengan PresensiRollupService.keyOf.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO presensi_daily_rollup (tanggal, tipe, kelas_id, status, method, jumlah) "
+            + "SELECT p.tanggal, p.tipe, COALESCE(k.id, p.kelas_id, 0), p.status, p.method, COUNT(*) "
+            + "FROM presensi p "
+            + "LEFT JOIN siswa s ON p.tipe = 'SISWA' AND s.user_id = p.user_id "
+            + "LEFT JOIN (SELECT nama, MIN(id) AS id FROM kelas GROUP BY nama) k ON k.nama = s.kelas "
+            + "WHERE p.tanggal BETWEEN :startDate AND :endDate "
+            + "GROUP BY p.tanggal, p.tipe, COALESCE(k.id, p.kelas_id, 0), p.status, p.method", nativeQuery = true)
+    int insertFromPresensi(@Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
+
+    /**
+     * Jumlah presensi per status + method dalam rentang tanggal.
+     */
+    @Query("SELECT r.id.status AS status, r.id.method AS method, SUM(r.jumlah) AS jumlah "
+            + "FROM PresensiDailyRollup r WHERE r.id.tanggal BETWEEN :startDate AND :endDate "
+            + "GROUP BY r.id.status, r.id.method")
+    List<StatusMethodCount> sumByStatusAndMethod(@Param("startDate") LocalDate startDate,
+                                                 @Param("endDate") LocalDate endDate);
+}
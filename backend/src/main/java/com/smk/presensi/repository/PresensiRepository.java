@@ -1,17 +1,26 @@
 package com.smk.presensi.repository;
 
+import com.smk.presensi.dto.presensi.PresensiResponse;
 import com.smk.presensi.entity.Presensi;
 import com.smk.presensi.entity.User;
 import com.smk.presensi.enums.MethodPresensi;
 import com.smk.presensi.enums.StatusPresensi;
+import com.smk.presensi.enums.TipeUser;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface PresensiRepository extends JpaRepository<Presensi, Long> {
@@ -28,7 +37,67 @@ public interface PresensiRepository extends JpaRepository<Presensi, Long> {
 
     boolean existsByUserAndTanggal(User user, LocalDate tanggal);
 
+    boolean existsByUserIdAndTanggal(Long userId, LocalDate tanggal);
+
+    Optional<Presensi> findByUserIdAndTanggal(Long userId, LocalDate tanggal);
+
     List<Presensi> findByTanggal(LocalDate tanggal);
+
+    /**
+     * Presensi milik sekumpulan user dalam rentang tanggal (cek bentrok bulk sync),
+     * user ikut di-fetch supaya response tidak memicu query per baris.
+     */
+    @Query("SELECT p FROM Presensi p JOIN FETCH p.user "
+            + "WHERE p.user.id IN :userIds AND p.tanggal BETWEEN :startDate AND :endDate")
+    List<Presensi> findByUserIdInAndTanggalBetween(@Param("userIds") Collection<Long> userIds,
+                                                   @Param("startDate") LocalDate startDate,
+                                                   @Param("endDate") LocalDate endDate);
+
+    @Query("SELECT MIN(p.tanggal) FROM Presensi p")
+    LocalDate findMinTanggal();
+
+    @Query("SELECT MAX(p.tanggal) FROM Presensi p")
+    LocalDate findMaxTanggal();
+
+    /**
+     * INSERT presensi checkin, atau tidak melakukan apa-apa jika user sudah
+     * punya presensi di tanggal tersebut (unique uk_presensi_user_tanggal).
+     *
+     * Satu statement, tanpa SELECT dulu dan tanpa exception saat duplikat:
+     * - Berhasil insert → return ID baru
+     * - Sudah ada → tidak ada row → Optional.empty()
+     *
+     * Native query: entity listener TIDAK terpanggil, pemanggil yang
+     * harus mengabari DailyAttendanceState dan mengisi rowVersion.
+     *
+     * ID = nextval mentah: satu nilai sequence (satu blok 50 id) per tap. Aman
+     * karena Hibernate memakai pooled-lo (blok dimulai DARI nilai sequence).
+     */
+    @Query(value = "INSERT INTO presensi (id, user_id, tipe, tanggal, jam_masuk, status, method, "
+            + "latitude, longitude, keterangan, idempotency_key, row_version) "
+            + "VALUES (nextval('presensi_id_seq'), :#{#p.user.id}, :#{#p.tipe.name()}, :#{#p.tanggal}, :#{#p.jamMasuk}, "
+            + ":#{#p.status.name()}, :#{#p.method.name()}, "
+            + "CAST(:#{#p.latitude} AS double precision), CAST(:#{#p.longitude} AS double precision), "
+            + "CAST(:#{#p.keterangan} AS varchar), CAST(:#{#p.idempotencyKey} AS varchar), "
+            + "CAST(:#{#p.rowVersion} AS bigint)) "
+            + "ON CONFLICT (user_id, tanggal) DO NOTHING "
+            + "RETURNING id", nativeQuery = true)
+    Optional<Long> insertCheckinIfAbsent(@Param("p") Presensi presensi);
+
+    /**
+     * Ringkasan presensi satu hari (tanpa load entity/User).
+     * Dipakai DailyAttendanceState saat rebuild.
+     */
+    @Query("SELECT p.id AS id, p.user.id AS userId "
+            + "FROM Presensi p WHERE p.tanggal = :tanggal ORDER BY p.id")
+    List<DailyPresensiProjection> findDailySummary(@Param("tanggal") LocalDate tanggal);
+
+    /**
+     * Status per presensi satu hari, untuk counter live AttendanceEventBus.
+     */
+    @Query("SELECT p.id AS id, p.status AS status, p.jamPulang AS jamPulang "
+            + "FROM Presensi p WHERE p.tanggal = :tanggal")
+    List<PresensiCounterProjection> findCounterRows(@Param("tanggal") LocalDate tanggal);
     
     // ===== TAHAP 9: REPORTING & ANALYTICS =====
     
@@ -56,9 +125,119 @@ public interface PresensiRepository extends JpaRepository<Presensi, Long> {
      */
     List<Presensi> findByStatusAndTanggalBetween(StatusPresensi status, LocalDate startDate, LocalDate endDate);
     
+    // ===== LAPORAN: AGREGASI & PROJECTION (tanpa load entity) =====
+
+    /**
+     * Jumlah presensi per status + method dalam rentang tanggal (satu GROUP BY).
+     */
+    @Query("SELECT p.status AS status, p.method AS method, COUNT(p) AS jumlah "
+            + "FROM Presensi p WHERE p.tanggal BETWEEN :startDate AND :endDate "
+            + "GROUP BY p.status, p.method")
+    List<StatusMethodCount> countByStatusAndMethod(@Param("startDate") LocalDate startDate,
+                                                   @Param("endDate") LocalDate endDate);
+
+    /**
+     * Daftar presensi langsung dalam bentuk DTO (constructor expression).
+     * 
+     * Tidak ada entity Presensi/User yang di-load, jadi roles user (EAGER)
+     * juga tidak ikut di-query.
+     */
+    String PRESENSI_RESPONSE_SELECT = "SELECT new com.smk.presensi.dto.presensi.PresensiResponse("
+            + "p.id, u.id, u.username, p.tipe, p.tanggal, p.jamMasuk, p.jamPulang, p.status, p.method, "
+            + "p.latitude, p.longitude, p.keterangan, k.id, k.nama, p.mapel, p.materi) "
+            + "FROM Presensi p JOIN p.user u LEFT JOIN p.kelas k ";
+
+    /**
+     * Filter kelas: presensi siswa ikut kelas siswanya (Siswa.kelas = nama kelas),
+     * presensi guru ikut kelas jurnalnya (presensi.kelas). presensi.kelas kosong
+     * untuk checkin siswa, jadi filter k.id saja tidak pernah cocok dengan siswa.
+     */
+    String KELAS_FILTER = "(k.id = :kelasId OR EXISTS (SELECT 1 FROM Siswa s JOIN Kelas sk ON sk.nama = s.kelas "
+            + "WHERE s.user.id = u.id AND sk.id = :kelasId)) ";
+
+    @Query(value = PRESENSI_RESPONSE_SELECT + "WHERE p.tanggal = :tanggal",
+            countQuery = "SELECT COUNT(p) FROM Presensi p WHERE p.tanggal = :tanggal")
+    Page<PresensiResponse> findResponsesByTanggal(@Param("tanggal") LocalDate tanggal, Pageable pageable);
+
+    @Query(PRESENSI_RESPONSE_SELECT + "WHERE p.tanggal BETWEEN :startDate AND :endDate ORDER BY p.tanggal, p.id")
+    List<PresensiResponse> findResponsesByTanggalBetween(@Param("startDate") LocalDate startDate,
+                                                         @Param("endDate") LocalDate endDate);
+
+    /**
+     * Satu halaman presensi (keyset, terbaru dulu) dengan filter opsional.
+     * 
+     * Baris setelah cursor: (tanggal, id) &lt; (:tanggal, :id).
+     * Filter null = tidak difilter. usernamePrefix sudah berupa pola LIKE (lihat PageCursor.likePrefix).
+     */
+    @Query(PRESENSI_RESPONSE_SELECT
+            + "WHERE (p.tanggal < :tanggal OR (p.tanggal = :tanggal AND p.id < :id)) "
+            + "AND p.tanggal BETWEEN :startDate AND :endDate "
+            + "AND (:status IS NULL OR p.status = :status) "
+            + "AND (:tipe IS NULL OR p.tipe = :tipe) "
+            + "AND (:kelasId IS NULL OR " + KELAS_FILTER + ") "
+            + "AND (:usernamePrefix IS NULL OR LOWER(u.username) LIKE :usernamePrefix ESCAPE '\\') "
+            + "ORDER BY p.tanggal DESC, p.id DESC")
+    List<PresensiResponse> findPage(@Param("tanggal") LocalDate tanggal,
+                                    @Param("id") long id,
+                                    @Param("startDate") LocalDate startDate,
+                                    @Param("endDate") LocalDate endDate,
+                                    @Param("status") StatusPresensi status,
+                                    @Param("tipe") TipeUser tipe,
+                                    @Param("kelasId") Long kelasId,
+                                    @Param("usernamePrefix") String usernamePrefix,
+                                    Pageable pageable);
+
+    /**
+     * Stream presensi untuk export (cursor, dibaca bertahap per fetch size).
+     * 
+     * Wajib dipanggil di dalam transaksi dan Stream harus di-close.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query(PRESENSI_RESPONSE_SELECT + "WHERE p.tanggal BETWEEN :startDate AND :endDate ORDER BY p.tanggal, p.id")
+    Stream<PresensiResponse> streamResponsesByTanggalBetween(@Param("startDate") LocalDate startDate,
+                                                             @Param("endDate") LocalDate endDate);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query(PRESENSI_RESPONSE_SELECT + "WHERE p.tanggal BETWEEN :startDate AND :endDate AND " + KELAS_FILTER
+            + "ORDER BY p.tanggal, p.id")
+    Stream<PresensiResponse> streamResponsesByTanggalBetweenAndKelas(@Param("startDate") LocalDate startDate,
+                                                                     @Param("endDate") LocalDate endDate,
+                                                                     @Param("kelasId") Long kelasId);
+
+    /**
+     * Jumlah presensi dan jumlah yang sudah checkout pada satu tanggal.
+     * Hasil: [total, sudahCheckout]
+     */
+    @Query("SELECT COUNT(p), COUNT(p.jamPulang) FROM Presensi p WHERE p.tanggal = :tanggal")
+    List<Object[]> countCheckoutByTanggal(@Param("tanggal") LocalDate tanggal);
+
+    /**
+     * Rata-rata durasi kerja (menit, dibulatkan per presensi) yang sudah checkout.
+     */
+    @Query(value = "SELECT AVG(TRUNC(EXTRACT(EPOCH FROM (jam_pulang - jam_masuk)) / 60)) "
+            + "FROM presensi WHERE tanggal BETWEEN :startDate AND :endDate "
+            + "AND jam_pulang IS NOT NULL AND jam_masuk IS NOT NULL", nativeQuery = true)
+    Double averageWorkMinutes(@Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
+
+    /**
+     * Jumlah presensi dengan durasi kerja lebih dari :menit.
+     */
+    @Query(value = "SELECT COUNT(*) FROM presensi WHERE tanggal BETWEEN :startDate AND :endDate "
+            + "AND jam_pulang IS NOT NULL AND jam_masuk IS NOT NULL "
+            + "AND TRUNC(EXTRACT(EPOCH FROM (jam_pulang - jam_masuk)) / 60) > :menit", nativeQuery = true)
+    long countWorkLongerThan(@Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate,
+                             @Param("menit") long menit);
+
     /**
      * Custom query: Count total records within date range.
      */
     @Query("SELECT COUNT(p) FROM Presensi p WHERE p.tanggal BETWEEN :startDate AND :endDate")
     long countByTanggalBetween(@Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
+
+    /**
+     * Baris yang berubah dengan since < rowVersion <= until, urut rowVersion (change feed).
+     */
+    @Query("SELECT p FROM Presensi p JOIN FETCH p.user LEFT JOIN FETCH p.kelas "
+            + "WHERE p.rowVersion > :since AND p.rowVersion <= :until ORDER BY p.rowVersion")
+    List<Presensi> findChangedSince(@Param("since") long since, @Param("until") long until, Pageable pageable);
 }
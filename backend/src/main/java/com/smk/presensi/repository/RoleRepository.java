@@ -2,7 +2,10 @@ package com.smk.presensi.repository;
 
 import com.smk.presensi.entity.Role;
 import com.smk.presensi.entity.Role.RoleName;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
@@ -50,8 +53,15 @@ public interface RoleRepository extends JpaRepository<Role, Long> {
      * Role adminRole = roleRepository.findByName(RoleName.ROLE_ADMIN)
      *         .orElseThrow(() -> new RuntimeException("Role not found"));
      * 
+     * Dipanggil setiap register/create user → hasilnya dari query cache
+     * (region "reference-queries"), bukan query ke database.
+     * 
      * @param name Role name (enum: ROLE_ADMIN, ROLE_GURU, ROLE_SISWA)
      * @return Optional<Role> (bisa empty jika tidak ditemukan)
      */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "reference-queries")
+    })
     Optional<Role> findByName(RoleName name);
 }
@@ -0,0 +1,13 @@
+package com.smk.presensi.repository;
+
+/**
+ * PROJECTION untuk PresensiRollupService: user siswa → id kelas.
+ *
+ * Siswa menyimpan kelas sebagai nama ("XII RPL 1"); id kelas dicari lewat Kelas.nama.
+ */
+public interface SiswaKelasProjection {
+
+    Long getUserId();
+
+    Long getKelasId();
+}
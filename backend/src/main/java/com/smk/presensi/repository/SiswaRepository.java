@@ -2,7 +2,10 @@ package com.smk.presensi.repository;
 
 // Import yang diperlukan
 import com.smk.presensi.entity.Siswa;  // Entity Siswa yang akan dikelola
+import org.springframework.data.domain.Pageable;  // Batas jumlah baris (LIMIT)
 import org.springframework.data.jpa.repository.JpaRepository;  // Interface utama JPA Repository
+import org.springframework.data.jpa.repository.Query;  // Custom JPQL query
+import org.springframework.data.repository.query.Param;  // Nama parameter di query
 import org.springframework.stereotype.Repository;  // Anotasi untuk menandai sebagai repository
 
 import java.util.List;  // List untuk return banyak data
@@ -145,6 +148,30 @@ public interface SiswaRepository extends JpaRepository<Siswa, Long> {
      */
     Optional<Siswa> findByUser(com.smk.presensi.entity.User user);
     
+    /**
+     * FIND ALL CREDENTIALS - Semua siswa yang punya kartu RFID/barcode dan akun.
+     * 
+     * Dipakai CredentialDirectory saat startup (satu query, tanpa N+1).
+     * 
+     * @return List projection (id siswa, user, rfid, barcode)
+     */
+    @Query("SELECT s.id AS entityId, u.id AS userId, u.username AS username, "
+            + "s.rfidCardId AS rfidCardId, s.barcodeId AS barcodeId "
+            + "FROM Siswa s JOIN s.user u "
+            + "WHERE s.rfidCardId IS NOT NULL OR s.barcodeId IS NOT NULL")
+    List<CredentialProjection> findAllCredentials();
+
+    /**
+     * FIND KELAS IDS - id kelas untuk setiap siswa yang punya akun.
+     * 
+     * Dipakai PresensiRollupService: presensi siswa tidak menyimpan kelas,
+     * jadi kelas rollup diambil dari data siswa. Nama kelas ganda → id terkecil.
+     */
+    @Query("SELECT s.user.id AS userId, MIN(k.id) AS kelasId "
+            + "FROM Siswa s JOIN Kelas k ON k.nama = s.kelas "
+            + "WHERE s.user IS NOT NULL GROUP BY s.user.id")
+    List<SiswaKelasProjection> findKelasIds();
+    
     // CATATAN PENTING:
     // Method di atas TIDAK PERLU implementasi!
     // Spring Data JPA otomatis bikin SQL dan implementasinya.
@@ -161,4 +188,31 @@ public interface SiswaRepository extends JpaRepository<Siswa, Long> {
     // List<Siswa> findByJurusan(String jurusan);
     // List<Siswa> findByKelasAndJurusan(String kelas, String jurusan);
     long countByKelas(String kelas);
+    
+    /**
+     * FIND PAGE - Satu halaman siswa (keyset by id) dengan filter opsional.
+     * 
+     * SQL kira-kira:
+     * SELECT * FROM siswa WHERE id > ? [AND kelas = ?] [AND (nama/nis LIKE ?)] ORDER BY id LIMIT ?
+     * 
+     * @param afterId    ID terakhir dari halaman sebelumnya (0 = halaman pertama)
+     * @param kelas      Filter kelas (null = semua)
+     * @param namaPrefix Pola LIKE untuk prefix nama/NIS (null = semua)
+     */
+    @Query("SELECT s FROM Siswa s WHERE s.id > :afterId "
+            + "AND (:kelas IS NULL OR s.kelas = :kelas) "
+            + "AND (:namaPrefix IS NULL OR LOWER(s.nama) LIKE :namaPrefix ESCAPE '\\' "
+            + "OR LOWER(s.nis) LIKE :namaPrefix ESCAPE '\\') "
+            + "ORDER BY s.id")
+    List<Siswa> findPage(@Param("afterId") long afterId,
+                         @Param("kelas") String kelas,
+                         @Param("namaPrefix") String namaPrefix,
+                         Pageable pageable);
+
+    /**
+     * Baris yang berubah dengan since < rowVersion <= until, urut rowVersion (change feed).
+     * User ikut di-fetch: relasinya EAGER, tanpa JOIN FETCH = 1 query per baris.
+     */
+    @Query("SELECT s FROM Siswa s LEFT JOIN FETCH s.user WHERE s.rowVersion > :since AND s.rowVersion <= :until ORDER BY s.rowVersion")
+    List<Siswa> findChangedSince(@Param("since") long since, @Param("until") long until, Pageable pageable);
 }
@@ -0,0 +1,18 @@
+package com.smk.presensi.repository;
+
+import com.smk.presensi.enums.MethodPresensi;
+import com.smk.presensi.enums.StatusPresensi;
+
+/**
+ * PROJECTION hasil GROUP BY status, method.
+ *
+ * Satu baris = jumlah presensi untuk satu kombinasi status + method.
+ */
+public interface StatusMethodCount {
+
+    StatusPresensi getStatus();
+
+    MethodPresensi getMethod();
+
+    Long getJumlah();
+}
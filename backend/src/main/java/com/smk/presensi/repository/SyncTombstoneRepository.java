@@ -0,0 +1,26 @@
+package com.smk.presensi.repository;
+
+import com.smk.presensi.entity.SyncTombstone;
+import com.smk.presensi.enums.SyncEntityType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface SyncTombstoneRepository extends JpaRepository<SyncTombstone, Long> {
+
+    /**
+     * Baris yang dihapus dengan since < rowVersion <= until (hanya tipe entity yang diminta).
+     */
+    @Query("SELECT t FROM SyncTombstone t WHERE t.rowVersion > :since AND t.rowVersion <= :until "
+            + "AND t.entityType IN :types ORDER BY t.rowVersion")
+    List<SyncTombstone> findChangedSince(@Param("since") long since,
+                                         @Param("until") long until,
+                                         @Param("types") Collection<SyncEntityType> types,
+                                         Pageable pageable);
+}
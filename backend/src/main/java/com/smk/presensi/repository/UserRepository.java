@@ -1,9 +1,14 @@
 package com.smk.presensi.repository;
 
 import com.smk.presensi.entity.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -90,4 +95,38 @@ public interface UserRepository extends JpaRepository<User, Long> {
      * @return true jika username sudah dipakai, false jika tersedia
      */
     Boolean existsByUsername(String username);
+    
+    /**
+     * ID user untuk satu halaman (keyset by id), dengan filter prefix username.
+     * 
+     * Kenapa hanya ID?
+     * - roles adalah koleksi EAGER; JOIN FETCH koleksi + LIMIT membuat Hibernate
+     *   memotong halaman di memory (semua baris tetap dibaca)
+     * - Jadi: ambil ID dulu (LIMIT di database), lalu load user + roles by ID
+     * 
+     * @param afterId        ID terakhir halaman sebelumnya (0 = halaman pertama)
+     * @param usernamePrefix Pola LIKE (null = semua)
+     */
+    @Query("SELECT u.id FROM User u WHERE u.id > :afterId "
+            + "AND (:usernamePrefix IS NULL OR LOWER(u.username) LIKE :usernamePrefix ESCAPE '\\') "
+            + "ORDER BY u.id")
+    List<Long> findPageIds(@Param("afterId") long afterId,
+                           @Param("usernamePrefix") String usernamePrefix,
+                           Pageable pageable);
+    
+    /**
+     * Load user + roles untuk daftar ID (satu query, tanpa N+1).
+     */
+    @Query("SELECT DISTINCT u FROM User u LEFT JOIN FETCH u.roles WHERE u.id IN :ids ORDER BY u.id")
+    List<User> findAllWithRolesByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * FIND EVENT TOPICS - Username semua user, plus nama/kelas/jurusan jika user adalah siswa.
+     *
+     * Dipakai AttendanceEventBus (satu query, di-cache di memory).
+     */
+    @Query("SELECT u.id AS userId, u.username AS username, s.nama AS nama, "
+            + "s.kelas AS kelas, s.jurusan AS jurusan "
+            + "FROM User u LEFT JOIN Siswa s ON s.user = u")
+    List<UserTopicProjection> findEventTopics();
 }
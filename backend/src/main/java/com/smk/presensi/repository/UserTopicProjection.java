@@ -0,0 +1,19 @@
+package com.smk.presensi.repository;
+
+/**
+ * PROJECTION untuk AttendanceEventBus: user → username, dan nama/kelas/jurusan jika siswa.
+ *
+ * Dipakai untuk menandai event live dengan topik (kelas/jurusan).
+ */
+public interface UserTopicProjection {
+
+    Long getUserId();
+
+    String getUsername();
+
+    String getNama();
+
+    String getKelas();
+
+    String getJurusan();
+}
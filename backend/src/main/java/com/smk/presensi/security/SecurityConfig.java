@@ -2,6 +2,7 @@ package com.smk.presensi.security;
 
 import com.smk.presensi.security.jwt.JwtAuthenticationFilter;
 import com.smk.presensi.security.service.CustomUserDetailsService;
+import jakarta.servlet.DispatcherType;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -16,6 +17,10 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.http.HttpMethod;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+import org.springframework.security.web.context.RequestAttributeSecurityContextRepository;
+import org.springframework.security.web.util.matcher.AndRequestMatcher;
+import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
+import org.springframework.security.web.util.matcher.DispatcherTypeRequestMatcher;
 
 /**
  * Security Configuration - Konfigurasi keamanan aplikasi.
@@ -136,8 +141,25 @@ public class SecurityConfig {
                         session.sessionCreationPolicy(SessionCreationPolicy.STATELESS)
                 )
                 
+                // SecurityContext dibaca dari atribut request (diisi JwtAuthenticationFilter),
+                // jadi dispatch ASYNC/ERROR dari request yang sama tetap ter-authenticate
+                .securityContext(context ->
+                        context.securityContextRepository(new RequestAttributeSecurityContextRepository())
+                )
+                
                 // 4. Authorization rules: Tentukan endpoint mana yang perlu auth
                 .authorizeHttpRequests(auth -> auth
+                        // Dispatch ASYNC SSE /api/events sudah diotorisasi di request awal
+                        // dan bisa terjadi jauh setelahnya (emitter timeout/complete).
+                        // Dispatch lanjutan lain (streaming export) diotorisasi ulang memakai
+                        // authentication yang disimpan JwtAuthenticationFilter di atribut request.
+                        .requestMatchers(new AndRequestMatcher(
+                                new DispatcherTypeRequestMatcher(DispatcherType.ASYNC),
+                                new AntPathRequestMatcher("/api/events/**"))).permitAll()
+                        
+                        // Halaman error Spring Boot: hanya merender status yang sudah diputuskan
+                        .requestMatchers("/error").permitAll()
+                        
                         // Public endpoints (tidak perlu authentication)
                         // Auth endpoints: login (public), register khusus admin
                         .requestMatchers("/api/auth/login").permitAll()
@@ -161,6 +183,15 @@ public class SecurityConfig {
                         // Hardware tidak bisa login, jadi endpoint harus public
                         .requestMatchers("/api/presensi/face/**").permitAll()
                         
+                        // Gate endpoints (bulk scan dari gate RFID/barcode)
+                        // Hardware tidak bisa login, jadi endpoint harus public
+                        .requestMatchers("/api/presensi/gate/**").permitAll()
+                        
+                        // Actuator (management port, default hanya 127.0.0.1:8082)
+                        // Prometheus scraper tidak membawa JWT; detail /metrics tetap ADMIN
+                        .requestMatchers("/actuator/health/**", "/actuator/info", "/actuator/prometheus").permitAll()
+                        .requestMatchers("/actuator/**").hasRole("ADMIN")
+                        
                         // Semua endpoint lain PERLU authentication
                         .anyRequest().authenticated()
                 )
@@ -1,6 +1,9 @@
 package com.smk.presensi.security.jwt;
 
-import com.smk.presensi.security.service.CustomUserDetailsService;
+import com.smk.presensi.security.service.PrincipalCache;
+import com.smk.presensi.service.AttendanceMetrics;
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.Timer;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -8,14 +11,19 @@ import jakarta.servlet.http.HttpServletResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
+import org.springframework.security.web.context.RequestAttributeSecurityContextRepository;
+import org.springframework.security.web.context.SecurityContextRepository;
 import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.List;
 
 /**
  * JWT Authentication Filter - Intercept HTTP request untuk validate JWT token.
@@ -26,9 +34,9 @@ import java.io.IOException;
  * Request → JwtAuthenticationFilter → Controller
  *           ↓
  *           1. Extract token dari header
- *           2. Validate token
- *           3. Extract username
- *           4. Load user from database
+ *           2. Validate token + ambil claims (1x verifikasi signature)
+ *           3. Username & roles dari claims (tanpa query database)
+ *           4. Cek revocation (PrincipalCache, TTL pendek)
  *           5. Set Authentication ke SecurityContext
  *           6. Continue to next filter/controller
  * 
@@ -44,15 +52,22 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     private static final Logger logger = LoggerFactory.getLogger(JwtAuthenticationFilter.class);
     
     private final JwtUtil jwtUtil;
-    private final CustomUserDetailsService userDetailsService;
+    private final PrincipalCache principalCache;
+    private final AttendanceMetrics attendanceMetrics;
+    
+    // Authentication disimpan di atribut request: dispatch ASYNC/ERROR lanjutan
+    // (streaming export, /error) tidak membawa ulang header dan tidak melewati filter ini
+    private final SecurityContextRepository contextRepository = new RequestAttributeSecurityContextRepository();
     
     /**
      * Constructor injection.
      * Spring otomatis inject dependencies.
      */
-    public JwtAuthenticationFilter(JwtUtil jwtUtil, CustomUserDetailsService userDetailsService) {
+    public JwtAuthenticationFilter(JwtUtil jwtUtil, PrincipalCache principalCache,
+                                   AttendanceMetrics attendanceMetrics) {
         this.jwtUtil = jwtUtil;
-        this.userDetailsService = userDetailsService;
+        this.principalCache = principalCache;
+        this.attendanceMetrics = attendanceMetrics;
     }
     
     /**
@@ -62,9 +77,9 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
      * 1. Extract JWT token dari header "Authorization: Bearer <token>"
      * 2. Jika tidak ada token → Skip (continue to next filter)
      * 3. Jika ada token:
-     *    a. Validate token (signature, expiration)
-     *    b. Extract username dari token
-     *    c. Load user dari database
+     *    a. Parse + validate token SEKALI (signature, expiration)
+     *    b. Username (sub) dan roles dari claims
+     *    c. Cek user masih aktif (PrincipalCache, bukan query setiap request)
      *    d. Create Authentication object
      *    e. Set Authentication ke SecurityContext
      * 4. Continue to next filter/controller
@@ -82,25 +97,34 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             FilterChain filterChain
     ) throws ServletException, IOException {
         
+        // Hanya waktu filter ini (langkah 1-7) yang diukur, bukan controller di belakangnya
+        Timer.Sample sample = attendanceMetrics.start();
+        String outcome = "anonymous";
         try {
             // 1. Extract JWT token dari request header
             String jwt = getJwtFromRequest(request);
+            if (StringUtils.hasText(jwt)) {
+                outcome = "rejected";
+            }
             
             // 2. Cek apakah token ada dan valid
-            if (StringUtils.hasText(jwt) && jwtUtil.validateToken(jwt)) {
-                
-                // 3. Extract username dari token
-                String username = jwtUtil.getUsernameFromToken(jwt);
+            Claims claims = StringUtils.hasText(jwt) ? jwtUtil.parseClaims(jwt) : null;
+            
+            // 3. Extract username dari claims
+            String username = claims != null ? claims.getSubject() : null;
+            
+            // 4. Cek revocation: user dihapus/di-disable setelah token dibuat?
+            if (username != null && principalCache.isEnabled() && !principalCache.isActive(username)) {
+                logger.debug("User {} sudah tidak aktif, token ditolak", username);
+                username = null;
+            }
+            
+            if (username != null) {
                 
-                // 4. Load user details dari database
-                // UserDetailsService.loadUserByUsername() akan query database
-                // Return UserDetails dengan username, password, roles
-                UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+                // 5. Roles ikut ditandatangani di token → tidak perlu load dari database
+                List<GrantedAuthority> authorities = jwtUtil.getAuthorities(claims);
+                UserDetails userDetails = new User(username, "", authorities);
                 
-                // 5. Create Authentication object
-                // UsernamePasswordAuthenticationToken adalah implementation of Authentication
-                // Constructor dengan 3 parameters = authenticated (sudah verified)
-                // Constructor dengan 2 parameters = not authenticated (belum verified)
                 UsernamePasswordAuthenticationToken authentication =
                         new UsernamePasswordAuthenticationToken(
                                 userDetails,           // Principal (user info)
@@ -119,6 +143,8 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
                 // Setelah di-set, Spring Security tahu user yang sedang login
                 // Controller bisa access via SecurityContextHolder.getContext().getAuthentication()
                 SecurityContextHolder.getContext().setAuthentication(authentication);
+                contextRepository.saveContext(SecurityContextHolder.getContext(), request, response);
+                outcome = "authenticated";
                 
                 logger.debug("Set authentication for user: {}", username);
             }
@@ -128,6 +154,8 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             // Log error tapi JANGAN throw exception
             // Let request continue (akan ditolak oleh FilterSecurityInterceptor nanti)
             logger.error("Cannot set user authentication: {}", e.getMessage());
+        } finally {
+            attendanceMetrics.stopJwtFilter(sample, outcome);
         }
         
         // 8. Continue to next filter/controller
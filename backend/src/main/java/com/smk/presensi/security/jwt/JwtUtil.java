@@ -3,17 +3,21 @@ package com.smk.presensi.security.jwt;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
 import io.jsonwebtoken.security.SignatureException;
+import jakarta.annotation.PostConstruct;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 import java.util.Date;
+import java.util.List;
 import java.util.stream.Collectors;
 
 /**
@@ -21,8 +25,8 @@ import java.util.stream.Collectors;
  * 
  * Fungsi utama:
  * 1. generateToken() → Create JWT token setelah user login
- * 2. validateToken() → Verify signature dan expiration
- * 3. getUsernameFromToken() → Extract username dari token
+ * 2. parseClaims() → Verify signature dan expiration, sekali parse
+ * 3. getAuthorities() → Roles dari claim (tanpa query database)
  * 
  * JWT Token Structure:
  * Header.Payload.Signature
@@ -69,6 +73,24 @@ public class JwtUtil {
     @Value("${app.jwt.expiration}")
     private long jwtExpiration;
     
+    /**
+     * SecretKey dan parser dibuat SEKALI saat startup.
+     * 
+     * Sebelumnya setiap method memanggil Keys.hmacShaKeyFor() dan membangun
+     * parser baru → dikerjakan ulang untuk setiap request.
+     * JwtParser immutable dan thread-safe, jadi aman dipakai bersama.
+     */
+    private SecretKey signingKey;
+    private JwtParser parser;
+    
+    @PostConstruct
+    public void init() {
+        signingKey = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
+        parser = Jwts.parser()
+                .verifyWith(signingKey)
+                .build();
+    }
+    
     /**
      * Generate JWT token dari Authentication object.
      * 
@@ -118,11 +140,7 @@ public class JwtUtil {
         // Current time + expiration duration
         Date expiryDate = new Date(now.getTime() + jwtExpiration);
         
-        // 6. Create secret key untuk signing
-        // Convert string secret ke SecretKey object
-        SecretKey key = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
-        
-        // 7. Build JWT token
+        // 6. Build JWT token (sign dengan signingKey yang sudah disiapkan)
         return Jwts.builder()
                 // Set subject (username)
                 .subject(username)
@@ -139,72 +157,29 @@ public class JwtUtil {
                 
                 // Sign dengan secret key (algoritma HS512)
                 // HS512 = HMAC SHA-512 (symmetric key algorithm)
-                .signWith(key, Jwts.SIG.HS512)
+                .signWith(signingKey, Jwts.SIG.HS512)
                 
                 // Compact (convert ke string)
                 .compact();
     }
     
     /**
-     * Extract username dari JWT token.
+     * Parse + verify JWT token SEKALI, lalu kembalikan claims-nya.
      * 
-     * Dipanggil di JwtAuthenticationFilter untuk get username dari token.
+     * Dipanggil di JwtAuthenticationFilter. Satu kali verifikasi signature
+     * sudah cukup untuk dapat username (sub) dan roles sekaligus.
      * 
-     * Flow:
-     * 1. Parse JWT token
-     * 2. Verify signature (jika signature tidak valid, throw exception)
-     * 3. Extract subject claim (username)
-     * 4. Return username
+     * Token invalid jika:
+     * 1. Signature tidak cocok (diubah)
+     * 2. Sudah expired
+     * 3. Format token salah
      * 
      * @param token JWT token string
-     * @return Username (subject claim)
-     * @throws JwtException Jika token invalid atau expired
+     * @return Claims jika valid, null jika invalid
      */
-    public String getUsernameFromToken(String token) {
-        // 1. Create secret key untuk verify signature
-        SecretKey key = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
-        
-        // 2. Parse JWT token
-        // verifyWith(key): Verify signature dengan secret key
-        // build(): Build parser
-        // parseSignedClaims(token): Parse token dan extract claims
-        Claims claims = Jwts.parser()
-                .verifyWith(key)
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
-        
-        // 3. Get subject claim (username)
-        return claims.getSubject();
-    }
-    
-    /**
-     * Validate JWT token.
-     * 
-     * Cek apakah token valid:
-     * 1. Signature cocok (tidak diubah)
-     * 2. Belum expired
-     * 3. Format token benar
-     * 
-     * Dipanggil di JwtAuthenticationFilter sebelum set authentication.
-     * 
-     * @param token JWT token string
-     * @return true jika valid, false jika invalid
-     */
-    public boolean validateToken(String token) {
+    public Claims parseClaims(String token) {
         try {
-            // Create secret key
-            SecretKey key = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
-            
-            // Parse dan verify token
-            // Jika ada error, akan throw exception (caught di catch block)
-            Jwts.parser()
-                    .verifyWith(key)
-                    .build()
-                    .parseSignedClaims(token);
-            
-            // Jika sampai sini, token valid
-            return true;
+            return parser.parseSignedClaims(token).getPayload();
             
         } catch (SignatureException e) {
             // Signature tidak cocok (token diubah atau secret key salah)
@@ -227,8 +202,56 @@ public class JwtUtil {
             logger.error("JWT claims string is empty: {}", e.getMessage());
         }
         
-        // Jika ada exception, return false (token invalid)
-        return false;
+        // Jika ada exception, return null (token invalid)
+        return null;
+    }
+    
+    /**
+     * Extract roles dari claims sebagai GrantedAuthority.
+     * 
+     * Claim "roles" ikut ditandatangani saat login, jadi bisa dipercaya
+     * tanpa query tabel roles lagi.
+     * 
+     * @param claims Claims hasil parseClaims()
+     * @return Authorities (ROLE_ADMIN, ROLE_GURU, ...)
+     */
+    public List<GrantedAuthority> getAuthorities(Claims claims) {
+        String roles = claims.get("roles", String.class);
+        if (roles == null || roles.isBlank()) {
+            return List.of();
+        }
+        return Arrays.stream(roles.split(","))
+                .map(String::trim)
+                .filter(role -> !role.isEmpty())
+                .<GrantedAuthority>map(SimpleGrantedAuthority::new)
+                .toList();
+    }
+    
+    /**
+     * Extract username dari JWT token.
+     * 
+     * Flow:
+     * 1. Parse JWT token
+     * 2. Verify signature (jika signature tidak valid, throw exception)
+     * 3. Extract subject claim (username)
+     * 4. Return username
+     * 
+     * @param token JWT token string
+     * @return Username (subject claim)
+     * @throws JwtException Jika token invalid atau expired
+     */
+    public String getUsernameFromToken(String token) {
+        return parser.parseSignedClaims(token).getPayload().getSubject();
+    }
+    
+    /**
+     * Validate JWT token.
+     * 
+     * @param token JWT token string
+     * @return true jika valid, false jika invalid
+     */
+    public boolean validateToken(String token) {
+        return parseClaims(token) != null;
     }
     
     /**
@@ -240,15 +263,7 @@ public class JwtUtil {
      * @return Roles string (comma-separated: "ROLE_ADMIN,ROLE_GURU")
      */
     public String getRolesFromToken(String token) {
-        SecretKey key = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
-        
-        Claims claims = Jwts.parser()
-                .verifyWith(key)
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
-        
         // Get custom claim "roles"
-        return claims.get("roles", String.class);
+        return parser.parseSignedClaims(token).getPayload().get("roles", String.class);
     }
 }
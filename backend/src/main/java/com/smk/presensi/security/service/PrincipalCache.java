@@ -0,0 +1,85 @@
+package com.smk.presensi.security.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * PRINCIPAL CACHE - Cek revocation user dengan cache TTL pendek.
+ *
+ * JWT sudah ditandatangani, jadi username & roles di token bisa dipercaya.
+ * Yang TIDAK bisa diketahui dari token: apakah user sudah dihapus atau
+ * di-disable setelah token dibuat.
+ *
+ * Sebelumnya: setiap request → loadUserByUsername (query user + roles).
+ * Sekarang: hasil load disimpan per username selama ttl-seconds.
+ * - User di-disable/dihapus → paling lambat ttl-seconds kemudian ditolak
+ *   (langsung, jika perubahan lewat aplikasi ini: lihat evict())
+ * - app.jwt.principal-cache.enabled=false → cek revocation dimatikan,
+ *   autentikasi murni dari token (0 query)
+ */
+@Service
+public class PrincipalCache {
+
+    /**
+     * Batas jumlah entry sebelum entry yang expired dibersihkan.
+     */
+    private static final int SWEEP_THRESHOLD = 10_000;
+
+    private record Entry(UserDetails user, long expiresAt) {
+    }
+
+    private final CustomUserDetailsService userDetailsService;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    @Value("${app.jwt.principal-cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.jwt.principal-cache.ttl-seconds:60}")
+    private long ttlSeconds;
+
+    public PrincipalCache(CustomUserDetailsService userDetailsService) {
+        this.userDetailsService = userDetailsService;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Apakah user masih ada dan aktif?
+     */
+    public boolean isActive(String username) {
+        long now = System.currentTimeMillis();
+        Entry entry = entries.get(username);
+        if (entry == null || entry.expiresAt() < now) {
+            entry = new Entry(load(username), now + ttlSeconds * 1000);
+            if (entries.size() >= SWEEP_THRESHOLD) {
+                entries.values().removeIf(e -> e.expiresAt() < now);
+            }
+            entries.put(username, entry);
+        }
+        return entry.user() != null && entry.user().isEnabled();
+    }
+
+    /**
+     * Hapus cache satu user (dipanggil saat data user berubah).
+     */
+    public void evict(String username) {
+        if (username != null) {
+            entries.remove(username);
+        }
+    }
+
+    private UserDetails load(String username) {
+        try {
+            return userDetailsService.loadUserByUsername(username);
+        } catch (UsernameNotFoundException e) {
+            return null;
+        }
+    }
+}
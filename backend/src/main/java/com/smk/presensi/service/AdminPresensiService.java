@@ -2,9 +2,12 @@ package com.smk.presensi.service;
 
 import com.smk.presensi.dto.presensi.AdminPresensiRequest;
 import com.smk.presensi.dto.presensi.PresensiResponse;
+import com.smk.presensi.dto.presensi.PresensiSyncItem;
+import com.smk.presensi.dto.presensi.PresensiSyncResult;
 import com.smk.presensi.entity.Presensi;
 import com.smk.presensi.entity.User;
 import com.smk.presensi.entity.Kelas;
+import com.smk.presensi.enums.SyncItemStatus;
 import com.smk.presensi.repository.KelasRepository;
 import com.smk.presensi.repository.GuruRepository;
 import com.smk.presensi.dto.jurnal.GuruJurnalRequest;
@@ -15,7 +18,12 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 /**
@@ -102,6 +110,119 @@ public class AdminPresensiService {
         presensiRepository.deleteById(id);
     }
 
+    /**
+     * Bulk sync presensi offline dari desktop.
+     *
+     * Satu request = satu transaksi = INSERT digabung (JDBC batch).
+     * Per item:
+     * - User + tanggal belum ada di server → CREATED
+     * - Sudah ada dengan idempotency key yang sama (retry setelah koneksi putus) → ALREADY_SYNCED
+     * - Sudah ada dengan data lain → CONFLICT, baris server ikut dikirim supaya client bisa menggantinya
+     * - User/kelas tidak ditemukan → INVALID
+     *
+     * @return hasil per item, urutan sama dengan input
+     */
+    @Transactional
+    public List<PresensiSyncResult> syncBulk(List<PresensiSyncItem> items) {
+        PresensiSyncResult[] results = new PresensiSyncResult[items.size()];
+
+        // 1. Ambil semua user dan presensi yang mungkin bentrok dalam 2 query
+        Set<Long> userIds = new HashSet<>();
+        LocalDate minTanggal = null;
+        LocalDate maxTanggal = null;
+        for (PresensiSyncItem item : items) {
+            AdminPresensiRequest request = item.presensi();
+            userIds.add(request.userId());
+            if (minTanggal == null || request.tanggal().isBefore(minTanggal)) {
+                minTanggal = request.tanggal();
+            }
+            if (maxTanggal == null || request.tanggal().isAfter(maxTanggal)) {
+                maxTanggal = request.tanggal();
+            }
+        }
+        Map<Long, User> users = new HashMap<>();
+        userRepository.findAllById(userIds).forEach(user -> users.put(user.getId(), user));
+
+        Map<String, Presensi> existing = new HashMap<>();
+        for (Presensi presensi : presensiRepository.findByUserIdInAndTanggalBetween(userIds, minTanggal, maxTanggal)) {
+            existing.put(userDayKey(presensi.getUser().getId(), presensi.getTanggal()), presensi);
+        }
+
+        // 2. Validasi + bentrok (dengan database dan dengan item lain di batch yang sama)
+        List<Presensi> baru = new ArrayList<>();
+        List<Integer> baruIndex = new ArrayList<>();
+        List<Integer> duplikatBatchIndex = new ArrayList<>();
+        for (int i = 0; i < items.size(); i++) {
+            PresensiSyncItem item = items.get(i);
+            AdminPresensiRequest request = item.presensi();
+            User user = users.get(request.userId());
+            if (user == null) {
+                results[i] = PresensiSyncResult.gagal(item, SyncItemStatus.INVALID,
+                        "User ID " + request.userId() + " tidak ditemukan");
+                continue;
+            }
+
+            String key = userDayKey(user.getId(), request.tanggal());
+            Presensi sudahAda = existing.get(key);
+            if (sudahAda != null) {
+                if (sudahAda.getId() == null) {
+                    // Bentrok dengan item lain di batch ini: ID baru ada setelah insert
+                    duplikatBatchIndex.add(i);
+                } else {
+                    results[i] = bentrok(item, sudahAda);
+                }
+                continue;
+            }
+
+            Presensi presensi = new Presensi();
+            try {
+                applyRequestToEntity(request, presensi, user);
+            } catch (RuntimeException e) {
+                results[i] = PresensiSyncResult.gagal(item, SyncItemStatus.INVALID, e.getMessage());
+                continue;
+            }
+            presensi.setIdempotencyKey(item.idempotencyKey());
+
+            existing.put(key, presensi);
+            baru.add(presensi);
+            baruIndex.add(i);
+        }
+
+        // 3. Insert semua sekaligus (JDBC batch)
+        presensiRepository.saveAllAndFlush(baru);
+        for (int j = 0; j < baru.size(); j++) {
+            Presensi saved = baru.get(j);
+            maybeCreateGuruJurnal(saved);
+            results[baruIndex.get(j)] = new PresensiSyncResult(saved.getIdempotencyKey(),
+                    SyncItemStatus.CREATED, saved.getId(), null, null);
+        }
+        for (int i : duplikatBatchIndex) {
+            PresensiSyncItem item = items.get(i);
+            AdminPresensiRequest request = item.presensi();
+            results[i] = bentrok(item, existing.get(userDayKey(request.userId(), request.tanggal())));
+        }
+
+        return List.of(results);
+    }
+
+    /**
+     * Hasil item yang user + tanggal-nya sudah punya presensi:
+     * key sama → ALREADY_SYNCED, selain itu CONFLICT (baris server ikut dikirim).
+     */
+    private PresensiSyncResult bentrok(PresensiSyncItem item, Presensi sudahAda) {
+        if (item.idempotencyKey().equals(sudahAda.getIdempotencyKey())) {
+            return new PresensiSyncResult(item.idempotencyKey(), SyncItemStatus.ALREADY_SYNCED,
+                    sudahAda.getId(), null, null);
+        }
+        return new PresensiSyncResult(item.idempotencyKey(), SyncItemStatus.CONFLICT,
+                sudahAda.getId(), toResponse(sudahAda),
+                sudahAda.getUser().getUsername() + " sudah punya presensi pada " + sudahAda.getTanggal());
+    }
+
+    private static String userDayKey(Long userId, LocalDate tanggal) {
+        return userId + "|" + tanggal;
+    }
+
     private void applyRequestToEntity(AdminPresensiRequest request, Presensi presensi, User user) {
         presensi.setUser(user);
         presensi.setTipe(request.tipe());
@@ -126,7 +247,7 @@ public class AdminPresensiService {
         presensi.setMateri(request.materi());
     }
 
-    private PresensiResponse toResponse(Presensi presensi) {
+    PresensiResponse toResponse(Presensi presensi) {
         return new PresensiResponse(
             presensi.getId(),
             presensi.getUser().getId(),
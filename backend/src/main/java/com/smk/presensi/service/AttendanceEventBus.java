@@ -0,0 +1,640 @@
+package com.smk.presensi.service;
+
+import com.smk.presensi.dto.presensi.AttendanceCounters;
+import com.smk.presensi.dto.presensi.AttendanceEvent;
+import com.smk.presensi.enums.AttendanceEventType;
+import com.smk.presensi.enums.IzinStatus;
+import com.smk.presensi.enums.KoreksiStatus;
+import com.smk.presensi.enums.MethodPresensi;
+import com.smk.presensi.enums.StatusPresensi;
+import com.smk.presensi.enums.TipeUser;
+import com.smk.presensi.repository.PresensiCounterProjection;
+import com.smk.presensi.repository.PresensiRepository;
+import com.smk.presensi.repository.UserRepository;
+import com.smk.presensi.repository.UserTopicProjection;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * ATTENDANCE EVENT BUS - Event live presensi untuk dashboard (Server-Sent Events).
+ *
+ * Sebelumnya setiap layar dashboard polling beberapa endpoint laporan tiap 30 detik.
+ * Sepuluh layar terbuka = laporan dihitung ulang terus, walaupun tidak ada yang berubah.
+ *
+ * Di sini:
+ * 1. Entity listener Presensi / KoreksiPresensi / Izin memanggil publish() SETELAH COMMIT
+ * 2. Event ditulis ke RING BUFFER berukuran tetap (O(1), tanpa menunggu client)
+ * 3. Setiap subscriber punya cursor sendiri; thread pump mengirim event dari
+ *    cursor-nya ke SseEmitter, satu pump aktif per subscriber
+ *
+ * Client lambat TIDAK menahan writer: paling buruk cursor-nya tertinggal lebih
+ * dari kapasitas buffer, lalu client menerima event "reset" (berisi counter terbaru)
+ * dan harus mengambil ulang data lewat REST.
+ *
+ * Resume: id event = nomor urut. Client mengirim header Last-Event-ID saat reconnect,
+ * event yang terlewat dikirim ulang dari buffer. Nomor urut dimulai dari waktu startup
+ * (epoch millis), jadi id dari proses server sebelumnya selalu dianggap terlalu lama.
+ *
+ * Counter hari ini (total, sudah pulang, per status) disimpan di memory dan ikut
+ * di setiap event. Counter dicatat PER PRESENSI (id → status, sudah pulang), jadi
+ * menerapkan event yang sudah termuat di hasil query tidak menghitungnya dua kali.
+ * Diinisialisasi dari database, diperbarui per event, dan disinkronkan ulang berkala.
+ */
+@Service
+public class AttendanceEventBus {
+
+    private static final Logger logger = LoggerFactory.getLogger(AttendanceEventBus.class);
+
+    private static final int PUMP_BATCH = 64;
+
+    /**
+     * Perubahan satu Presensi (dari entity listener).
+     *
+     * Nilai "lama" = sebelum perubahan (null untuk CHECKIN), nilai baru = null untuk DELETE.
+     */
+    public record PresensiChange(AttendanceEventType type, Long presensiId, Long userId, TipeUser tipe,
+                                 LocalDate tanggalLama, StatusPresensi statusLama, boolean sudahPulangLama,
+                                 LocalDate tanggal, StatusPresensi status,
+                                 LocalTime jamMasuk, LocalTime jamPulang,
+                                 MethodPresensi method, String keterangan) {
+    }
+
+    /**
+     * Perubahan satu KoreksiPresensi (dari entity listener).
+     */
+    public record KoreksiChange(Long koreksiId, Long presensiId, Long userId, LocalDate tanggal,
+                                KoreksiStatus status) {
+    }
+
+    /**
+     * Perubahan satu Izin (dari entity listener).
+     */
+    public record IzinChange(Long izinId, Long userId, String nama, String kelas, String jurusan,
+                             LocalDate tanggalMulai, IzinStatus status) {
+    }
+
+    /**
+     * Filter topik subscriber. Null = tidak difilter (seluruh sekolah).
+     */
+    public record Topic(String kelas, String jurusan) {
+
+        boolean matches(AttendanceEvent event) {
+            return (kelas == null || kelas.equalsIgnoreCase(event.kelas()))
+                    && (jurusan == null || jurusan.equalsIgnoreCase(event.jurusan()));
+        }
+    }
+
+    /**
+     * Data user untuk label & topik event (nama/kelas/jurusan null jika bukan siswa).
+     */
+    private record UserTopic(String username, String nama, String kelas, String jurusan) {
+    }
+
+    /**
+     * Kontribusi satu presensi ke counter.
+     */
+    private record Row(StatusPresensi status, boolean sudahPulang) {
+    }
+
+    /**
+     * Counter mutable satu hari. Diakses hanya di bawah ringLock.
+     *
+     * Idempotent per id presensi: set() mengganti kontribusi lama, bukan menambah delta.
+     */
+    private static final class Counters {
+        final LocalDate tanggal;
+        final Map<Long, Row> rows = new HashMap<>();
+        long total;
+        long sudahPulang;
+        final long[] perStatus = new long[StatusPresensi.values().length];
+
+        Counters(LocalDate tanggal) {
+            this.tanggal = tanggal;
+        }
+
+        /**
+         * Catat keadaan terbaru satu presensi (status null / tanggal lain = tidak dihitung hari ini).
+         */
+        void set(Long presensiId, LocalDate tanggal, StatusPresensi status, boolean sudahPulang) {
+            if (presensiId == null) {
+                return;
+            }
+            Row next = status != null && this.tanggal.equals(tanggal) ? new Row(status, sudahPulang) : null;
+            Row previous = next != null ? rows.put(presensiId, next) : rows.remove(presensiId);
+            count(previous, -1);
+            count(next, 1);
+        }
+
+        void apply(PresensiChange change) {
+            set(change.presensiId(), change.tanggal(), change.status(), change.jamPulang() != null);
+        }
+
+        private void count(Row row, int delta) {
+            if (row == null) {
+                return;
+            }
+            total += delta;
+            perStatus[row.status().ordinal()] += delta;
+            if (row.sudahPulang()) {
+                sudahPulang += delta;
+            }
+        }
+
+        AttendanceCounters snapshot() {
+            Map<StatusPresensi, Long> map = new EnumMap<>(StatusPresensi.class);
+            for (StatusPresensi status : StatusPresensi.values()) {
+                map.put(status, perStatus[status.ordinal()]);
+            }
+            return new AttendanceCounters(tanggal, total, sudahPulang, Collections.unmodifiableMap(map));
+        }
+    }
+
+    /**
+     * Satu koneksi SSE.
+     *
+     * cursor hanya diakses oleh pump yang sedang berjalan (maksimal satu per subscriber).
+     */
+    private static final class Subscriber {
+        final SseEmitter emitter;
+        final Topic topic;
+        final AtomicBoolean scheduled = new AtomicBoolean();
+        long cursor;
+        boolean sendSnapshot;
+        volatile boolean heartbeatDue;
+        volatile boolean closed;
+
+        Subscriber(SseEmitter emitter, Topic topic) {
+            this.emitter = emitter;
+            this.topic = topic;
+        }
+    }
+
+    /**
+     * Hasil baca dari ring buffer untuk satu subscriber.
+     */
+    private record Batch(List<AttendanceEvent> events, long lastSeq, AttendanceCounters reset) {
+    }
+
+    private final PresensiRepository presensiRepository;
+    private final UserRepository userRepository;
+    private final int maxSubscribers;
+    private final long emitterTimeoutMs;
+    private final long heartbeatSeconds;
+    private final long counterResyncMinutes;
+    private final int pumpThreads;
+
+    private final AttendanceEvent[] ring;
+    private final int mask;
+    private final ReentrantLock ringLock = new ReentrantLock();
+    private long lastSeq = System.currentTimeMillis();
+    private Counters counters;
+    // Perubahan yang di-publish selama query counter berjalan (null = tidak sedang load)
+    private List<PresensiChange> loadingChanges;
+    private final ReentrantLock loadLock = new ReentrantLock();
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private ExecutorService pumpExecutor;
+    private ScheduledExecutorService scheduler;
+
+    private final ReentrantLock topicsLock = new ReentrantLock();
+    private volatile Map<Long, UserTopic> userTopics = Map.of();
+    private volatile boolean topicsStale = true;
+
+    public AttendanceEventBus(
+            PresensiRepository presensiRepository,
+            UserRepository userRepository,
+            @Value("${presensi.events.buffer-size:1024}") int bufferSize,
+            @Value("${presensi.events.max-subscribers:200}") int maxSubscribers,
+            @Value("${presensi.events.timeout-minutes:30}") long timeoutMinutes,
+            @Value("${presensi.events.heartbeat-seconds:15}") long heartbeatSeconds,
+            @Value("${presensi.events.counter-resync-minutes:5}") long counterResyncMinutes,
+            @Value("${presensi.events.pump-threads:4}") int pumpThreads
+    ) {
+        this.presensiRepository = presensiRepository;
+        this.userRepository = userRepository;
+        this.maxSubscribers = maxSubscribers;
+        this.emitterTimeoutMs = TimeUnit.MINUTES.toMillis(timeoutMinutes);
+        this.heartbeatSeconds = heartbeatSeconds;
+        this.counterResyncMinutes = counterResyncMinutes;
+        this.pumpThreads = pumpThreads;
+        // Kapasitas dibulatkan ke pangkat 2 → index = seq & mask (tanpa modulo)
+        int capacity = Integer.highestOneBit(Math.max(bufferSize, 16) - 1) << 1;
+        this.ring = new AttendanceEvent[capacity];
+        this.mask = capacity - 1;
+    }
+
+    @PostConstruct
+    public void start() {
+        pumpExecutor = Executors.newFixedThreadPool(pumpThreads, daemonThreads("sse-pump-"));
+        scheduler = Executors.newSingleThreadScheduledExecutor(daemonThreads("sse-heartbeat-"));
+        scheduler.scheduleWithFixedDelay(this::heartbeat, heartbeatSeconds, heartbeatSeconds, TimeUnit.SECONDS);
+        scheduler.scheduleWithFixedDelay(this::resyncCounters,
+                counterResyncMinutes, counterResyncMinutes, TimeUnit.MINUTES);
+    }
+
+    @PreDestroy
+    public void stop() {
+        scheduler.shutdownNow();
+        pumpExecutor.shutdownNow();
+        for (Subscriber subscriber : subscribers) {
+            subscriber.closed = true;
+            subscriber.emitter.complete();
+        }
+        subscribers.clear();
+    }
+
+    // ═════════════════════════════════════════════════════════════
+    // PUBLISH (dipanggil setelah commit)
+    // ═════════════════════════════════════════════════════════════
+
+    public void publish(PresensiChange change) {
+        ensureCounters(LocalDate.now());
+        UserTopic user = topicOf(change.userId());
+
+        ringLock.lock();
+        try {
+            // Query counter yang sedang berjalan mungkin belum melihat commit ini → diterapkan ulang setelahnya
+            if (loadingChanges != null) {
+                loadingChanges.add(change);
+            }
+            if (counters != null) {
+                counters.apply(change);
+            }
+            append(new AttendanceEvent(++lastSeq, change.type(), LocalDateTime.now(),
+                    change.presensiId(), null, null, change.userId(),
+                    user != null ? user.username() : null,
+                    user != null ? user.nama() : null,
+                    change.tipe(),
+                    change.tanggal() != null ? change.tanggal() : change.tanggalLama(),
+                    change.jamMasuk(), change.jamPulang(),
+                    change.status() != null ? change.status().name() : null,
+                    change.method(), change.keterangan(),
+                    user != null ? user.kelas() : null,
+                    user != null ? user.jurusan() : null,
+                    counters != null ? counters.snapshot() : null));
+        } finally {
+            ringLock.unlock();
+        }
+        wakeAll();
+    }
+
+    public void publish(KoreksiChange change) {
+        UserTopic user = topicOf(change.userId());
+        ringLock.lock();
+        try {
+            append(new AttendanceEvent(++lastSeq, AttendanceEventType.KOREKSI, LocalDateTime.now(),
+                    change.presensiId(), change.koreksiId(), null, change.userId(),
+                    user != null ? user.username() : null,
+                    user != null ? user.nama() : null,
+                    user != null && user.nama() != null ? TipeUser.SISWA : null,
+                    change.tanggal(), null, null, change.status().name(), null, null,
+                    user != null ? user.kelas() : null,
+                    user != null ? user.jurusan() : null,
+                    counters != null ? counters.snapshot() : null));
+        } finally {
+            ringLock.unlock();
+        }
+        wakeAll();
+    }
+
+    public void publish(IzinChange change) {
+        UserTopic user = topicOf(change.userId());
+        ringLock.lock();
+        try {
+            append(new AttendanceEvent(++lastSeq, AttendanceEventType.IZIN, LocalDateTime.now(),
+                    null, null, change.izinId(), change.userId(),
+                    user != null ? user.username() : null,
+                    change.nama(), TipeUser.SISWA,
+                    change.tanggalMulai(), null, null, change.status().name(), null, null,
+                    change.kelas(), change.jurusan(),
+                    counters != null ? counters.snapshot() : null));
+        } finally {
+            ringLock.unlock();
+        }
+        wakeAll();
+    }
+
+    /**
+     * Data user/siswa berubah (dipanggil IdentityEntityListener) → topik di-load ulang saat dibutuhkan.
+     */
+    public void invalidateTopics() {
+        topicsStale = true;
+    }
+
+    // ═════════════════════════════════════════════════════════════
+    // SUBSCRIBE
+    // ═════════════════════════════════════════════════════════════
+
+    /**
+     * Daftarkan koneksi SSE baru.
+     *
+     * @param topic       Filter kelas/jurusan
+     * @param lastEventId Id event terakhir yang diterima client (null = hanya event baru)
+     * @return Emitter, atau empty jika jumlah koneksi sudah maksimal
+     */
+    public Optional<SseEmitter> subscribe(Topic topic, Long lastEventId) {
+        if (subscribers.size() >= maxSubscribers) {
+            return Optional.empty();
+        }
+        ensureCounters(LocalDate.now());
+
+        SseEmitter emitter = new SseEmitter(emitterTimeoutMs);
+        Subscriber subscriber = new Subscriber(emitter, topic);
+        ringLock.lock();
+        try {
+            if (lastEventId == null) {
+                subscriber.cursor = lastSeq;
+                subscriber.sendSnapshot = true;
+            } else {
+                // Id di depan server = dari proses lain → paksa reset
+                subscriber.cursor = lastEventId <= lastSeq ? lastEventId : -1;
+            }
+        } finally {
+            ringLock.unlock();
+        }
+
+        emitter.onCompletion(() -> close(subscriber));
+        emitter.onTimeout(() -> {
+            close(subscriber);
+            emitter.complete();
+        });
+        emitter.onError(error -> close(subscriber));
+        subscribers.add(subscriber);
+        schedule(subscriber);
+        return Optional.of(emitter);
+    }
+
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    // ═════════════════════════════════════════════════════════════
+    // FAN-OUT
+    // ═════════════════════════════════════════════════════════════
+
+    /**
+     * Tulis event ke ring buffer. Harus dipanggil di bawah ringLock.
+     */
+    private void append(AttendanceEvent event) {
+        ring[(int) (event.id() & mask)] = event;
+    }
+
+    private void wakeAll() {
+        for (Subscriber subscriber : subscribers) {
+            schedule(subscriber);
+        }
+    }
+
+    private void schedule(Subscriber subscriber) {
+        if (subscriber.closed || !subscriber.scheduled.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            pumpExecutor.execute(() -> pump(subscriber));
+        } catch (RejectedExecutionException e) {
+            subscriber.scheduled.set(false);
+        }
+    }
+
+    private void pump(Subscriber subscriber) {
+        try {
+            do {
+                drain(subscriber);
+                subscriber.scheduled.set(false);
+                // Event yang masuk setelah drain selesai tapi sebelum flag dilepas tidak boleh hilang
+            } while (!subscriber.closed && hasPending(subscriber)
+                    && subscriber.scheduled.compareAndSet(false, true));
+        } catch (IOException | IllegalStateException e) {
+            close(subscriber);
+        }
+    }
+
+    private void drain(Subscriber subscriber) throws IOException {
+        boolean sent = false;
+        if (subscriber.sendSnapshot) {
+            subscriber.sendSnapshot = false;
+            sendCounters(subscriber, "counters", currentSnapshot());
+            sent = true;
+        }
+        while (!subscriber.closed) {
+            Batch batch = read(subscriber.cursor);
+            if (batch.reset() != null) {
+                subscriber.cursor = batch.lastSeq();
+                sendCounters(subscriber, "reset", batch.reset());
+                sent = true;
+                continue;
+            }
+            if (batch.events().isEmpty()) {
+                break;
+            }
+            for (AttendanceEvent event : batch.events()) {
+                if (subscriber.topic.matches(event)) {
+                    subscriber.emitter.send(SseEmitter.event()
+                            .id(String.valueOf(event.id()))
+                            .name(event.type().name())
+                            .data(event, MediaType.APPLICATION_JSON));
+                    sent = true;
+                }
+                subscriber.cursor = event.id();
+            }
+        }
+        if (subscriber.heartbeatDue) {
+            subscriber.heartbeatDue = false;
+            if (!sent) {
+                // Komentar SSE: menjaga koneksi tetap hidup melewati proxy, diabaikan client
+                subscriber.emitter.send(SseEmitter.event().comment("ping"));
+            }
+        }
+    }
+
+    private void sendCounters(Subscriber subscriber, String name, AttendanceCounters snapshot) throws IOException {
+        SseEmitter.SseEventBuilder builder = SseEmitter.event()
+                .id(String.valueOf(subscriber.cursor))
+                .name(name);
+        subscriber.emitter.send(snapshot != null
+                ? builder.data(snapshot, MediaType.APPLICATION_JSON)
+                : builder.data("{}", MediaType.APPLICATION_JSON));
+    }
+
+    private Batch read(long cursor) {
+        ringLock.lock();
+        try {
+            if (cursor < lastSeq - ring.length) {
+                return new Batch(List.of(), lastSeq, counters != null ? counters.snapshot()
+                        : new AttendanceCounters(LocalDate.now(), 0, 0, Map.of()));
+            }
+            long end = Math.min(lastSeq, cursor + PUMP_BATCH);
+            List<AttendanceEvent> events = new ArrayList<>((int) (end - cursor));
+            for (long seq = cursor + 1; seq <= end; seq++) {
+                events.add(ring[(int) (seq & mask)]);
+            }
+            return new Batch(events, lastSeq, null);
+        } finally {
+            ringLock.unlock();
+        }
+    }
+
+    private boolean hasPending(Subscriber subscriber) {
+        ringLock.lock();
+        try {
+            return subscriber.cursor < lastSeq || subscriber.heartbeatDue;
+        } finally {
+            ringLock.unlock();
+        }
+    }
+
+    private void close(Subscriber subscriber) {
+        subscriber.closed = true;
+        subscribers.remove(subscriber);
+    }
+
+    private void heartbeat() {
+        for (Subscriber subscriber : subscribers) {
+            subscriber.heartbeatDue = true;
+            schedule(subscriber);
+        }
+    }
+
+    // ═════════════════════════════════════════════════════════════
+    // COUNTER & TOPIK
+    // ═════════════════════════════════════════════════════════════
+
+    private AttendanceCounters currentSnapshot() {
+        ringLock.lock();
+        try {
+            return counters != null ? counters.snapshot() : null;
+        } finally {
+            ringLock.unlock();
+        }
+    }
+
+    /**
+     * Load counter dari database jika belum ada / sudah ganti hari.
+     * Query dijalankan di luar lock supaya publish lain tidak menunggu database.
+     */
+    private void ensureCounters(LocalDate today) {
+        ringLock.lock();
+        try {
+            if (counters != null && counters.tanggal.equals(today)) {
+                return;
+            }
+        } finally {
+            ringLock.unlock();
+        }
+        loadCounters(today);
+    }
+
+    private void resyncCounters() {
+        try {
+            loadCounters(LocalDate.now());
+        } catch (RuntimeException e) {
+            logger.warn("Resync counter live presensi gagal: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Load counter dari database.
+     *
+     * Commit yang terjadi selama query bisa sudah terlihat atau belum oleh query.
+     * Semua perubahan yang di-publish sejak load dimulai diterapkan ulang ke hasil
+     * query; karena counter per id presensi, yang sudah terlihat tidak terhitung dua kali.
+     * Satu load pada satu waktu (loadLock).
+     */
+    private void loadCounters(LocalDate today) {
+        loadLock.lock();
+        try {
+            ringLock.lock();
+            try {
+                loadingChanges = new ArrayList<>();
+            } finally {
+                ringLock.unlock();
+            }
+            Counters loaded = new Counters(today);
+            try {
+                for (PresensiCounterProjection row : presensiRepository.findCounterRows(today)) {
+                    loaded.set(row.getId(), today, row.getStatus(), row.getJamPulang() != null);
+                }
+            } catch (RuntimeException e) {
+                logger.warn("Counter live presensi {} tidak bisa di-load: {}", today, e.getMessage());
+                loaded = null;
+            }
+            ringLock.lock();
+            try {
+                if (loaded != null) {
+                    loadingChanges.forEach(loaded::apply);
+                    counters = loaded;
+                }
+                loadingChanges = null;
+            } finally {
+                ringLock.unlock();
+            }
+        } finally {
+            loadLock.unlock();
+        }
+    }
+
+    private UserTopic topicOf(Long userId) {
+        if (userId == null) {
+            return null;
+        }
+        if (topicsStale) {
+            topicsLock.lock();
+            try {
+                if (topicsStale) {
+                    // Tandai bersih SEBELUM query: invalidate selama reload memicu reload berikutnya
+                    topicsStale = false;
+                    Map<Long, UserTopic> next = new HashMap<>();
+                    for (UserTopicProjection row : userRepository.findEventTopics()) {
+                        next.put(row.getUserId(), new UserTopic(row.getUsername(), row.getNama(),
+                                row.getKelas(), row.getJurusan()));
+                    }
+                    userTopics = next;
+                }
+            } catch (RuntimeException e) {
+                topicsStale = true;
+                logger.warn("Topik user untuk event live tidak bisa di-load: {}", e.getMessage());
+            } finally {
+                topicsLock.unlock();
+            }
+        }
+        return userTopics.get(userId);
+    }
+
+    private static ThreadFactory daemonThreads(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -0,0 +1,273 @@
+package com.smk.presensi.service;
+
+import com.smk.presensi.enums.GateScanStatus;
+import com.smk.presensi.enums.MethodPresensi;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * METRICS - Micrometer untuk jalur presensi yang sering dipanggil.
+ *
+ * Semua nama meter diawali "presensi." supaya histogram/percentile bisa diatur
+ * sekaligus lewat management.metrics.distribution.*.presensi (application.properties).
+ *
+ * - presensi.checkin          Timer, tag method (MANUAL/RFID/BARCODE/FACE), outcome, source (api/gate)
+ * - presensi.face.match       Timer, tag outcome (ok/not_recognized/error)
+ * - presensi.face.candidates  Jumlah kandidat yang diverifikasi per scan wajah
+ * - presensi.jwt.filter       Timer JwtAuthenticationFilter (tanpa filter berikutnya), tag outcome
+ * - presensi.report           Timer pembuatan laporan, tag report + outcome
+ * - presensi.export.*         Durasi (tag type + outcome), jumlah baris dan ukuran file export
+ *
+ * Semua timer memakai Timer.Sample yang dihentikan di finally: request yang
+ * gagal tetap tercatat dengan outcome error.
+ *
+ * Pool koneksi (hikaricp.*) dicatat otomatis oleh Spring Boot Actuator.
+ */
+@Component
+public class AttendanceMetrics {
+
+    public static final String OUTCOME_OK = "ok";
+    public static final String OUTCOME_DUPLICATE = "duplicate";
+    public static final String OUTCOME_UNKNOWN_CARD = "unknown_card";
+    public static final String OUTCOME_OUT_OF_GEOFENCE = "out_of_geofence";
+    public static final String OUTCOME_NOT_RECOGNIZED = "not_recognized";
+    public static final String OUTCOME_INVALID = "invalid";
+    public static final String OUTCOME_ERROR = "error";
+
+    public static final String SOURCE_API = "api";
+    public static final String SOURCE_GATE = "gate";
+
+    private final MeterRegistry registry;
+    // Builder + lookup registry per request cukup mahal di jalur checkin → simpan meter yang sudah dibuat
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+    private final Map<String, DistributionSummary> summaries = new ConcurrentHashMap<>();
+
+    public AttendanceMetrics(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    /**
+     * Mulai mengukur; selesaikan dengan salah satu stopXxx() di blok finally
+     * supaya request yang gagal/ditolak tetap tercatat (dengan outcome-nya).
+     */
+    public Timer.Sample start() {
+        return Timer.start(registry);
+    }
+
+    // ===== Checkin =====
+
+    /**
+     * Jalankan checkin dan catat durasi + outcome-nya (exception tetap diteruskan)
+     */
+    public <T> T timeCheckin(MethodPresensi method, Supplier<T> checkin) {
+        Timer.Sample sample = start();
+        String outcome = OUTCOME_ERROR;
+        try {
+            T result = checkin.get();
+            outcome = OUTCOME_OK;
+            return result;
+        } catch (RuntimeException e) {
+            outcome = outcomeOf(e);
+            throw e;
+        } finally {
+            stopCheckin(sample, method, SOURCE_API, outcome);
+        }
+    }
+
+    public void stopCheckin(Timer.Sample sample, MethodPresensi method, String source, String outcome) {
+        sample.stop(timer("presensi.checkin", "Waktu proses checkin",
+                "method", method.name(), "outcome", outcome, "source", source));
+    }
+
+    public static String outcomeOf(Throwable e) {
+        return e instanceof CheckinRejectedException rejected ? rejected.getOutcome() : OUTCOME_ERROR;
+    }
+
+    public static String outcomeOf(GateScanStatus status) {
+        return switch (status) {
+            case ACCEPTED -> OUTCOME_OK;
+            case DUPLICATE -> OUTCOME_DUPLICATE;
+            case UNKNOWN_CREDENTIAL -> OUTCOME_UNKNOWN_CARD;
+            case INVALID, REJECTED -> OUTCOME_INVALID;
+            case ERROR -> OUTCOME_ERROR;
+        };
+    }
+
+    // ===== Face recognition =====
+
+    /**
+     * @param outcome    ok (ada yang cocok), not_recognized, error
+     * @param candidates Jumlah kandidat yang diverifikasi (negatif = gagal sebelum pencarian, tidak dicatat)
+     */
+    public void stopFaceMatch(Timer.Sample sample, String outcome, int candidates) {
+        sample.stop(timer("presensi.face.match", "Waktu pencarian + verifikasi wajah", "outcome", outcome));
+        if (candidates >= 0) {
+            summary("presensi.face.candidates", "Kandidat wajah yang diverifikasi per scan", "candidates")
+                    .record(candidates);
+        }
+    }
+
+    // ===== JWT =====
+
+    /**
+     * @param outcome anonymous (tanpa token), authenticated, rejected
+     */
+    public void stopJwtFilter(Timer.Sample sample, String outcome) {
+        sample.stop(timer("presensi.jwt.filter", "Waktu verifikasi JWT per request", "outcome", outcome));
+    }
+
+    // ===== Laporan & export =====
+
+    /**
+     * Jalankan pembuatan laporan dan catat durasinya, termasuk yang gagal (outcome error)
+     */
+    public <T> T timeReport(String report, Supplier<T> builder) {
+        Timer.Sample sample = start();
+        String outcome = OUTCOME_ERROR;
+        try {
+            T result = builder.get();
+            outcome = OUTCOME_OK;
+            return result;
+        } finally {
+            sample.stop(timer("presensi.report", "Waktu pembuatan laporan", "report", report, "outcome", outcome));
+        }
+    }
+
+    /**
+     * Jumlah baris dan ukuran hanya dicatat untuk export yang berhasil.
+     *
+     * @param rows  Jumlah baris data (negatif = tidak diketahui)
+     * @param bytes Ukuran file (negatif = tidak diketahui)
+     */
+    public void stopExport(Timer.Sample sample, String type, String outcome, long rows, long bytes) {
+        sample.stop(timer("presensi.export", "Waktu export", "type", type, "outcome", outcome));
+        if (!OUTCOME_OK.equals(outcome)) {
+            return;
+        }
+        if (rows >= 0) {
+            summary("presensi.export.rows", "Jumlah baris per export", "rows", "type", type).record(rows);
+        }
+        if (bytes >= 0) {
+            summary("presensi.export.size", "Ukuran file export", "bytes", "type", type).record(bytes);
+        }
+    }
+
+    // ===== Ringkasan (GET /api/admin/perf) =====
+
+    /**
+     * Ringkasan ringkas semua meter presensi + pool koneksi untuk layar admin.
+     * Nilai kumulatif sejak server start; durasi dalam milidetik.
+     */
+    public Map<String, Object> summary() {
+        Map<String, Object> data = new LinkedHashMap<>();
+        data.put("checkin", timerStats("presensi.checkin"));
+        data.put("faceMatch", timerStats("presensi.face.match"));
+        data.put("faceCandidates", summaryStats("presensi.face.candidates"));
+        data.put("jwtFilter", timerStats("presensi.jwt.filter"));
+        data.put("report", timerStats("presensi.report"));
+        data.put("export", timerStats("presensi.export"));
+        data.put("exportRows", summaryStats("presensi.export.rows"));
+        data.put("exportSize", summaryStats("presensi.export.size"));
+
+        Map<String, Object> pool = new LinkedHashMap<>();
+        pool.put("active", gaugeValue("hikaricp.connections.active"));
+        pool.put("idle", gaugeValue("hikaricp.connections.idle"));
+        pool.put("pending", gaugeValue("hikaricp.connections.pending"));
+        pool.put("max", gaugeValue("hikaricp.connections.max"));
+        pool.put("acquire", timerStats("hikaricp.connections.acquire"));
+        pool.put("limiterWaiting", gaugeValue("presensi.jdbc.limiter.waiting"));
+        pool.put("gateQueue", gaugeValue("presensi.gate.queue"));
+        data.put("pool", pool);
+        return data;
+    }
+
+    private List<Map<String, Object>> timerStats(String name) {
+        List<Map<String, Object>> rows = new ArrayList<>();
+        for (Timer timer : registry.find(name).timers()) {
+            Map<String, Object> row = tagMap(timer);
+            row.put("count", timer.count());
+            row.put("meanMs", round(timer.mean(TimeUnit.MILLISECONDS)));
+            row.put("maxMs", round(timer.max(TimeUnit.MILLISECONDS)));
+            for (ValueAtPercentile percentile : timer.takeSnapshot().percentileValues()) {
+                row.put(percentileKey(percentile.percentile()) + "Ms",
+                        round(percentile.value(TimeUnit.MILLISECONDS)));
+            }
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    private List<Map<String, Object>> summaryStats(String name) {
+        List<Map<String, Object>> rows = new ArrayList<>();
+        for (DistributionSummary summary : registry.find(name).summaries()) {
+            Map<String, Object> row = tagMap(summary);
+            row.put("count", summary.count());
+            row.put("mean", round(summary.mean()));
+            row.put("max", round(summary.max()));
+            for (ValueAtPercentile percentile : summary.takeSnapshot().percentileValues()) {
+                row.put(percentileKey(percentile.percentile()), round(percentile.value()));
+            }
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    /**
+     * Nilai gauge, null jika meter belum ada (mis. limiter tidak aktif)
+     */
+    private Double gaugeValue(String name) {
+        Gauge gauge = registry.find(name).gauge();
+        return gauge != null ? round(gauge.value()) : null;
+    }
+
+    private static Map<String, Object> tagMap(Meter meter) {
+        Map<String, Object> row = new LinkedHashMap<>();
+        for (Tag tag : meter.getId().getTags()) {
+            row.put(tag.getKey(), tag.getValue());
+        }
+        return row;
+    }
+
+    private static String percentileKey(double percentile) {
+        return "p" + Math.round(percentile * 100);
+    }
+
+    private static double round(double value) {
+        return Double.isNaN(value) ? 0.0 : Math.round(value * 100) / 100.0;
+    }
+
+    // ===== Helpers =====
+
+    private Timer timer(String name, String description, String... tags) {
+        return timers.computeIfAbsent(key(name, tags), key -> Timer.builder(name)
+                .description(description)
+                .tags(tags)
+                .register(registry));
+    }
+
+    private DistributionSummary summary(String name, String description, String unit, String... tags) {
+        return summaries.computeIfAbsent(key(name, tags), key -> DistributionSummary.builder(name)
+                .description(description)
+                .baseUnit(unit)
+                .tags(tags)
+                .register(registry));
+    }
+
+    private static String key(String name, String... tags) {
+        return tags.length == 0 ? name : name + ':' + String.join(",", tags);
+    }
+}
@@ -0,0 +1,25 @@
+package com.smk.presensi.service;
+
+import com.smk.presensi.enums.StatusPresensi;
+
+import java.time.LocalTime;
+
+/**
+ * Aturan status checkin: jam masuk + toleransi.
+ *
+ * Masuk sebelum/pas batas waktu → HADIR, setelahnya → TERLAMBAT.
+ * Dipisah dari PresensiService supaya bisa diukur (JMH) tanpa membuka method service.
+ */
+final class BatasWaktuMasuk {
+
+    private final LocalTime batasWaktu;
+
+    BatasWaktuMasuk(String jamMasuk, int toleransiMenit) {
+        // Format jam masuk config: "07:00:00"
+        this.batasWaktu = LocalTime.parse(jamMasuk).plusMinutes(toleransiMenit);
+    }
+
+    StatusPresensi statusUntuk(LocalTime jamMasuk) {
+        return jamMasuk.isAfter(batasWaktu) ? StatusPresensi.TERLAMBAT : StatusPresensi.HADIR;
+    }
+}
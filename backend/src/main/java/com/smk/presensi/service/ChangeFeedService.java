@@ -0,0 +1,184 @@
+package com.smk.presensi.service;
+
+import com.smk.presensi.dto.sync.SyncChange;
+import com.smk.presensi.dto.sync.SyncChangesResponse;
+import com.smk.presensi.entity.RowVersioned;
+import com.smk.presensi.entity.SyncTombstone;
+import com.smk.presensi.enums.SyncEntityType;
+import com.smk.presensi.enums.SyncOperation;
+import com.smk.presensi.repository.GuruRepository;
+import com.smk.presensi.repository.IzinRepository;
+import com.smk.presensi.repository.KelasRepository;
+import com.smk.presensi.repository.KoreksiPresensiRepository;
+import com.smk.presensi.repository.PresensiRepository;
+import com.smk.presensi.repository.SiswaRepository;
+import com.smk.presensi.repository.SyncTombstoneRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * CHANGE FEED SERVICE - Perubahan data sejak versi tertentu (sync incremental client).
+ *
+ * Client (desktop/mobile) menyimpan cursor terakhir, lalu cukup meminta
+ * perubahan setelah cursor itu: tidak perlu download ulang seluruh tabel.
+ *
+ * - Setiap entity RowVersioned punya kolom row_version (diisi RowVersionEntityListener)
+ * - Baris yang dihapus dicatat di sync_tombstone dengan versi baru
+ * - Hanya versi <= RowVersionService.stableVersion() yang dikirim, jadi
+ *   transaksi yang belum commit tidak pernah terlewat oleh cursor client
+ */
+@Service
+public class ChangeFeedService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChangeFeedService.class);
+
+    /** Tabel yang ikut change feed (untuk isi row_version baris lama) */
+    private static final List<String> VERSIONED_TABLES =
+            List.of("presensi", "siswa", "guru", "kelas", "izin", "koreksi_presensi");
+
+    private final RowVersionService rowVersionService;
+    private final JdbcTemplate jdbcTemplate;
+    private final PresensiRepository presensiRepository;
+    private final SiswaRepository siswaRepository;
+    private final GuruRepository guruRepository;
+    private final KelasRepository kelasRepository;
+    private final IzinRepository izinRepository;
+    private final KoreksiPresensiRepository koreksiRepository;
+    private final SyncTombstoneRepository tombstoneRepository;
+    private final AdminPresensiService adminPresensiService;
+    private final SiswaService siswaService;
+    private final GuruService guruService;
+    private final KelasService kelasService;
+    private final IzinService izinService;
+    private final KoreksiPresensiService koreksiService;
+
+    public ChangeFeedService(
+            RowVersionService rowVersionService,
+            JdbcTemplate jdbcTemplate,
+            PresensiRepository presensiRepository,
+            SiswaRepository siswaRepository,
+            GuruRepository guruRepository,
+            KelasRepository kelasRepository,
+            IzinRepository izinRepository,
+            KoreksiPresensiRepository koreksiRepository,
+            SyncTombstoneRepository tombstoneRepository,
+            AdminPresensiService adminPresensiService,
+            SiswaService siswaService,
+            GuruService guruService,
+            KelasService kelasService,
+            IzinService izinService,
+            KoreksiPresensiService koreksiService
+    ) {
+        this.rowVersionService = rowVersionService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.presensiRepository = presensiRepository;
+        this.siswaRepository = siswaRepository;
+        this.guruRepository = guruRepository;
+        this.kelasRepository = kelasRepository;
+        this.izinRepository = izinRepository;
+        this.koreksiRepository = koreksiRepository;
+        this.tombstoneRepository = tombstoneRepository;
+        this.adminPresensiService = adminPresensiService;
+        this.siswaService = siswaService;
+        this.guruService = guruService;
+        this.kelasService = kelasService;
+        this.izinService = izinService;
+        this.koreksiService = koreksiService;
+    }
+
+    /**
+     * Baris yang dibuat sebelum ada change feed belum punya row_version → beri versi.
+     * Setelah startup pertama, UPDATE ini tidak menyentuh baris apa pun.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillRowVersions() {
+        int total = 0;
+        for (String table : VERSIONED_TABLES) {
+            total += jdbcTemplate.update("UPDATE " + table
+                    + " SET row_version = nextval('sync_version_seq') WHERE row_version IS NULL");
+        }
+        if (total > 0) {
+            // nextval di atas tidak lewat RowVersionService
+            rowVersionService.resync();
+            logger.info("Change feed: {} baris lama diberi row_version", total);
+        }
+    }
+
+    /**
+     * Perubahan dengan versi > since, urut versi, maksimal limit.
+     *
+     * @param since Cursor terakhir client (0 = dari awal)
+     * @param limit Jumlah perubahan maksimal
+     * @param types Entity yang diminta (null/kosong = semua)
+     */
+    @Transactional(readOnly = true)
+    public SyncChangesResponse getChanges(long since, int limit, Set<SyncEntityType> types) {
+        Set<SyncEntityType> wanted = types == null || types.isEmpty()
+                ? EnumSet.allOf(SyncEntityType.class)
+                : EnumSet.copyOf(types);
+        long until = rowVersionService.stableVersion();
+        if (since >= until) {
+            return new SyncChangesResponse(List.of(), Math.max(since, until), false);
+        }
+
+        // Setiap sumber mengambil limit + 1 terkecil; gabungan limit terkecil pasti lengkap
+        Pageable page = PageRequest.of(0, limit + 1);
+        List<SyncChange> merged = new ArrayList<>();
+        if (wanted.contains(SyncEntityType.PRESENSI)) {
+            addUpserts(merged, SyncEntityType.PRESENSI,
+                    presensiRepository.findChangedSince(since, until, page), adminPresensiService::toResponse);
+        }
+        if (wanted.contains(SyncEntityType.SISWA)) {
+            addUpserts(merged, SyncEntityType.SISWA,
+                    siswaRepository.findChangedSince(since, until, page), siswaService::toResponse);
+        }
+        if (wanted.contains(SyncEntityType.GURU)) {
+            addUpserts(merged, SyncEntityType.GURU,
+                    guruRepository.findChangedSince(since, until, page), guruService::toResponse);
+        }
+        if (wanted.contains(SyncEntityType.KELAS)) {
+            addUpserts(merged, SyncEntityType.KELAS,
+                    kelasRepository.findChangedSince(since, until, page), kelasService::toResponse);
+        }
+        if (wanted.contains(SyncEntityType.IZIN)) {
+            addUpserts(merged, SyncEntityType.IZIN,
+                    izinRepository.findChangedSince(since, until, page), izinService::toResponse);
+        }
+        if (wanted.contains(SyncEntityType.KOREKSI)) {
+            addUpserts(merged, SyncEntityType.KOREKSI,
+                    koreksiRepository.findChangedSince(since, until, page), koreksiService::toResponse);
+        }
+        for (SyncTombstone tombstone : tombstoneRepository.findChangedSince(since, until, wanted, page)) {
+            merged.add(new SyncChange(tombstone.getRowVersion(), tombstone.getEntityType(),
+                    SyncOperation.DELETE, tombstone.getEntityId(), null));
+        }
+
+        merged.sort(Comparator.comparingLong(SyncChange::version));
+        boolean hasMore = merged.size() > limit;
+        List<SyncChange> changes = hasMore ? merged.subList(0, limit) : merged;
+        long nextCursor = hasMore ? changes.get(changes.size() - 1).version() : until;
+        return new SyncChangesResponse(List.copyOf(changes), nextCursor, hasMore);
+    }
+
+    private static <E extends RowVersioned> void addUpserts(List<SyncChange> target, SyncEntityType type,
+                                                            List<E> rows, Function<E, ?> toResponse) {
+        for (E row : rows) {
+            target.add(new SyncChange(row.getRowVersion(), type, SyncOperation.UPSERT,
+                    row.getId(), toResponse.apply(row)));
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.smk.presensi.service;
+
+/**
+ * Checkin ditolak karena alasan yang sudah diketahui (bukan error sistem).
+ *
+ * Tetap RuntimeException dengan pesan yang sama seperti sebelumnya, jadi
+ * controller yang menangkap RuntimeException tidak berubah; outcome dipakai
+ * AttendanceMetrics untuk mengelompokkan hasil checkin.
+ */
+public class CheckinRejectedException extends RuntimeException {
+
+    private final String outcome;
+
+    public CheckinRejectedException(String outcome, String message) {
+        super(message);
+        this.outcome = outcome;
+    }
+
+    /**
+     * Salah satu AttendanceMetrics.OUTCOME_*
+     */
+    public String getOutcome() {
+        return outcome;
+    }
+}
@@ -0,0 +1,247 @@
+package com.smk.presensi.service;
+
+import com.smk.presensi.entity.Guru;
+import com.smk.presensi.entity.Siswa;
+import com.smk.presensi.enums.TipeUser;
+import com.smk.presensi.repository.CredentialProjection;
+import com.smk.presensi.repository.GuruRepository;
+import com.smk.presensi.repository.SiswaRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * CREDENTIAL DIRECTORY - Lookup kartu RFID/barcode → user, di memory.
+ *
+ * Sebelumnya satu tap kartu = sampai 4 query:
+ * 1. siswaRepository.findByRfidCardId
+ * 2. guruRepository.findByRfidCardId (jika bukan siswa)
+ * 3. getUser() (load User + roles)
+ * 4. existsByUserAndTanggal
+ *
+ * Directory ini load SEMUA kartu sekali saat startup (1 query per tabel),
+ * lalu di-update oleh IdentityEntityListener setiap Siswa/Guru/User disimpan.
+ * Tap kartu cukup lookup ConcurrentHashMap (O(1), tanpa database).
+ *
+ * Aturan prioritas sama dengan query lama: jika kartu yang sama terdaftar
+ * di Siswa dan Guru, Siswa yang dipakai.
+ */
+@Service
+public class CredentialDirectory {
+
+    private static final Logger logger = LoggerFactory.getLogger(CredentialDirectory.class);
+
+    /**
+     * Data kartu milik satu siswa/guru.
+     *
+     * @param tipe       SISWA atau GURU
+     * @param entityId   ID di tabel siswa/guru
+     * @param userId     ID user (akun login)
+     * @param username   Username (untuk response, tanpa load User)
+     * @param rfidCardId ID kartu RFID (boleh null)
+     * @param barcodeId  ID barcode (boleh null)
+     */
+    public record Credential(TipeUser tipe, Long entityId, Long userId, String username,
+                             String rfidCardId, String barcodeId) {
+    }
+
+    private record EntityKey(TipeUser tipe, Long entityId) {
+    }
+
+    private final SiswaRepository siswaRepository;
+    private final GuruRepository guruRepository;
+
+    private final Map<String, Credential> byRfid = new ConcurrentHashMap<>();
+    private final Map<String, Credential> byBarcode = new ConcurrentHashMap<>();
+    private final Map<EntityKey, Credential> byEntity = new ConcurrentHashMap<>();
+
+    /**
+     * false sampai reload() pertama selesai. Selama belum loaded,
+     * lookup yang miss tetap cek ke database.
+     */
+    private volatile boolean loaded;
+
+    public CredentialDirectory(SiswaRepository siswaRepository, GuruRepository guruRepository) {
+        this.siswaRepository = siswaRepository;
+        this.guruRepository = guruRepository;
+    }
+
+    /**
+     * Load semua kartu dari database.
+     *
+     * Guru di-load dulu, lalu Siswa, supaya Siswa menang jika ada kartu ganda.
+     *
+     * Query dijalankan di luar lock: lock hanya dipegang untuk update map
+     * (tanpa I/O), jadi aman untuk virtual thread (tidak pin carrier thread).
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void reload() {
+        List<CredentialProjection> guruRows = guruRepository.findAllCredentials();
+        List<CredentialProjection> siswaRows = siswaRepository.findAllCredentials();
+
+        synchronized (this) {
+            byRfid.clear();
+            byBarcode.clear();
+            byEntity.clear();
+
+            for (CredentialProjection row : guruRows) {
+                put(toCredential(TipeUser.GURU, row));
+            }
+            for (CredentialProjection row : siswaRows) {
+                put(toCredential(TipeUser.SISWA, row));
+            }
+            loaded = true;
+        }
+        logger.info("Credential directory loaded: {} RFID, {} barcode", byRfid.size(), byBarcode.size());
+    }
+
+    /**
+     * Cari pemilik kartu RFID.
+     */
+    public Optional<Credential> findByRfid(String rfidCardId) {
+        if (rfidCardId == null) {
+            return Optional.empty();
+        }
+        Credential credential = byRfid.get(rfidCardId);
+        if (credential != null || loaded) {
+            return Optional.ofNullable(credential);
+        }
+        // Belum loaded: fallback ke database (urutan lama: Siswa dulu, lalu Guru)
+        return siswaRepository.findByRfidCardId(rfidCardId).map(this::toCredential)
+                .or(() -> guruRepository.findByRfidCardId(rfidCardId).map(this::toCredential))
+                .filter(c -> c.userId() != null);
+    }
+
+    /**
+     * Cari pemilik barcode.
+     */
+    public Optional<Credential> findByBarcode(String barcodeId) {
+        if (barcodeId == null) {
+            return Optional.empty();
+        }
+        Credential credential = byBarcode.get(barcodeId);
+        if (credential != null || loaded) {
+            return Optional.ofNullable(credential);
+        }
+        return siswaRepository.findByBarcodeId(barcodeId).map(this::toCredential)
+                .or(() -> guruRepository.findByBarcodeId(barcodeId).map(this::toCredential))
+                .filter(c -> c.userId() != null);
+    }
+
+    /**
+     * Siswa disimpan (insert/update) → refresh kartunya.
+     */
+    public void onSaved(Siswa siswa) {
+        refresh(toCredential(siswa));
+    }
+
+    /**
+     * Guru disimpan (insert/update) → refresh kartunya.
+     */
+    public void onSaved(Guru guru) {
+        refresh(toCredential(guru));
+    }
+
+    /**
+     * Siswa/guru dihapus → hapus kartunya.
+     */
+    public synchronized void onRemoved(TipeUser tipe, Long entityId) {
+        Credential old = byEntity.remove(new EntityKey(tipe, entityId));
+        if (old != null) {
+            unlink(old);
+        }
+    }
+
+    /**
+     * Username berubah → update entry yang memakai user tersebut.
+     */
+    public synchronized void onUsernameChanged(Long userId, String username) {
+        for (Credential credential : byEntity.values()) {
+            if (credential.userId().equals(userId) && !credential.username().equals(username)) {
+                put(new Credential(credential.tipe(), credential.entityId(), userId, username,
+                        credential.rfidCardId(), credential.barcodeId()));
+            }
+        }
+    }
+
+    public int size() {
+        return byEntity.size();
+    }
+
+    // ═════════════════════════════════════════════════════════════
+    // PRIVATE HELPER METHODS
+    // ═════════════════════════════════════════════════════════════
+
+    private synchronized void refresh(Credential credential) {
+        if (credential.userId() == null
+                || (credential.rfidCardId() == null && credential.barcodeId() == null)) {
+            onRemoved(credential.tipe(), credential.entityId());
+            return;
+        }
+        put(credential);
+    }
+
+    private void put(Credential credential) {
+        Credential old = byEntity.put(new EntityKey(credential.tipe(), credential.entityId()), credential);
+        if (old != null) {
+            unlink(old);
+        }
+        if (credential.rfidCardId() != null) {
+            byRfid.merge(credential.rfidCardId(), credential, CredentialDirectory::preferSiswa);
+        }
+        if (credential.barcodeId() != null) {
+            byBarcode.merge(credential.barcodeId(), credential, CredentialDirectory::preferSiswa);
+        }
+    }
+
+    /**
+     * Hapus mapping kartu lama, hanya jika masih milik entity yang sama.
+     */
+    private void unlink(Credential old) {
+        if (old.rfidCardId() != null) {
+            byRfid.computeIfPresent(old.rfidCardId(),
+                    (key, current) -> sameEntity(current, old) ? null : current);
+        }
+        if (old.barcodeId() != null) {
+            byBarcode.computeIfPresent(old.barcodeId(),
+                    (key, current) -> sameEntity(current, old) ? null : current);
+        }
+    }
+
+    private static boolean sameEntity(Credential a, Credential b) {
+        return a.tipe() == b.tipe() && a.entityId().equals(b.entityId());
+    }
+
+    private static Credential preferSiswa(Credential existing, Credential incoming) {
+        if (sameEntity(existing, incoming)) {
+            return incoming;
+        }
+        return existing.tipe() == TipeUser.SISWA && incoming.tipe() == TipeUser.GURU ? existing : incoming;
+    }
+
+    private Credential toCredential(TipeUser tipe, CredentialProjection row) {
+        return new Credential(tipe, row.getEntityId(), row.getUserId(), row.getUsername(),
+                row.getRfidCardId(), row.getBarcodeId());
+    }
+
+    private Credential toCredential(Siswa siswa) {
+        return new Credential(TipeUser.SISWA, siswa.getId(),
+                siswa.getUser() != null ? siswa.getUser().getId() : null,
+                siswa.getUser() != null ? siswa.getUser().getUsername() : null,
+                siswa.getRfidCardId(), siswa.getBarcodeId());
+    }
+
+    private Credential toCredential(Guru guru) {
+        return new Credential(TipeUser.GURU, guru.getId(),
+                guru.getUser() != null ? guru.getUser().getId() : null,
+                guru.getUser() != null ? guru.getUser().getUsername() : null,
+                guru.getRfidCardId(), guru.getBarcodeId());
+    }
+}
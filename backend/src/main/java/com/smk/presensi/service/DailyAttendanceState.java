@@ -0,0 +1,241 @@
+package com.smk.presensi.service;
+
+import com.smk.presensi.repository.DailyPresensiProjection;
+import com.smk.presensi.repository.PresensiRepository;
+import com.smk.presensi.util.LongLongHashMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * DAILY ATTENDANCE STATE - Status presensi HARI INI di memory.
+ *
+ * Setiap checkin sebelumnya menjalankan existsByUserAndTanggal, dan setiap
+ * checkout menjalankan findByUserAndTanggal. Dua-duanya scan tabel presensi
+ * yang terus bertambah setiap hari sekolah.
+ *
+ * State ini menyimpan untuk satu tanggal:
+ * - Bitmap user yang sudah checkin (BitSet, index = userId)
+ * - Map primitive userId → presensiId (LongLongHashMap)
+ *
+ * Jadi:
+ * - "Sudah checkin hari ini?" = 1 bit lookup (O(1), tanpa database)
+ * - Checkout = findById(presensiId) by PRIMARY KEY, bukan scan
+ *
+ * Kapan di-rebuild dari database?
+ * - Saat aplikasi siap (ApplicationReadyEvent)
+ * - Saat ganti hari (akses pertama dengan tanggal baru)
+ *
+ * Perubahan (insert/update/delete Presensi dari jalur mana pun: checkin,
+ * admin, koreksi) masuk lewat PresensiEntityListener setelah commit.
+ *
+ * Tanggal selain "hari yang sedang di-track" tetap dicek ke database.
+ *
+ * State ini cache, bukan sumber kebenaran: checkin tetap dijaga unique constraint
+ * (user_id, tanggal), dan checkout yang tidak ketemu di sini dicek ulang ke database.
+ */
+@Service
+public class DailyAttendanceState {
+
+    private static final Logger logger = LoggerFactory.getLogger(DailyAttendanceState.class);
+
+    private static final long NOT_FOUND = -1L;
+
+    private final PresensiRepository presensiRepository;
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+    private volatile Day day;
+
+    public DailyAttendanceState(PresensiRepository presensiRepository) {
+        this.presensiRepository = presensiRepository;
+    }
+
+    /**
+     * Load state hari ini saat aplikasi siap.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        rebuild(LocalDate.now());
+    }
+
+    /**
+     * Rebuild state untuk tanggal tertentu dari database.
+     */
+    public void rebuild(LocalDate tanggal) {
+        rebuildLock.lock();
+        try {
+            List<DailyPresensiProjection> rows = presensiRepository.findDailySummary(tanggal);
+            Day next = new Day(tanggal, rows.size());
+            for (DailyPresensiProjection row : rows) {
+                // Jika ada data ganda (sebelum ada unique constraint), pakai ID terkecil
+                if (!next.presensiIds.containsKey(row.getUserId())) {
+                    next.add(row.getUserId(), row.getId());
+                }
+            }
+            day = next;
+            logger.info("Attendance state {} rebuilt: {} presensi", tanggal, rows.size());
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    /**
+     * Apakah user sudah checkin pada tanggal tersebut?
+     */
+    public boolean isCheckedIn(Long userId, LocalDate tanggal) {
+        Day current = dayFor(tanggal);
+        if (current == null) {
+            return presensiRepository.existsByUserIdAndTanggal(userId, tanggal);
+        }
+        return current.isCheckedIn(userId);
+    }
+
+    /**
+     * ID presensi milik user pada tanggal tersebut.
+     */
+    public Optional<Long> findPresensiId(Long userId, LocalDate tanggal) {
+        Day current = dayFor(tanggal);
+        if (current == null) {
+            return presensiRepository.findByUserIdAndTanggal(userId, tanggal).map(p -> p.getId());
+        }
+        long id = current.presensiId(userId);
+        return id == NOT_FOUND ? Optional.empty() : Optional.of(id);
+    }
+
+    // ═════════════════════════════════════════════════════════════
+    // DIPANGGIL OLEH PresensiEntityListener (setelah commit)
+    // ═════════════════════════════════════════════════════════════
+
+    /**
+     * Presensi baru/berubah → catat (atau pindahkan) di state.
+     */
+    public void onSaved(Long presensiId, Long userId, LocalDate tanggal) {
+        Day current = day;
+        if (current == null) {
+            return;
+        }
+        current.lock.lock();
+        try {
+            // Admin bisa mengubah user/tanggal → lepas dulu mapping lama
+            current.removePresensi(presensiId);
+            if (current.tanggal.equals(tanggal)) {
+                current.add(userId, presensiId);
+            }
+        } finally {
+            current.lock.unlock();
+        }
+    }
+
+    /**
+     * Presensi dihapus → lepas dari state.
+     */
+    public void onRemoved(Long presensiId) {
+        Day current = day;
+        if (current == null) {
+            return;
+        }
+        current.lock.lock();
+        try {
+            current.removePresensi(presensiId);
+        } finally {
+            current.lock.unlock();
+        }
+    }
+
+    // ═════════════════════════════════════════════════════════════
+    // PRIVATE HELPER METHODS
+    // ═════════════════════════════════════════════════════════════
+
+    /**
+     * State untuk tanggal ini, atau null jika tanggal bukan hari ini.
+     * Ganti hari → rebuild otomatis.
+     */
+    private Day dayFor(LocalDate tanggal) {
+        Day current = day;
+        if (current != null && current.tanggal.equals(tanggal)) {
+            return current;
+        }
+        if (!tanggal.equals(LocalDate.now())) {
+            return null;
+        }
+        rebuildLock.lock();
+        try {
+            current = day;
+            if (current == null || !current.tanggal.equals(tanggal)) {
+                rebuild(tanggal);
+            }
+            return day;
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    /**
+     * State satu hari. Semua akses dijaga oleh lock milik hari itu.
+     */
+    private static final class Day {
+
+        final LocalDate tanggal;
+        final BitSet checkedIn = new BitSet();
+        final LongLongHashMap presensiIds;
+        final LongLongHashMap usersByPresensi;
+        final ReentrantLock lock = new ReentrantLock();
+
+        Day(LocalDate tanggal, int expected) {
+            this.tanggal = tanggal;
+            this.presensiIds = new LongLongHashMap(Math.max(expected, 64));
+            this.usersByPresensi = new LongLongHashMap(Math.max(expected, 64));
+        }
+
+        boolean isCheckedIn(Long userId) {
+            lock.lock();
+            try {
+                return fitsBitmap(userId) ? checkedIn.get(userId.intValue()) : presensiIds.containsKey(userId);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        long presensiId(Long userId) {
+            lock.lock();
+            try {
+                return presensiIds.get(userId, NOT_FOUND);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void add(long userId, long presensiId) {
+            presensiIds.put(userId, presensiId);
+            usersByPresensi.put(presensiId, userId);
+            if (fitsBitmap(userId)) {
+                checkedIn.set((int) userId);
+            }
+        }
+
+        void removePresensi(long presensiId) {
+            long userId = usersByPresensi.get(presensiId, NOT_FOUND);
+            if (userId == NOT_FOUND) {
+                return;
+            }
+            usersByPresensi.remove(presensiId);
+            if (presensiIds.get(userId, NOT_FOUND) == presensiId) {
+                presensiIds.remove(userId);
+                if (fitsBitmap(userId)) {
+                    checkedIn.clear((int) userId);
+                }
+            }
+        }
+
+        private static boolean fitsBitmap(long userId) {
+            return userId > 0 && userId <= Integer.MAX_VALUE;
+        }
+    }
+}
@@ -7,30 +7,33 @@ import com.smk.presensi.dto.KelasResponse;
 import com.smk.presensi.dto.JurusanResponse;
 import com.smk.presensi.dto.UserResponse;
 import com.smk.presensi.dto.presensi.PresensiResponse;
+import org.apache.poi.ss.SpreadsheetVersion;
 import org.apache.poi.ss.usermodel.*;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
 import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 import org.springframework.stereotype.Service;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Service
 public class ExcelService {
 
+    /**
+     * Jumlah baris yang ditahan di memory saat export streaming.
+     */
+    private static final int STREAMING_ROW_WINDOW = 200;
+
     public ByteArrayInputStream exportSiswaToExcel(List<SiswaResponse> siswaList) {
         try (Workbook workbook = new XSSFWorkbook(); ByteArrayOutputStream out = new ByteArrayOutputStream()) {
             Sheet sheet = workbook.createSheet("Siswa");
 
             // Header
-            Row headerRow = sheet.createRow(0);
-            String[] columns = {"NIS", "Nama", "Kelas", "Jurusan"};
-            for (int i = 0; i < columns.length; i++) {
-                Cell cell = headerRow.createCell(i);
-                cell.setCellValue(columns[i]);
-                cell.setCellStyle(createHeaderStyle(workbook));
-            }
+            writeHeader(workbook, sheet, new String[]{"NIS", "Nama", "Kelas", "Jurusan"});
 
             // Data
             int rowIdx = 1;
@@ -54,13 +57,7 @@ public class ExcelService {
             Sheet sheet = workbook.createSheet("DUDI");
 
             // Header
-            Row headerRow = sheet.createRow(0);
-            String[] columns = {"Nama", "Bidang Usaha", "Alamat", "Kontak Person", "Telepon", "Kuota", "Latitude", "Longitude", "Radius"};
-            for (int i = 0; i < columns.length; i++) {
-                Cell cell = headerRow.createCell(i);
-                cell.setCellValue(columns[i]);
-                cell.setCellStyle(createHeaderStyle(workbook));
-            }
+            writeHeader(workbook, sheet, new String[]{"Nama", "Bidang Usaha", "Alamat", "Kontak Person", "Telepon", "Kuota", "Latitude", "Longitude", "Radius"});
 
             // Data
             int rowIdx = 1;
@@ -87,13 +84,7 @@ public class ExcelService {
     public ByteArrayInputStream exportGuruToExcel(List<GuruResponse> guruList) {
         try (Workbook workbook = new XSSFWorkbook(); ByteArrayOutputStream out = new ByteArrayOutputStream()) {
             Sheet sheet = workbook.createSheet("Guru");
-            Row headerRow = sheet.createRow(0);
-            String[] columns = {"NIP", "Nama", "Mapel", "RFID ID"};
-            for (int i = 0; i < columns.length; i++) {
-                Cell cell = headerRow.createCell(i);
-                cell.setCellValue(columns[i]);
-                cell.setCellStyle(createHeaderStyle(workbook));
-            }
+            writeHeader(workbook, sheet, new String[]{"NIP", "Nama", "Mapel", "RFID ID"});
             int rowIdx = 1;
             for (GuruResponse guru : guruList) {
                 Row row = sheet.createRow(rowIdx++);
@@ -112,13 +103,7 @@ public class ExcelService {
     public ByteArrayInputStream exportKelasToExcel(List<KelasResponse> kelasList) {
         try (Workbook workbook = new XSSFWorkbook(); ByteArrayOutputStream out = new ByteArrayOutputStream()) {
             Sheet sheet = workbook.createSheet("Kelas");
-            Row headerRow = sheet.createRow(0);
-            String[] columns = {"Nama", "Tingkat", "Jurusan", "Kapasitas"};
-            for (int i = 0; i < columns.length; i++) {
-                Cell cell = headerRow.createCell(i);
-                cell.setCellValue(columns[i]);
-                cell.setCellStyle(createHeaderStyle(workbook));
-            }
+            writeHeader(workbook, sheet, new String[]{"Nama", "Tingkat", "Jurusan", "Kapasitas"});
             int rowIdx = 1;
             for (KelasResponse kelas : kelasList) {
                 Row row = sheet.createRow(rowIdx++);
@@ -137,13 +122,7 @@ public class ExcelService {
     public ByteArrayInputStream exportJurusanToExcel(List<JurusanResponse> jurusanList) {
         try (Workbook workbook = new XSSFWorkbook(); ByteArrayOutputStream out = new ByteArrayOutputStream()) {
             Sheet sheet = workbook.createSheet("Jurusan");
-            Row headerRow = sheet.createRow(0);
-            String[] columns = {"Kode", "Nama", "Durasi (Tahun)"};
-            for (int i = 0; i < columns.length; i++) {
-                Cell cell = headerRow.createCell(i);
-                cell.setCellValue(columns[i]);
-                cell.setCellStyle(createHeaderStyle(workbook));
-            }
+            writeHeader(workbook, sheet, new String[]{"Kode", "Nama", "Durasi (Tahun)"});
             int rowIdx = 1;
             for (JurusanResponse jurusan : jurusanList) {
                 Row row = sheet.createRow(rowIdx++);
@@ -161,13 +140,7 @@ public class ExcelService {
     public ByteArrayInputStream exportUserToExcel(List<UserResponse> userList) {
         try (Workbook workbook = new XSSFWorkbook(); ByteArrayOutputStream out = new ByteArrayOutputStream()) {
             Sheet sheet = workbook.createSheet("Users");
-            Row headerRow = sheet.createRow(0);
-            String[] columns = {"Username", "Email", "Roles", "Enabled"};
-            for (int i = 0; i < columns.length; i++) {
-                Cell cell = headerRow.createCell(i);
-                cell.setCellValue(columns[i]);
-                cell.setCellStyle(createHeaderStyle(workbook));
-            }
+            writeHeader(workbook, sheet, new String[]{"Username", "Email", "Roles", "Enabled"});
             int rowIdx = 1;
             for (UserResponse user : userList) {
                 Row row = sheet.createRow(rowIdx++);
@@ -183,19 +156,38 @@ public class ExcelService {
         }
     }
 
-    public ByteArrayInputStream exportPresensiToExcel(List<PresensiResponse> presensiList) {
-        try (Workbook workbook = new XSSFWorkbook(); ByteArrayOutputStream out = new ByteArrayOutputStream()) {
-            Sheet sheet = workbook.createSheet("Presensi");
-            Row headerRow = sheet.createRow(0);
-            String[] columns = {"Tanggal", "Username", "Tipe", "Jam Masuk", "Jam Pulang", "Status", "Metode", "Keterangan"};
-            for (int i = 0; i < columns.length; i++) {
-                Cell cell = headerRow.createCell(i);
-                cell.setCellValue(columns[i]);
-                cell.setCellStyle(createHeaderStyle(workbook));
-            }
-            int rowIdx = 1;
-            for (PresensiResponse p : presensiList) {
-                Row row = sheet.createRow(rowIdx++);
+    /**
+     * Tulis presensi ke Excel secara STREAMING, langsung ke output stream.
+     *
+     * SXSSFWorkbook hanya menyimpan STREAMING_ROW_WINDOW baris terakhir di memory;
+     * baris yang lebih lama di-flush ke file sementara (terkompresi). Ditambah data
+     * dari Stream (cursor database), export bertahun-tahun tetap pakai memory konstan.
+     *
+     * Satu sheet XLSX maksimal 1.048.576 baris (header + 1.048.575 data). Lebih dari
+     * itu → lanjut ke sheet "Presensi 2", "Presensi 3", ... dengan header yang sama.
+     *
+     * @param rows Data presensi (dibaca sekali, berurutan)
+     * @param out  Output stream tujuan (mis. response servlet). Tidak ditutup di sini.
+     */
+    public void writePresensiToExcel(Stream<PresensiResponse> rows, OutputStream out) throws IOException {
+        writePresensiToExcel(rows, out, SpreadsheetVersion.EXCEL2007.getLastRowIndex());
+    }
+
+    /**
+     * @param lastRowIndex Index baris terakhir per sheet (test memakai nilai kecil)
+     */
+    void writePresensiToExcel(Stream<PresensiResponse> rows, OutputStream out, int lastRowIndex) throws IOException {
+        SXSSFWorkbook workbook = new SXSSFWorkbook(STREAMING_ROW_WINDOW);
+        workbook.setCompressTempFiles(true);
+        try {
+            Sheet[] sheet = {createPresensiSheet(workbook, "Presensi")};
+            int[] rowIdx = {1};
+            rows.forEach(p -> {
+                if (rowIdx[0] > lastRowIndex) {
+                    sheet[0] = createPresensiSheet(workbook, "Presensi " + (workbook.getNumberOfSheets() + 1));
+                    rowIdx[0] = 1;
+                }
+                Row row = sheet[0].createRow(rowIdx[0]++);
                 row.createCell(0).setCellValue(p.tanggal().toString());
                 row.createCell(1).setCellValue(p.username());
                 row.createCell(2).setCellValue(p.tipe().toString());
@@ -204,18 +196,24 @@ public class ExcelService {
                 row.createCell(5).setCellValue(p.status().toString());
                 row.createCell(6).setCellValue(p.method() != null ? p.method().toString() : "-");
                 row.createCell(7).setCellValue(p.keterangan());
-            }
+            });
             workbook.write(out);
-            return new ByteArrayInputStream(out.toByteArray());
-        } catch (IOException e) {
-            throw new RuntimeException("Gagal export data presensi ke Excel: " + e.getMessage());
+        } finally {
+            // Hapus file sementara SXSSF
+            workbook.dispose();
+            workbook.close();
         }
     }
 
+    private Sheet createPresensiSheet(Workbook workbook, String name) {
+        Sheet sheet = workbook.createSheet(name);
+        writeHeader(workbook, sheet, new String[]{"Tanggal", "Username", "Tipe", "Jam Masuk", "Jam Pulang", "Status", "Metode", "Keterangan"});
+        return sheet;
+    }
+
     public ByteArrayInputStream generateTemplate(String type) {
         try (Workbook workbook = new XSSFWorkbook(); ByteArrayOutputStream out = new ByteArrayOutputStream()) {
             Sheet sheet = workbook.createSheet("Template " + type);
-            Row headerRow = sheet.createRow(0);
             String[] columns;
 
             switch (type.toLowerCase()) {
@@ -241,11 +239,7 @@ public class ExcelService {
                     columns = new String[]{"Column 1", "Column 2"};
             }
 
-            for (int i = 0; i < columns.length; i++) {
-                Cell cell = headerRow.createCell(i);
-                cell.setCellValue(columns[i]);
-                cell.setCellStyle(createHeaderStyle(workbook));
-            }
+            writeHeader(workbook, sheet, columns);
 
             workbook.write(out);
             return new ByteArrayInputStream(out.toByteArray());
@@ -254,6 +248,20 @@ public class ExcelService {
         }
     }
 
+    /**
+     * Tulis baris header. Style dibuat sekali per workbook (bukan per cell),
+     * karena jumlah CellStyle di satu workbook terbatas.
+     */
+    private void writeHeader(Workbook workbook, Sheet sheet, String[] columns) {
+        CellStyle headerStyle = createHeaderStyle(workbook);
+        Row headerRow = sheet.createRow(0);
+        for (int i = 0; i < columns.length; i++) {
+            Cell cell = headerRow.createCell(i);
+            cell.setCellValue(columns[i]);
+            cell.setCellStyle(headerStyle);
+        }
+    }
+
     private CellStyle createHeaderStyle(Workbook workbook) {
         CellStyle style = workbook.createCellStyle();
         Font font = workbook.createFont();
@@ -0,0 +1,616 @@
+package com.smk.presensi.service;
+
+import com.smk.presensi.entity.Guru;
+import com.smk.presensi.entity.Siswa;
+import com.smk.presensi.enums.TipeUser;
+import com.smk.presensi.repository.GuruRepository;
+import com.smk.presensi.repository.SiswaRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.Random;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * FACE EMBEDDING INDEX - Index in-memory untuk pencarian wajah.
+ *
+ * Sebelumnya FaceController load SEMUA Siswa/Guru yang sudah enroll
+ * lalu hitung Levenshtein satu per satu (O(N) entity load + O(N * 128 * 128) DP).
+ * Index ini menyimpan encoding sebagai vektor float (bukan String di entity),
+ * sehingga satu scan cukup hitung dot product di array yang contiguous.
+ *
+ * ═════════════════════════════════════════════════════════════
+ * CARA KERJA
+ * ═════════════════════════════════════════════════════════════
+ *
+ * 1. ENCODING → VEKTOR:
+ *    - Setiap karakter hex (0-f) jadi satu dimensi float, digeser ke -7.5..7.5
+ *    - Vektor dinormalisasi (panjang = 1) → cosine similarity = dot product
+ *
+ * 2. MODE EXACT (default):
+ *    - Brute force dot product ke semua vektor
+ *    - Loop 4 akumulator supaya JIT bisa pakai instruksi SIMD/ILP
+ *
+ * 3. MODE IVF (approximate, untuk enrollment besar):
+ *    - Vektor dikelompokkan dengan k-means (centroid = "ember")
+ *    - Query hanya scan beberapa ember terdekat (nprobe)
+ *
+ * Update incremental (lewat IdentityEntityListener):
+ * - upsert() dipanggil saat Siswa/Guru disimpan (misal /enroll)
+ * - remove() dipanggil saat Siswa/Guru dihapus
+ * - Snapshot immutable (copy-on-write), jadi pembaca tidak perlu lock
+ *
+ * Hasil search hanya KANDIDAT. Keputusan match tetap lewat
+ * FaceRecognitionService.isMatch() supaya threshold tidak berubah.
+ */
+@Service
+public class FaceEmbeddingIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(FaceEmbeddingIndex.class);
+
+    /**
+     * Dimensi vektor = panjang encoding dari FaceRecognitionService.
+     */
+    static final int DIMENSION = 128;
+
+    /**
+     * Jumlah iterasi k-means saat training IVF.
+     */
+    private static final int KMEANS_ITERATIONS = 8;
+
+    public enum Mode {
+        EXACT,
+        IVF
+    }
+
+    /**
+     * Kandidat hasil pencarian.
+     *
+     * @param tipe     SISWA atau GURU
+     * @param entityId ID di tabel siswa/guru
+     * @param userId   ID user (null jika siswa/guru belum punya akun)
+     * @param encoding Encoding asli (untuk verifikasi threshold)
+     * @param score    Cosine similarity (-1.0 - 1.0)
+     */
+    public record Candidate(TipeUser tipe, Long entityId, Long userId, String encoding, double score) {
+    }
+
+    private final SiswaRepository siswaRepository;
+    private final GuruRepository guruRepository;
+
+    @Value("${presensi.face.index.mode:EXACT}")
+    private Mode mode = Mode.EXACT;
+
+    /**
+     * Jumlah ember IVF. 0 = otomatis (akar dari jumlah vektor).
+     */
+    @Value("${presensi.face.index.ivf-lists:0}")
+    private int ivfLists;
+
+    /**
+     * Jumlah ember yang di-scan per query (semakin besar = semakin akurat).
+     */
+    @Value("${presensi.face.index.ivf-probes:4}")
+    private int ivfProbes = 4;
+
+    /**
+     * Di bawah jumlah ini IVF tidak dipakai (exact sudah cukup cepat).
+     */
+    @Value("${presensi.face.index.ivf-min-size:1024}")
+    private int ivfMinSize = 1024;
+
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private volatile Snapshot snapshot = Snapshot.EMPTY;
+
+    public FaceEmbeddingIndex(SiswaRepository siswaRepository, GuruRepository guruRepository) {
+        this.siswaRepository = siswaRepository;
+        this.guruRepository = guruRepository;
+    }
+
+    /**
+     * Load semua encoding dari database saat aplikasi siap.
+     *
+     * Query dijalankan sambil memegang writeLock: upsert/remove dari /enroll
+     * (setelah commit) menunggu sampai snapshot baru terpasang, jadi tidak
+     * tertimpa data yang dibaca sebelum commit-nya.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        List<Entry> entries = new ArrayList<>();
+        writeLock.lock();
+        try {
+            for (Siswa siswa : siswaRepository.findByFaceEncodingIsNotNull()) {
+                entries.add(new Entry(TipeUser.SISWA, siswa.getId(),
+                        siswa.getUser() != null ? siswa.getUser().getId() : null, siswa.getFaceEncoding()));
+            }
+            for (Guru guru : guruRepository.findByFaceEncodingIsNotNull()) {
+                entries.add(new Entry(TipeUser.GURU, guru.getId(),
+                        guru.getUser() != null ? guru.getUser().getId() : null, guru.getFaceEncoding()));
+            }
+            Snapshot next = Snapshot.of(entries);
+            snapshot = withIndex(next, true);
+        } finally {
+            writeLock.unlock();
+        }
+        logger.info("Face index loaded: {} encodings (mode={})", entries.size(), mode);
+    }
+
+    /**
+     * Tambah atau ganti encoding milik satu siswa/guru.
+     */
+    public void upsert(TipeUser tipe, Long entityId, Long userId, String encoding) {
+        if (encoding == null) {
+            remove(tipe, entityId);
+            return;
+        }
+        writeLock.lock();
+        try {
+            Snapshot current = snapshot;
+            int existing = current.indexOf(tipe, entityId);
+            if (existing >= 0 && encoding.equals(current.encodings[existing])
+                    && Objects.equals(userId, current.userIds[existing])) {
+                return; // Tidak ada perubahan (misal hanya nama siswa yang diupdate)
+            }
+            Snapshot next = existing >= 0
+                    ? current.replace(existing, new Entry(tipe, entityId, userId, encoding))
+                    : current.append(new Entry(tipe, entityId, userId, encoding));
+            snapshot = withIndex(next, false);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Hapus encoding (misal siswa/guru dihapus).
+     */
+    public void remove(TipeUser tipe, Long entityId) {
+        writeLock.lock();
+        try {
+            Snapshot current = snapshot;
+            int existing = current.indexOf(tipe, entityId);
+            if (existing >= 0) {
+                snapshot = withIndex(current.without(existing), false);
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Cari top-k kandidat paling mirip, urut dari score tertinggi.
+     *
+     * @param encoding Encoding wajah dari kamera
+     * @param k        Jumlah kandidat maksimal
+     * @return List kandidat (bisa kosong jika belum ada yang enroll)
+     */
+    public List<Candidate> search(String encoding, int k) {
+        return search(encoding, k, false);
+    }
+
+    /**
+     * Semua encoding, urut dari score tertinggi (selalu exact, IVF tidak dipakai).
+     *
+     * Untuk fallback saat tidak ada kandidat top-k yang lolos threshold:
+     * urutan cosine tidak sama dengan urutan Levenshtein.
+     *
+     * @param encoding Encoding wajah dari kamera
+     * @return List semua kandidat
+     */
+    public List<Candidate> searchAll(String encoding) {
+        return search(encoding, Integer.MAX_VALUE, true);
+    }
+
+    /**
+     * Jumlah encoding di index.
+     */
+    public int size() {
+        return snapshot.size;
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    // ═════════════════════════════════════════════════════════════
+    // PRIVATE HELPER METHODS
+    // ═════════════════════════════════════════════════════════════
+
+    private List<Candidate> search(String encoding, int k, boolean exhaustive) {
+        Snapshot current = snapshot;
+        if (current.size == 0 || k <= 0 || encoding == null) {
+            return List.of();
+        }
+        float[] query = toVector(encoding);
+        TopK top = new TopK(Math.min(k, current.size));
+
+        if (current.ivf != null && !exhaustive) {
+            current.ivf.search(query, current.vectors, Math.max(1, ivfProbes), top);
+        } else {
+            for (int i = 0; i < current.size; i++) {
+                top.offer(i, dot(query, current.vectors, i * DIMENSION));
+            }
+        }
+
+        List<Candidate> result = new ArrayList<>(top.count);
+        for (int position : top.sortedPositions()) {
+            int slot = top.slots[position];
+            result.add(new Candidate(
+                    current.tipes[slot],
+                    current.entityIds[slot],
+                    current.userIds[slot],
+                    current.encodings[slot],
+                    top.scores[position]
+            ));
+        }
+        return result;
+    }
+
+    /**
+     * Pasang struktur IVF ke snapshot baru (jika mode IVF dan data cukup besar).
+     *
+     * Training ulang k-means hanya jika dipaksa atau jumlah vektor sudah
+     * 2x lipat dari saat training terakhir. Selain itu cukup assign ulang
+     * ke centroid yang ada (O(N * lists)).
+     */
+    private Snapshot withIndex(Snapshot next, boolean forceTrain) {
+        if (mode != Mode.IVF || next.size < ivfMinSize) {
+            return next;
+        }
+        Ivf previous = snapshot.ivf;
+        boolean retrain = forceTrain || previous == null || next.size > previous.trainedSize * 2;
+        Ivf ivf = retrain
+                ? Ivf.train(next.vectors, next.size, listCount(next.size))
+                : previous.reassign(next.vectors, next.size);
+        return next.withIvf(ivf);
+    }
+
+    private int listCount(int size) {
+        if (ivfLists > 0) {
+            return Math.min(ivfLists, size);
+        }
+        return Math.max(1, (int) Math.sqrt(size));
+    }
+
+    /**
+     * Ubah encoding hex jadi vektor unit-length.
+     */
+    private static float[] toVector(String encoding) {
+        return FaceSimilarityKernel.toUnitVector(encoding, DIMENSION);
+    }
+
+    private static float dot(float[] query, float[] data, int offset) {
+        return FaceSimilarityKernel.dot(query, data, offset, DIMENSION);
+    }
+
+    /**
+     * Data mentah satu encoding (sebelum masuk snapshot).
+     */
+    private record Entry(TipeUser tipe, Long entityId, Long userId, String encoding) {
+    }
+
+    /**
+     * Snapshot immutable isi index. Diganti utuh setiap ada perubahan.
+     */
+    private static final class Snapshot {
+
+        static final Snapshot EMPTY = new Snapshot(0, new float[0], new TipeUser[0],
+                new Long[0], new Long[0], new String[0], null);
+
+        final int size;
+        final float[] vectors;
+        final TipeUser[] tipes;
+        final Long[] entityIds;
+        final Long[] userIds;
+        final String[] encodings;
+        final Ivf ivf;
+
+        Snapshot(int size, float[] vectors, TipeUser[] tipes, Long[] entityIds,
+                 Long[] userIds, String[] encodings, Ivf ivf) {
+            this.size = size;
+            this.vectors = vectors;
+            this.tipes = tipes;
+            this.entityIds = entityIds;
+            this.userIds = userIds;
+            this.encodings = encodings;
+            this.ivf = ivf;
+        }
+
+        static Snapshot of(List<Entry> entries) {
+            int n = entries.size();
+            Snapshot snapshot = new Snapshot(n, new float[n * DIMENSION], new TipeUser[n],
+                    new Long[n], new Long[n], new String[n], null);
+            for (int i = 0; i < n; i++) {
+                snapshot.set(i, entries.get(i));
+            }
+            return snapshot;
+        }
+
+        int indexOf(TipeUser tipe, Long entityId) {
+            for (int i = 0; i < size; i++) {
+                if (tipes[i] == tipe && entityIds[i].equals(entityId)) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        Snapshot append(Entry entry) {
+            Snapshot next = new Snapshot(size + 1,
+                    Arrays.copyOf(vectors, (size + 1) * DIMENSION),
+                    Arrays.copyOf(tipes, size + 1),
+                    Arrays.copyOf(entityIds, size + 1),
+                    Arrays.copyOf(userIds, size + 1),
+                    Arrays.copyOf(encodings, size + 1),
+                    null);
+            next.set(size, entry);
+            return next;
+        }
+
+        Snapshot replace(int slot, Entry entry) {
+            Snapshot next = new Snapshot(size, vectors.clone(), tipes.clone(),
+                    entityIds.clone(), userIds.clone(), encodings.clone(), null);
+            next.set(slot, entry);
+            return next;
+        }
+
+        Snapshot without(int slot) {
+            int last = size - 1;
+            Snapshot next = new Snapshot(last, Arrays.copyOf(vectors, last * DIMENSION),
+                    Arrays.copyOf(tipes, last), Arrays.copyOf(entityIds, last),
+                    Arrays.copyOf(userIds, last), Arrays.copyOf(encodings, last), null);
+            if (slot != last) {
+                // Pindahkan elemen terakhir ke slot yang kosong
+                System.arraycopy(vectors, last * DIMENSION, next.vectors, slot * DIMENSION, DIMENSION);
+                next.tipes[slot] = tipes[last];
+                next.entityIds[slot] = entityIds[last];
+                next.userIds[slot] = userIds[last];
+                next.encodings[slot] = encodings[last];
+            }
+            return next;
+        }
+
+        Snapshot withIvf(Ivf ivf) {
+            return new Snapshot(size, vectors, tipes, entityIds, userIds, encodings, ivf);
+        }
+
+        private void set(int slot, Entry entry) {
+            System.arraycopy(toVector(entry.encoding()), 0, vectors, slot * DIMENSION, DIMENSION);
+            tipes[slot] = entry.tipe();
+            entityIds[slot] = entry.entityId();
+            userIds[slot] = entry.userId();
+            encodings[slot] = entry.encoding();
+        }
+    }
+
+    /**
+     * Inverted file index: centroid k-means + daftar slot per centroid.
+     */
+    private static final class Ivf {
+
+        final float[] centroids;
+        final int listCount;
+        final int[][] lists;
+        final int trainedSize;
+
+        private Ivf(float[] centroids, int listCount, int[][] lists, int trainedSize) {
+            this.centroids = centroids;
+            this.listCount = listCount;
+            this.lists = lists;
+            this.trainedSize = trainedSize;
+        }
+
+        /**
+         * Spherical k-means (centroid dinormalisasi, jarak = dot product).
+         * Seed tetap supaya hasil training deterministik.
+         */
+        static Ivf train(float[] vectors, int size, int listCount) {
+            float[] centroids = new float[listCount * DIMENSION];
+            Random random = new Random(42);
+            for (int c = 0; c < listCount; c++) {
+                int pick = random.nextInt(size);
+                System.arraycopy(vectors, pick * DIMENSION, centroids, c * DIMENSION, DIMENSION);
+            }
+
+            int[] assignment = new int[size];
+            for (int iter = 0; iter < KMEANS_ITERATIONS; iter++) {
+                assign(vectors, size, centroids, listCount, assignment);
+
+                float[] sums = new float[listCount * DIMENSION];
+                for (int i = 0; i < size; i++) {
+                    int base = assignment[i] * DIMENSION;
+                    int offset = i * DIMENSION;
+                    for (int j = 0; j < DIMENSION; j++) {
+                        sums[base + j] += vectors[offset + j];
+                    }
+                }
+                for (int c = 0; c < listCount; c++) {
+                    if (normalize(sums, c * DIMENSION)) {
+                        System.arraycopy(sums, c * DIMENSION, centroids, c * DIMENSION, DIMENSION);
+                    }
+                    // Centroid kosong: pertahankan posisi lama
+                }
+            }
+
+            assign(vectors, size, centroids, listCount, assignment);
+            return new Ivf(centroids, listCount, buildLists(assignment, size, listCount), size);
+        }
+
+        /**
+         * Pakai centroid yang sama, hitung ulang anggota setiap list.
+         */
+        Ivf reassign(float[] vectors, int size) {
+            int[] assignment = new int[size];
+            assign(vectors, size, centroids, listCount, assignment);
+            return new Ivf(centroids, listCount, buildLists(assignment, size, listCount), trainedSize);
+        }
+
+        void search(float[] query, float[] vectors, int probes, TopK top) {
+            int probeCount = Math.min(probes, listCount);
+            TopK nearestLists = new TopK(probeCount);
+            for (int c = 0; c < listCount; c++) {
+                nearestLists.offer(c, dot(query, centroids, c * DIMENSION));
+            }
+            for (int c : nearestLists.sortedSlots()) {
+                for (int slot : lists[c]) {
+                    top.offer(slot, dot(query, vectors, slot * DIMENSION));
+                }
+            }
+        }
+
+        private static void assign(float[] vectors, int size, float[] centroids, int listCount, int[] assignment) {
+            for (int i = 0; i < size; i++) {
+                int best = 0;
+                float bestScore = Float.NEGATIVE_INFINITY;
+                for (int c = 0; c < listCount; c++) {
+                    float score = dotAt(vectors, i * DIMENSION, centroids, c * DIMENSION);
+                    if (score > bestScore) {
+                        bestScore = score;
+                        best = c;
+                    }
+                }
+                assignment[i] = best;
+            }
+        }
+
+        private static int[][] buildLists(int[] assignment, int size, int listCount) {
+            int[] counts = new int[listCount];
+            for (int i = 0; i < size; i++) {
+                counts[assignment[i]]++;
+            }
+            int[][] lists = new int[listCount][];
+            for (int c = 0; c < listCount; c++) {
+                lists[c] = new int[counts[c]];
+            }
+            int[] fill = new int[listCount];
+            for (int i = 0; i < size; i++) {
+                int c = assignment[i];
+                lists[c][fill[c]++] = i;
+            }
+            return lists;
+        }
+
+        private static float dotAt(float[] vectors, int vectorOffset, float[] centroids, int centroidOffset) {
+            float sum = 0;
+            for (int j = 0; j < DIMENSION; j++) {
+                sum += vectors[vectorOffset + j] * centroids[centroidOffset + j];
+            }
+            return sum;
+        }
+
+        private static boolean normalize(float[] data, int offset) {
+            double norm = 0;
+            for (int j = 0; j < DIMENSION; j++) {
+                norm += data[offset + j] * data[offset + j];
+            }
+            if (norm == 0) {
+                return false;
+            }
+            float scale = (float) (1.0 / Math.sqrt(norm));
+            for (int j = 0; j < DIMENSION; j++) {
+                data[offset + j] *= scale;
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Min-heap kecil untuk simpan k score tertinggi (tanpa boxing).
+     */
+    private static final class TopK {
+
+        final int[] slots;
+        final float[] scores;
+        int count;
+
+        TopK(int capacity) {
+            this.slots = new int[capacity];
+            this.scores = new float[capacity];
+        }
+
+        void offer(int slot, float score) {
+            if (count < slots.length) {
+                slots[count] = slot;
+                scores[count] = score;
+                siftUp(count++);
+            } else if (score > scores[0]) {
+                slots[0] = slot;
+                scores[0] = score;
+                siftDown(0);
+            }
+        }
+
+        /**
+         * Slot urut dari score tertinggi ke terendah.
+         */
+        int[] sortedSlots() {
+            int[] result = sortedPositions();
+            for (int i = 0; i < result.length; i++) {
+                result[i] = slots[result[i]];
+            }
+            return result;
+        }
+
+        /**
+         * Posisi di heap (index ke slots/scores) urut dari score tertinggi.
+         */
+        int[] sortedPositions() {
+            Integer[] order = new Integer[count];
+            for (int i = 0; i < count; i++) {
+                order[i] = i;
+            }
+            Arrays.sort(order, (a, b) -> Float.compare(scores[b], scores[a]));
+            int[] result = new int[count];
+            for (int i = 0; i < count; i++) {
+                result[i] = order[i];
+            }
+            return result;
+        }
+
+        private void siftUp(int i) {
+            while (i > 0) {
+                int parent = (i - 1) / 2;
+                if (scores[i] >= scores[parent]) {
+                    return;
+                }
+                swap(i, parent);
+                i = parent;
+            }
+        }
+
+        private void siftDown(int i) {
+            while (true) {
+                int left = i * 2 + 1;
+                int right = left + 1;
+                int smallest = i;
+                if (left < count && scores[left] < scores[smallest]) {
+                    smallest = left;
+                }
+                if (right < count && scores[right] < scores[smallest]) {
+                    smallest = right;
+                }
+                if (smallest == i) {
+                    return;
+                }
+                swap(i, smallest);
+                i = smallest;
+            }
+        }
+
+        private void swap(int a, int b) {
+            int slot = slots[a];
+            slots[a] = slots[b];
+            slots[b] = slot;
+            float score = scores[a];
+            scores[a] = scores[b];
+            scores[b] = score;
+        }
+    }
+}
@@ -1,11 +1,14 @@
 package com.smk.presensi.service;
 
+import com.smk.presensi.enums.SimilarityMetric;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.nio.charset.StandardCharsets;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.util.Base64;
+import java.util.List;
 
 /**
  * FACE RECOGNITION SERVICE (SIMPLIFIED VERSION).
@@ -33,9 +36,14 @@ import java.util.Base64;
  *    - Terima image base64
  *    - Generate encoding (sama seperti enrollment)
  *    - Compare dengan semua enrolled encodings
- *    - Calculate similarity (Levenshtein distance)
+ *    - Calculate similarity (default: Levenshtein distance)
  *    - If similarity > threshold (60%) → MATCH!
  * 
+ * 3. METRIC (presensi.face.similarity-metric):
+ *    - LEVENSHTEIN: edit distance (two-row, bounded, lihat FaceSimilarityKernel)
+ *    - HAMMING: bit berbeda antar encoding yang di-pack ke byte[]
+ *    - COSINE: cosine similarity vektor float[]
+ * 
  * ═════════════════════════════════════════════════════════════
  * LIMITASI (untuk pembelajaran):
  * ═════════════════════════════════════════════════════════════
@@ -82,6 +90,14 @@ public class FaceRecognitionService {
      */
     private static final int ENCODING_LENGTH = 128;
 
+    /**
+     * Metric yang dipakai untuk membandingkan encoding.
+     * 
+     * Default LEVENSHTEIN (sama dengan perilaku lama).
+     */
+    @Value("${presensi.face.similarity-metric:LEVENSHTEIN}")
+    private SimilarityMetric metric = SimilarityMetric.LEVENSHTEIN;
+
     /**
      * GENERATE FACE ENCODING dari image base64.
      * 
@@ -155,14 +171,102 @@ public class FaceRecognitionService {
             return 0.0;
         }
         
-        // Levenshtein distance (edit distance)
-        int distance = levenshteinDistance(encoding1, encoding2);
-        
-        // Normalize ke 0.0 - 1.0
+        switch (metric) {
+            case HAMMING:
+                return FaceSimilarityKernel.hammingSimilarity(
+                        FaceSimilarityKernel.packHex(encoding1),
+                        FaceSimilarityKernel.packHex(encoding2)
+                );
+            case COSINE:
+                return FaceSimilarityKernel.cosine(
+                        FaceSimilarityKernel.toUnitVector(encoding1, ENCODING_LENGTH),
+                        FaceSimilarityKernel.toUnitVector(encoding2, ENCODING_LENGTH)
+                );
+            default:
+                // Levenshtein distance (edit distance)
+                int distance = FaceSimilarityKernel.levenshtein(encoding1, encoding2);
+                
+                // Normalize ke 0.0 - 1.0
+                int maxLength = Math.max(encoding1.length(), encoding2.length());
+                if (maxLength == 0) {
+                    return 1.0;
+                }
+                return 1.0 - ((double) distance / maxLength);
+        }
+    }
+
+    /**
+     * CHECK MATCH langsung dari dua encoding (bounded).
+     * 
+     * Untuk LEVENSHTEIN, tidak perlu hitung jarak sampai selesai:
+     * similarity >= threshold  ⇔  distance <= (1 - threshold) * maxLength.
+     * Kernel berhenti begitu jarak pasti melebihi batas itu.
+     * 
+     * @param encoding1 Face encoding 1
+     * @param encoding2 Face encoding 2
+     * @return true jika similarity >= threshold
+     */
+    public boolean isMatch(String encoding1, String encoding2) {
+        if (encoding1 == null || encoding2 == null) {
+            return false;
+        }
+        if (metric != SimilarityMetric.LEVENSHTEIN) {
+            return isMatch(calculateSimilarity(encoding1, encoding2));
+        }
         int maxLength = Math.max(encoding1.length(), encoding2.length());
-        double similarity = 1.0 - ((double) distance / maxLength);
+        int maxDistance = (int) Math.floor((1.0 - SIMILARITY_THRESHOLD) * maxLength + 1e-9);
+        return FaceSimilarityKernel.boundedLevenshtein(encoding1, encoding2, maxDistance) <= maxDistance;
+    }
+
+    /**
+     * BATCH - Hitung similarity satu probe terhadap banyak encoding.
+     * 
+     * @param probe     Encoding dari kamera
+     * @param encodings Encoding yang sudah enroll
+     * @return Array similarity, index sama dengan list input
+     */
+    public double[] calculateSimilarities(String probe, List<String> encodings) {
+        double[] result = new double[encodings.size()];
+        if (probe == null) {
+            return result;
+        }
+        
+        // Probe cukup di-pack/di-vektorkan sekali untuk semua perbandingan
+        byte[] packedProbe = metric == SimilarityMetric.HAMMING ? FaceSimilarityKernel.packHex(probe) : null;
+        float[] probeVector = metric == SimilarityMetric.COSINE
+                ? FaceSimilarityKernel.toUnitVector(probe, ENCODING_LENGTH) : null;
         
-        return similarity;
+        for (int i = 0; i < result.length; i++) {
+            String encoding = encodings.get(i);
+            if (encoding == null) {
+                continue;
+            }
+            if (packedProbe != null) {
+                result[i] = FaceSimilarityKernel.hammingSimilarity(packedProbe, FaceSimilarityKernel.packHex(encoding));
+            } else if (probeVector != null) {
+                result[i] = FaceSimilarityKernel.cosine(probeVector,
+                        FaceSimilarityKernel.toUnitVector(encoding, ENCODING_LENGTH));
+            } else {
+                result[i] = calculateSimilarity(probe, encoding);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * BATCH - Cari encoding pertama yang match dengan probe (bounded).
+     * 
+     * @param probe     Encoding dari kamera
+     * @param encodings Encoding kandidat (urut dari prioritas tertinggi)
+     * @return Index encoding yang match, atau -1 jika tidak ada
+     */
+    public int findFirstMatch(String probe, List<String> encodings) {
+        for (int i = 0; i < encodings.size(); i++) {
+            if (isMatch(probe, encodings.get(i))) {
+                return i;
+            }
+        }
+        return -1;
     }
 
     /**
@@ -184,6 +288,15 @@ public class FaceRecognitionService {
         return SIMILARITY_THRESHOLD;
     }
 
+    /**
+     * GET metric yang sedang dipakai.
+     * 
+     * @return SimilarityMetric
+     */
+    public SimilarityMetric getMetric() {
+        return metric;
+    }
+
     // ═════════════════════════════════════════════════════════════
     // PRIVATE HELPER METHODS
     // ═════════════════════════════════════════════════════════════
@@ -259,58 +372,4 @@ public class FaceRecognitionService {
         }
         return hexString.toString();
     }
-
-    /**
-     * Calculate Levenshtein distance (edit distance).
-     * 
-     * Algoritma dynamic programming untuk hitung berapa edit
-     * (insert, delete, replace) yang diperlukan untuk ubah
-     * string1 jadi string2.
-     * 
-     * Example:
-     * - "kitten" vs "sitting" → distance = 3
-     *   (replace k→s, replace e→i, insert g)
-     * 
-     * Complexity: O(n*m) time, O(n*m) space
-     * 
-     * @param s1 String 1
-     * @param s2 String 2
-     * @return Edit distance
-     */
-    private int levenshteinDistance(String s1, String s2) {
-        int len1 = s1.length();
-        int len2 = s2.length();
-        
-        // DP table: dp[i][j] = distance from s1[0..i] to s2[0..j]
-        int[][] dp = new int[len1 + 1][len2 + 1];
-        
-        // Base case: empty string
-        for (int i = 0; i <= len1; i++) {
-            dp[i][0] = i;  // Delete all chars from s1
-        }
-        for (int j = 0; j <= len2; j++) {
-            dp[0][j] = j;  // Insert all chars to s2
-        }
-        
-        // Fill DP table
-        for (int i = 1; i <= len1; i++) {
-            for (int j = 1; j <= len2; j++) {
-                if (s1.charAt(i - 1) == s2.charAt(j - 1)) {
-                    // Characters sama, no cost
-                    dp[i][j] = dp[i - 1][j - 1];
-                } else {
-                    // Characters beda, ambil minimum dari:
-                    // - Replace: dp[i-1][j-1] + 1
-                    // - Delete:  dp[i-1][j] + 1
-                    // - Insert:  dp[i][j-1] + 1
-                    dp[i][j] = Math.min(
-                        Math.min(dp[i - 1][j], dp[i][j - 1]),
-                        dp[i - 1][j - 1]
-                    ) + 1;
-                }
-            }
-        }
-        
-        return dp[len1][len2];
-    }
 }
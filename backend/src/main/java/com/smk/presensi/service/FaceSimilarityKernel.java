@@ -0,0 +1,248 @@
+package com.smk.presensi.service;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+
+/**
+ * FACE SIMILARITY KERNEL - Fungsi jarak/similarity tanpa alokasi.
+ *
+ * Dipakai oleh FaceRecognitionService (per metric) dan FaceEmbeddingIndex.
+ *
+ * ═════════════════════════════════════════════════════════════
+ * KENAPA TIDAK PAKAI int[n+1][m+1]?
+ * ═════════════════════════════════════════════════════════════
+ *
+ * Levenshtein versi tabel penuh:
+ * - Alokasi 129 x 129 int (±66 KB) setiap perbandingan → beban GC
+ * - Selalu hitung semua sel, walaupun hasil sudah pasti "tidak match"
+ *
+ * Versi di sini:
+ * - Two-row: cukup simpan baris sebelumnya dan baris sekarang
+ * - Buffer baris di-reuse per thread (ThreadLocal), jadi 0 alokasi per call
+ * - Bounded (Ukkonen band): hanya hitung sel dengan |i - j| <= maxDistance,
+ *   dan berhenti begitu nilai minimum satu baris sudah > maxDistance
+ *
+ * Metric lain (untuk encoding yang sudah di-pack):
+ * - Hamming over byte[] (XOR + bitCount, 8 byte sekaligus)
+ * - Cosine over float[] (vektor unit-length → cukup dot product)
+ */
+public final class FaceSimilarityKernel {
+
+    /**
+     * Buffer 2 baris DP per thread. Diperbesar otomatis jika string lebih panjang.
+     */
+    private static final ThreadLocal<int[][]> ROWS = ThreadLocal.withInitial(() -> new int[2][129]);
+
+    /**
+     * Baca 8 byte sekaligus sebagai long (untuk Hamming).
+     */
+    private static final VarHandle LONG_VIEW =
+            MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+
+    private FaceSimilarityKernel() {
+    }
+
+    // ═════════════════════════════════════════════════════════════
+    // LEVENSHTEIN
+    // ═════════════════════════════════════════════════════════════
+
+    /**
+     * Levenshtein distance penuh (tanpa batas).
+     */
+    public static int levenshtein(CharSequence s1, CharSequence s2) {
+        return boundedLevenshtein(s1, s2, Math.max(s1.length(), s2.length()));
+    }
+
+    /**
+     * Levenshtein distance dengan batas atas (Ukkonen band).
+     *
+     * @param s1          String 1
+     * @param s2          String 2
+     * @param maxDistance Jarak maksimal yang masih menarik
+     * @return Edit distance jika <= maxDistance, selain itu maxDistance + 1
+     */
+    public static int boundedLevenshtein(CharSequence s1, CharSequence s2, int maxDistance) {
+        int len1 = s1.length();
+        int len2 = s2.length();
+        int over = maxDistance + 1;
+
+        // Selisih panjang saja sudah melebihi batas → pasti tidak match
+        if (Math.abs(len1 - len2) > maxDistance) {
+            return over;
+        }
+        if (len1 == 0 || len2 == 0) {
+            return Math.max(len1, len2);
+        }
+
+        int[][] rows = rows(len2 + 1);
+        int[] prev = rows[0];
+        int[] curr = rows[1];
+
+        // Baris 0: jarak dari string kosong = j (di luar band = over)
+        for (int j = 0; j <= len2; j++) {
+            prev[j] = j <= maxDistance ? j : over;
+        }
+
+        for (int i = 1; i <= len1; i++) {
+            int from = Math.max(1, i - maxDistance);
+            int to = Math.min(len2, i + maxDistance);
+
+            int rowMin;
+            if (from == 1) {
+                curr[0] = Math.min(i, over);
+                rowMin = curr[0];
+            } else {
+                curr[from - 1] = over;
+                rowMin = over;
+            }
+
+            char c1 = s1.charAt(i - 1);
+            for (int j = from; j <= to; j++) {
+                int cost = c1 == s2.charAt(j - 1) ? 0 : 1;
+                int value = Math.min(Math.min(prev[j] + 1, curr[j - 1] + 1), prev[j - 1] + cost);
+                if (value > over) {
+                    value = over;
+                }
+                curr[j] = value;
+                if (value < rowMin) {
+                    rowMin = value;
+                }
+            }
+            if (to < len2) {
+                curr[to + 1] = over;
+            }
+
+            // Semua sel di band sudah > batas → hasil akhir pasti > batas
+            if (rowMin > maxDistance) {
+                return over;
+            }
+
+            int[] swap = prev;
+            prev = curr;
+            curr = swap;
+        }
+
+        return Math.min(prev[len2], over);
+    }
+
+    // ═════════════════════════════════════════════════════════════
+    // PACKED ENCODINGS
+    // ═════════════════════════════════════════════════════════════
+
+    /**
+     * Pack encoding hex ke byte[] (2 karakter → 1 byte).
+     *
+     * Panjang hasil dibulatkan ke kelipatan 8 (supaya Hamming bisa baca per long).
+     */
+    public static byte[] packHex(String encoding) {
+        int bytes = (encoding.length() + 1) / 2;
+        byte[] packed = new byte[(bytes + 7) & ~7];
+        for (int i = 0; i < encoding.length(); i++) {
+            char c = encoding.charAt(i);
+            int digit = Character.digit(c, 16);
+            int nibble = digit >= 0 ? digit : (c & 0xF);
+            packed[i >> 1] |= (byte) ((i & 1) == 0 ? nibble << 4 : nibble);
+        }
+        return packed;
+    }
+
+    /**
+     * Hamming distance (jumlah bit berbeda) antara dua encoding packed.
+     */
+    public static int hamming(byte[] a, byte[] b) {
+        int length = Math.min(a.length, b.length);
+        int distance = 0;
+        int i = 0;
+        for (; i + 8 <= length; i += 8) {
+            long x = (long) LONG_VIEW.get(a, i);
+            long y = (long) LONG_VIEW.get(b, i);
+            distance += Long.bitCount(x ^ y);
+        }
+        for (; i < length; i++) {
+            distance += Integer.bitCount((a[i] ^ b[i]) & 0xFF);
+        }
+        // Byte yang tidak punya pasangan dihitung beda semua
+        distance += Math.abs(a.length - b.length) * 8;
+        return distance;
+    }
+
+    /**
+     * Hamming similarity (0.0 - 1.0) = 1 - bitBeda / totalBit.
+     */
+    public static double hammingSimilarity(byte[] a, byte[] b) {
+        int bits = Math.max(a.length, b.length) * 8;
+        if (bits == 0) {
+            return 0.0;
+        }
+        return 1.0 - ((double) hamming(a, b) / bits);
+    }
+
+    /**
+     * Ubah encoding hex jadi vektor float unit-length.
+     *
+     * Setiap karakter hex jadi satu dimensi, digeser ke -7.5..7.5 lalu
+     * dinormalisasi, sehingga cosine similarity = dot product.
+     */
+    public static float[] toUnitVector(String encoding, int dimension) {
+        float[] vector = new float[dimension];
+        int length = Math.min(encoding.length(), dimension);
+        double norm = 0;
+        for (int i = 0; i < length; i++) {
+            char c = encoding.charAt(i);
+            int digit = Character.digit(c, 16);
+            float value = (digit >= 0 ? digit : (c & 0xF)) - 7.5f;
+            vector[i] = value;
+            norm += value * value;
+        }
+        if (norm > 0) {
+            float scale = (float) (1.0 / Math.sqrt(norm));
+            for (int i = 0; i < length; i++) {
+                vector[i] *= scale;
+            }
+        }
+        return vector;
+    }
+
+    /**
+     * Cosine similarity dua vektor unit-length (= dot product).
+     */
+    public static double cosine(float[] a, float[] b) {
+        int length = Math.min(a.length, b.length);
+        if (length % 4 == 0) {
+            return dot(a, b, 0, length);
+        }
+        double sum = 0;
+        for (int i = 0; i < length; i++) {
+            sum += a[i] * b[i];
+        }
+        return sum;
+    }
+
+    /**
+     * Dot product query dengan satu baris di array flat.
+     *
+     * 4 akumulator terpisah → tidak ada dependency chain antar iterasi,
+     * CPU bisa jalankan paralel (dan JIT bisa unroll/vectorize).
+     * Syarat: dimension kelipatan 4.
+     */
+    public static float dot(float[] query, float[] data, int offset, int dimension) {
+        float s0 = 0, s1 = 0, s2 = 0, s3 = 0;
+        for (int j = 0; j < dimension; j += 4) {
+            s0 += query[j] * data[offset + j];
+            s1 += query[j + 1] * data[offset + j + 1];
+            s2 += query[j + 2] * data[offset + j + 2];
+            s3 += query[j + 3] * data[offset + j + 3];
+        }
+        return (s0 + s1) + (s2 + s3);
+    }
+
+    private static int[][] rows(int width) {
+        int[][] rows = ROWS.get();
+        if (rows[0].length < width) {
+            rows = new int[2][width];
+            ROWS.set(rows);
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,179 @@
+package com.smk.presensi.service;
+
+import com.smk.presensi.dto.presensi.GateScanResult;
+import com.smk.presensi.enums.GateScanStatus;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * GATE INGESTION SERVICE - Antrian + writer micro-batch untuk scan gate.
+ *
+ * Endpoint satuan (/rfid/checkin, /barcode/checkin) = 1 request = 1 transaksi
+ * = 1 INSERT. Saat jam masuk, ribuan tap dalam beberapa menit → database sibuk
+ * membuka/commit transaksi kecil.
+ *
+ * Di sini:
+ * 1. Controller memasukkan scan ke antrian (bounded) dan langsung selesai
+ *    (response dikirim async saat hasil siap)
+ * 2. Satu thread writer mengambil scan dari antrian, sampai batchSize scan
+ *    atau sampai maxWait berlalu
+ * 3. Satu batch = satu transaksi = INSERT digabung (JDBC batch)
+ *
+ * Antrian penuh → scan langsung dijawab REJECTED (backpressure),
+ * device mengirim ulang nanti. Memory server tidak bisa jebol.
+ */
+@Service
+public class GateIngestionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(GateIngestionService.class);
+
+    private record PendingScan(PresensiService.GateScan scan, CompletableFuture<GateScanResult> result) {
+    }
+
+    private final PresensiService presensiService;
+    private final AttendanceMetrics attendanceMetrics;
+    private final BlockingQueue<PendingScan> queue;
+    private final int batchSize;
+    private final long maxWaitNanos;
+
+    private volatile boolean running;
+    private Thread writer;
+
+    public GateIngestionService(
+            PresensiService presensiService,
+            AttendanceMetrics attendanceMetrics,
+            @Value("${presensi.gate.queue-capacity:10000}") int queueCapacity,
+            @Value("${presensi.gate.batch-size:200}") int batchSize,
+            @Value("${presensi.gate.max-wait-ms:20}") long maxWaitMs
+    ) {
+        this.presensiService = presensiService;
+        this.attendanceMetrics = attendanceMetrics;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.batchSize = batchSize;
+        this.maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(maxWaitMs);
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        writer = new Thread(this::runWriter, "gate-batch-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Shutdown: berhenti menerima, tapi scan yang sudah di antrian tetap ditulis.
+     */
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        writer.interrupt();
+        writer.join(TimeUnit.SECONDS.toMillis(10));
+    }
+
+    /**
+     * Masukkan scan ke antrian.
+     *
+     * @return Future hasil per scan (urutan sama dengan input), selesai
+     *         setelah batch yang memuat scan terakhir di-commit
+     */
+    public CompletableFuture<List<GateScanResult>> submit(List<PresensiService.GateScan> scans) {
+        List<CompletableFuture<GateScanResult>> futures = new ArrayList<>(scans.size());
+        Timer.Sample sample = attendanceMetrics.start();
+        for (PresensiService.GateScan scan : scans) {
+            CompletableFuture<GateScanResult> future = new CompletableFuture<>();
+            // Durasi = antre + batch commit, sama dengan yang dirasakan device
+            if (scan.request().method() != null) {
+                future.whenComplete((result, error) -> attendanceMetrics.stopCheckin(sample,
+                        scan.request().method(), AttendanceMetrics.SOURCE_GATE,
+                        error == null ? AttendanceMetrics.outcomeOf(result.result()) : AttendanceMetrics.OUTCOME_ERROR));
+            }
+            if (!running || !queue.offer(new PendingScan(scan, future))) {
+                future.complete(GateScanResult.gagal(scan.request(), GateScanStatus.REJECTED,
+                        "Antrian penuh, kirim ulang nanti"));
+            }
+            futures.add(future);
+        }
+        return CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new))
+                .thenApply(done -> futures.stream().map(CompletableFuture::join).toList());
+    }
+
+    /**
+     * Jumlah scan yang sedang menunggu ditulis.
+     */
+    public int getQueueSize() {
+        return queue.size();
+    }
+
+    // ═════════════════════════════════════════════════════════════
+    // WRITER THREAD
+    // ═════════════════════════════════════════════════════════════
+
+    private void runWriter() {
+        List<PendingScan> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingScan first = queue.poll(250, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                // Ambil yang sudah ada tanpa menunggu, lalu tunggu sisa slot sampai maxWait
+                queue.drainTo(batch, batchSize - batch.size());
+                long deadline = System.nanoTime() + maxWaitNanos;
+                while (batch.size() < batchSize) {
+                    long remaining = deadline - System.nanoTime();
+                    PendingScan next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : null;
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                    queue.drainTo(batch, batchSize - batch.size());
+                }
+            } catch (InterruptedException e) {
+                // Dipanggil dari stop(): lanjut loop untuk mengosongkan antrian
+            }
+            if (!batch.isEmpty()) {
+                write(batch);
+                batch.clear();
+            }
+        }
+    }
+
+    private void write(List<PendingScan> batch) {
+        List<PresensiService.GateScan> scans = batch.stream().map(PendingScan::scan).toList();
+        try {
+            List<GateScanResult> results = presensiService.checkinGateBatch(scans);
+            for (int i = 0; i < batch.size(); i++) {
+                batch.get(i).result().complete(results.get(i));
+            }
+        } catch (RuntimeException e) {
+            // Satu scan bermasalah (mis. bentrok unique dengan tap tunggal)
+            // membatalkan satu batch → ulangi per scan supaya yang lain tetap masuk
+            logger.warn("Gate batch of {} failed, retrying one by one: {}", batch.size(), e.getMessage());
+            for (PendingScan pending : batch) {
+                pending.result().complete(writeSingle(pending.scan()));
+            }
+        }
+    }
+
+    private GateScanResult writeSingle(PresensiService.GateScan scan) {
+        try {
+            return presensiService.checkinGateBatch(List.of(scan)).get(0);
+        } catch (RuntimeException e) {
+            return GateScanResult.gagal(scan.request(), GateScanStatus.ERROR, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,350 @@
+package com.smk.presensi.service;
+
+import com.smk.presensi.entity.Dudi;
+import com.smk.presensi.entity.LokasiKantor;
+import com.smk.presensi.enums.GeofenceSiteType;
+import com.smk.presensi.repository.DudiRepository;
+import com.smk.presensi.repository.LokasiKantorRepository;
+import com.smk.presensi.repository.PenempatanPklRepository;
+import com.smk.presensi.repository.PklPlacementProjection;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * GEOFENCE INDEX - Semua lokasi checkin yang sah, di memory.
+ *
+ * Lokasi (site) ada dua jenis:
+ * - SEKOLAH: setiap LokasiKantor aktif (bisa lebih dari satu kampus)
+ * - DUDI: tempat PKL, hanya sah untuk siswa yang sedang ditempatkan di sana
+ *
+ * Struktur:
+ * - Grid: bumi dibagi sel 0.05° (~5.5 km). Setiap site didaftarkan di semua sel
+ *   yang tersentuh bounding box radiusnya. Lookup = 1 hash lookup sel.
+ * - Bounding box: kandidat di sel yang sama disaring dulu dengan 4 perbandingan.
+ * - Jarak: equirectangular (1 sqrt, tanpa sin/cos/atan2 per request). Cukup akurat
+ *   untuk jarak beberapa km; jika hasilnya dekat batas radius, dihitung ulang
+ *   dengan Haversine (exact).
+ *
+ * Kapan di-reload dari database?
+ * - Saat aplikasi siap (ApplicationReadyEvent)
+ * - Setelah LokasiKantor/Dudi/PenempatanPkl/Siswa berubah (GeofenceEntityListener → invalidate)
+ * - Saat ganti hari (penempatan PKL punya rentang tanggal)
+ *
+ * Reload bersifat lazy: invalidate() hanya menandai, lookup berikutnya yang me-reload.
+ */
+@Service
+public class GeofenceIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(GeofenceIndex.class);
+
+    private static final double EARTH_RADIUS_M = 6_371_000.0;
+    private static final double METERS_PER_DEGREE = EARTH_RADIUS_M * Math.PI / 180.0;
+    private static final double CELL_DEGREES = 0.05;
+    private static final int DEFAULT_RADIUS_M = 100;
+
+    /**
+     * Satu lokasi geofence, dengan bounding box dan cos(latitude) yang sudah dihitung.
+     */
+    public record Site(GeofenceSiteType type, Long id, String nama,
+                       double latitude, double longitude, int radiusMeter,
+                       double cosLat, double minLat, double maxLat, double minLon, double maxLon) {
+
+        static Site of(GeofenceSiteType type, Long id, String nama, double latitude, double longitude,
+                       Integer radiusMeter) {
+            int radius = radiusMeter != null && radiusMeter > 0 ? radiusMeter : DEFAULT_RADIUS_M;
+            double dLat = radius / METERS_PER_DEGREE;
+            // Longitude menyempit ke arah kutub → pakai cos di sisi bbox yang paling jauh dari ekuator
+            double edgeCos = Math.max(Math.cos(Math.toRadians(Math.abs(latitude) + dLat)), 1e-6);
+            double dLon = dLat / edgeCos;
+            return new Site(type, id, nama, latitude, longitude, radius,
+                    Math.cos(Math.toRadians(latitude)),
+                    latitude - dLat, latitude + dLat, longitude - dLon, longitude + dLon);
+        }
+
+        boolean boxContains(double lat, double lon) {
+            return lat >= minLat && lat <= maxLat && lon >= minLon && lon <= maxLon;
+        }
+
+        /**
+         * Jarak ke titik (meter). Equirectangular, dengan fallback Haversine dekat batas radius.
+         */
+        double distanceTo(double lat, double lon) {
+            double y = Math.toRadians(lat - latitude);
+            double x = Math.toRadians(lon - longitude) * cosLat;
+            double distance = EARTH_RADIUS_M * Math.sqrt(x * x + y * y);
+            double margin = Math.max(2.0, radiusMeter * 0.001);
+            if (Math.abs(distance - radiusMeter) <= margin) {
+                return haversineMeters(latitude, longitude, lat, lon);
+            }
+            return distance;
+        }
+    }
+
+    /**
+     * Hasil lookup satu titik.
+     *
+     * @param allowed        true jika di dalam salah satu site yang sah (atau tidak ada site sama sekali)
+     * @param site           Site yang cocok; jika tidak allowed = site sah terdekat; null jika tidak ada site
+     * @param distanceMeter  Jarak ke site tersebut (NaN jika site null)
+     */
+    public record Match(boolean allowed, Site site, double distanceMeter) {
+
+        static final Match UNRESTRICTED = new Match(true, null, Double.NaN);
+    }
+
+    /**
+     * Titik untuk validasi batch.
+     */
+    public record GeoPoint(Long userId, double latitude, double longitude) {
+    }
+
+    private record Placement(long dudiId, LocalDate mulai, LocalDate selesai) {
+
+        boolean activeOn(LocalDate tanggal) {
+            return (mulai == null || !tanggal.isBefore(mulai)) && (selesai == null || !tanggal.isAfter(selesai));
+        }
+    }
+
+    private record Snapshot(LocalDate loadedFor, List<Site> schools, Map<Long, Site> dudiById,
+                            Map<Long, Site[]> grid, Map<Long, List<Placement>> placements) {
+    }
+
+    private final LokasiKantorRepository lokasiKantorRepository;
+    private final DudiRepository dudiRepository;
+    private final PenempatanPklRepository penempatanPklRepository;
+
+    private final ReentrantLock reloadLock = new ReentrantLock();
+    private volatile Snapshot snapshot;
+    private volatile boolean stale = true;
+
+    public GeofenceIndex(LokasiKantorRepository lokasiKantorRepository,
+                         DudiRepository dudiRepository,
+                         PenempatanPklRepository penempatanPklRepository) {
+        this.lokasiKantorRepository = lokasiKantorRepository;
+        this.dudiRepository = dudiRepository;
+        this.penempatanPklRepository = penempatanPklRepository;
+    }
+
+    /**
+     * Load semua site dari database.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void reload() {
+        reloadLock.lock();
+        try {
+            // Tandai bersih SEBELUM query: invalidate() selama reload akan memicu reload berikutnya
+            stale = false;
+            LocalDate today = LocalDate.now();
+
+            List<Site> schools = new ArrayList<>();
+            for (LokasiKantor lokasi : lokasiKantorRepository.findByIsActive(true)) {
+                if (lokasi.getLatitude() != null && lokasi.getLongitude() != null) {
+                    schools.add(Site.of(GeofenceSiteType.SEKOLAH, lokasi.getId(), lokasi.getNama(),
+                            lokasi.getLatitude(), lokasi.getLongitude(), lokasi.getRadiusValidasi()));
+                }
+            }
+
+            Map<Long, Site> dudiById = new HashMap<>();
+            for (Dudi dudi : dudiRepository.findGeofenceSites()) {
+                dudiById.put(dudi.getId(), Site.of(GeofenceSiteType.DUDI, dudi.getId(), dudi.getNama(),
+                        dudi.getLatitude(), dudi.getLongitude(), dudi.getRadiusValidasi()));
+            }
+
+            Map<Long, List<Placement>> placements = new HashMap<>();
+            for (PklPlacementProjection row : penempatanPklRepository.findActivePlacements(today)) {
+                if (dudiById.containsKey(row.getDudiId())) {
+                    placements.computeIfAbsent(row.getUserId(), k -> new ArrayList<>())
+                            .add(new Placement(row.getDudiId(), row.getTanggalMulai(), row.getTanggalSelesai()));
+                }
+            }
+
+            Map<Long, List<Site>> cells = new HashMap<>();
+            schools.forEach(site -> register(cells, site));
+            dudiById.values().forEach(site -> register(cells, site));
+            Map<Long, Site[]> grid = new HashMap<>(cells.size() * 2);
+            cells.forEach((key, sites) -> grid.put(key, sites.toArray(new Site[0])));
+
+            snapshot = new Snapshot(today, List.copyOf(schools), Map.copyOf(dudiById),
+                    grid, Map.copyOf(placements));
+            logger.info("Geofence index loaded: {} sekolah, {} DUDI, {} siswa PKL, {} sel",
+                    schools.size(), dudiById.size(), placements.size(), grid.size());
+        } finally {
+            reloadLock.unlock();
+        }
+    }
+
+    /**
+     * Tandai index perlu di-reload (dipanggil setelah data lokasi berubah).
+     */
+    public void invalidate() {
+        stale = true;
+    }
+
+    /**
+     * Cari site sah untuk user di titik tersebut.
+     *
+     * @param userId  User yang checkin (null = hanya site SEKOLAH)
+     * @param tanggal Tanggal checkin (untuk rentang penempatan PKL)
+     */
+    public Match locate(Long userId, double latitude, double longitude, LocalDate tanggal) {
+        return locate(current(), userId, latitude, longitude, tanggal);
+    }
+
+    /**
+     * Validasi banyak titik sekaligus terhadap snapshot yang sama.
+     */
+    public List<Match> locateAll(List<GeoPoint> points, LocalDate tanggal) {
+        Snapshot current = current();
+        List<Match> results = new ArrayList<>(points.size());
+        for (GeoPoint point : points) {
+            results.add(locate(current, point.userId(), point.latitude(), point.longitude(), tanggal));
+        }
+        return results;
+    }
+
+    /**
+     * Jarak exact dua koordinat (meter), Haversine.
+     */
+    public static double haversineMeters(double lat1, double lon1, double lat2, double lon2) {
+        double lat1Rad = Math.toRadians(lat1);
+        double lat2Rad = Math.toRadians(lat2);
+        double deltaLat = lat2Rad - lat1Rad;
+        double deltaLon = Math.toRadians(lon2 - lon1);
+        double a = Math.sin(deltaLat / 2) * Math.sin(deltaLat / 2)
+                + Math.cos(lat1Rad) * Math.cos(lat2Rad) * Math.sin(deltaLon / 2) * Math.sin(deltaLon / 2);
+        return EARTH_RADIUS_M * 2 * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
+    }
+
+    // ═════════════════════════════════════════════════════════════
+    // PRIVATE HELPER METHODS
+    // ═════════════════════════════════════════════════════════════
+
+    private Snapshot current() {
+        Snapshot current = snapshot;
+        if (isFresh(current)) {
+            return current;
+        }
+        reloadLock.lock();
+        try {
+            if (!isFresh(snapshot)) {
+                reload();
+            }
+            return snapshot;
+        } finally {
+            reloadLock.unlock();
+        }
+    }
+
+    private boolean isFresh(Snapshot current) {
+        return current != null && !stale && current.loadedFor().equals(LocalDate.now());
+    }
+
+    private static Match locate(Snapshot snapshot, Long userId, double latitude, double longitude,
+                                LocalDate tanggal) {
+        List<Placement> placements = userId != null ? snapshot.placements().get(userId) : null;
+        if (snapshot.schools().isEmpty() && !hasActivePlacement(placements, tanggal)) {
+            // Belum ada lokasi yang dikonfigurasi untuk user ini → tidak divalidasi
+            return Match.UNRESTRICTED;
+        }
+
+        Site[] candidates = snapshot.grid().get(cellKey(latitude, longitude));
+        if (candidates != null) {
+            Site best = null;
+            double bestDistance = Double.MAX_VALUE;
+            for (Site site : candidates) {
+                if (!site.boxContains(latitude, longitude)) {
+                    continue;
+                }
+                if (site.type() == GeofenceSiteType.DUDI && !isPlacedAt(placements, site.id(), tanggal)) {
+                    continue;
+                }
+                double distance = site.distanceTo(latitude, longitude);
+                if (distance <= site.radiusMeter() && distance < bestDistance) {
+                    best = site;
+                    bestDistance = distance;
+                }
+            }
+            if (best != null) {
+                return new Match(true, best, bestDistance);
+            }
+        }
+
+        // Di luar semua site: cari site sah terdekat untuk pesan error (jalur jarang)
+        Site nearest = null;
+        double nearestDistance = Double.MAX_VALUE;
+        List<Site> allowed = new ArrayList<>(snapshot.schools());
+        if (placements != null) {
+            for (Placement placement : placements) {
+                if (placement.activeOn(tanggal)) {
+                    allowed.add(snapshot.dudiById().get(placement.dudiId()));
+                }
+            }
+        }
+        for (Site site : allowed) {
+            double distance = haversineMeters(site.latitude(), site.longitude(), latitude, longitude);
+            if (distance < nearestDistance) {
+                nearest = site;
+                nearestDistance = distance;
+            }
+        }
+        return new Match(false, nearest, nearestDistance);
+    }
+
+    private static boolean hasActivePlacement(List<Placement> placements, LocalDate tanggal) {
+        if (placements == null) {
+            return false;
+        }
+        for (Placement placement : placements) {
+            if (placement.activeOn(tanggal)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isPlacedAt(List<Placement> placements, Long dudiId, LocalDate tanggal) {
+        if (placements == null) {
+            return false;
+        }
+        for (Placement placement : placements) {
+            if (placement.dudiId() == dudiId && placement.activeOn(tanggal)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void register(Map<Long, List<Site>> cells, Site site) {
+        long minRow = cellIndex(site.minLat());
+        long maxRow = cellIndex(site.maxLat());
+        long minCol = cellIndex(site.minLon());
+        long maxCol = cellIndex(site.maxLon());
+        for (long row = minRow; row <= maxRow; row++) {
+            for (long col = minCol; col <= maxCol; col++) {
+                cells.computeIfAbsent(key(row, col), k -> new ArrayList<>()).add(site);
+            }
+        }
+    }
+
+    private static long cellKey(double latitude, double longitude) {
+        return key(cellIndex(latitude), cellIndex(longitude));
+    }
+
+    private static long cellIndex(double degrees) {
+        return (long) Math.floor(degrees / CELL_DEGREES);
+    }
+
+    private static long key(long row, long col) {
+        return (row << 32) | (col & 0xFFFFFFFFL);
+    }
+}
@@ -1,10 +1,15 @@
 package com.smk.presensi.service;
 
+import com.smk.presensi.dto.lokasi.GeofenceCheckResult;
+import com.smk.presensi.dto.lokasi.GeofencePointRequest;
 import com.smk.presensi.entity.LokasiKantor;
 import com.smk.presensi.repository.LokasiKantorRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -24,21 +29,21 @@ import java.util.Optional;
  * - R = Earth radius (6371 km)
  * - d = distance (in km)
  * 
+ * Validasi checkin memakai GeofenceIndex (semua kampus aktif + tempat PKL
+ * siswa, di memory), bukan query + Haversine per request.
+ * 
  * @author Copilot Assistant
  * @since Tahap 8 (Geolocation Validation)
  */
 @Service
 public class GeolocationService {
     
-    /**
-     * Earth radius in kilometers.
-     * Mean radius: 6371 km (at equator: 6378 km, at poles: 6357 km)
-     */
-    private static final double EARTH_RADIUS_KM = 6371.0;
-    
     @Autowired
     private LokasiKantorRepository lokasiKantorRepository;
     
+    @Autowired
+    private GeofenceIndex geofenceIndex;
+    
     /**
      * Calculate distance between two GPS coordinates using Haversine formula.
      * 
@@ -65,116 +70,102 @@ public class GeolocationService {
             throw new IllegalArgumentException("Latitude dan Longitude tidak boleh null");
         }
         
-        // Convert degrees to radians
-        double lat1Rad = Math.toRadians(lat1);
-        double lon1Rad = Math.toRadians(lon1);
-        double lat2Rad = Math.toRadians(lat2);
-        double lon2Rad = Math.toRadians(lon2);
-        
-        // Calculate differences
-        double deltaLat = lat2Rad - lat1Rad;
-        double deltaLon = lon2Rad - lon1Rad;
-        
-        // Haversine formula
-        double a = Math.sin(deltaLat / 2) * Math.sin(deltaLat / 2) +
-                   Math.cos(lat1Rad) * Math.cos(lat2Rad) *
-                   Math.sin(deltaLon / 2) * Math.sin(deltaLon / 2);
-        
-        double c = 2 * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
-        
-        // Distance in kilometers
-        double distanceKm = EARTH_RADIUS_KM * c;
-        
-        // Convert to meters
-        return distanceKm * 1000;
+        return GeofenceIndex.haversineMeters(lat1, lon1, lat2, lon2);
     }
     
     /**
-     * Check if user GPS coordinates are within school radius.
-     * 
-     * Logic:
-     * 1. Get active school location from database
-     * 2. If no active location → return true (skip validation)
-     * 3. Calculate distance using Haversine
-     * 4. Compare with radius
-     * 
-     * Example:
-     * - User: -6.200500, 106.816666
-     * - School: -6.200000, 106.816666, radius=200m
-     * - Distance: ~55 meters
-     * - Result: true (within radius)
+     * Check if user GPS coordinates are within any active school location.
      * 
      * @param userLat User latitude
      * @param userLon User longitude
      * @return true if within radius OR no active location, false if too far
      */
     public boolean isWithinRadius(Double userLat, Double userLon) {
-        // Get active school location
-        Optional<LokasiKantor> lokasiOpt = lokasiKantorRepository.findFirstByIsActive(true);
-        
-        // If no active location, skip validation (return true)
-        if (lokasiOpt.isEmpty()) {
-            return true; // No geolocation validation configured
+        if (userLat == null || userLon == null) {
+            throw new IllegalArgumentException("Latitude dan Longitude tidak boleh null");
         }
-        
-        LokasiKantor lokasi = lokasiOpt.get();
-        
-        // Calculate distance
-        double distance = calculateDistance(
-            userLat, userLon,
-            lokasi.getLatitude(), lokasi.getLongitude()
-        );
-        
-        // Check if within radius
-        return distance <= lokasi.getRadiusValidasi();
+        return geofenceIndex.locate(null, userLat, userLon, LocalDate.now()).allowed();
     }
     
     /**
-     * Validate user GPS and throw exception if too far.
+     * Validate user GPS (lokasi sekolah saja) and throw exception if too far.
+     * 
+     * @param userLat User latitude
+     * @param userLon User longitude
+     * @throws CheckinRejectedException if too far from school
+     */
+    public void validateLocation(Double userLat, Double userLon) {
+        validateLocation(null, userLat, userLon);
+    }
+    
+    /**
+     * Validate user GPS against every site the user may check in at:
+     * - Semua LokasiKantor aktif (multi-kampus)
+     * - DUDI tempat siswa sedang PKL (lewat PenempatanPkl)
      * 
      * Use case:
      * - Called from PresensiService.checkin() for MANUAL method
-     * - Throw exception dengan informasi jarak untuk user feedback
+     * - Throw exception dengan informasi jarak ke lokasi terdekat untuk user feedback
      * 
      * Example exception message:
-     * "Lokasi terlalu jauh dari sekolah. Jarak: 523 meter (maksimal: 200 meter)"
+     * "Lokasi terlalu jauh dari SMK Example. Jarak: 523 meter (maksimal: 200 meter)"
      * 
+     * @param userId  User yang checkin (null = hanya lokasi sekolah)
      * @param userLat User latitude
      * @param userLon User longitude
-     * @throws RuntimeException if too far from school
+     * @return Lokasi yang cocok (site null jika belum ada lokasi yang dikonfigurasi)
+     * @throws CheckinRejectedException if too far from every allowed site
      */
-    public void validateLocation(Double userLat, Double userLon) {
+    public GeofenceIndex.Match validateLocation(Long userId, Double userLat, Double userLon) {
         // Validate input
         if (userLat == null || userLon == null) {
             throw new IllegalArgumentException("Latitude dan Longitude wajib diisi untuk checkin manual");
         }
         
-        // Get active school location
-        Optional<LokasiKantor> lokasiOpt = lokasiKantorRepository.findFirstByIsActive(true);
-        
-        // If no active location, skip validation
-        if (lokasiOpt.isEmpty()) {
-            return; // No geolocation validation configured
+        GeofenceIndex.Match match = geofenceIndex.locate(userId, userLat, userLon, LocalDate.now());
+        if (!match.allowed()) {
+            GeofenceIndex.Site site = match.site();
+            throw new CheckinRejectedException(AttendanceMetrics.OUTCOME_OUT_OF_GEOFENCE, String.format(
+                "Lokasi terlalu jauh dari %s. Jarak: %.0f meter (maksimal: %d meter). " +
+                "Pastikan Anda berada di area sekolah atau tempat PKL saat checkin.",
+                site.nama(),
+                match.distanceMeter(),
+                site.radiusMeter()
+            ));
         }
+        return match;
+    }
+    
+    /**
+     * Validasi banyak titik sekaligus (mis. audit data GPS, simulasi lokasi baru).
+     * 
+     * @param points Titik (userId opsional, latitude, longitude)
+     * @return Hasil per titik, urutan sama dengan input
+     */
+    public List<GeofenceCheckResult> validateBatch(List<GeofencePointRequest> points) {
+        List<GeofenceIndex.GeoPoint> geoPoints = points.stream()
+                .map(p -> new GeofenceIndex.GeoPoint(p.userId(), p.latitude(), p.longitude()))
+                .toList();
+        List<GeofenceIndex.Match> matches = geofenceIndex.locateAll(geoPoints, LocalDate.now());
         
-        LokasiKantor lokasi = lokasiOpt.get();
-        
-        // Calculate distance
-        double distance = calculateDistance(
-            userLat, userLon,
-            lokasi.getLatitude(), lokasi.getLongitude()
-        );
-        
-        // Validate radius
-        if (distance > lokasi.getRadiusValidasi()) {
-            throw new RuntimeException(String.format(
-                "Lokasi terlalu jauh dari %s. Jarak: %.0f meter (maksimal: %d meter). " +
-                "Pastikan Anda berada di area sekolah saat checkin.",
-                lokasi.getNama(),
-                distance,
-                lokasi.getRadiusValidasi()
+        List<GeofenceCheckResult> results = new ArrayList<>(matches.size());
+        for (int i = 0; i < matches.size(); i++) {
+            GeofencePointRequest point = points.get(i);
+            GeofenceIndex.Match match = matches.get(i);
+            GeofenceIndex.Site site = match.site();
+            results.add(new GeofenceCheckResult(
+                point.userId(),
+                point.latitude(),
+                point.longitude(),
+                match.allowed(),
+                site != null ? site.type() : null,
+                site != null ? site.id() : null,
+                site != null ? site.nama() : null,
+                site != null ? Math.round(match.distanceMeter()) : null,
+                site != null ? site.radiusMeter() : null
             ));
         }
+        return results;
     }
     
     /**
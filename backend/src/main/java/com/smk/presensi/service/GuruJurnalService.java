@@ -1,5 +1,6 @@
 package com.smk.presensi.service;
 
+import com.smk.presensi.dto.CursorPage;
 import com.smk.presensi.dto.jurnal.GuruJurnalRequest;
 import com.smk.presensi.dto.jurnal.GuruJurnalResponse;
 import com.smk.presensi.entity.Guru;
@@ -10,6 +11,7 @@ import com.smk.presensi.repository.GuruJurnalRepository;
 import com.smk.presensi.repository.GuruRepository;
 import com.smk.presensi.repository.KelasRepository;
 import com.smk.presensi.repository.PresensiRepository;
+import com.smk.presensi.util.PageCursor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -93,6 +95,20 @@ public class GuruJurnalService {
         return data.stream().map(this::toResponse).collect(Collectors.toList());
     }
 
+    @Transactional(readOnly = true)
+    public CursorPage<GuruJurnalResponse> page(String cursor, Integer size, Long guruId, Long kelasId,
+                                               LocalDate start, LocalDate end) {
+        PageCursor position = PageCursor.decode(cursor);
+        int limit = PageCursor.limit(size);
+        List<GuruJurnalResponse> rows = guruJurnalRepository.findPage(
+                        position.tanggalOrMax(), position.idOrMax(),
+                        start != null ? start : PageCursor.MIN_TANGGAL,
+                        end != null ? end : PageCursor.MAX_TANGGAL,
+                        guruId, kelasId, PageCursor.fetch(limit))
+                .stream().map(this::toResponse).collect(Collectors.toList());
+        return CursorPage.of(rows, limit, j -> PageCursor.encode(j.tanggal(), j.id()));
+    }
+
     private GuruJurnalResponse toResponse(GuruJurnal jurnal) {
         return new GuruJurnalResponse(
                 jurnal.getId(),
@@ -102,7 +102,7 @@ public class GuruService {
     /**
      * HELPER: Convert Entity Guru → DTO GuruResponse.
      */
-    private GuruResponse toResponse(Guru guru) {
+    GuruResponse toResponse(Guru guru) {
         return new GuruResponse(
                 guru.getId(),
                 guru.getNip(),
@@ -1,5 +1,6 @@
 package com.smk.presensi.service;
 
+import com.smk.presensi.dto.CursorPage;
 import com.smk.presensi.dto.izin.IzinApprovalRequest;
 import com.smk.presensi.dto.izin.IzinRequest;
 import com.smk.presensi.dto.izin.IzinResponse;
@@ -11,6 +12,7 @@ import com.smk.presensi.enums.IzinStatus;
 import com.smk.presensi.repository.IzinRepository;
 import com.smk.presensi.repository.SiswaRepository;
 import com.smk.presensi.repository.UserRepository;
+import com.smk.presensi.util.PageCursor;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
@@ -93,6 +95,23 @@ public class IzinService {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Satu halaman izin (keyset, terbaru dulu) dengan filter status, siswa, dan kelas.
+     */
+    public CursorPage<IzinResponse> getPage(String cursor, Integer size, String status, Long siswaId, String kelas) {
+        PageCursor position = PageCursor.decode(cursor);
+        int limit = PageCursor.limit(size);
+        IzinStatus filterStatus = status != null && !status.isBlank() ? parseStatus(status) : null;
+        List<IzinResponse> rows = izinRepository.findPage(
+                        position.tanggalOrMax(), position.idOrMax(), filterStatus, siswaId,
+                        kelas != null && !kelas.isBlank() ? kelas : null,
+                        PageCursor.fetch(limit))
+                .stream()
+                .map(this::toResponse)
+                .collect(Collectors.toList());
+        return CursorPage.of(rows, limit, i -> PageCursor.encode(i.tanggalMulai(), i.id()));
+    }
+
     /**
      * Daftar izin milik user yang login (berdasarkan relasi Siswa �?' User).
      */
@@ -181,7 +200,7 @@ public class IzinService {
         }
     }
 
-    private IzinResponse toResponse(Izin izin) {
+    IzinResponse toResponse(Izin izin) {
         Siswa siswa = izin.getSiswa();
         User approver = izin.getApprovedBy();
 
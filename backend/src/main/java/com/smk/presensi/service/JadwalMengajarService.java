@@ -1,5 +1,6 @@
 package com.smk.presensi.service;
 
+import com.smk.presensi.dto.CursorPage;
 import com.smk.presensi.dto.jadwal.JadwalMengajarRequest;
 import com.smk.presensi.dto.jadwal.JadwalMengajarResponse;
 import com.smk.presensi.entity.Guru;
@@ -8,6 +9,7 @@ import com.smk.presensi.entity.Kelas;
 import com.smk.presensi.repository.GuruRepository;
 import com.smk.presensi.repository.JadwalMengajarRepository;
 import com.smk.presensi.repository.KelasRepository;
+import com.smk.presensi.util.PageCursor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -62,6 +64,17 @@ public class JadwalMengajarService {
         return data.stream().map(this::toResponse).collect(Collectors.toList());
     }
 
+    @Transactional(readOnly = true)
+    public CursorPage<JadwalMengajarResponse> page(String cursor, Integer size, Long guruId, Long kelasId,
+                                                   DayOfWeek hari, Boolean aktif) {
+        PageCursor position = PageCursor.decode(cursor);
+        int limit = PageCursor.limit(size);
+        List<JadwalMengajarResponse> rows = jadwalMengajarRepository.findPage(
+                        position.idOrZero(), guruId, kelasId, hari, aktif, PageCursor.fetch(limit))
+                .stream().map(this::toResponse).collect(Collectors.toList());
+        return CursorPage.of(rows, limit, j -> PageCursor.encode(j.id()));
+    }
+
     @Transactional
     public void delete(Long id) {
         jadwalMengajarRepository.deleteById(id);
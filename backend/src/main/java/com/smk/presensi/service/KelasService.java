@@ -79,7 +79,7 @@ public class KelasService {
         kelasRepository.deleteById(id);
     }
 
-    private KelasResponse toResponse(Kelas kelas) {
+    KelasResponse toResponse(Kelas kelas) {
         return new KelasResponse(
                 kelas.getId(),
                 kelas.getNama(),
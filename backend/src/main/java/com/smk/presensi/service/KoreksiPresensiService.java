@@ -1,5 +1,6 @@
 package com.smk.presensi.service;
 
+import com.smk.presensi.dto.CursorPage;
 import com.smk.presensi.dto.koreksi.KoreksiPresensiApprovalRequest;
 import com.smk.presensi.dto.koreksi.KoreksiPresensiRequest;
 import com.smk.presensi.dto.koreksi.KoreksiPresensiResponse;
@@ -17,6 +18,7 @@ import com.smk.presensi.repository.KoreksiPresensiRepository;
 import com.smk.presensi.repository.PresensiRepository;
 import com.smk.presensi.repository.SiswaRepository;
 import com.smk.presensi.repository.UserRepository;
+import com.smk.presensi.util.PageCursor;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -147,6 +149,23 @@ public class KoreksiPresensiService {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Satu halaman koreksi (keyset, terbaru dulu) dengan filter status dan prefix username target.
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<KoreksiPresensiResponse> findPage(String cursor, Integer size,
+                                                        KoreksiStatus status, String usernamePrefix) {
+        PageCursor position = PageCursor.decode(cursor);
+        int limit = PageCursor.limit(size);
+        List<KoreksiPresensiResponse> rows = koreksiPresensiRepository.findPage(
+                        position.tanggalOrMax(), position.idOrMax(), status,
+                        PageCursor.likePrefix(usernamePrefix), PageCursor.fetch(limit))
+                .stream()
+                .map(this::toResponse)
+                .collect(Collectors.toList());
+        return CursorPage.of(rows, limit, k -> PageCursor.encode(k.tanggal(), k.id()));
+    }
+
     private KoreksiStatus parseStatus(String status) {
         try {
             return KoreksiStatus.valueOf(status.toUpperCase());
@@ -168,7 +187,7 @@ public class KoreksiPresensiService {
         return requester;
     }
 
-    private KoreksiPresensiResponse toResponse(KoreksiPresensi koreksi) {
+    KoreksiPresensiResponse toResponse(KoreksiPresensi koreksi) {
         User target = koreksi.getTargetUser();
         User approver = koreksi.getApprover();
         Presensi presensi = koreksi.getPresensi();
@@ -6,17 +6,21 @@ import com.smk.presensi.dto.laporan.RekapSiswaPerJurusanResponse;
 import com.smk.presensi.dto.laporan.RekapSiswaPerKelasResponse;
 import com.smk.presensi.dto.laporan.StatistikResponse;
 import com.smk.presensi.dto.presensi.PresensiResponse;
-import com.smk.presensi.entity.Presensi;
 import com.smk.presensi.entity.Siswa;
 import com.smk.presensi.enums.MethodPresensi;
 import com.smk.presensi.enums.StatusPresensi;
+import com.smk.presensi.repository.PresensiDailyRollupRepository;
 import com.smk.presensi.repository.PresensiRepository;
 import com.smk.presensi.repository.SiswaRepository;
+import com.smk.presensi.repository.StatusMethodCount;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDate;
 import java.time.YearMonth;
+import java.util.EnumMap;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
@@ -41,15 +45,20 @@ public class LaporanService {
     
      @Autowired
      private SiswaRepository siswaRepository;
+
+    @Autowired
+    private PresensiDailyRollupRepository rollupRepository;
+
+    @Autowired
+    private PresensiRollupService rollupService;
     
     /**
      * Generate laporan harian untuk tanggal tertentu.
      * 
      * Logic:
-     * 1. Query all presensi on that date
-     * 2. Count by status (HADIR, TERLAMBAT, ALFA)
-     * 3. Calculate percentages
-     * 4. Return detailed report
+     * 1. Count presensi on that date grouped by status
+     * 2. Calculate percentages
+     * 3. Return detailed report (with full daftarPresensi)
      * 
      * Example:
      * - Date: 2025-01-17
@@ -62,33 +71,37 @@ public class LaporanService {
      * @return LaporanHarianResponse with statistics
      */
     public LaporanHarianResponse getLaporanHarian(LocalDate tanggal) {
-        // 1. Get all presensi records for this date
-        List<Presensi> presensiList = presensiRepository.findByTanggal(tanggal);
-        
-        // 2. Count by status
-        long totalHadir = presensiList.stream()
-                .filter(p -> p.getStatus() == StatusPresensi.HADIR)
-                .count();
-        
-        long totalTerlambat = presensiList.stream()
-                .filter(p -> p.getStatus() == StatusPresensi.TERLAMBAT)
-                .count();
-        
-        long totalAlfa = presensiList.stream()
-                .filter(p -> p.getStatus() == StatusPresensi.ALPHA)
-                .count();
-        
-        int totalPresensi = presensiList.size();
-        
-        // 3. Calculate percentages
+        return getLaporanHarian(tanggal, true);
+    }
+
+    /**
+     * Generate laporan harian, dengan atau tanpa daftar presensi.
+     * 
+     * Ringkasan dihitung database dalam 1 query GROUP BY status, method
+     * (tidak load entity Presensi/User/roles). Daftar presensi untuk UI
+     * sebaiknya diambil per halaman lewat getDetailHarian().
+     * 
+     * @param tanggal     Date to generate report
+     * @param denganDetail true = sertakan daftarPresensi (semua presensi hari itu)
+     * @return LaporanHarianResponse with statistics
+     */
+    public LaporanHarianResponse getLaporanHarian(LocalDate tanggal, boolean denganDetail) {
+        // 1. Count by status (1 query GROUP BY)
+        RekapJumlah rekap = toRekap(presensiRepository.countByStatusAndMethod(tanggal, tanggal));
+        long totalHadir = rekap.status(StatusPresensi.HADIR);
+        long totalTerlambat = rekap.status(StatusPresensi.TERLAMBAT);
+        long totalAlfa = rekap.status(StatusPresensi.ALPHA);
+        int totalPresensi = (int) rekap.total();
+        
+        // 2. Calculate percentages
         double persentaseHadir = totalPresensi > 0 ? (totalHadir * 100.0 / totalPresensi) : 0.0;
         double persentaseTerlambat = totalPresensi > 0 ? (totalTerlambat * 100.0 / totalPresensi) : 0.0;
         double persentaseAlfa = totalPresensi > 0 ? (totalAlfa * 100.0 / totalPresensi) : 0.0;
         
-        // 4. Convert to DTO
-        List<PresensiResponse> daftarPresensi = presensiList.stream()
-                .map(this::toPresensiResponse)
-                .collect(Collectors.toList());
+        // 3. Daftar presensi langsung sebagai DTO (constructor projection)
+        List<PresensiResponse> daftarPresensi = denganDetail && totalPresensi > 0
+                ? presensiRepository.findResponsesByTanggalBetween(tanggal, tanggal)
+                : List.of();
         
         return new LaporanHarianResponse(
                 tanggal,
@@ -102,13 +115,24 @@ public class LaporanService {
                 daftarPresensi
         );
     }
+
+    /**
+     * Daftar presensi satu tanggal, per halaman.
+     * 
+     * @param tanggal  Tanggal presensi
+     * @param pageable Halaman & ukuran (urutan default: id)
+     * @return Satu halaman PresensiResponse
+     */
+    public Page<PresensiResponse> getDetailHarian(LocalDate tanggal, Pageable pageable) {
+        return presensiRepository.findResponsesByTanggal(tanggal, pageable);
+    }
     
     /**
      * Generate laporan bulanan (rekapitulasi).
      * 
      * Logic:
      * 1. Calculate date range (start and end of month)
-     * 2. Query all presensi in that month
+     * 2. Sum rollup rows in that month (presensi_daily_rollup)
      * 3. Count by status (HADIR, TERLAMBAT, ALFA)
      * 4. Count by method (MANUAL, RFID, BARCODE, FACE)
      * 5. Calculate percentages
@@ -129,30 +153,18 @@ public class LaporanService {
         LocalDate periodeAwal = yearMonth.atDay(1);  // First day of month
         LocalDate periodeAkhir = yearMonth.atEndOfMonth();  // Last day of month
         
-        // 2. Count by status
-        long totalHadir = presensiRepository.countByStatusAndTanggalBetween(
-                StatusPresensi.HADIR, periodeAwal, periodeAkhir);
-        
-        long totalTerlambat = presensiRepository.countByStatusAndTanggalBetween(
-                StatusPresensi.TERLAMBAT, periodeAwal, periodeAkhir);
-        
-        long totalAlfa = presensiRepository.countByStatusAndTanggalBetween(
-                StatusPresensi.ALPHA, periodeAwal, periodeAkhir);
-        
-        long totalPresensi = presensiRepository.countByTanggalBetween(periodeAwal, periodeAkhir);
+        // 2. Count by status & method (1 query ke tabel rollup)
+        RekapJumlah rekap = rekapRollup(periodeAwal, periodeAkhir);
+        long totalHadir = rekap.status(StatusPresensi.HADIR);
+        long totalTerlambat = rekap.status(StatusPresensi.TERLAMBAT);
+        long totalAlfa = rekap.status(StatusPresensi.ALPHA);
+        long totalPresensi = rekap.total();
         
         // 3. Count by method
-        long totalManual = presensiRepository.countByMethodAndTanggalBetween(
-                MethodPresensi.MANUAL, periodeAwal, periodeAkhir);
-        
-        long totalRfid = presensiRepository.countByMethodAndTanggalBetween(
-                MethodPresensi.RFID, periodeAwal, periodeAkhir);
-        
-        long totalBarcode = presensiRepository.countByMethodAndTanggalBetween(
-                MethodPresensi.BARCODE, periodeAwal, periodeAkhir);
-        
-        long totalFace = presensiRepository.countByMethodAndTanggalBetween(
-                MethodPresensi.FACE, periodeAwal, periodeAkhir);
+        long totalManual = rekap.method(MethodPresensi.MANUAL);
+        long totalRfid = rekap.method(MethodPresensi.RFID);
+        long totalBarcode = rekap.method(MethodPresensi.BARCODE);
+        long totalFace = rekap.method(MethodPresensi.FACE);
         
         // 4. Calculate percentages
         double persentaseHadir = totalPresensi > 0 ? (totalHadir * 100.0 / totalPresensi) : 0.0;
@@ -182,7 +194,7 @@ public class LaporanService {
      * Get statistik kehadiran untuk periode tertentu atau semua data.
      * 
      * Logic:
-     * 1. Query presensi within date range (or all if no range)
+     * 1. Sum rollup rows within date range (or all if no range)
      * 2. Count by status and method
      * 3. Calculate percentages
      * 
@@ -202,30 +214,18 @@ public class LaporanService {
             endDate = LocalDate.of(2100, 12, 31);  // Far future
         }
         
-        // 1. Count by status
-        long totalHadir = presensiRepository.countByStatusAndTanggalBetween(
-                StatusPresensi.HADIR, startDate, endDate);
-        
-        long totalTerlambat = presensiRepository.countByStatusAndTanggalBetween(
-                StatusPresensi.TERLAMBAT, startDate, endDate);
-        
-        long totalAlfa = presensiRepository.countByStatusAndTanggalBetween(
-                StatusPresensi.ALPHA, startDate, endDate);
-        
-        long totalPresensi = presensiRepository.countByTanggalBetween(startDate, endDate);
+        // 1. Count by status (1 query ke tabel rollup)
+        RekapJumlah rekap = rekapRollup(startDate, endDate);
+        long totalHadir = rekap.status(StatusPresensi.HADIR);
+        long totalTerlambat = rekap.status(StatusPresensi.TERLAMBAT);
+        long totalAlfa = rekap.status(StatusPresensi.ALPHA);
+        long totalPresensi = rekap.total();
         
         // 2. Count by method
-        long totalManual = presensiRepository.countByMethodAndTanggalBetween(
-                MethodPresensi.MANUAL, startDate, endDate);
-        
-        long totalRfid = presensiRepository.countByMethodAndTanggalBetween(
-                MethodPresensi.RFID, startDate, endDate);
-        
-        long totalBarcode = presensiRepository.countByMethodAndTanggalBetween(
-                MethodPresensi.BARCODE, startDate, endDate);
-        
-        long totalFace = presensiRepository.countByMethodAndTanggalBetween(
-                MethodPresensi.FACE, startDate, endDate);
+        long totalManual = rekap.method(MethodPresensi.MANUAL);
+        long totalRfid = rekap.method(MethodPresensi.RFID);
+        long totalBarcode = rekap.method(MethodPresensi.BARCODE);
+        long totalFace = rekap.method(MethodPresensi.FACE);
         
         // 3. Calculate percentages for status
         double persentaseHadir = totalPresensi > 0 ? (totalHadir * 100.0 / totalPresensi) : 0.0;
@@ -266,10 +266,7 @@ public class LaporanService {
      * @return list of PresensiResponse within the period
      */
     public List<PresensiResponse> getPresensiPeriode(LocalDate startDate, LocalDate endDate) {
-        List<Presensi> presensiList = presensiRepository.findByTanggalBetween(startDate, endDate);
-        return presensiList.stream()
-                .map(this::toPresensiResponse)
-                .collect(Collectors.toList());
+        return presensiRepository.findResponsesByTanggalBetween(startDate, endDate);
     }
 
     // ===== SISWA REKAP (PER KELAS & JURUSAN) =====
@@ -329,27 +326,51 @@ public class LaporanService {
     }
     
     /**
-     * Convert Presensi entity to PresensiResponse DTO.
+     * Rebuild tabel rollup dari data presensi untuk rentang tanggal.
+     * 
+     * Dipakai jika rollup tidak sinkron (mis. data presensi diubah langsung di database).
+     * 
+     * @return Jumlah baris rollup yang terbentuk
      */
-    private PresensiResponse toPresensiResponse(Presensi presensi) {
-        return new PresensiResponse(
-                presensi.getId(),
-                presensi.getUser().getId(),
-                presensi.getUser().getUsername(),
-                presensi.getTipe(),
-                presensi.getTanggal(),
-                presensi.getJamMasuk(),
-                presensi.getJamPulang(),  // UPDATED: Now includes jamPulang (Tahap 10)
-                presensi.getStatus(),
-                presensi.getMethod(),
-                presensi.getLatitude(),
-                presensi.getLongitude(),
-                presensi.getKeterangan(),
-                presensi.getKelas() != null ? presensi.getKelas().getId() : null,
-                presensi.getKelas() != null ? presensi.getKelas().getNama() : null,
-                presensi.getMapel(),
-                presensi.getMateri()
-        );
+    public int rebuildRollup(LocalDate startDate, LocalDate endDate) {
+        return rollupService.rebuild(startDate, endDate);
+    }
+
+    /**
+     * Hasil hitungan per status dan per method.
+     */
+    private record RekapJumlah(Map<StatusPresensi, Long> perStatus, Map<MethodPresensi, Long> perMethod, long total) {
+
+        long status(StatusPresensi status) {
+            return perStatus.getOrDefault(status, 0L);
+        }
+
+        long method(MethodPresensi method) {
+            return perMethod.getOrDefault(method, 0L);
+        }
+    }
+
+    /**
+     * Jumlah presensi per status & method dari tabel presensi_daily_rollup.
+     * 
+     * Menggantikan 8 query COUNT ke tabel presensi dengan 1 query GROUP BY
+     * ke tabel rollup (paling banyak 31 hari x beberapa kombinasi per bulan).
+     */
+    private RekapJumlah rekapRollup(LocalDate startDate, LocalDate endDate) {
+        return toRekap(rollupRepository.sumByStatusAndMethod(startDate, endDate));
+    }
+
+    private RekapJumlah toRekap(List<StatusMethodCount> rows) {
+        Map<StatusPresensi, Long> perStatus = new EnumMap<>(StatusPresensi.class);
+        Map<MethodPresensi, Long> perMethod = new EnumMap<>(MethodPresensi.class);
+        long total = 0;
+        for (StatusMethodCount row : rows) {
+            long jumlah = row.getJumlah() != null ? row.getJumlah() : 0L;
+            perStatus.merge(row.getStatus(), jumlah, Long::sum);
+            perMethod.merge(row.getMethod(), jumlah, Long::sum);
+            total += jumlah;
+        }
+        return new RekapJumlah(perStatus, perMethod, total);
     }
 
     // ===== TAHAP 10: WORK HOURS ANALYTICS =====
@@ -358,40 +379,21 @@ public class LaporanService {
      * Get average work hours for a period.
      * 
      * Logic:
-     * 1. Get all presensi with jamPulang (completed checkouts)
-     * 2. Calculate work duration for each
-     * 3. Return average
+     * 1. Only presensi with jamPulang (completed checkouts)
+     * 2. Work duration (minutes) per presensi, averaged by the database
+     * 3. Convert to hours
      * 
      * @param startDate Start date
      * @param endDate End date
      * @return Average work hours in decimal (e.g., 8.5 = 8 jam 30 menit)
      */
     public double getAverageWorkHours(LocalDate startDate, LocalDate endDate) {
-        List<Presensi> presensiList = presensiRepository.findByTanggalBetween(startDate, endDate);
-        
-        // Filter only completed (has jamPulang)
-        List<Presensi> completed = presensiList.stream()
-                .filter(p -> p.getJamPulang() != null)
-                .toList();
-        
-        if (completed.isEmpty()) {
+        // Rata-rata dihitung database (hanya presensi yang sudah checkout)
+        Double avgMinutes = presensiRepository.averageWorkMinutes(startDate, endDate);
+        if (avgMinutes == null) {
             return 0.0;
         }
         
-        // Calculate total minutes
-        long totalMinutes = completed.stream()
-                .mapToLong(p -> {
-                    java.time.Duration duration = java.time.Duration.between(
-                        p.getJamMasuk(), 
-                        p.getJamPulang()
-                    );
-                    return duration.toMinutes();
-                })
-                .sum();
-        
-        // Average minutes
-        double avgMinutes = (double) totalMinutes / completed.size();
-        
         // Convert to hours (decimal)
         return Math.round((avgMinutes / 60.0) * 100.0) / 100.0;
     }
@@ -404,18 +406,7 @@ public class LaporanService {
      * @return Number of overtime instances
      */
     public long countOvertime(LocalDate startDate, LocalDate endDate) {
-        List<Presensi> presensiList = presensiRepository.findByTanggalBetween(startDate, endDate);
-        
-        return presensiList.stream()
-                .filter(p -> p.getJamPulang() != null)
-                .filter(p -> {
-                    java.time.Duration duration = java.time.Duration.between(
-                        p.getJamMasuk(), 
-                        p.getJamPulang()
-                    );
-                    return duration.toMinutes() > 480; // > 8 hours
-                })
-                .count();
+        return presensiRepository.countWorkLongerThan(startDate, endDate, 480); // > 8 hours
     }
 
     /**
@@ -425,17 +416,15 @@ public class LaporanService {
      * @return Percentage (0-100)
      */
     public double getCheckoutCompletionRate(LocalDate tanggal) {
-        List<Presensi> presensiList = presensiRepository.findByTanggal(tanggal);
+        Object[] counts = presensiRepository.countCheckoutByTanggal(tanggal).get(0);
+        long total = ((Number) counts[0]).longValue();
+        long completed = ((Number) counts[1]).longValue();
         
-        if (presensiList.isEmpty()) {
+        if (total == 0) {
             return 0.0;
         }
         
-        long completed = presensiList.stream()
-                .filter(p -> p.getJamPulang() != null)
-                .count();
-        
-        double rate = (completed * 100.0) / presensiList.size();
+        double rate = (completed * 100.0) / total;
         return Math.round(rate * 100.0) / 100.0;
     }
 }
@@ -206,31 +206,34 @@ public class LokasiKantorService {
      * Activate location (set as active).
      * 
      * Business rule:
-     * - Only 1 location can be active at a time
-     * - Automatically deactivate all other locations
-     * - GPS validation will use this active location
+     * - Default (exclusive): only 1 location active, all others deactivated
+     * - exclusive = false: multi-kampus, location lain tetap aktif
+     * - GPS validation accepts ANY active location (GeofenceIndex)
      * 
      * Example:
      * - Before: SMK Campus A (active), SMK Campus B (inactive)
-     * - Call activate(Campus B)
+     * - Call activate(Campus B, true)
      * - After: SMK Campus A (inactive), SMK Campus B (active)
      * 
-     * @param id Location ID to activate
+     * @param id        Location ID to activate
+     * @param exclusive true = deactivate all other locations
      * @return Activated location
      * @throws RuntimeException if not found
      */
     @Transactional
-    public LokasiKantorResponse activate(Long id) {
+    public LokasiKantorResponse activate(Long id, boolean exclusive) {
         // 1. Get location to activate
         LokasiKantor lokasi = lokasiKantorRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Lokasi kantor tidak ditemukan dengan ID: " + id));
         
-        // 2. Deactivate all other locations
-        List<LokasiKantor> allActive = lokasiKantorRepository.findByIsActive(true);
-        for (LokasiKantor active : allActive) {
-            if (!active.getId().equals(id)) {
-                active.setIsActive(false);
-                lokasiKantorRepository.save(active);
+        // 2. Deactivate all other locations (mode single-kampus)
+        if (exclusive) {
+            List<LokasiKantor> allActive = lokasiKantorRepository.findByIsActive(true);
+            for (LokasiKantor active : allActive) {
+                if (!active.getId().equals(id)) {
+                    active.setIsActive(false);
+                    lokasiKantorRepository.save(active);
+                }
             }
         }
         
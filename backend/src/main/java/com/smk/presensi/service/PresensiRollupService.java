@@ -0,0 +1,285 @@
+package com.smk.presensi.service;
+
+import com.smk.presensi.entity.Presensi;
+import com.smk.presensi.entity.PresensiDailyRollupId;
+import com.smk.presensi.enums.TipeUser;
+import com.smk.presensi.repository.PresensiDailyRollupRepository;
+import com.smk.presensi.repository.PresensiRepository;
+import com.smk.presensi.repository.SiswaKelasProjection;
+import com.smk.presensi.repository.SiswaRepository;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.transaction.Synchronization;
+import org.hibernate.Session;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.jpa.EntityManagerFactoryUtils;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * PRESENSI ROLLUP SERVICE - Menjaga tabel presensi_daily_rollup tetap sinkron.
+ *
+ * Setiap perubahan presensi (insert/update/delete) dicatat sebagai delta
+ * (+1 / -1) per key rollup. Delta dalam satu transaksi dikumpulkan dulu,
+ * lalu ditulis SEKALI di akhir transaksi yang sama (satu JDBC batch):
+ * - Batch gate 200 presensi → cukup beberapa UPSERT (key-nya sama)
+ * - Transaksi yang rollback tidak mengubah rollup
+ * - Tidak perlu koneksi kedua. Sebelumnya delta ditulis setelah commit dengan
+ *   REQUIRES_NEW sambil koneksi lama masih dipegang: saat jam masuk, 10 checkin
+ *   bersamaan memegang 10 koneksi pool dan semuanya menunggu koneksi ke-11.
+ *
+ * Rollup bisa diperbaiki dengan rebuild(startDate, endDate). Saat startup,
+ * beberapa hari terakhir selalu di-rebuild.
+ *
+ * Kelas presensi siswa diambil dari data siswa (presensi.kelas kosong untuk
+ * checkin siswa). Peta user siswa → id kelas disimpan di memori dan di-load
+ * ulang setelah data siswa berubah. Kelas di-rename → jalankan rebuild.
+ */
+@Service
+public class PresensiRollupService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PresensiRollupService.class);
+
+    private static final String ADD_DELTA = "INSERT INTO presensi_daily_rollup "
+            + "(tanggal, tipe, kelas_id, status, method, jumlah) VALUES (?, ?, ?, ?, ?, ?) "
+            + "ON CONFLICT (tanggal, tipe, kelas_id, status, method) "
+            + "DO UPDATE SET jumlah = presensi_daily_rollup.jumlah + EXCLUDED.jumlah";
+
+    // Urutan tulis tetap → dua transaksi yang menyentuh key yang sama tidak saling deadlock
+    private static final Comparator<PresensiDailyRollupId> KEY_ORDER = Comparator
+            .comparing(PresensiDailyRollupId::getTanggal)
+            .thenComparing(PresensiDailyRollupId::getTipe)
+            .thenComparingLong(PresensiDailyRollupId::getKelasId)
+            .thenComparing(PresensiDailyRollupId::getStatus)
+            .thenComparing(PresensiDailyRollupId::getMethod);
+
+    private final PresensiDailyRollupRepository rollupRepository;
+    private final PresensiRepository presensiRepository;
+    private final SiswaRepository siswaRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityManagerFactory entityManagerFactory;
+    private final TransactionTemplate transactionTemplate;
+    private final ReentrantLock kelasLock = new ReentrantLock();
+
+    // user id siswa → id kelas (di-load saat startup dan setelah data siswa berubah)
+    private volatile Map<Long, Long> kelasBySiswaUser = Map.of();
+
+    @Value("${presensi.rollup.startup-rebuild-days:2}")
+    private int startupRebuildDays;
+
+    public PresensiRollupService(
+            PresensiDailyRollupRepository rollupRepository,
+            PresensiRepository presensiRepository,
+            SiswaRepository siswaRepository,
+            JdbcTemplate jdbcTemplate,
+            EntityManagerFactory entityManagerFactory,
+            PlatformTransactionManager transactionManager
+    ) {
+        this.rollupRepository = rollupRepository;
+        this.presensiRepository = presensiRepository;
+        this.siswaRepository = siswaRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.entityManagerFactory = entityManagerFactory;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Startup: database lama (rollup masih kosong) → isi dari seluruh presensi.
+     * Selain itu rebuild beberapa hari terakhir saja.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        reloadKelas();
+        LocalDate today = LocalDate.now();
+        if (rollupRepository.count() == 0) {
+            LocalDate first = presensiRepository.findMinTanggal();
+            LocalDate last = presensiRepository.findMaxTanggal();
+            if (first != null) {
+                rebuild(first, last.isAfter(today) ? last : today);
+            }
+            return;
+        }
+        if (startupRebuildDays > 0) {
+            rebuild(today.minusDays(startupRebuildDays - 1L), today);
+        }
+    }
+
+    /**
+     * Hitung ulang rollup untuk rentang tanggal dari tabel presensi.
+     *
+     * @return Jumlah baris rollup yang terbentuk
+     */
+    public int rebuild(LocalDate startDate, LocalDate endDate) {
+        Integer rows = transactionTemplate.execute(status -> {
+            rollupRepository.deleteByTanggalBetween(startDate, endDate);
+            return rollupRepository.insertFromPresensi(startDate, endDate);
+        });
+        logger.info("Presensi rollup {} s/d {} rebuilt: {} rows", startDate, endDate, rows);
+        return rows != null ? rows : 0;
+    }
+
+    /**
+     * Key rollup untuk satu presensi. Siswa → kelas dari data siswa.
+     *
+     * Tidak query database (dipanggil dari entity listener saat load/flush).
+     */
+    public PresensiDailyRollupId keyOf(Presensi presensi) {
+        Long siswaKelasId = presensi.getTipe() == TipeUser.SISWA && presensi.getUser() != null
+                ? kelasBySiswaUser.get(presensi.getUser().getId())
+                : null;
+        return PresensiDailyRollupId.of(presensi, siswaKelasId);
+    }
+
+    /**
+     * Data siswa berubah (kelas/akun) → load ulang peta kelas siswa.
+     *
+     * Di dalam transaksi → sekali setelah commit (import 1000 siswa = 1 query).
+     * Di luar transaksi → langsung.
+     */
+    public void invalidateKelas() {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            reloadKelas();
+            return;
+        }
+        pending().reloadKelas = true;
+    }
+
+    /**
+     * Catat perubahan jumlah untuk satu key rollup.
+     *
+     * Di dalam transaksi → dikumpulkan, ditulis sebelum commit di transaksi itu.
+     * Di luar transaksi → langsung ditulis.
+     */
+    public void record(PresensiDailyRollupId key, long delta) {
+        if (key == null || key.getTanggal() == null || delta == 0) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            apply(Map.of(key, delta));
+            return;
+        }
+        pending().deltas.merge(key, delta, Long::sum);
+    }
+
+    // ═════════════════════════════════════════════════════════════
+    // PRIVATE HELPER METHODS
+    // ═════════════════════════════════════════════════════════════
+
+    /**
+     * Perubahan milik transaksi yang sedang berjalan
+     */
+    private static final class Pending {
+        final Map<PresensiDailyRollupId, Long> deltas = new HashMap<>();
+        boolean reloadKelas;
+    }
+
+    /**
+     * Pending milik transaksi yang sedang berjalan (dibuat saat pertama dipakai).
+     *
+     * Delta ditulis lewat synchronization Hibernate, bukan beforeCommit Spring:
+     * update/delete presensi baru di-flush saat commit (delta-nya tercatat di
+     * @PostUpdate/@PostRemove setelah beforeCommit Spring lewat), sedangkan
+     * beforeCompletion Hibernate jalan setelah flush terakhir dan sebelum
+     * COMMIT, di koneksi yang sama.
+     */
+    private Pending pending() {
+        Pending pending = (Pending) TransactionSynchronizationManager.getResource(this);
+        if (pending != null) {
+            return pending;
+        }
+        Pending created = new Pending();
+        TransactionSynchronizationManager.bindResource(this, created);
+        // EntityManager asli milik transaksi (proxy shared EntityManager menolak getTransaction)
+        EntityManagerFactoryUtils.getTransactionalEntityManager(entityManagerFactory).unwrap(Session.class)
+                .getTransaction().registerSynchronization(new Synchronization() {
+            @Override
+            public void beforeCompletion() {
+                write(created.deltas);
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+            }
+        });
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                if (created.reloadKelas) {
+                    reloadKelas();
+                }
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(PresensiRollupService.this);
+            }
+        });
+        return created;
+    }
+
+    private void reloadKelas() {
+        kelasLock.lock();
+        try {
+            // Dipanggil juga setelah commit: query ikut koneksi transaksi yang baru commit
+            // (masih terpasang sampai cleanup), bukan REQUIRES_NEW yang butuh koneksi kedua
+            Map<Long, Long> next = transactionTemplate.execute(status -> {
+                Map<Long, Long> loaded = new HashMap<>();
+                for (SiswaKelasProjection row : siswaRepository.findKelasIds()) {
+                    loaded.put(row.getUserId(), row.getKelasId());
+                }
+                return loaded;
+            });
+            kelasBySiswaUser = next != null ? next : Map.of();
+        } catch (RuntimeException e) {
+            logger.warn("Kelas siswa untuk rollup tidak bisa di-load: {}", e.getMessage());
+        } finally {
+            kelasLock.unlock();
+        }
+    }
+
+    /**
+     * Tulis delta di luar transaksi presensi (transaksi sendiri).
+     */
+    private void apply(Map<PresensiDailyRollupId, Long> deltas) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> write(deltas));
+        } catch (RuntimeException e) {
+            // Presensi sudah tersimpan; rollup diperbaiki lewat rebuild
+            logger.warn("Failed to apply presensi rollup delta: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * UPSERT delta di transaksi yang sedang berjalan, satu JDBC batch.
+     *
+     * Lewat JDBC, bukan EntityManager: dipanggil saat Hibernate menutup transaksi.
+     */
+    private void write(Map<PresensiDailyRollupId, Long> deltas) {
+        List<Object[]> rows = deltas.entrySet().stream()
+                .filter(entry -> entry.getValue() != 0)
+                .sorted(Map.Entry.comparingByKey(KEY_ORDER))
+                .map(entry -> {
+                    PresensiDailyRollupId key = entry.getKey();
+                    return new Object[]{key.getTanggal(), key.getTipe().name(), key.getKelasId(),
+                            key.getStatus().name(), key.getMethod().name(), entry.getValue()};
+                })
+                .toList();
+        if (!rows.isEmpty()) {
+            jdbcTemplate.batchUpdate(ADD_DELTA, rows);
+        }
+    }
+}
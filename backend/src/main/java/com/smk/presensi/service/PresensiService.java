@@ -1,14 +1,19 @@
 package com.smk.presensi.service;
 
+import com.smk.presensi.dto.CursorPage;
 import com.smk.presensi.dto.presensi.BarcodeCheckinRequest;
 import com.smk.presensi.dto.presensi.CheckinRequest;
 import com.smk.presensi.dto.presensi.CheckoutRequest;
+import com.smk.presensi.dto.presensi.GateScanRequest;
+import com.smk.presensi.dto.presensi.GateScanResult;
 import com.smk.presensi.dto.presensi.PresensiResponse;
 import com.smk.presensi.dto.presensi.RfidCheckinRequest;
 import com.smk.presensi.entity.Guru;
 import com.smk.presensi.entity.Presensi;
 import com.smk.presensi.entity.Siswa;
 import com.smk.presensi.entity.User;
+import com.smk.presensi.enums.AttendanceEventType;
+import com.smk.presensi.enums.GateScanStatus;
 import com.smk.presensi.enums.MethodPresensi;
 import com.smk.presensi.enums.StatusPresensi;
 import com.smk.presensi.enums.TipeUser;
@@ -16,27 +21,39 @@ import com.smk.presensi.repository.GuruRepository;
 import com.smk.presensi.dto.jurnal.GuruJurnalRequest;
 import com.smk.presensi.service.GuruJurnalService;
 import com.smk.presensi.repository.PresensiRepository;
-import com.smk.presensi.repository.SiswaRepository;
 import com.smk.presensi.repository.UserRepository;
+import com.smk.presensi.util.AfterCommit;
+import com.smk.presensi.util.PageCursor;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 public class PresensiService {
 
     private final PresensiRepository presensiRepository;
     private final UserRepository userRepository;
-    private final SiswaRepository siswaRepository;
     private final GuruRepository guruRepository;
     private final GuruJurnalService guruJurnalService;
     private final GeolocationService geolocationService;
+    private final CredentialDirectory credentialDirectory;
+    private final DailyAttendanceState attendanceState;
+    private final PresensiRollupService rollupService;
+    private final RowVersionService rowVersionService;
+    private final TableVersions tableVersions;
+    private final AttendanceEventBus eventBus;
 
     // Inject config dari application.properties
     @Value("${presensi.jam-masuk:07:00:00}")
@@ -45,20 +62,33 @@ public class PresensiService {
     @Value("${presensi.toleransi-menit:15}")
     private int toleransiMenit;
 
+    @Value("${presensi.gate.max-offline-minutes:10}")
+    private long gateMaxOfflineMinutes;
+
     public PresensiService(
             PresensiRepository presensiRepository,
             UserRepository userRepository,
-            SiswaRepository siswaRepository,
             GuruRepository guruRepository,
             GuruJurnalService guruJurnalService,
-            GeolocationService geolocationService
+            GeolocationService geolocationService,
+            CredentialDirectory credentialDirectory,
+            DailyAttendanceState attendanceState,
+            PresensiRollupService rollupService,
+            RowVersionService rowVersionService,
+            TableVersions tableVersions,
+            AttendanceEventBus eventBus
     ) {
         this.presensiRepository = presensiRepository;
         this.userRepository = userRepository;
-        this.siswaRepository = siswaRepository;
         this.guruRepository = guruRepository;
         this.guruJurnalService = guruJurnalService;
         this.geolocationService = geolocationService;
+        this.credentialDirectory = credentialDirectory;
+        this.attendanceState = attendanceState;
+        this.rollupService = rollupService;
+        this.rowVersionService = rowVersionService;
+        this.tableVersions = tableVersions;
+        this.eventBus = eventBus;
     }
 
     /**
@@ -73,14 +103,11 @@ public class PresensiService {
 
         // 2. Validasi GPS (jika koordinat dikirim)
         if (request.latitude() != null && request.longitude() != null) {
-            geolocationService.validateLocation(request.latitude(), request.longitude());
+            geolocationService.validateLocation(user.getId(), request.latitude(), request.longitude());
         }
 
-        // 3. Validasi: cek apakah sudah checkin hari ini
+        // 3. Validasi duplikasi dilakukan saat insert (lihat simpanCheckin)
         LocalDate today = LocalDate.now();
-        if (presensiRepository.existsByUserAndTanggal(user, today)) {
-            throw new RuntimeException("Anda sudah checkin hari ini");
-        }
 
         // 4. Buat record presensi baru
         Presensi presensi = new Presensi();
@@ -96,12 +123,10 @@ public class PresensiService {
         // 5. Hitung status: HADIR atau TERLAMBAT
         presensi.setStatus(hitungStatus(presensi.getJamMasuk()));
 
-        // 6. Save ke database
-        Presensi saved = presensiRepository.save(presensi);
-        // 7. Auto-create guru jurnal jika presensi adalah untuk guru
-        maybeCreateGuruJurnal(saved);
+        // 6. Save ke database (+ auto-create guru jurnal jika presensi untuk guru)
+        Presensi saved = simpanCheckin(presensi, "Anda sudah checkin hari ini");
 
-        // 8. Convert Entity → DTO
+        // 7. Convert Entity → DTO
         return toResponse(saved);
     }
 
@@ -117,7 +142,7 @@ public class PresensiService {
 
         // 2. Cari record presensi hari ini
         LocalDate today = LocalDate.now();
-        Presensi presensi = presensiRepository.findByUserAndTanggal(user, today)
+        Presensi presensi = findPresensiHariIni(user, today)
                 .orElseThrow(() -> new RuntimeException("Anda belum checkin hari ini"));
 
         // 3. Validasi: sudah checkout atau belum
@@ -183,6 +208,52 @@ public class PresensiService {
                 .toList();
     }
 
+    /**
+     * PAGE PRESENSI - Satu halaman presensi (keyset, terbaru dulu) dengan filter server-side.
+     * 
+     * @param cursor         nextCursor dari halaman sebelumnya (null = halaman pertama)
+     * @param size           Ukuran halaman (default 50, maks 500)
+     * @param usernamePrefix Awalan username (case-insensitive)
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<PresensiResponse> getPresensiPage(String cursor, Integer size,
+                                                       LocalDate startDate, LocalDate endDate,
+                                                       StatusPresensi status, TipeUser tipe,
+                                                       Long kelasId, String usernamePrefix) {
+        PageCursor position = PageCursor.decode(cursor);
+        int limit = PageCursor.limit(size);
+        List<PresensiResponse> rows = presensiRepository.findPage(
+                position.tanggalOrMax(), position.idOrMax(),
+                startDate != null ? startDate : PageCursor.MIN_TANGGAL,
+                endDate != null ? endDate : PageCursor.MAX_TANGGAL,
+                status, tipe, kelasId, PageCursor.likePrefix(usernamePrefix),
+                PageCursor.fetch(limit));
+        return CursorPage.of(rows, limit, p -> PageCursor.encode(p.tanggal(), p.id()));
+    }
+
+    /**
+     * Stream presensi (sebagai DTO) untuk export, tanpa memuat semuanya ke memory.
+     * 
+     * Stream hanya valid di dalam transaksi ini, jadi pemakainya (consumer)
+     * dijalankan di sini, dan stream ditutup setelah consumer selesai.
+     * 
+     * @param startDate Tanggal awal (null = dari awal data)
+     * @param endDate   Tanggal akhir (null = hari ini)
+     * @param kelasId   Filter kelas (null = semua)
+     * @param consumer  Pemakai stream (mis. penulis Excel)
+     */
+    @Transactional(readOnly = true)
+    public void streamPresensi(LocalDate startDate, LocalDate endDate, Long kelasId,
+                               Consumer<Stream<PresensiResponse>> consumer) {
+        LocalDate start = startDate != null ? startDate : LocalDate.of(2000, 1, 1);
+        LocalDate end = endDate != null ? endDate : LocalDate.now();
+        try (Stream<PresensiResponse> rows = kelasId == null
+                ? presensiRepository.streamResponsesByTanggalBetween(start, end)
+                : presensiRepository.streamResponsesByTanggalBetweenAndKelas(start, end, kelasId)) {
+            consumer.accept(rows);
+        }
+    }
+
     /**
      * Get all presensi data.
      */
@@ -196,26 +267,102 @@ public class PresensiService {
      * HELPER: Hitung status berdasarkan jam masuk.
      */
     private StatusPresensi hitungStatus(LocalTime jamMasuk) {
-        // Parse jam masuk config: "07:00:00"
-        LocalTime batasWaktu = LocalTime.parse(jamMasukConfig).plusMinutes(toleransiMenit);
+        return new BatasWaktuMasuk(jamMasukConfig, toleransiMenit).statusUntuk(jamMasuk);
+    }
 
-        // Jika masuk sebelum/pas batas waktu → HADIR
-        // Jika masuk setelah batas waktu → TERLAMBAT
-        if (jamMasuk.isBefore(batasWaktu) || jamMasuk.equals(batasWaktu)) {
-            return StatusPresensi.HADIR;
-        } else {
-            return StatusPresensi.TERLAMBAT;
+    /**
+     * HELPER: Simpan presensi checkin baru secara atomic dan idempotent.
+     * 
+     * Sebelumnya: exists? → save(). Dua tap yang datang bersamaan bisa
+     * sama-sama lolos exists dan menghasilkan 2 row presensi.
+     * 
+     * Sekarang:
+     * 1. Cek DailyAttendanceState (memory). Sudah checkin → tanpa query sama sekali
+     * 2. INSERT ... ON CONFLICT (user_id, tanggal) DO NOTHING RETURNING id
+     *    → database yang menjamin hanya satu yang berhasil
+     * 3. Jika sudah ada dan request membawa idempotency key yang sama dengan
+     *    presensi tersimpan → ini retry, kembalikan presensi lama
+     * 4. Selain itu → lempar error duplikat
+     * 
+     * @param presensi         Presensi baru (belum punya ID)
+     * @param duplicateMessage Pesan error jika user sudah checkin
+     * @return Presensi tersimpan (baru, atau yang lama jika retry)
+     */
+    private Presensi simpanCheckin(Presensi presensi, String duplicateMessage) {
+        Long userId = presensi.getUser().getId();
+        LocalDate tanggal = presensi.getTanggal();
+
+        if (!attendanceState.isCheckedIn(userId, tanggal)) {
+            // Native insert tidak lewat RowVersionEntityListener
+            presensi.setRowVersion(rowVersionService.next());
+            Optional<Long> insertedId = presensiRepository.insertCheckinIfAbsent(presensi);
+            if (insertedId.isPresent()) {
+                Long id = insertedId.get();
+                presensi.setId(id);
+                // Native insert tidak lewat entity listener → kabari state, rollup, ETag & event live manual
+                AttendanceEventBus.PresensiChange change = new AttendanceEventBus.PresensiChange(
+                        AttendanceEventType.CHECKIN, id, userId, presensi.getTipe(),
+                        null, null, false,
+                        tanggal, presensi.getStatus(), presensi.getJamMasuk(), presensi.getJamPulang(),
+                        presensi.getMethod(), presensi.getKeterangan());
+                AfterCommit.run(() -> {
+                    attendanceState.onSaved(id, userId, tanggal);
+                    tableVersions.bump(Presensi.class);
+                    eventBus.publish(change);
+                });
+                rollupService.record(rollupService.keyOf(presensi), 1);
+                maybeCreateGuruJurnal(presensi);
+                return presensi;
+            }
+        }
+
+        String key = presensi.getIdempotencyKey();
+        if (key != null) {
+            Optional<Presensi> retry = presensiRepository.findByUserIdAndTanggal(userId, tanggal)
+                    .filter(existing -> key.equals(existing.getIdempotencyKey()));
+            if (retry.isPresent()) {
+                return retry.get();
+            }
         }
+        throw new CheckinRejectedException(AttendanceMetrics.OUTCOME_DUPLICATE, duplicateMessage);
+    }
+
+    /**
+     * HELPER: Cari presensi user untuk tanggal tertentu.
+     * 
+     * ID presensi diambil dari DailyAttendanceState (tanpa scan tabel),
+     * lalu entity di-load by PRIMARY KEY.
+     *
+     * State hanya cache: baris yang ditulis di luar aplikasi ini, atau yang commit-nya
+     * jatuh di tengah rebuild saat ganti hari, bisa tidak tercatat. Jika state tidak
+     * tahu (atau ID-nya sudah tidak cocok), cek ke database lewat (user_id, tanggal).
+     */
+    private Optional<Presensi> findPresensiHariIni(User user, LocalDate today) {
+        Long userId = user.getId();
+        return attendanceState.findPresensiId(userId, today)
+                .flatMap(presensiRepository::findById)
+                .filter(presensi -> presensi.getUser().getId().equals(userId) && today.equals(presensi.getTanggal()))
+                .or(() -> presensiRepository.findByUserIdAndTanggal(userId, today));
     }
 
     /**
      * HELPER: Convert Entity Presensi → DTO PresensiResponse.
      */
     private PresensiResponse toResponse(Presensi presensi) {
+        return toResponse(presensi, presensi.getUser().getUsername());
+    }
+
+    /**
+     * HELPER: Convert Entity → DTO dengan username yang sudah diketahui.
+     * 
+     * Dipakai jalur RFID/barcode: user hanya berupa reference (proxy),
+     * jadi username diambil dari CredentialDirectory supaya proxy tidak di-load.
+     */
+    private PresensiResponse toResponse(Presensi presensi, String username) {
         return new PresensiResponse(
                 presensi.getId(),
                 presensi.getUser().getId(),
-                presensi.getUser().getUsername(),
+                username,
                 presensi.getTipe(),
                 presensi.getTanggal(),
                 presensi.getJamMasuk(),
@@ -241,7 +388,7 @@ public class PresensiService {
         if (presensi.getTipe() != TipeUser.GURU) return;
 
         try {
-            java.util.Optional<Guru> guruOpt = guruRepository.findByUser(presensi.getUser());
+            Optional<Guru> guruOpt = guruRepository.findByUser(presensi.getUser());
             if (guruOpt.isEmpty()) return;
             Guru guru = guruOpt.get();
 
@@ -279,36 +426,17 @@ public class PresensiService {
     public PresensiResponse checkinRfid(RfidCheckinRequest request) {
         String rfidCardId = request.rfidCardId();
         
-        // 1. Cari user berdasarkan rfidCardId
-        User user = null;
-        TipeUser tipe = null;
-        
-        // Cari di tabel Siswa dulu
-        Optional<Siswa> siswaOpt = siswaRepository.findByRfidCardId(rfidCardId);
-        if (siswaOpt.isPresent()) {
-            Siswa siswa = siswaOpt.get();
-            user = siswa.getUser(); // Ambil User dari relasi OneToOne
-            tipe = TipeUser.SISWA;
-        } else {
-            // Jika tidak ada di Siswa, cari di tabel Guru
-            Optional<Guru> guruOpt = guruRepository.findByRfidCardId(rfidCardId);
-            if (guruOpt.isPresent()) {
-                Guru guru = guruOpt.get();
-                user = guru.getUser(); // Ambil User dari relasi OneToOne
-                tipe = TipeUser.GURU;
-            }
-        }
+        // 1. Cari user berdasarkan rfidCardId (in-memory, tanpa query)
+        CredentialDirectory.Credential credential = credentialDirectory.findByRfid(rfidCardId)
+                .orElseThrow(() -> new CheckinRejectedException(AttendanceMetrics.OUTCOME_UNKNOWN_CARD,
+                        "Kartu RFID tidak terdaftar: " + rfidCardId));
         
-        // Jika tidak ketemu di Siswa maupun Guru
-        if (user == null) {
-            throw new RuntimeException("Kartu RFID tidak terdaftar: " + rfidCardId);
-        }
+        // Reference (proxy) cukup untuk relasi, tidak perlu SELECT user
+        User user = userRepository.getReferenceById(credential.userId());
+        TipeUser tipe = credential.tipe(); // SISWA atau GURU
         
-        // 2. Validasi duplikasi
+        // 2. Validasi duplikasi dilakukan saat insert (lihat simpanCheckin)
         LocalDate today = LocalDate.now();
-        if (presensiRepository.existsByUserAndTanggal(user, today)) {
-            throw new RuntimeException("User dengan kartu " + rfidCardId + " sudah checkin hari ini");
-        }
         
         // 3. Buat record presensi baru
         Presensi presensi = new Presensi();
@@ -331,13 +459,13 @@ public class PresensiService {
         
         // Keterangan otomatis
         presensi.setKeterangan("Checkin via RFID: " + rfidCardId);
+        presensi.setIdempotencyKey(request.idempotencyKey());
         
         // 6. Save
-        Presensi saved = presensiRepository.save(presensi);
-        maybeCreateGuruJurnal(saved);
+        Presensi saved = simpanCheckin(presensi, "User dengan kartu " + rfidCardId + " sudah checkin hari ini");
 
         // 7. Convert ke DTO
-        return toResponse(saved);
+        return toResponse(saved, credential.username());
     }
 
     /**
@@ -367,36 +495,16 @@ public class PresensiService {
     public PresensiResponse checkinBarcode(BarcodeCheckinRequest request) {
         String barcodeId = request.barcodeId();
         
-        // 1. Cari user berdasarkan barcodeId
-        User user = null;
-        TipeUser tipe = null;
-        
-        // Cari di tabel Siswa dulu
-        Optional<Siswa> siswaOpt = siswaRepository.findByBarcodeId(barcodeId);
-        if (siswaOpt.isPresent()) {
-            Siswa siswa = siswaOpt.get();
-            user = siswa.getUser(); // Ambil User dari relasi OneToOne
-            tipe = TipeUser.SISWA;
-        } else {
-            // Jika tidak ada di Siswa, cari di tabel Guru
-            Optional<Guru> guruOpt = guruRepository.findByBarcodeId(barcodeId);
-            if (guruOpt.isPresent()) {
-                Guru guru = guruOpt.get();
-                user = guru.getUser(); // Ambil User dari relasi OneToOne
-                tipe = TipeUser.GURU;
-            }
-        }
+        // 1. Cari user berdasarkan barcodeId (in-memory, tanpa query)
+        CredentialDirectory.Credential credential = credentialDirectory.findByBarcode(barcodeId)
+                .orElseThrow(() -> new CheckinRejectedException(AttendanceMetrics.OUTCOME_UNKNOWN_CARD,
+                        "Barcode tidak terdaftar: " + barcodeId));
         
-        // Jika tidak ketemu di Siswa maupun Guru
-        if (user == null) {
-            throw new RuntimeException("Barcode tidak terdaftar: " + barcodeId);
-        }
+        User user = userRepository.getReferenceById(credential.userId());
+        TipeUser tipe = credential.tipe(); // SISWA atau GURU
         
-        // 2. Validasi duplikasi
+        // 2. Validasi duplikasi dilakukan saat insert (lihat simpanCheckin)
         LocalDate today = LocalDate.now();
-        if (presensiRepository.existsByUserAndTanggal(user, today)) {
-            throw new RuntimeException("User dengan barcode " + barcodeId + " sudah checkin hari ini");
-        }
         
         // 3. Buat record presensi baru
         Presensi presensi = new Presensi();
@@ -419,13 +527,13 @@ public class PresensiService {
         
         // Keterangan otomatis
         presensi.setKeterangan("Checkin via Barcode: " + barcodeId);
+        presensi.setIdempotencyKey(request.idempotencyKey());
         
         // 6. Save
-        Presensi saved = presensiRepository.save(presensi);
-        maybeCreateGuruJurnal(saved);
+        Presensi saved = simpanCheckin(presensi, "User dengan barcode " + barcodeId + " sudah checkin hari ini");
 
         // 7. Convert ke DTO
-        return toResponse(saved);
+        return toResponse(saved, credential.username());
     }
 
     /**
@@ -460,11 +568,8 @@ public class PresensiService {
         User user = siswa.getUser();
         TipeUser tipe = TipeUser.SISWA;
         
-        // 2. Validasi duplikasi
+        // 2. Validasi duplikasi dilakukan saat insert (lihat simpanCheckin)
         LocalDate today = LocalDate.now();
-        if (presensiRepository.existsByUserAndTanggal(user, today)) {
-            throw new RuntimeException("Siswa " + user.getUsername() + " sudah checkin hari ini");
-        }
         
         // 3. Buat record presensi baru
         Presensi presensi = new Presensi();
@@ -489,8 +594,7 @@ public class PresensiService {
         presensi.setKeterangan("Checkin via Face Recognition: " + user.getUsername());
         
         // 6. Save
-        Presensi saved = presensiRepository.save(presensi);
-        maybeCreateGuruJurnal(saved);
+        Presensi saved = simpanCheckin(presensi, "Siswa " + user.getUsername() + " sudah checkin hari ini");
 
         // 7. Convert ke DTO
         return toResponse(saved);
@@ -508,11 +612,8 @@ public class PresensiService {
         User user = guru.getUser();
         TipeUser tipe = TipeUser.GURU;
         
-        // 2. Validasi duplikasi
+        // 2. Validasi duplikasi dilakukan saat insert (lihat simpanCheckin)
         LocalDate today = LocalDate.now();
-        if (presensiRepository.existsByUserAndTanggal(user, today)) {
-            throw new RuntimeException("Guru " + user.getUsername() + " sudah checkin hari ini");
-        }
         
         // 3. Buat record presensi baru
         Presensi presensi = new Presensi();
@@ -537,13 +638,164 @@ public class PresensiService {
         presensi.setKeterangan("Checkin via Face Recognition: " + user.getUsername());
         
         // 6. Save
-        Presensi saved = presensiRepository.save(presensi);
-        maybeCreateGuruJurnal(saved);
+        Presensi saved = simpanCheckin(presensi, "Guru " + user.getUsername() + " sudah checkin hari ini");
 
         // 7. Convert ke DTO
         return toResponse(saved);
     }
 
+    // ===== BULK CHECKIN DARI GATE =====
+
+    /**
+     * Satu scan dari gate beserta device pengirimnya.
+     */
+    public record GateScan(String deviceId, GateScanRequest request) {
+    }
+
+    /**
+     * Toleransi jam device lebih cepat dari jam server.
+     */
+    private static final long GATE_CLOCK_SKEW_MINUTES = 5;
+
+    private record UserDay(Long userId, LocalDate tanggal) {
+    }
+
+    /**
+     * CHECKIN BATCH - Proses banyak scan gate dalam SATU transaksi.
+     * 
+     * Dipanggil oleh GateIngestionService (writer micro-batch), bukan langsung
+     * dari controller.
+     * 
+     * Flow:
+     * 1. Resolve kartu → user dari CredentialDirectory (memory)
+     * 2. Validasi duplikasi: DailyAttendanceState + duplikat di dalam batch
+     * 3. Semua presensi baru di-insert dengan saveAll → JDBC batch
+     *    (id dari sequence, jadi Hibernate bisa menggabungkan INSERT)
+     * 4. Jam masuk & status dihitung dari jam device (scannedAt), hanya jika
+     *    scannedAt masih hari ini dan tidak lebih lama dari
+     *    presensi.gate.max-offline-minutes (endpoint gate publik: tanpa batas bawah
+     *    scan telat bisa dimundurkan ke 06:59, atau presensi dibuat untuk hari lain)
+     * 
+     * Jika salah satu INSERT bentrok unique constraint (race dengan tap tunggal),
+     * seluruh transaksi rollback; GateIngestionService lalu mengulang per scan.
+     * 
+     * @return Hasil per scan, urutan sama dengan input
+     */
+    @Transactional
+    public List<GateScanResult> checkinGateBatch(List<GateScan> scans) {
+        LocalDateTime sekarang = LocalDateTime.now();
+        LocalDateTime batasJamDevice = sekarang.plusMinutes(GATE_CLOCK_SKEW_MINUTES);
+        LocalDateTime batasOffline = sekarang.minusMinutes(gateMaxOfflineMinutes);
+        LocalDateTime awalHariIni = sekarang.toLocalDate().atStartOfDay();
+        LocalDateTime batasScanLama = batasOffline.isAfter(awalHariIni) ? batasOffline : awalHariIni;
+        GateScanResult[] results = new GateScanResult[scans.size()];
+
+        List<Presensi> baru = new ArrayList<>();
+        List<Integer> baruIndex = new ArrayList<>();
+        List<String> baruUsername = new ArrayList<>();
+        Map<UserDay, Presensi> dalamBatch = new HashMap<>();
+        List<Integer> duplikatIndex = new ArrayList<>();
+        List<CredentialDirectory.Credential> duplikatCredential = new ArrayList<>();
+
+        for (int i = 0; i < scans.size(); i++) {
+            GateScan gateScan = scans.get(i);
+            GateScanRequest scan = gateScan.request();
+
+            // 1. Resolve kartu
+            Optional<CredentialDirectory.Credential> found;
+            if (scan.method() == MethodPresensi.RFID) {
+                found = credentialDirectory.findByRfid(scan.credential());
+            } else if (scan.method() == MethodPresensi.BARCODE) {
+                found = credentialDirectory.findByBarcode(scan.credential());
+            } else {
+                results[i] = GateScanResult.gagal(scan, GateScanStatus.INVALID,
+                        "Method " + scan.method() + " tidak didukung untuk gate");
+                continue;
+            }
+            if (found.isEmpty()) {
+                results[i] = GateScanResult.gagal(scan, GateScanStatus.UNKNOWN_CREDENTIAL,
+                        "Kartu tidak terdaftar: " + scan.credential());
+                continue;
+            }
+            if (scan.scannedAt().isAfter(batasJamDevice)) {
+                results[i] = GateScanResult.gagal(scan, GateScanStatus.INVALID,
+                        "Jam device di masa depan: " + scan.scannedAt());
+                continue;
+            }
+            if (scan.scannedAt().isBefore(batasScanLama)) {
+                results[i] = GateScanResult.gagal(scan, GateScanStatus.INVALID,
+                        "Scan terlalu lama (batas " + batasScanLama.withNano(0) + "): " + scan.scannedAt());
+                continue;
+            }
+            CredentialDirectory.Credential credential = found.get();
+            LocalDate tanggal = scan.scannedAt().toLocalDate();
+
+            // 2. Validasi duplikasi (memory + dalam batch)
+            UserDay key = new UserDay(credential.userId(), tanggal);
+            if (dalamBatch.containsKey(key) || attendanceState.isCheckedIn(credential.userId(), tanggal)) {
+                duplikatIndex.add(i);
+                duplikatCredential.add(credential);
+                continue;
+            }
+
+            // 3. Buat presensi dengan jam device
+            LocalTime jamMasuk = scan.scannedAt().toLocalTime();
+            Presensi presensi = new Presensi();
+            presensi.setUser(userRepository.getReferenceById(credential.userId()));
+            presensi.setTipe(credential.tipe());
+            presensi.setTanggal(tanggal);
+            presensi.setJamMasuk(jamMasuk);
+            presensi.setStatus(hitungStatus(jamMasuk));
+            presensi.setMethod(scan.method());
+            presensi.setKeterangan("Checkin via gate" + (gateScan.deviceId() != null ? " " + gateScan.deviceId() : "")
+                    + " (" + scan.method() + "): " + scan.credential());
+            presensi.setIdempotencyKey(scan.idempotencyKey());
+
+            dalamBatch.put(key, presensi);
+            baru.add(presensi);
+            baruIndex.add(i);
+            baruUsername.add(credential.username());
+        }
+
+        // 4. Insert semua sekaligus (JDBC batch)
+        presensiRepository.saveAllAndFlush(baru);
+        for (int j = 0; j < baru.size(); j++) {
+            Presensi saved = baru.get(j);
+            maybeCreateGuruJurnal(saved);
+            results[baruIndex.get(j)] = diterima(scans.get(baruIndex.get(j)).request(), saved, baruUsername.get(j));
+        }
+
+        // 5. Duplikat: retry dengan idempotency key sama → ACCEPTED, selain itu DUPLICATE
+        for (int j = 0; j < duplikatIndex.size(); j++) {
+            int i = duplikatIndex.get(j);
+            GateScanRequest scan = scans.get(i).request();
+            CredentialDirectory.Credential credential = duplikatCredential.get(j);
+            LocalDate tanggal = scan.scannedAt().toLocalDate();
+            String idempotencyKey = scan.idempotencyKey();
+
+            Optional<Presensi> existing = Optional.empty();
+            if (idempotencyKey != null) {
+                Presensi pending = dalamBatch.get(new UserDay(credential.userId(), tanggal));
+                existing = pending != null
+                        ? Optional.of(pending)
+                        : presensiRepository.findByUserIdAndTanggal(credential.userId(), tanggal);
+                existing = existing.filter(p -> idempotencyKey.equals(p.getIdempotencyKey()));
+            }
+            results[i] = existing
+                    .map(p -> diterima(scan, p, credential.username()))
+                    .orElseGet(() -> new GateScanResult(scan.credential(), GateScanStatus.DUPLICATE, null,
+                            credential.username(), tanggal, null,
+                            credential.username() + " sudah checkin pada " + tanggal));
+        }
+
+        return List.of(results);
+    }
+
+    private static GateScanResult diterima(GateScanRequest scan, Presensi presensi, String username) {
+        return new GateScanResult(scan.credential(), GateScanStatus.ACCEPTED, presensi.getId(),
+                username, presensi.getTanggal(), presensi.getStatus(), null);
+    }
+
     // ===== TAHAP 10: CHECKOUT METHODS =====
 
     /**
@@ -558,25 +810,14 @@ public class PresensiService {
      */
     @Transactional
     public PresensiResponse checkoutRfid(String rfidCardId) {
-        // 1. Cari user berdasarkan rfidCardId
-        User user = null;
-        Optional<Siswa> siswaOpt = siswaRepository.findByRfidCardId(rfidCardId);
-        if (siswaOpt.isPresent()) {
-            user = siswaOpt.get().getUser();
-        } else {
-            Optional<Guru> guruOpt = guruRepository.findByRfidCardId(rfidCardId);
-            if (guruOpt.isPresent()) {
-                user = guruOpt.get().getUser();
-            }
-        }
-        
-        if (user == null) {
-            throw new RuntimeException("Kartu RFID tidak terdaftar: " + rfidCardId);
-        }
+        // 1. Cari user berdasarkan rfidCardId (in-memory, tanpa query)
+        CredentialDirectory.Credential credential = credentialDirectory.findByRfid(rfidCardId)
+                .orElseThrow(() -> new RuntimeException("Kartu RFID tidak terdaftar: " + rfidCardId));
+        User user = userRepository.getReferenceById(credential.userId());
         
         // 2. Cari presensi hari ini
         LocalDate today = LocalDate.now();
-        Presensi presensi = presensiRepository.findByUserAndTanggal(user, today)
+        Presensi presensi = findPresensiHariIni(user, today)
                 .orElseThrow(() -> new RuntimeException("User dengan kartu " + rfidCardId + " belum checkin hari ini"));
         
         // 3. Validasi: sudah checkout?
@@ -591,7 +832,7 @@ public class PresensiService {
         
         // 5. Save dan return
         Presensi updated = presensiRepository.save(presensi);
-        return toResponse(updated);
+        return toResponse(updated, credential.username());
     }
 
     /**
@@ -599,25 +840,14 @@ public class PresensiService {
      */
     @Transactional
     public PresensiResponse checkoutBarcode(String barcodeId) {
-        // 1. Cari user berdasarkan barcodeId
-        User user = null;
-        Optional<Siswa> siswaOpt = siswaRepository.findByBarcodeId(barcodeId);
-        if (siswaOpt.isPresent()) {
-            user = siswaOpt.get().getUser();
-        } else {
-            Optional<Guru> guruOpt = guruRepository.findByBarcodeId(barcodeId);
-            if (guruOpt.isPresent()) {
-                user = guruOpt.get().getUser();
-            }
-        }
-        
-        if (user == null) {
-            throw new RuntimeException("Barcode tidak terdaftar: " + barcodeId);
-        }
+        // 1. Cari user berdasarkan barcodeId (in-memory, tanpa query)
+        CredentialDirectory.Credential credential = credentialDirectory.findByBarcode(barcodeId)
+                .orElseThrow(() -> new RuntimeException("Barcode tidak terdaftar: " + barcodeId));
+        User user = userRepository.getReferenceById(credential.userId());
         
         // 2. Cari presensi hari ini
         LocalDate today = LocalDate.now();
-        Presensi presensi = presensiRepository.findByUserAndTanggal(user, today)
+        Presensi presensi = findPresensiHariIni(user, today)
                 .orElseThrow(() -> new RuntimeException("User dengan barcode " + barcodeId + " belum checkin hari ini"));
         
         // 3. Validasi: sudah checkout?
@@ -632,7 +862,7 @@ public class PresensiService {
         
         // 5. Save dan return
         Presensi updated = presensiRepository.save(presensi);
-        return toResponse(updated);
+        return toResponse(updated, credential.username());
     }
 
     /**
@@ -644,7 +874,7 @@ public class PresensiService {
         
         // Cari presensi hari ini
         LocalDate today = LocalDate.now();
-        Presensi presensi = presensiRepository.findByUserAndTanggal(user, today)
+        Presensi presensi = findPresensiHariIni(user, today)
                 .orElseThrow(() -> new RuntimeException("Siswa " + user.getUsername() + " belum checkin hari ini"));
         
         // Validasi: sudah checkout?
@@ -671,7 +901,7 @@ public class PresensiService {
         
         // Cari presensi hari ini
         LocalDate today = LocalDate.now();
-        Presensi presensi = presensiRepository.findByUserAndTanggal(user, today)
+        Presensi presensi = findPresensiHariIni(user, today)
                 .orElseThrow(() -> new RuntimeException("Guru " + user.getUsername() + " belum checkin hari ini"));
         
         // Validasi: sudah checkout?
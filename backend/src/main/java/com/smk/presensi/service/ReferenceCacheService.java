@@ -0,0 +1,78 @@
+package com.smk.presensi.service;
+
+import com.smk.presensi.entity.Jurusan;
+import com.smk.presensi.entity.Kelas;
+import com.smk.presensi.entity.LokasiKantor;
+import com.smk.presensi.entity.Mapel;
+import com.smk.presensi.entity.Role;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * REFERENCE CACHE SERVICE - Kelola second-level cache data referensi.
+ *
+ * Kelas, Jurusan, Mapel, Role, dan LokasiKantor di-cache oleh Hibernate
+ * (lihat @Cache di entity dan @QueryHints di repository). Perubahan lewat
+ * JPA otomatis menyegarkan cache.
+ *
+ * Eviction manual hanya dibutuhkan jika data diubah DI LUAR aplikasi
+ * (mis. UPDATE langsung di psql, restore backup).
+ */
+@Service
+public class ReferenceCacheService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReferenceCacheService.class);
+
+    /**
+     * Nama region yang bisa di-evict satu per satu → entity-nya.
+     */
+    private static final Map<String, Class<?>> REGIONS = Map.of(
+            "kelas", Kelas.class,
+            "jurusan", Jurusan.class,
+            "mapel", Mapel.class,
+            "role", Role.class,
+            "lokasi", LokasiKantor.class
+    );
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final TableVersions tableVersions;
+
+    public ReferenceCacheService(EntityManagerFactory entityManagerFactory, TableVersions tableVersions) {
+        this.entityManagerFactory = entityManagerFactory;
+        this.tableVersions = tableVersions;
+    }
+
+    /**
+     * Evict cache.
+     *
+     * @param region Nama region (kelas, jurusan, mapel, role, lokasi), null = semua
+     * @return Daftar region yang di-evict
+     */
+    public List<String> evict(String region) {
+        SessionFactory sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+        List<String> evicted;
+        if (region == null || region.isBlank()) {
+            sessionFactory.getCache().evictAllRegions();
+            evicted = REGIONS.keySet().stream().sorted().toList();
+        } else {
+            Class<?> entity = REGIONS.get(region.toLowerCase());
+            if (entity == null) {
+                throw new RuntimeException("Region cache tidak dikenal. Gunakan: " + String.join(", ", REGIONS.keySet()));
+            }
+            sessionFactory.getCache().evictEntityData(entity);
+            evicted = List.of(region.toLowerCase());
+        }
+        // Hasil query lama bisa merujuk data yang sudah berubah → selalu buang
+        sessionFactory.getCache().evictQueryRegions();
+        // Data diubah di luar aplikasi → ETag lama juga tidak bisa dipercaya
+        tableVersions.bumpAll();
+        logger.info("Second-level cache evicted: {}", evicted);
+        return evicted;
+    }
+}
@@ -0,0 +1,151 @@
+package com.smk.presensi.service;
+
+import com.smk.presensi.enums.SyncEntityType;
+import jakarta.annotation.PostConstruct;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * ROW VERSION SERVICE - Nomor versi global untuk change feed.
+ *
+ * Setiap INSERT/UPDATE/DELETE pada entity RowVersioned mendapat nomor versi
+ * yang selalu naik (dari sequence sync_version_seq, diambil per blok 100
+ * supaya tidak satu round trip per baris).
+ *
+ * Masalah urutan commit: transaksi A ambil versi 10, transaksi B ambil versi 11,
+ * B commit duluan. Client yang membaca saat itu melihat 11, cursor-nya maju ke 11,
+ * lalu A commit → versi 10 tidak akan pernah terbaca.
+ *
+ * Solusi: versi pertama setiap transaksi yang belum selesai dicatat (pending).
+ * Change feed hanya mengirim versi <= stableVersion() = (versi pending terkecil - 1),
+ * jadi cursor client tidak pernah melewati transaksi yang belum commit.
+ * Asumsi: satu instance backend (sama seperti AttendanceEventBus).
+ *
+ * Lock memakai ReentrantLock, bukan synchronized: next() bisa memanggil
+ * nextval ke database sambil memegang lock, dan dengan virtual thread
+ * blocking I/O di dalam synchronized mengunci (pin) carrier thread.
+ */
+@Service
+public class RowVersionService {
+
+    /** Harus sama dengan INCREMENT BY sequence */
+    private static final int BLOCK_SIZE = 100;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // Key resource per transaksi: versi pertama transaksi yang sedang berjalan
+    private final Object transactionKey = new Object();
+
+    // Dijaga lock
+    private final ReentrantLock lock = new ReentrantLock();
+    private final TreeSet<Long> pending = new TreeSet<>();
+    private long nextVersion = 0;
+    private long blockEnd = 0;
+    private long lastAllocated = 0;
+
+    public RowVersionService(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @PostConstruct
+    public void init() {
+        jdbcTemplate.execute("CREATE SEQUENCE IF NOT EXISTS sync_version_seq INCREMENT BY " + BLOCK_SIZE);
+        resync();
+    }
+
+    /**
+     * Versi baru untuk satu baris yang ditulis di transaksi saat ini
+     */
+    public long next() {
+        boolean firstInTransaction = TransactionSynchronizationManager.isSynchronizationActive()
+                && !TransactionSynchronizationManager.hasResource(transactionKey);
+
+        long version;
+        lock.lock();
+        try {
+            if (nextVersion >= blockEnd) {
+                Long start = jdbcTemplate.queryForObject("SELECT nextval('sync_version_seq')", Long.class);
+                nextVersion = start;
+                blockEnd = start + BLOCK_SIZE;
+            }
+            version = nextVersion++;
+            lastAllocated = Math.max(lastAllocated, version);
+            if (firstInTransaction) {
+                pending.add(version);
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        if (firstInTransaction) {
+            TransactionSynchronizationManager.bindResource(transactionKey, version);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(transactionKey);
+                    release(version);
+                }
+            });
+        }
+        return version;
+    }
+
+    /**
+     * Versi tertinggi yang aman dibaca: semua versi <= nilai ini sudah commit (atau rollback)
+     */
+    public long stableVersion() {
+        lock.lock();
+        try {
+            return pending.isEmpty() ? lastAllocated : pending.first() - 1;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Catat baris yang dihapus (tombstone) di transaksi yang sama dengan DELETE-nya.
+     *
+     * Lewat JDBC, bukan EntityManager: dipanggil dari @PostRemove saat flush,
+     * JPA tidak mengizinkan persist entity baru di tengah flush.
+     */
+    public void recordDelete(SyncEntityType entityType, Long entityId) {
+        long version = next();
+        jdbcTemplate.update("INSERT INTO sync_tombstone (entity_type, entity_id, row_version, deleted_at) "
+                + "VALUES (?, ?, ?, ?)", entityType.name(), entityId, version, LocalDateTime.now());
+    }
+
+    /**
+     * Sesuaikan dengan sequence setelah ada yang mengambil nextval di luar service ini
+     * (startup, backfill baris lama). Blok yang sedang dipakai dibuang.
+     */
+    public void resync() {
+        lock.lock();
+        try {
+            // Sequence baru (is_called = false): last_value = nilai awal, belum ada blok yang dibagikan
+            Long allocated = jdbcTemplate.queryForObject("SELECT CASE WHEN is_called "
+                    + "THEN last_value + " + (BLOCK_SIZE - 1) + " ELSE last_value - 1 END FROM sync_version_seq",
+                    Long.class);
+            // Proses sebelumnya bisa sudah membagikan versi sampai akhir blok terakhirnya
+            lastAllocated = Math.max(lastAllocated, allocated);
+            nextVersion = 0;
+            blockEnd = 0;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void release(long version) {
+        lock.lock();
+        try {
+            pending.remove(version);
+        } finally {
+            lock.unlock();
+        }
+    }
+}
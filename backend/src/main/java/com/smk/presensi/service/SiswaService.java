@@ -1,12 +1,14 @@
 package com.smk.presensi.service;
 
 import com.smk.presensi.dto.AssignSiswaToKelasRequest;
+import com.smk.presensi.dto.CursorPage;
 import com.smk.presensi.dto.SiswaRequest;
 import com.smk.presensi.dto.SiswaResponse;
 import com.smk.presensi.entity.Kelas;
 import com.smk.presensi.entity.Siswa;
 import com.smk.presensi.repository.KelasRepository;
 import com.smk.presensi.repository.SiswaRepository;
+import com.smk.presensi.util.PageCursor;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
@@ -107,6 +109,32 @@ public class SiswaService {
                 .toList();
     }
 
+    /**
+     * FIND PAGE - Satu halaman siswa (keyset by id) dengan filter server-side.
+     *
+     * Beda dengan findAll():
+     * - findAll() load SEMUA siswa → makin lambat setiap angkatan baru masuk
+     * - findPage() hanya load "size" baris setelah cursor → waktu respon konstan
+     *
+     * @param cursor     nextCursor dari halaman sebelumnya (null = halaman pertama)
+     * @param size       Ukuran halaman (default 50, maks 500)
+     * @param kelas      Filter nama kelas, contoh "XII RPL 1" (opsional)
+     * @param namaPrefix Awalan nama atau NIS, case-insensitive (opsional)
+     */
+    public CursorPage<SiswaResponse> findPage(String cursor, Integer size, String kelas, String namaPrefix) {
+        PageCursor position = PageCursor.decode(cursor);
+        int limit = PageCursor.limit(size);
+        List<SiswaResponse> rows = siswaRepository.findPage(
+                        position.idOrZero(),
+                        kelas != null && !kelas.isBlank() ? kelas : null,
+                        PageCursor.likePrefix(namaPrefix),
+                        PageCursor.fetch(limit))
+                .stream()
+                .map(this::toResponse)
+                .toList();
+        return CursorPage.of(rows, limit, s -> PageCursor.encode(s.id()));
+    }
+
     /**
      * Cari siswa berdasarkan ID.
      * 
@@ -549,7 +577,7 @@ public class SiswaService {
      * @param siswa Entity Siswa yang mau diconvert
      * @return SiswaResponse (DTO) berisi data siswa untuk dikirim ke client
      */
-    private SiswaResponse toResponse(Siswa siswa) {
+    SiswaResponse toResponse(Siswa siswa) {
         return new SiswaResponse(
             siswa.getId(),
             siswa.getNis(),
@@ -0,0 +1,63 @@
+package com.smk.presensi.service;
+
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * TABLE VERSIONS - Counter perubahan per tabel (di memory), dasar ETag.
+ *
+ * Setiap insert/update/delete entity yang dilacak menaikkan counter tabelnya
+ * setelah commit (ResourceVersionEntityListener). Controller tidak perlu
+ * menghitung hash response: ETag cukup disusun dari counter tabel sumber,
+ * jadi request yang datanya belum berubah dijawab 304 tanpa query database.
+ *
+ * Counter hilang saat restart, karena itu setiap ETag diawali epoch (waktu
+ * startup): ETag dari proses sebelumnya tidak akan pernah cocok.
+ * Asumsi: satu instance backend (sama seperti AttendanceEventBus).
+ */
+@Service
+public class TableVersions {
+
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    // Naik setiap bumpAll(): juga mengubah tag tabel yang counternya belum pernah naik
+    private final AtomicLong generation = new AtomicLong();
+    private final Map<Class<?>, AtomicLong> versions = new ConcurrentHashMap<>();
+
+    /**
+     * Tabel entity ini berubah (panggil setelah commit)
+     */
+    public void bump(Class<?> entity) {
+        versions.computeIfAbsent(entity, key -> new AtomicLong()).incrementAndGet();
+    }
+
+    /**
+     * Semua tabel yang dilacak dianggap berubah (mis. data diubah langsung di database)
+     */
+    public void bumpAll() {
+        generation.incrementAndGet();
+    }
+
+    public long get(Class<?> entity) {
+        AtomicLong version = versions.get(entity);
+        return version != null ? version.get() : 0L;
+    }
+
+    /**
+     * Tag gabungan untuk resource yang dibangun dari beberapa tabel, mis. "lq2x1k.0-3.17"
+     */
+    public String tag(Iterable<Class<?>> entities) {
+        StringBuilder tag = new StringBuilder(epoch).append('.').append(generation.get()).append('-');
+        boolean first = true;
+        for (Class<?> entity : entities) {
+            if (!first) {
+                tag.append('.');
+            }
+            tag.append(get(entity));
+            first = false;
+        }
+        return tag.toString();
+    }
+}
@@ -1,11 +1,13 @@
 package com.smk.presensi.service;
 
+import com.smk.presensi.dto.CursorPage;
 import com.smk.presensi.dto.UserRequest;
 import com.smk.presensi.dto.UserResponse;
 import com.smk.presensi.entity.Role;
 import com.smk.presensi.entity.User;
 import com.smk.presensi.repository.RoleRepository;
 import com.smk.presensi.repository.UserRepository;
+import com.smk.presensi.util.PageCursor;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
@@ -41,6 +43,22 @@ public class UserService {
                 .toList();
     }
     
+    /**
+     * Get one page of users (keyset by id), optionally filtered by username prefix.
+     */
+    public CursorPage<UserResponse> findPage(String cursor, Integer size, String usernamePrefix) {
+        PageCursor position = PageCursor.decode(cursor);
+        int limit = PageCursor.limit(size);
+        List<Long> ids = userRepository.findPageIds(position.idOrZero(),
+                PageCursor.likePrefix(usernamePrefix), PageCursor.fetch(limit));
+        List<UserResponse> rows = ids.isEmpty()
+                ? List.of()
+                : userRepository.findAllWithRolesByIdIn(ids).stream()
+                        .map(this::toResponse)
+                        .toList();
+        return CursorPage.of(rows, limit, u -> PageCursor.encode(u.id()));
+    }
+    
     /**
      * Get user by ID
      */
@@ -0,0 +1,30 @@
+package com.smk.presensi.util;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Helper untuk menjalankan kode SETELAH transaksi commit.
+ *
+ * Dipakai entity listener untuk update cache in-memory: jika transaksi
+ * di-rollback, cache tidak ikut berubah. Jika tidak ada transaksi aktif,
+ * action langsung dijalankan.
+ */
+public class AfterCommit {
+
+    private AfterCommit() {
+    }
+
+    public static void run(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
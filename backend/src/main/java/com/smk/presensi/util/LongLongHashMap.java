@@ -0,0 +1,181 @@
+package com.smk.presensi.util;
+
+import java.util.Arrays;
+
+/**
+ * Hash map primitive long → long (open addressing, linear probing).
+ *
+ * Dibanding HashMap&lt;Long, Long&gt;:
+ * - Tidak ada boxing (Long object) per entry
+ * - Tidak ada objek Node per entry → jauh lebih hemat memory dan GC
+ *
+ * Batasan:
+ * - Key 0 tidak boleh dipakai (0 = slot kosong). ID database selalu > 0.
+ * - TIDAK thread-safe; pemanggil yang harus mengatur locking.
+ */
+public class LongLongHashMap {
+
+    private static final long EMPTY = 0L;
+    private static final float LOAD_FACTOR = 0.6f;
+
+    private long[] keys;
+    private long[] values;
+    private int size;
+    private int mask;
+    private int resizeAt;
+
+    public LongLongHashMap() {
+        this(16);
+    }
+
+    public LongLongHashMap(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(4, (int) (expectedSize / LOAD_FACTOR)) - 1) << 1;
+        allocate(capacity);
+    }
+
+    /**
+     * Ambil value, atau defaultValue jika key tidak ada.
+     */
+    public long get(long key, long defaultValue) {
+        checkKey(key);
+        int slot = slot(key);
+        while (true) {
+            long current = keys[slot];
+            if (current == EMPTY) {
+                return defaultValue;
+            }
+            if (current == key) {
+                return values[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    public boolean containsKey(long key) {
+        checkKey(key);
+        int slot = slot(key);
+        while (true) {
+            long current = keys[slot];
+            if (current == EMPTY) {
+                return false;
+            }
+            if (current == key) {
+                return true;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    /**
+     * Simpan key → value (replace jika sudah ada).
+     */
+    public void put(long key, long value) {
+        checkKey(key);
+        int slot = slot(key);
+        while (true) {
+            long current = keys[slot];
+            if (current == EMPTY) {
+                keys[slot] = key;
+                values[slot] = value;
+                if (++size >= resizeAt) {
+                    rehash(keys.length * 2);
+                }
+                return;
+            }
+            if (current == key) {
+                values[slot] = value;
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    /**
+     * Hapus key. Entry setelahnya digeser mundur supaya rantai probing tetap utuh
+     * (tanpa tombstone).
+     *
+     * @return true jika key ada dan dihapus
+     */
+    public boolean remove(long key) {
+        checkKey(key);
+        int slot = slot(key);
+        while (true) {
+            long current = keys[slot];
+            if (current == EMPTY) {
+                return false;
+            }
+            if (current == key) {
+                break;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        int gap = slot;
+        int next = (gap + 1) & mask;
+        while (keys[next] != EMPTY) {
+            int ideal = slot(keys[next]);
+            // Geser jika posisi ideal entry "next" tidak berada di antara gap dan next
+            boolean shift = gap <= next
+                    ? (ideal <= gap || ideal > next)
+                    : (ideal <= gap && ideal > next);
+            if (shift) {
+                keys[gap] = keys[next];
+                values[gap] = values[next];
+                gap = next;
+            }
+            next = (next + 1) & mask;
+        }
+        keys[gap] = EMPTY;
+        values[gap] = 0L;
+        size--;
+        return true;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        Arrays.fill(keys, EMPTY);
+        Arrays.fill(values, 0L);
+        size = 0;
+    }
+
+    private int slot(long key) {
+        // Mix bit (fmix64 dari MurmurHash3) supaya ID berurutan tersebar rata
+        long h = key;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        return (int) h & mask;
+    }
+
+    private void rehash(int capacity) {
+        long[] oldKeys = keys;
+        long[] oldValues = values;
+        allocate(capacity);
+        size = 0;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) {
+                put(oldKeys[i], oldValues[i]);
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new long[capacity];
+        mask = capacity - 1;
+        resizeAt = (int) (capacity * LOAD_FACTOR);
+    }
+
+    private static void checkKey(long key) {
+        if (key == EMPTY) {
+            throw new IllegalArgumentException("Key 0 tidak didukung");
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.smk.presensi.util;
+
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Base64;
+
+/**
+ * Cursor untuk KEYSET PAGINATION (seek method).
+ *
+ * Kenapa bukan OFFSET?
+ * - OFFSET 100000 = database tetap membaca lalu membuang 100000 baris
+ * - Keyset = "lanjutkan SETELAH baris terakhir" → WHERE (tanggal, id) &lt; (?, ?)
+ *   Biaya per halaman konstan, tidak peduli sudah berapa tahun datanya
+ *
+ * Dua bentuk cursor:
+ * - (tanggal, id) untuk data berurutan tanggal TERBARU dulu (presensi, izin, koreksi, jurnal)
+ * - (id) saja untuk data master berurutan id (siswa, user, jadwal)
+ *
+ * Di client, cursor hanyalah string opaque: ambil nextCursor dari response,
+ * kirim balik sebagai ?cursor= untuk halaman berikutnya.
+ */
+public record PageCursor(LocalDate tanggal, Long id) {
+
+    public static final int DEFAULT_SIZE = 50;
+    public static final int MAX_SIZE = 500;
+
+    /**
+     * Batas tanggal default untuk filter rentang yang tidak diisi.
+     */
+    public static final LocalDate MIN_TANGGAL = LocalDate.of(2000, 1, 1);
+    public static final LocalDate MAX_TANGGAL = LocalDate.of(9999, 12, 31);
+
+    private static final PageCursor FIRST = new PageCursor(null, null);
+
+    /**
+     * Decode cursor dari client. Null/kosong = halaman pertama.
+     *
+     * @throws ResponseStatusException 400 jika cursor rusak/bukan buatan server
+     */
+    public static PageCursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return FIRST;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.indexOf('_');
+            if (separator < 0) {
+                return new PageCursor(null, Long.parseLong(raw));
+            }
+            return new PageCursor(LocalDate.parse(raw.substring(0, separator)),
+                    Long.parseLong(raw.substring(separator + 1)));
+        } catch (RuntimeException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Cursor tidak valid", e);
+        }
+    }
+
+    public static String encode(LocalDate tanggal, Long id) {
+        return encodeRaw(tanggal + "_" + id);
+    }
+
+    public static String encode(Long id) {
+        return encodeRaw(String.valueOf(id));
+    }
+
+    /**
+     * Ukuran halaman: default 50, maksimal 500.
+     */
+    public static int limit(Integer size) {
+        if (size == null || size <= 0) {
+            return DEFAULT_SIZE;
+        }
+        return Math.min(size, MAX_SIZE);
+    }
+
+    /**
+     * Ambil limit + 1 baris: baris ekstra hanya untuk tahu apakah masih ada halaman berikutnya.
+     */
+    public static Pageable fetch(int limit) {
+        return PageRequest.of(0, limit + 1);
+    }
+
+    /**
+     * Pola LIKE untuk filter prefix (case-insensitive), atau null jika tidak difilter.
+     * Karakter % dan _ dari input di-escape dengan '\'.
+     */
+    public static String likePrefix(String prefix) {
+        if (prefix == null || prefix.isBlank()) {
+            return null;
+        }
+        String escaped = prefix.trim().toLowerCase()
+                .replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_");
+        return escaped + "%";
+    }
+
+    /**
+     * Batas atas tanggal untuk urutan DESC (halaman pertama = tanpa batas).
+     */
+    public LocalDate tanggalOrMax() {
+        return tanggal != null ? tanggal : MAX_TANGGAL;
+    }
+
+    /**
+     * Batas atas id untuk urutan DESC.
+     */
+    public long idOrMax() {
+        return id != null ? id : Long.MAX_VALUE;
+    }
+
+    /**
+     * Batas bawah id untuk urutan ASC.
+     */
+    public long idOrZero() {
+        return id != null ? id : 0L;
+    }
+
+    private static String encodeRaw(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
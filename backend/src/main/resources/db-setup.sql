@@ -24,3 +24,26 @@ GRANT ALL ON SCHEMA public TO postgres;
 -- Note: 
 -- Tables akan dibuat otomatis oleh Hibernate dengan ddl-auto=update
 -- Tidak perlu create tables manual
+
+-- 4. Upgrade database lama: unique constraint presensi (user_id, tanggal)
+-- Hibernate (ddl-auto=update) GAGAL menambah uk_presensi_user_tanggal jika
+-- masih ada presensi ganda. Hapus duplikat dulu (simpan ID terkecil):
+--
+-- DELETE FROM presensi p
+-- USING presensi older
+-- WHERE p.user_id = older.user_id
+--   AND p.tanggal = older.tanggal
+--   AND p.id > older.id;
+--
+-- ALTER TABLE presensi
+--     ADD CONSTRAINT uk_presensi_user_tanggal UNIQUE (user_id, tanggal);
+
+-- 5. Upgrade database lama: id presensi dari sequence per blok 50
+-- Tidak perlu dijalankan manual: db/presensi-sequence.sql dijalankan otomatis
+-- setiap startup (spring.sql.init) sebelum Hibernate start. Isinya:
+--
+-- CREATE SEQUENCE IF NOT EXISTS presensi_id_seq INCREMENT BY 50;
+-- ALTER SEQUENCE presensi_id_seq INCREMENT BY 50;
+--
+-- Tanpa ini Hibernate gagal start di database lama (presensi_id_seq INCREMENT 1,
+-- sedangkan allocationSize = 50).
@@ -0,0 +1,10 @@
+-- Sequence id presensi (dijalankan setiap startup, SEBELUM Hibernate start)
+--
+-- Presensi mengambil id per blok 50 (@SequenceGenerator allocationSize = 50),
+-- jadi INCREMENT sequence harus 50. Database lama memakai kolom IDENTITY dengan
+-- presensi_id_seq INCREMENT 1 → Hibernate menolak start (increment size mismatch).
+--
+-- Database baru: sequence dibuat di sini, Hibernate (ddl-auto=update) tidak membuatnya lagi.
+-- Database lama: INCREMENT diubah ke 50; nilai terakhir tetap, id lama tidak bentrok.
+CREATE SEQUENCE IF NOT EXISTS presensi_id_seq INCREMENT BY 50;
+ALTER SEQUENCE presensi_id_seq INCREMENT BY 50;
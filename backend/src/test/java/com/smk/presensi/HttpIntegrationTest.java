@@ -0,0 +1,54 @@
+package com.smk.presensi;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Base class test lewat HTTP sungguhan (server di port acak, security lengkap).
+ *
+ * Semua subclass memakai konfigurasi yang sama → satu context Spring bersama.
+ *
+ * AutoConfigureObservability: tanpa ini @SpringBootTest mematikan export
+ * metrics (registry Prometheus tidak dibuat, /actuator/prometheus 404).
+ */
+@AutoConfigureObservability(tracing = false)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "management.server.port=0")
+public abstract class HttpIntegrationTest extends PostgresIntegrationTest {
+
+    @Autowired
+    protected TestRestTemplate rest;
+
+    /**
+     * Login, return JWT
+     */
+    protected String login(String username, String password) {
+        ResponseEntity<Map<String, Object>> response = rest.exchange("/api/auth/login", HttpMethod.POST,
+                new HttpEntity<>(Map.of("username", username, "password", password)),
+                new ParameterizedTypeReference<>() {});
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        return (String) response.getBody().get("token");
+    }
+
+    protected <T> ResponseEntity<T> get(String url, String token, Class<T> type) {
+        return rest.exchange(url, HttpMethod.GET, new HttpEntity<>(bearer(token)), type);
+    }
+
+    protected static HttpHeaders bearer(String token) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setBearerAuth(token);
+        return headers;
+    }
+}
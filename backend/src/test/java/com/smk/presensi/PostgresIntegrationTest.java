@@ -0,0 +1,97 @@
+package com.smk.presensi;
+
+import com.smk.presensi.entity.Siswa;
+import com.smk.presensi.entity.User;
+import com.smk.presensi.repository.SiswaRepository;
+import com.smk.presensi.repository.UserRepository;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Base class integration test: context Spring lengkap di atas PostgreSQL embedded.
+ *
+ * Bukan H2: jalur checkin memakai SQL khusus PostgreSQL (INSERT ... ON CONFLICT
+ * ... RETURNING, nextval, EXTRACT(EPOCH ...)). Satu server PostgreSQL dipakai
+ * bersama oleh semua test dalam satu JVM; context Spring di-cache seperti biasa,
+ * jadi test yang memakai context yang sama harus memakai user/tanggal sendiri.
+ */
+@SpringBootTest
+public abstract class PostgresIntegrationTest {
+
+    private static EmbeddedPostgres postgres;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private SiswaRepository siswaRepository;
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> jdbcUrl("postgres"));
+        registry.add("spring.datasource.username", () -> "postgres");
+        registry.add("spring.datasource.password", () -> "postgres");
+    }
+
+    /**
+     * Server PostgreSQL embedded (dibuat sekali, berhenti saat JVM selesai)
+     */
+    protected static synchronized EmbeddedPostgres postgres() {
+        if (postgres == null) {
+            try {
+                postgres = EmbeddedPostgres.builder().start();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Embedded PostgreSQL gagal start", e);
+            }
+            EmbeddedPostgres started = postgres;
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                try {
+                    started.close();
+                } catch (IOException ignored) {
+                    // JVM sedang berhenti
+                }
+            }));
+        }
+        return postgres;
+    }
+
+    protected static String jdbcUrl(String database) {
+        return postgres().getJdbcUrl("postgres", database) + "&reWriteBatchedInserts=true";
+    }
+
+    /**
+     * Buat database baru yang kosong (test yang butuh skema sendiri)
+     */
+    protected static void createDatabase(String database) {
+        try (Connection connection = postgres().getPostgresDatabase().getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.execute("CREATE DATABASE " + database);
+        } catch (SQLException e) {
+            throw new IllegalStateException("Gagal membuat database " + database, e);
+        }
+    }
+
+    /**
+     * Siswa baru dengan akun login & kartu RFID = nis
+     */
+    protected Siswa createSiswa(String nis, String kelas, String jurusan) {
+        User user = userRepository.save(new User("s" + nis, "s" + nis + "@test.local", "-"));
+        Siswa siswa = new Siswa();
+        siswa.setNis(nis);
+        siswa.setNama("Siswa " + nis);
+        siswa.setKelas(kelas);
+        siswa.setJurusan(jurusan);
+        siswa.setRfidCardId(nis);
+        siswa.setUser(user);
+        return siswaRepository.save(siswa);
+    }
+}
@@ -1,10 +1,8 @@
 package com.smk.presensi;
 
 import org.junit.jupiter.api.Test;
-import org.springframework.boot.test.context.SpringBootTest;
 
-@SpringBootTest
-class PresensiApplicationTests {
+class PresensiApplicationTests extends PostgresIntegrationTest {
 
     @Test
     void contextLoads() {
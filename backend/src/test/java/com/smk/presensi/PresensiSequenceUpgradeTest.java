@@ -0,0 +1,151 @@
+package com.smk.presensi;
+
+import com.smk.presensi.entity.Presensi;
+import com.smk.presensi.entity.User;
+import com.smk.presensi.enums.MethodPresensi;
+import com.smk.presensi.enums.StatusPresensi;
+import com.smk.presensi.enums.TipeUser;
+import com.smk.presensi.repository.PresensiRepository;
+import com.smk.presensi.repository.UserRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.id.IdentifierGeneratorHelper;
+import org.hibernate.id.IntegralDataTypeHolder;
+import org.hibernate.id.enhanced.AccessCallback;
+import org.hibernate.id.enhanced.InitialValueAwareOptimizer;
+import org.hibernate.id.enhanced.Optimizer;
+import org.hibernate.id.enhanced.PooledLoOptimizer;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Startup di database lama: presensi.id masih IDENTITY (presensi_id_seq INCREMENT 1).
+ *
+ * Hibernate menolak start jika INCREMENT sequence beda dengan allocationSize,
+ * jadi db/presensi-sequence.sql harus sudah mengubahnya sebelum Hibernate start.
+ *
+ * Juga: blok id Hibernate tidak pernah bentrok dengan nextval mentah dari
+ * insertCheckinIfAbsent, termasuk di sequence yang masih baru.
+ *
+ * Database sendiri (bukan milik PostgresIntegrationTest) → second-level/query cache
+ * dimatikan: cache JCache dipakai bersama semua context dalam satu JVM dan masih
+ * berisi data (mis. Role) dari database test lain.
+ */
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.cache.use_second_level_cache=false",
+        "spring.jpa.properties.hibernate.cache.use_query_cache=false"
+})
+class PresensiSequenceUpgradeTest {
+
+    private static final String DATABASE = "presensi_legacy_sequence";
+
+    @DynamicPropertySource
+    static void legacyDatabase(DynamicPropertyRegistry registry) {
+        PostgresIntegrationTest.createDatabase(DATABASE);
+        String url = PostgresIntegrationTest.jdbcUrl(DATABASE);
+        try (Connection connection = DriverManager.getConnection(url, "postgres", "postgres");
+             Statement statement = connection.createStatement()) {
+            // Skema sebelum sequence per blok: kolom IDENTITY, sudah ada 1000 id terpakai
+            statement.execute("CREATE TABLE presensi (id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY)");
+            statement.execute("SELECT setval('presensi_id_seq', 1000)");
+        } catch (SQLException e) {
+            throw new IllegalStateException("Gagal menyiapkan skema lama", e);
+        }
+        registry.add("spring.datasource.url", () -> url);
+        registry.add("spring.datasource.username", () -> "postgres");
+        registry.add("spring.datasource.password", () -> "postgres");
+    }
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PresensiRepository presensiRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void startsAndContinuesAfterExistingIds() {
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT increment_by FROM pg_sequences WHERE sequencename = 'presensi_id_seq'", Long.class))
+                .isEqualTo(50L);
+
+        User user = userRepository.save(new User("seqlama", "seqlama@test.local", "-"));
+        Presensi presensi = new Presensi();
+        presensi.setUser(user);
+        presensi.setTipe(TipeUser.GURU);
+        presensi.setTanggal(LocalDate.now());
+        presensi.setJamMasuk(LocalTime.of(7, 0));
+        presensi.setStatus(StatusPresensi.HADIR);
+        presensi.setMethod(MethodPresensi.MANUAL);
+
+        assertThat(presensiRepository.save(presensi).getId()).isGreaterThan(1000L);
+    }
+
+    /**
+     * Sequence baru (START 1): nextval mentah (tap native) terjadi di antara
+     * pengambilan nilai sequence oleh optimizer Hibernate. Dengan pooled-lo
+     * setiap nilai sequence = awal blok miliknya sendiri, jadi id tap tidak
+     * pernah ada di blok Hibernate.
+     */
+    @Test
+    void freshSequenceBlocksNeverContainNativeIds() throws Exception {
+        jdbcTemplate.execute("CREATE SEQUENCE presensi_fresh_seq START 1 INCREMENT 50");
+        Optimizer configured = ((SequenceStyleGenerator) entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getMappingMetamodel().getEntityDescriptor(Presensi.class).getGenerator()).getOptimizer();
+        assertThat(configured).isInstanceOf(PooledLoOptimizer.class);
+        // Optimizer yang sama seperti Presensi.id, tapi dengan state baru (sequence baru)
+        Optimizer optimizer = configured.getClass().getConstructor(Class.class, int.class)
+                .newInstance(Long.class, configured.getIncrementSize());
+        if (optimizer instanceof InitialValueAwareOptimizer initialValueAware) {
+            initialValueAware.injectInitialValue(1);
+        }
+
+        Set<Long> nativeIds = new HashSet<>();
+        AccessCallback sequence = new AccessCallback() {
+            @Override
+            public IntegralDataTypeHolder getNextValue() {
+                IntegralDataTypeHolder value = IdentifierGeneratorHelper.getIntegralDataTypeHolder(Long.class);
+                value.initialize(nextval());
+                // Tap native di gate lain, tepat setelah Hibernate mengambil nilai
+                nativeIds.add(nextval());
+                return value;
+            }
+
+            @Override
+            public String getTenantIdentifier() {
+                return null;
+            }
+        };
+
+        Set<Long> hibernateIds = new HashSet<>();
+        for (int i = 0; i < 200; i++) {
+            assertThat(hibernateIds.add(((Number) optimizer.generate(sequence)).longValue())).isTrue();
+        }
+        assertThat(hibernateIds).doesNotContainAnyElementsOf(nativeIds);
+    }
+
+    private long nextval() {
+        return jdbcTemplate.queryForObject("SELECT nextval('presensi_fresh_seq')", Long.class);
+    }
+}
@@ -0,0 +1,100 @@
+package com.smk.presensi.config;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.system.JavaVersion;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.Semaphore;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * JdbcConcurrencyLimiter: permit per koneksi, identitas proxy Connection, dan
+ * hanya aktif jika virtual thread benar-benar aktif.
+ */
+class JdbcConcurrencyLimiterTest {
+
+    private final DataSource target = mock(DataSource.class);
+    private final Semaphore permits = new Semaphore(2, true);
+
+    private JdbcConcurrencyLimiter.LimitedDataSource limited;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        when(target.getConnection()).then(invocation -> mock(Connection.class));
+        limited = new JdbcConcurrencyLimiter.LimitedDataSource(target, permits, 50);
+    }
+
+    @Test
+    void proxyEqualsAndHashCodeUseProxyIdentity() throws SQLException {
+        Connection raw = mock(Connection.class);
+        when(target.getConnection()).thenReturn(raw);
+
+        Connection first = limited.getConnection();
+        Connection second = limited.getConnection();
+
+        assertThat(first.equals(first)).isTrue();
+        assertThat(first.equals(second)).isFalse();
+        assertThat(first.equals(raw)).isFalse();
+        assertThat(first.hashCode()).isEqualTo(System.identityHashCode(first));
+
+        Set<Connection> holders = new HashSet<>();
+        holders.add(first);
+        assertThat(holders).contains(first).doesNotContain(second);
+    }
+
+    @Test
+    void closeReleasesPermitOnce() throws SQLException {
+        Connection connection = limited.getConnection();
+        assertThat(limited.getAvailablePermits()).isEqualTo(1);
+
+        connection.close();
+        connection.close();
+
+        assertThat(limited.getAvailablePermits()).isEqualTo(2);
+        assertThat(connection.unwrap(Connection.class)).isSameAs(connection);
+    }
+
+    @Test
+    void failsFastWhenNoPermitLeft() throws SQLException {
+        limited.getConnection();
+        limited.getConnection();
+
+        assertThatThrownBy(limited::getConnection)
+                .isInstanceOf(SQLTransientConnectionException.class)
+                .hasMessageContaining("sibuk");
+        verify(target, times(2)).getConnection();
+    }
+
+    @Test
+    void permitReturnedWhenPoolFails() throws SQLException {
+        when(target.getConnection()).thenThrow(new SQLException("pool habis"));
+
+        assertThatThrownBy(limited::getConnection).hasMessage("pool habis");
+        assertThat(limited.getAvailablePermits()).isEqualTo(2);
+    }
+
+    @Test
+    void activeOnlyWithVirtualThreadsOnJava21() {
+        ApplicationContextRunner runner = new ApplicationContextRunner()
+                .withUserConfiguration(JdbcConcurrencyLimiter.class);
+        boolean java21 = JavaVersion.getJavaVersion().isEqualOrNewerThan(JavaVersion.TWENTY_ONE);
+
+        runner.run(context -> assertThat(context).doesNotHaveBean(JdbcConcurrencyLimiter.class));
+        runner.withPropertyValues("spring.threads.virtual.enabled=true")
+                .run(context -> assertThat(context.getBeansOfType(JdbcConcurrencyLimiter.class))
+                        .hasSize(java21 ? 1 : 0));
+    }
+}
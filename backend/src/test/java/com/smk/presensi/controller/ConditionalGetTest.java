@@ -0,0 +1,103 @@
+package com.smk.presensi.controller;
+
+import com.smk.presensi.HttpIntegrationTest;
+import com.smk.presensi.entity.Kelas;
+import com.smk.presensi.entity.Role;
+import com.smk.presensi.entity.User;
+import com.smk.presensi.repository.KelasRepository;
+import com.smk.presensi.repository.RoleRepository;
+import com.smk.presensi.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * ETag / 304 untuk endpoint referensi: 304 selama tabel sumber tidak berubah,
+ * dan tidak pernah 304 untuk user yang tidak lolos @PreAuthorize.
+ */
+class ConditionalGetTest extends HttpIntegrationTest {
+
+    @Autowired
+    private KelasRepository kelasRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Test
+    void notModifiedUntilSourceTableChanges() {
+        String token = login("admin", "admin123");
+
+        ResponseEntity<String> first = get("/api/kelas", token, String.class);
+        String etag = first.getHeaders().getETag();
+        ResponseEntity<String> revalidate = conditionalGet("/api/kelas", token, etag);
+
+        assertThat(first.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(etag).isNotBlank();
+        assertThat(first.getHeaders().getCacheControl()).contains("max-age=60");
+        assertThat(revalidate.getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+        assertThat(revalidate.getBody()).isNull();
+        // Weak ETag (setelah gzip) juga cocok
+        assertThat(conditionalGet("/api/kelas", token, "W/" + etag).getStatusCode())
+                .isEqualTo(HttpStatus.NOT_MODIFIED);
+
+        Kelas kelas = new Kelas();
+        kelas.setNama("X ET 1");
+        kelas.setTingkat("X");
+        kelas.setJurusan("RPL");
+        kelasRepository.save(kelas);
+
+        ResponseEntity<String> changed = conditionalGet("/api/kelas", token, etag);
+        assertThat(changed.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(changed.getHeaders().getETag()).isNotEqualTo(etag);
+        assertThat(changed.getBody()).contains("X ET 1");
+    }
+
+    @Test
+    void forbiddenUserNeverGetsNotModified() {
+        String adminToken = login("admin", "admin123");
+        String etag = get("/api/kelas", adminToken, String.class).getHeaders().getETag();
+
+        User siswa = new User("etagsiswa", "etagsiswa@test.local", passwordEncoder.encode("rahasia123"));
+        siswa.setRoles(Set.of(roleRepository.findByName(Role.RoleName.ROLE_SISWA).orElseThrow()));
+        userRepository.save(siswa);
+        String siswaToken = login("etagsiswa", "rahasia123");
+
+        ResponseEntity<String> response = conditionalGet("/api/kelas", siswaToken, etag);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.FORBIDDEN);
+        assertThat(response.getHeaders().getETag()).isNull();
+    }
+
+    @Test
+    void anonymousRequestIsRejectedBeforeEtag() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setIfNoneMatch("*");
+
+        ResponseEntity<String> response = rest.exchange("/api/kelas", HttpMethod.GET,
+                new HttpEntity<>(headers), String.class);
+
+        assertThat(response.getStatusCode().is4xxClientError()).isTrue();
+        assertThat(response.getStatusCode()).isNotEqualTo(HttpStatus.NOT_MODIFIED);
+    }
+
+    private ResponseEntity<String> conditionalGet(String url, String token, String etag) {
+        HttpHeaders headers = bearer(token);
+        headers.setIfNoneMatch(etag);
+        return rest.exchange(url, HttpMethod.GET, new HttpEntity<>(headers), String.class);
+    }
+}
@@ -0,0 +1,109 @@
+package com.smk.presensi.controller;
+
+import com.smk.presensi.HttpIntegrationTest;
+import com.smk.presensi.dto.presensi.PresensiResponse;
+import com.smk.presensi.entity.Siswa;
+import com.smk.presensi.repository.PresensiRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Event live SSE lewat HTTP sungguhan.
+ */
+class EventStreamControllerTest extends HttpIntegrationTest {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private PresensiRepository presensiRepository;
+
+    /**
+     * Checkin RFID memakai INSERT native (tanpa entity listener) → event CHECKIN tetap dikirim
+     */
+    @Test
+    void nativeCheckinIsPublished() throws Exception {
+        Siswa siswa = createSiswa("EVT1401", "XII RPL 1", "RPL");
+        String token = login("admin", "admin123");
+
+        HttpResponse<Stream<String>> stream = HttpClient.newHttpClient().send(HttpRequest.newBuilder(
+                        URI.create("http://localhost:" + port + "/api/events/presensi?kelas=XII%20RPL%201"))
+                        .header("Authorization", "Bearer " + token)
+                        .timeout(Duration.ofSeconds(30))
+                        .build(),
+                HttpResponse.BodyHandlers.ofLines());
+        assertThat(stream.statusCode()).isEqualTo(200);
+
+        try (Stream<String> lines = stream.body()) {
+            Iterator<String> iterator = lines.iterator();
+            // Snapshot counter dikirim dulu → subscriber sudah terdaftar sebelum checkin
+            assertThat(nextData(iterator, "counters")).isNotNull();
+
+            ResponseEntity<PresensiResponse> checkin = rest.postForEntity("/api/presensi/rfid/checkin",
+                    Map.of("rfidCardId", siswa.getRfidCardId()), PresensiResponse.class);
+            assertThat(checkin.getStatusCode()).isEqualTo(HttpStatus.OK);
+
+            String data = nextData(iterator, "CHECKIN");
+            assertThat(data)
+                    .contains("\"presensiId\":" + checkin.getBody().id())
+                    .contains("\"userId\":" + siswa.getUser().getId())
+                    .contains("\"method\":\"RFID\"")
+                    .contains("\"kelas\":\"XII RPL 1\"")
+                    // Counter tidak menghitung checkin ini dua kali (load counter + event)
+                    .contains("\"total\":" + presensiRepository.countByTanggalBetween(LocalDate.now(), LocalDate.now()));
+        }
+    }
+
+    @Test
+    void streamRequiresLogin() {
+        assertThat(rest.getForEntity("/api/events/presensi", String.class).getStatusCode().is4xxClientError())
+                .isTrue();
+    }
+
+    /**
+     * Dispatch ASYNC streaming export tidak di-permitAll, tapi tetap lolos
+     * karena authentication dari request awal disimpan di atribut request
+     */
+    @Test
+    void streamingExportStillAuthorizedOnAsyncDispatch() {
+        ResponseEntity<byte[]> export = get("/api/export/presensi", login("admin", "admin123"), byte[].class);
+
+        assertThat(export.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(export.getBody()).isNotEmpty();
+    }
+
+    /**
+     * Baris "data:" dari event SSE berikutnya dengan nama tertentu (maks. 10 detik)
+     */
+    private static String nextData(Iterator<String> lines, String eventName) throws Exception {
+        return CompletableFuture.supplyAsync(() -> {
+            boolean inEvent = false;
+            while (lines.hasNext()) {
+                String line = lines.next();
+                if (line.startsWith("event:")) {
+                    inEvent = line.substring(6).trim().equals(eventName);
+                } else if (inEvent && line.startsWith("data:")) {
+                    return line.substring(5).trim();
+                }
+            }
+            return null;
+        }).get(10, TimeUnit.SECONDS);
+    }
+}
@@ -0,0 +1,81 @@
+package com.smk.presensi.controller;
+
+import com.smk.presensi.HttpIntegrationTest;
+import com.smk.presensi.dto.presensi.PresensiResponse;
+import com.smk.presensi.entity.Siswa;
+import com.smk.presensi.repository.SiswaRepository;
+import com.smk.presensi.service.FaceEmbeddingIndex;
+import com.smk.presensi.service.FaceRecognitionService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Top-k cosine dari FaceEmbeddingIndex hanya urutan cek: wajah yang lolos
+ * threshold Levenshtein tetap dikenali walaupun di luar top-k.
+ */
+class FaceCheckinFallbackTest extends HttpIntegrationTest {
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    @Autowired
+    private FaceRecognitionService faceRecognitionService;
+
+    @Autowired
+    private FaceEmbeddingIndex faceEmbeddingIndex;
+
+    @Autowired
+    private SiswaRepository siswaRepository;
+
+    @Test
+    void matchOutsideTopCandidatesIsRecognized() {
+        byte[] image = new byte[2048];
+        Arrays.fill(image, (byte) 'F');
+        String imageBase64 = Base64.getEncoder().encodeToString(image);
+        String probe = faceRecognitionService.generateFaceEncoding(imageBase64);
+
+        // Geser satu karakter: jarak Levenshtein 2 (lolos), cosine rendah
+        Siswa pemilik = enroll(createSiswa("FC0101", "XII RPL 1", "RPL"),
+                probe.substring(1) + probe.charAt(0));
+        // Setiap karakter beda tipis: cosine tinggi, jarak Levenshtein jauh (tidak lolos)
+        for (int i = 0; i < 5; i++) {
+            String mirip = nearby(probe, i);
+            assertThat(faceRecognitionService.isMatch(probe, mirip)).isFalse();
+            enroll(createSiswa("FC010" + (i + 2), "XII RPL 1", "RPL"), mirip);
+        }
+        assertThat(faceRecognitionService.isMatch(probe, pemilik.getFaceEncoding())).isTrue();
+        assertThat(faceEmbeddingIndex.search(probe, 5)).extracting(FaceEmbeddingIndex.Candidate::entityId)
+                .doesNotContain(pemilik.getId());
+
+        ResponseEntity<PresensiResponse> response = rest.postForEntity("/api/presensi/face/checkin",
+                Map.of("imageBase64", imageBase64), PresensiResponse.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody().userId()).isEqualTo(pemilik.getUser().getId());
+    }
+
+    private Siswa enroll(Siswa siswa, String encoding) {
+        siswa.setFaceEncoding(encoding);
+        return siswaRepository.save(siswa);
+    }
+
+    /**
+     * Semua karakter digeser satu nilai hex, kecuali posisi keep.
+     */
+    private static String nearby(String encoding, int keep) {
+        char[] result = encoding.toCharArray();
+        for (int i = 0; i < result.length; i++) {
+            if (i != keep) {
+                result[i] = HEX[Character.digit(result[i], 16) ^ 1];
+            }
+        }
+        return new String(result);
+    }
+}
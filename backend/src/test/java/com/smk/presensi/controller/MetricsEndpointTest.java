@@ -0,0 +1,88 @@
+package com.smk.presensi.controller;
+
+import com.smk.presensi.HttpIntegrationTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.web.server.LocalManagementPort;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Metrics lewat HTTP sungguhan: /api/admin/perf (port utama) dan Actuator
+ * di management port terpisah.
+ */
+class MetricsEndpointTest extends HttpIntegrationTest {
+
+    @LocalManagementPort
+    private int managementPort;
+
+    private String adminToken;
+
+    @BeforeEach
+    void setUp() {
+        adminToken = login("admin", "admin123");
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void perfSummaryReportsRejectedCheckinsAndReports() {
+        rest.postForEntity("/api/presensi/rfid/checkin", Map.of("rfidCardId", "TIDAK-ADA-01"), String.class);
+        assertThat(get("/api/laporan/statistik", adminToken, String.class).getStatusCode()).isEqualTo(HttpStatus.OK);
+
+        ResponseEntity<Map<String, Object>> response = rest.exchange("/api/admin/perf", HttpMethod.GET,
+                new HttpEntity<>(bearer(adminToken)), new ParameterizedTypeReference<>() {});
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        Map<String, Object> data = (Map<String, Object>) response.getBody().get("data");
+        assertThat((List<Map<String, Object>>) data.get("checkin")).anySatisfy(row -> assertThat(row)
+                .containsEntry("method", "RFID")
+                .containsEntry("outcome", "unknown_card"));
+        assertThat((List<Map<String, Object>>) data.get("report")).anySatisfy(row -> assertThat(row)
+                .containsEntry("report", "statistik")
+                .containsEntry("outcome", "ok")
+                .containsKeys("p95Ms", "p99Ms"));
+        assertThat((List<Map<String, Object>>) data.get("jwtFilter")).anySatisfy(row -> assertThat(row)
+                .containsEntry("outcome", "authenticated"));
+        assertThat((Map<String, Object>) data.get("pool")).containsKey("active");
+    }
+
+    @Test
+    void perfSummaryRequiresAdmin() {
+        assertThat(rest.getForEntity("/api/admin/perf", String.class).getStatusCode().is4xxClientError()).isTrue();
+    }
+
+    @Test
+    void prometheusScrapeIsOpenOnManagementPort() {
+        rest.postForEntity("/api/presensi/rfid/checkin", Map.of("rfidCardId", "TIDAK-ADA-02"), String.class);
+
+        ResponseEntity<String> scrape = rest.getForEntity(management("/actuator/prometheus"), String.class);
+
+        assertThat(scrape.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(scrape.getBody())
+                .contains("presensi_checkin_seconds_bucket")
+                .contains("outcome=\"unknown_card\"")
+                .contains("hikaricp_connections_active");
+    }
+
+    @Test
+    void metricsDetailRequiresAdmin() {
+        assertThat(rest.getForEntity(management("/actuator/metrics"), String.class).getStatusCode()
+                .is4xxClientError()).isTrue();
+        assertThat(get(management("/actuator/metrics"), adminToken, String.class).getStatusCode())
+                .isEqualTo(HttpStatus.OK);
+        assertThat(rest.getForEntity(management("/actuator/health"), String.class).getStatusCode())
+                .isEqualTo(HttpStatus.OK);
+    }
+
+    private String management(String path) {
+        return "http://localhost:" + managementPort + path;
+    }
+}
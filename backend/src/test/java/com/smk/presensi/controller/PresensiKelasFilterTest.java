@@ -0,0 +1,68 @@
+package com.smk.presensi.controller;
+
+import com.smk.presensi.HttpIntegrationTest;
+import com.smk.presensi.dto.presensi.PresensiResponse;
+import com.smk.presensi.entity.Kelas;
+import com.smk.presensi.entity.Siswa;
+import com.smk.presensi.repository.KelasRepository;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Filter kelasId di /api/presensi/page dan export: presensi siswa tidak
+ * menyimpan kelas, jadi filter harus lewat kelas siswanya.
+ */
+class PresensiKelasFilterTest extends HttpIntegrationTest {
+
+    @Autowired
+    private KelasRepository kelasRepository;
+
+    @Test
+    void kelasFilterMatchesSiswaCheckins() throws IOException {
+        Kelas kelas = new Kelas();
+        kelas.setNama("X KF 1");
+        kelas.setTingkat("X");
+        kelas.setJurusan("TKJ");
+        kelas = kelasRepository.save(kelas);
+        Siswa siswa = createSiswa("KF0101", kelas.getNama(), "TKJ");
+        createSiswa("KF0102", "X KF 2", "TKJ");
+        ResponseEntity<PresensiResponse> checkin = rest.postForEntity("/api/presensi/rfid/checkin",
+                Map.of("rfidCardId", siswa.getRfidCardId()), PresensiResponse.class);
+        assertThat(checkin.getStatusCode()).isEqualTo(HttpStatus.OK);
+        rest.postForEntity("/api/presensi/rfid/checkin", Map.of("rfidCardId", "KF0102"), PresensiResponse.class);
+        String token = login("admin", "admin123");
+
+        ResponseEntity<Map> page = get("/api/presensi/page?kelasId=" + kelas.getId(), token, Map.class);
+
+        assertThat(page.getStatusCode()).isEqualTo(HttpStatus.OK);
+        List<?> items = (List<?>) page.getBody().get("items");
+        assertThat(items).hasSize(1);
+        assertThat(((Map<?, ?>) items.get(0)).get("id")).isEqualTo(checkin.getBody().id().intValue());
+
+        ResponseEntity<byte[]> export = get("/api/export/presensi?kelasId=" + kelas.getId(), token, byte[].class);
+
+        assertThat(export.getStatusCode()).isEqualTo(HttpStatus.OK);
+        try (XSSFWorkbook workbook = new XSSFWorkbook(new ByteArrayInputStream(export.getBody()))) {
+            // Header + satu baris presensi
+            assertThat(workbook.getSheetAt(0).getPhysicalNumberOfRows()).isEqualTo(2);
+        }
+    }
+
+    @Test
+    void invalidCursorIsBadRequest() {
+        ResponseEntity<String> response = get("/api/presensi/page?cursor=bukan-cursor",
+                login("admin", "admin123"), String.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+    }
+}
@@ -0,0 +1,71 @@
+package com.smk.presensi.controller;
+
+import com.smk.presensi.HttpIntegrationTest;
+import com.smk.presensi.dto.presensi.PresensiResponse;
+import com.smk.presensi.entity.Kelas;
+import com.smk.presensi.entity.Siswa;
+import com.smk.presensi.repository.KelasRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Rollup presensi per kelas: presensi siswa tidak menyimpan kelas,
+ * jadi kelas diambil dari data siswa (delta setelah checkin dan rebuild).
+ */
+class RollupRebuildTest extends HttpIntegrationTest {
+
+    private static final String JUMLAH = "SELECT COALESCE(SUM(jumlah), 0) FROM presensi_daily_rollup "
+            + "WHERE tanggal = ? AND tipe = 'SISWA' AND kelas_id = ?";
+
+    @Autowired
+    private KelasRepository kelasRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void siswaCheckinIsRolledUpUnderSiswaKelas() {
+        Kelas kelas = new Kelas();
+        kelas.setNama("X RB 7");
+        kelas.setTingkat("X");
+        kelas.setJurusan("RPL");
+        kelas = kelasRepository.save(kelas);
+        Siswa siswa = createSiswa("RB0701", kelas.getNama(), "RPL");
+        LocalDate today = LocalDate.now();
+
+        ResponseEntity<PresensiResponse> checkin = rest.postForEntity("/api/presensi/rfid/checkin",
+                Map.of("rfidCardId", siswa.getRfidCardId()), PresensiResponse.class);
+        assertThat(checkin.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(jdbcTemplate.queryForObject(JUMLAH, Long.class, today, kelas.getId())).isEqualTo(1L);
+
+        ResponseEntity<Map<String, Object>> rebuild = rebuild(today, today);
+
+        assertThat(rebuild.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(jdbcTemplate.queryForObject(JUMLAH, Long.class, today, kelas.getId())).isEqualTo(1L);
+    }
+
+    @Test
+    void rebuildRejectsStartAfterEnd() {
+        LocalDate today = LocalDate.now();
+
+        ResponseEntity<Map<String, Object>> response = rebuild(today, today.minusDays(1));
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+    }
+
+    private ResponseEntity<Map<String, Object>> rebuild(LocalDate start, LocalDate end) {
+        return rest.exchange("/api/laporan/rollup/rebuild?start=" + start + "&end=" + end, HttpMethod.POST,
+                new HttpEntity<>(bearer(login("admin", "admin123"))), new ParameterizedTypeReference<>() {});
+    }
+}
@@ -0,0 +1,100 @@
+package com.smk.presensi.service;
+
+import com.smk.presensi.PostgresIntegrationTest;
+import com.smk.presensi.dto.presensi.AdminPresensiRequest;
+import com.smk.presensi.dto.presensi.PresensiSyncItem;
+import com.smk.presensi.dto.presensi.PresensiSyncResult;
+import com.smk.presensi.entity.Siswa;
+import com.smk.presensi.enums.MethodPresensi;
+import com.smk.presensi.enums.StatusPresensi;
+import com.smk.presensi.enums.SyncItemStatus;
+import com.smk.presensi.enums.TipeUser;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Bulk sync presensi offline: satu baris per user per hari, kirim ulang = ALREADY_SYNCED.
+ */
+class AdminPresensiSyncTest extends PostgresIntegrationTest {
+
+    private static final String COUNT = "SELECT COUNT(*) FROM presensi WHERE user_id = ? AND tanggal = ?";
+
+    @Autowired
+    private AdminPresensiService adminPresensiService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void resendingBatchIsIdempotent() {
+        Siswa a = createSiswa("BS1701", "XII RPL 2", "RPL");
+        Siswa b = createSiswa("BS1702", "XII RPL 2", "RPL");
+        LocalDate tanggal = LocalDate.now().minusDays(30);
+        List<PresensiSyncItem> batch = List.of(
+                item("bs-a", a.getUser().getId(), tanggal),
+                item("bs-b", b.getUser().getId(), tanggal),
+                item("bs-x", 999_999L, tanggal));
+
+        List<PresensiSyncResult> first = adminPresensiService.syncBulk(batch);
+        List<PresensiSyncResult> resend = adminPresensiService.syncBulk(batch);
+
+        assertThat(first).extracting(PresensiSyncResult::result)
+                .containsExactly(SyncItemStatus.CREATED, SyncItemStatus.CREATED, SyncItemStatus.INVALID);
+        assertThat(resend).extracting(PresensiSyncResult::result)
+                .containsExactly(SyncItemStatus.ALREADY_SYNCED, SyncItemStatus.ALREADY_SYNCED, SyncItemStatus.INVALID);
+        assertThat(resend.get(0).presensiId()).isEqualTo(first.get(0).presensiId());
+        assertThat(resend.get(1).presensiId()).isEqualTo(first.get(1).presensiId());
+        assertThat(jdbcTemplate.queryForObject(COUNT, Long.class, a.getUser().getId(), tanggal)).isEqualTo(1L);
+    }
+
+    @Test
+    void duplicateInsideBatchReportsWinningRow() {
+        Siswa siswa = createSiswa("BS1703", "XII RPL 2", "RPL");
+        Long userId = siswa.getUser().getId();
+        LocalDate tanggal = LocalDate.now().minusDays(31);
+
+        List<PresensiSyncResult> results = adminPresensiService.syncBulk(List.of(
+                item("bs-dup", userId, tanggal),
+                item("bs-dup", userId, tanggal),
+                item("bs-lain", userId, tanggal)));
+
+        Long id = results.get(0).presensiId();
+        assertThat(id).isNotNull();
+        assertThat(results.get(0).result()).isEqualTo(SyncItemStatus.CREATED);
+        assertThat(results.get(1).result()).isEqualTo(SyncItemStatus.ALREADY_SYNCED);
+        assertThat(results.get(1).presensiId()).isEqualTo(id);
+        assertThat(results.get(2).result()).isEqualTo(SyncItemStatus.CONFLICT);
+        assertThat(results.get(2).presensiId()).isEqualTo(id);
+        assertThat(results.get(2).existing().id()).isEqualTo(id);
+        assertThat(jdbcTemplate.queryForObject(COUNT, Long.class, userId, tanggal)).isEqualTo(1L);
+    }
+
+    @Test
+    void conflictWithServerRowCarriesServerCopy() {
+        Siswa siswa = createSiswa("BS1704", "XII RPL 2", "RPL");
+        Long userId = siswa.getUser().getId();
+        LocalDate tanggal = LocalDate.now().minusDays(32);
+        Long serverId = adminPresensiService.syncBulk(List.of(item("bs-server", userId, tanggal)))
+                .get(0).presensiId();
+
+        PresensiSyncResult result = adminPresensiService.syncBulk(List.of(item("bs-client", userId, tanggal))).get(0);
+
+        assertThat(result.result()).isEqualTo(SyncItemStatus.CONFLICT);
+        assertThat(result.presensiId()).isEqualTo(serverId);
+        assertThat(result.existing().userId()).isEqualTo(userId);
+        assertThat(result.message()).contains(tanggal.toString());
+    }
+
+    private static PresensiSyncItem item(String key, Long userId, LocalDate tanggal) {
+        return new PresensiSyncItem(key, new AdminPresensiRequest(userId, TipeUser.SISWA, tanggal,
+                LocalTime.of(7, 0), null, StatusPresensi.HADIR, MethodPresensi.MANUAL,
+                null, null, "offline", null, null, null));
+    }
+}
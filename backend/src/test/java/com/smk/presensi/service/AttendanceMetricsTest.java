@@ -0,0 +1,115 @@
+package com.smk.presensi.service;
+
+import com.smk.presensi.enums.MethodPresensi;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AttendanceMetricsTest {
+
+    private SimpleMeterRegistry registry;
+    private AttendanceMetrics metrics;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        metrics = new AttendanceMetrics(registry);
+    }
+
+    @Test
+    void checkinRejectionIsRecordedWithItsOutcome() {
+        assertThatThrownBy(() -> metrics.timeCheckin(MethodPresensi.RFID, () -> {
+            throw new CheckinRejectedException(AttendanceMetrics.OUTCOME_UNKNOWN_CARD, "Kartu RFID tidak terdaftar: X");
+        })).isInstanceOf(CheckinRejectedException.class);
+        metrics.timeCheckin(MethodPresensi.RFID, () -> "ok");
+
+        assertThat(checkinCount("RFID", AttendanceMetrics.OUTCOME_UNKNOWN_CARD)).isEqualTo(1);
+        assertThat(checkinCount("RFID", AttendanceMetrics.OUTCOME_OK)).isEqualTo(1);
+    }
+
+    @Test
+    void unexpectedCheckinFailureIsRecordedAsError() {
+        assertThatThrownBy(() -> metrics.timeCheckin(MethodPresensi.BARCODE, () -> {
+            throw new IllegalStateException("database mati");
+        })).isInstanceOf(IllegalStateException.class);
+
+        assertThat(checkinCount("BARCODE", AttendanceMetrics.OUTCOME_ERROR)).isEqualTo(1);
+    }
+
+    @Test
+    void failedReportIsStillTimed() {
+        assertThatThrownBy(() -> metrics.timeReport("bulanan", () -> {
+            throw new IllegalArgumentException("bulan tidak valid");
+        })).isInstanceOf(IllegalArgumentException.class);
+        metrics.timeReport("bulanan", () -> 1);
+
+        assertThat(registry.get("presensi.report").tags("report", "bulanan", "outcome", "error").timer().count())
+                .isEqualTo(1);
+        assertThat(registry.get("presensi.report").tags("report", "bulanan", "outcome", "ok").timer().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void faceMatchRecordsCandidatesOnlyWhenSearchRan() {
+        metrics.stopFaceMatch(metrics.start(), AttendanceMetrics.OUTCOME_NOT_RECOGNIZED, 5);
+        metrics.stopFaceMatch(metrics.start(), AttendanceMetrics.OUTCOME_ERROR, -1);
+
+        assertThat(registry.get("presensi.face.match").tag("outcome", "not_recognized").timer().count()).isEqualTo(1);
+        assertThat(registry.get("presensi.face.match").tag("outcome", "error").timer().count()).isEqualTo(1);
+        assertThat(registry.get("presensi.face.candidates").summary().count()).isEqualTo(1);
+        assertThat(registry.get("presensi.face.candidates").summary().totalAmount()).isEqualTo(5);
+    }
+
+    @Test
+    void failedExportRecordsDurationButNotSize() {
+        metrics.stopExport(metrics.start(), "siswa", AttendanceMetrics.OUTCOME_ERROR, -1, -1);
+        metrics.stopExport(metrics.start(), "siswa", AttendanceMetrics.OUTCOME_OK, 120, 4096);
+
+        assertThat(registry.get("presensi.export").tags("type", "siswa", "outcome", "error").timer().count())
+                .isEqualTo(1);
+        assertThat(registry.get("presensi.export.rows").tag("type", "siswa").summary().count()).isEqualTo(1);
+        assertThat(registry.get("presensi.export.size").tag("type", "siswa").summary().totalAmount())
+                .isEqualTo(4096);
+    }
+
+    @Test
+    void gateSampleCanBeStoppedOncePerScan() {
+        Timer.Sample sample = metrics.start();
+        metrics.stopCheckin(sample, MethodPresensi.RFID, AttendanceMetrics.SOURCE_GATE, AttendanceMetrics.OUTCOME_OK);
+        metrics.stopCheckin(sample, MethodPresensi.RFID, AttendanceMetrics.SOURCE_GATE,
+                AttendanceMetrics.OUTCOME_DUPLICATE);
+
+        assertThat(registry.get("presensi.checkin").tags("source", "gate").timers()).hasSize(2);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void summaryListsTimersWithTheirTags() {
+        metrics.timeCheckin(MethodPresensi.MANUAL, () -> "ok");
+
+        Map<String, Object> summary = metrics.summary();
+        List<Map<String, Object>> checkin = (List<Map<String, Object>>) summary.get("checkin");
+
+        assertThat(checkin).singleElement().satisfies(row -> {
+            assertThat(row).containsEntry("method", "MANUAL")
+                    .containsEntry("outcome", "ok")
+                    .containsEntry("source", "api")
+                    .containsEntry("count", 1L)
+                    .containsKeys("meanMs", "maxMs");
+        });
+        assertThat((Map<String, Object>) summary.get("pool")).containsKeys("active", "pending", "limiterWaiting");
+    }
+
+    private long checkinCount(String method, String outcome) {
+        return registry.get("presensi.checkin")
+                .tags("method", method, "outcome", outcome, "source", "api")
+                .timer().count();
+    }
+}
@@ -0,0 +1,125 @@
+package com.smk.presensi.service;
+
+import com.smk.presensi.PostgresIntegrationTest;
+import com.smk.presensi.dto.sync.SyncChange;
+import com.smk.presensi.dto.sync.SyncChangesResponse;
+import com.smk.presensi.entity.Kelas;
+import com.smk.presensi.enums.SyncEntityType;
+import com.smk.presensi.enums.SyncOperation;
+import com.smk.presensi.repository.KelasRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Change feed: urut row_version, paging dengan cursor, tombstone, horizon
+ * transaksi yang belum commit, dan jumlah query per halaman.
+ */
+class ChangeFeedServiceTest extends PostgresIntegrationTest {
+
+    private static final Set<SyncEntityType> KELAS = Set.of(SyncEntityType.KELAS);
+
+    @Autowired
+    private ChangeFeedService changeFeedService;
+
+    @Autowired
+    private RowVersionService rowVersionService;
+
+    @Autowired
+    private KelasRepository kelasRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void pagesThroughChangesAndTombstones() {
+        long since = rowVersionService.stableVersion();
+        Kelas a = kelas("X CF 1");
+        Kelas b = kelas("X CF 2");
+        Kelas c = kelas("X CF 3");
+        kelasRepository.delete(b);
+
+        SyncChangesResponse first = changeFeedService.getChanges(since, 2, KELAS);
+        SyncChangesResponse second = changeFeedService.getChanges(first.nextCursor(), 2, KELAS);
+
+        assertThat(first.hasMore()).isTrue();
+        assertThat(first.changes()).extracting(SyncChange::id).containsExactly(a.getId(), c.getId());
+        assertThat(first.nextCursor()).isEqualTo(first.changes().get(1).version());
+        assertThat(second.hasMore()).isFalse();
+        assertThat(second.changes()).hasSize(1);
+        assertThat(second.changes().get(0).id()).isEqualTo(b.getId());
+        assertThat(second.changes().get(0).op()).isEqualTo(SyncOperation.DELETE);
+        assertThat(changeFeedService.getChanges(second.nextCursor(), 10, KELAS).changes()).isEmpty();
+    }
+
+    /**
+     * Transaksi lama (versi kecil) belum commit, transaksi baru sudah commit:
+     * feed berhenti sebelum versi transaksi lama, jadi cursor client tidak melewatinya.
+     */
+    @Test
+    void cursorNeverPassesUncommittedTransaction() {
+        long since = rowVersionService.stableVersion();
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+
+        Kelas[] lambat = new Kelas[1];
+        SyncChangesResponse duringTransaction = transaction.execute(status -> {
+            lambat[0] = kelas("X CF 4");
+            kelasRepository.flush();
+            // Transaksi lain (thread lain) commit dengan versi lebih besar
+            return CompletableFuture.supplyAsync(() -> {
+                kelas("X CF 5");
+                return changeFeedService.getChanges(since, 100, KELAS);
+            }).join();
+        });
+
+        assertThat(duringTransaction.changes()).isEmpty();
+        assertThat(duringTransaction.nextCursor()).isLessThan(lambat[0].getRowVersion());
+
+        SyncChangesResponse afterCommit = changeFeedService.getChanges(duringTransaction.nextCursor(), 100, KELAS);
+        assertThat(afterCommit.changes()).extracting(SyncChange::op)
+                .containsExactly(SyncOperation.UPSERT, SyncOperation.UPSERT);
+        assertThat(afterCommit.changes().get(0).id()).isEqualTo(lambat[0].getId());
+    }
+
+    /**
+     * Satu halaman siswa tidak boleh 1 query per baris (user dan roles EAGER).
+     */
+    @Test
+    void siswaPageDoesNotQueryPerRow() {
+        long since = rowVersionService.stableVersion();
+        for (int i = 0; i < 20; i++) {
+            createSiswa(String.format("CF%04d", i), "X CF 6", "RPL");
+        }
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        try {
+            statistics.clear();
+            SyncChangesResponse page = changeFeedService.getChanges(since, 100, Set.of(SyncEntityType.SISWA));
+
+            assertThat(page.changes()).hasSize(20);
+            assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(3);
+        } finally {
+            statistics.setStatisticsEnabled(false);
+        }
+    }
+
+    private Kelas kelas(String nama) {
+        Kelas kelas = new Kelas();
+        kelas.setNama(nama);
+        kelas.setTingkat("X");
+        kelas.setJurusan("RPL");
+        return kelasRepository.save(kelas);
+    }
+}
@@ -0,0 +1,53 @@
+package com.smk.presensi.service;
+
+import com.smk.presensi.dto.presensi.PresensiResponse;
+import com.smk.presensi.enums.MethodPresensi;
+import com.smk.presensi.enums.StatusPresensi;
+import com.smk.presensi.enums.TipeUser;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Export presensi: data melebihi batas baris satu sheet lanjut ke sheet berikutnya.
+ */
+class ExcelServiceTest {
+
+    private final ExcelService excelService = new ExcelService();
+
+    @Test
+    void presensiExportContinuesOnNewSheetWithHeader() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // 3 baris data per sheet (index 1..3), 7 baris → 3 sheet
+        excelService.writePresensiToExcel(IntStream.rangeClosed(1, 7).mapToObj(ExcelServiceTest::presensi), out, 3);
+
+        try (Workbook workbook = new XSSFWorkbook(new ByteArrayInputStream(out.toByteArray()))) {
+            assertThat(workbook.getNumberOfSheets()).isEqualTo(3);
+            assertThat(workbook.getSheetName(1)).isEqualTo("Presensi 2");
+            assertThat(workbook.getSheetName(2)).isEqualTo("Presensi 3");
+            for (int i = 0; i < 3; i++) {
+                assertThat(workbook.getSheetAt(i).getRow(0).getCell(0).getStringCellValue()).isEqualTo("Tanggal");
+            }
+            assertThat(workbook.getSheetAt(0).getLastRowNum()).isEqualTo(3);
+            Sheet last = workbook.getSheetAt(2);
+            assertThat(last.getLastRowNum()).isEqualTo(1);
+            assertThat(last.getRow(1).getCell(1).getStringCellValue()).isEqualTo("user7");
+        }
+    }
+
+    private static PresensiResponse presensi(int i) {
+        return new PresensiResponse((long) i, (long) i, "user" + i, TipeUser.SISWA, LocalDate.of(2024, 1, 15),
+                LocalTime.of(7, 0), null, StatusPresensi.HADIR, MethodPresensi.RFID,
+                null, null, "", null, null, null, null);
+    }
+}
@@ -0,0 +1,172 @@
+package com.smk.presensi.service;
+
+import com.smk.presensi.entity.Siswa;
+import com.smk.presensi.enums.TipeUser;
+import com.smk.presensi.repository.GuruRepository;
+import com.smk.presensi.repository.SiswaRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * FaceEmbeddingIndex tanpa database: upsert/remove/search langsung di memori.
+ */
+class FaceEmbeddingIndexTest {
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private final Random random = new Random(7);
+
+    @Test
+    void exactSearchReturnsCandidatesByDescendingScore() {
+        FaceEmbeddingIndex index = new FaceEmbeddingIndex(null, null);
+        List<String> encodings = fill(index, 200);
+        String query = encodings.get(123);
+
+        List<FaceEmbeddingIndex.Candidate> result = index.search(query, 5);
+
+        assertThat(result).hasSize(5);
+        assertThat(result.get(0).entityId()).isEqualTo(123L);
+        assertThat(result.get(0).userId()).isEqualTo(1123L);
+        assertThat(result.get(0).score()).isCloseTo(1.0, within(1e-5));
+        assertThat(result).isSortedAccordingTo(
+                Comparator.comparingDouble(FaceEmbeddingIndex.Candidate::score).reversed());
+
+        // Sama dengan brute force cosine di kernel
+        float[] q = FaceSimilarityKernel.toUnitVector(query, FaceEmbeddingIndex.DIMENSION);
+        List<Long> expected = new ArrayList<>();
+        for (int i = 0; i < encodings.size(); i++) {
+            expected.add((long) i);
+        }
+        expected.sort(Comparator.comparingDouble((Long i) -> -FaceSimilarityKernel.cosine(q,
+                FaceSimilarityKernel.toUnitVector(encodings.get(i.intValue()), FaceEmbeddingIndex.DIMENSION))));
+        assertThat(result.stream().map(FaceEmbeddingIndex.Candidate::entityId).toList())
+                .isEqualTo(expected.subList(0, 5));
+    }
+
+    @Test
+    void upsertReplacesAndRemoveDeletes() {
+        FaceEmbeddingIndex index = new FaceEmbeddingIndex(null, null);
+        List<String> encodings = fill(index, 10);
+        String updated = randomEncoding();
+
+        index.upsert(TipeUser.SISWA, 3L, 1003L, updated);
+        assertThat(index.size()).isEqualTo(10);
+        assertThat(index.search(updated, 1).get(0).entityId()).isEqualTo(3L);
+        assertThat(index.search(encodings.get(3), 1).get(0).entityId()).isNotEqualTo(3L);
+
+        index.remove(TipeUser.SISWA, 3L);
+        assertThat(index.size()).isEqualTo(9);
+        assertThat(index.search(updated, 10)).extracting(FaceEmbeddingIndex.Candidate::entityId)
+                .doesNotContain(3L);
+
+        // Encoding null = hapus
+        index.upsert(TipeUser.SISWA, 4L, 1004L, null);
+        assertThat(index.size()).isEqualTo(8);
+    }
+
+    @Test
+    void siswaAndGuruWithSameIdAreSeparateEntries() {
+        FaceEmbeddingIndex index = new FaceEmbeddingIndex(null, null);
+        String siswa = randomEncoding();
+        String guru = randomEncoding();
+        index.upsert(TipeUser.SISWA, 1L, 11L, siswa);
+        index.upsert(TipeUser.GURU, 1L, 21L, guru);
+
+        assertThat(index.size()).isEqualTo(2);
+        assertThat(index.search(guru, 1).get(0).tipe()).isEqualTo(TipeUser.GURU);
+        assertThat(index.search(siswa, 1).get(0).tipe()).isEqualTo(TipeUser.SISWA);
+    }
+
+    @Test
+    void ivfFindsEveryEnrolledEncoding() {
+        FaceEmbeddingIndex index = new FaceEmbeddingIndex(null, null);
+        ReflectionTestUtils.setField(index, "mode", FaceEmbeddingIndex.Mode.IVF);
+        ReflectionTestUtils.setField(index, "ivfMinSize", 64);
+        ReflectionTestUtils.setField(index, "ivfProbes", 2);
+        List<String> encodings = fill(index, 600);
+
+        // Vektor yang di-query ada di ember centroid terdekatnya → selalu ketemu
+        for (int i = 0; i < encodings.size(); i++) {
+            assertThat(index.search(encodings.get(i), 1).get(0).entityId()).isEqualTo((long) i);
+        }
+    }
+
+    @Test
+    void searchAllRanksEveryEncodingEvenInIvfMode() {
+        FaceEmbeddingIndex index = new FaceEmbeddingIndex(null, null);
+        ReflectionTestUtils.setField(index, "mode", FaceEmbeddingIndex.Mode.IVF);
+        ReflectionTestUtils.setField(index, "ivfMinSize", 64);
+        ReflectionTestUtils.setField(index, "ivfProbes", 1);
+        List<String> encodings = fill(index, 300);
+
+        List<FaceEmbeddingIndex.Candidate> result = index.searchAll(encodings.get(42));
+
+        assertThat(result).hasSize(300);
+        assertThat(result.get(0).entityId()).isEqualTo(42L);
+        assertThat(result).isSortedAccordingTo(
+                Comparator.comparingDouble(FaceEmbeddingIndex.Candidate::score).reversed());
+    }
+
+    @Test
+    void upsertDuringRebuildIsNotOverwritten() throws Exception {
+        SiswaRepository siswaRepository = mock(SiswaRepository.class);
+        GuruRepository guruRepository = mock(GuruRepository.class);
+        FaceEmbeddingIndex index = new FaceEmbeddingIndex(siswaRepository, guruRepository);
+        String lama = randomEncoding();
+        String baru = randomEncoding();
+        Siswa siswa = new Siswa();
+        siswa.setId(1L);
+        siswa.setFaceEncoding(lama);
+        Thread enroll = new Thread(() -> index.upsert(TipeUser.SISWA, 1L, null, baru));
+        when(guruRepository.findByFaceEncodingIsNotNull()).thenReturn(List.of());
+        when(siswaRepository.findByFaceEncodingIsNotNull()).thenAnswer(invocation -> {
+            // /enroll commit setelah query membaca baris lama
+            enroll.start();
+            enroll.join(200);
+            return List.of(siswa);
+        });
+
+        index.rebuild();
+        enroll.join(5000);
+
+        assertThat(enroll.isAlive()).isFalse();
+        assertThat(index.size()).isEqualTo(1);
+        assertThat(index.search(baru, 1).get(0).encoding()).isEqualTo(baru);
+    }
+
+    @Test
+    void emptyIndexReturnsNoCandidates() {
+        FaceEmbeddingIndex index = new FaceEmbeddingIndex(null, null);
+
+        assertThat(index.search(randomEncoding(), 3)).isEmpty();
+        assertThat(index.search(null, 3)).isEmpty();
+    }
+
+    private List<String> fill(FaceEmbeddingIndex index, int count) {
+        List<String> encodings = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            String encoding = randomEncoding();
+            encodings.add(encoding);
+            index.upsert(TipeUser.SISWA, (long) i, 1000L + i, encoding);
+        }
+        return encodings;
+    }
+
+    private String randomEncoding() {
+        char[] encoding = new char[FaceEmbeddingIndex.DIMENSION];
+        for (int i = 0; i < encoding.length; i++) {
+            encoding[i] = HEX[random.nextInt(HEX.length)];
+        }
+        return new String(encoding);
+    }
+}
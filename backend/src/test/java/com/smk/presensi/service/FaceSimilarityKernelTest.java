@@ -0,0 +1,148 @@
+package com.smk.presensi.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+/**
+ * FaceSimilarityKernel dibandingkan dengan implementasi referensi (tabel DP penuh).
+ */
+class FaceSimilarityKernelTest {
+
+    private final Random random = new Random(11);
+
+    @Test
+    void levenshteinMatchesFullTable() {
+        assertThat(FaceSimilarityKernel.levenshtein("kitten", "sitting")).isEqualTo(3);
+        assertThat(FaceSimilarityKernel.levenshtein("", "abc")).isEqualTo(3);
+        assertThat(FaceSimilarityKernel.levenshtein("abc", "abc")).isZero();
+
+        for (int n = 0; n < 500; n++) {
+            String a = randomHex(random.nextInt(40));
+            String b = randomHex(random.nextInt(40));
+            assertThat(FaceSimilarityKernel.levenshtein(a, b)).as("%s / %s", a, b).isEqualTo(reference(a, b));
+        }
+    }
+
+    @Test
+    void boundedLevenshteinCapsAtMaxDistancePlusOne() {
+        for (int n = 0; n < 500; n++) {
+            String a = randomHex(128);
+            String b = mutate(a, random.nextInt(60));
+            int max = random.nextInt(50);
+            int expected = reference(a, b);
+
+            int bounded = FaceSimilarityKernel.boundedLevenshtein(a, b, max);
+
+            assertThat(bounded).as("%s / %s max=%d", a, b, max)
+                    .isEqualTo(expected <= max ? expected : max + 1);
+        }
+    }
+
+    @Test
+    void boundedLevenshteinRejectsLengthGapEarly() {
+        assertThat(FaceSimilarityKernel.boundedLevenshtein("a".repeat(10), "a".repeat(30), 5)).isEqualTo(6);
+    }
+
+    @Test
+    void rowBufferGrowsForLongStrings() {
+        String a = randomHex(300);
+        String b = mutate(a, 20);
+
+        assertThat(FaceSimilarityKernel.levenshtein(a, b)).isEqualTo(reference(a, b));
+        // Setelah buffer membesar, string pendek tetap benar
+        assertThat(FaceSimilarityKernel.levenshtein("abcd", "abed")).isEqualTo(1);
+    }
+
+    @Test
+    void hammingCountsDifferentBits() {
+        byte[] a = FaceSimilarityKernel.packHex("0f0f0f0f0f0f0f0f");
+        byte[] b = FaceSimilarityKernel.packHex("0f0f0f0f0f0f0f0e");
+
+        assertThat(a).hasSize(8);
+        // 9 byte dibulatkan ke kelipatan 8
+        assertThat(FaceSimilarityKernel.packHex("0f".repeat(9))).hasSize(16);
+        assertThat(FaceSimilarityKernel.hamming(a, b)).isEqualTo(1);
+        assertThat(FaceSimilarityKernel.hamming(a, a)).isZero();
+        assertThat(FaceSimilarityKernel.hammingSimilarity(a, a)).isEqualTo(1.0);
+
+        String x = randomHex(128);
+        String y = randomHex(128);
+        int expected = 0;
+        for (int i = 0; i < x.length(); i++) {
+            expected += Integer.bitCount(Character.digit(x.charAt(i), 16) ^ Character.digit(y.charAt(i), 16));
+        }
+        assertThat(FaceSimilarityKernel.hamming(FaceSimilarityKernel.packHex(x), FaceSimilarityKernel.packHex(y)))
+                .isEqualTo(expected);
+    }
+
+    @Test
+    void cosineOfUnitVectors() {
+        String x = randomHex(128);
+        float[] a = FaceSimilarityKernel.toUnitVector(x, 128);
+
+        assertThat(FaceSimilarityKernel.cosine(a, a)).isCloseTo(1.0, within(1e-5));
+
+        float[] b = FaceSimilarityKernel.toUnitVector(randomHex(128), 128);
+        double expected = 0;
+        for (int i = 0; i < 128; i++) {
+            expected += a[i] * b[i];
+        }
+        assertThat(FaceSimilarityKernel.cosine(a, b)).isCloseTo(expected, within(1e-5));
+    }
+
+    /**
+     * Levenshtein versi tabel penuh (sebelum kernel dioptimasi)
+     */
+    private static int reference(String s1, String s2) {
+        int[][] dp = new int[s1.length() + 1][s2.length() + 1];
+        for (int i = 0; i <= s1.length(); i++) {
+            dp[i][0] = i;
+        }
+        for (int j = 0; j <= s2.length(); j++) {
+            dp[0][j] = j;
+        }
+        for (int i = 1; i <= s1.length(); i++) {
+            for (int j = 1; j <= s2.length(); j++) {
+                int cost = s1.charAt(i - 1) == s2.charAt(j - 1) ? 0 : 1;
+                dp[i][j] = Math.min(Math.min(dp[i - 1][j] + 1, dp[i][j - 1] + 1), dp[i - 1][j - 1] + cost);
+            }
+        }
+        return dp[s1.length()][s2.length()];
+    }
+
+    private String randomHex(int length) {
+        StringBuilder builder = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            builder.append(Character.forDigit(random.nextInt(16), 16));
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Substitusi, sisip, atau hapus karakter secara acak sebanyak edits kali
+     */
+    private String mutate(String source, int edits) {
+        StringBuilder builder = new StringBuilder(source);
+        for (int i = 0; i < edits; i++) {
+            int position = random.nextInt(builder.length() + 1);
+            switch (random.nextInt(3)) {
+                case 0 -> {
+                    if (position < builder.length()) {
+                        builder.setCharAt(position, Character.forDigit(random.nextInt(16), 16));
+                    }
+                }
+                case 1 -> builder.insert(position, Character.forDigit(random.nextInt(16), 16));
+                default -> {
+                    if (position < builder.length()) {
+                        builder.deleteCharAt(position);
+                    }
+                }
+            }
+        }
+        return builder.toString();
+    }
+}
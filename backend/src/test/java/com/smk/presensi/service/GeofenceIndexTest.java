@@ -0,0 +1,206 @@
+package com.smk.presensi.service;
+
+import com.smk.presensi.entity.Dudi;
+import com.smk.presensi.entity.LokasiKantor;
+import com.smk.presensi.enums.GeofenceSiteType;
+import com.smk.presensi.repository.DudiRepository;
+import com.smk.presensi.repository.LokasiKantorRepository;
+import com.smk.presensi.repository.PenempatanPklRepository;
+import com.smk.presensi.repository.PklPlacementProjection;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * GeofenceIndex dengan repository tiruan: grid, bounding box, jarak, dan penempatan PKL.
+ */
+class GeofenceIndexTest {
+
+    /**
+     * Meter per derajat latitude (radius bumi yang sama dengan GeofenceIndex)
+     */
+    private static final double METERS_PER_DEGREE = 6_371_000.0 * Math.PI / 180.0;
+
+    private static final double SEKOLAH_LAT = -6.9175;
+    private static final double SEKOLAH_LON = 107.6191;
+
+    private final LokasiKantorRepository lokasiKantorRepository = mock(LokasiKantorRepository.class);
+    private final DudiRepository dudiRepository = mock(DudiRepository.class);
+    private final PenempatanPklRepository penempatanPklRepository = mock(PenempatanPklRepository.class);
+    private final List<LokasiKantor> sekolah = new ArrayList<>();
+    private final List<Dudi> dudi = new ArrayList<>();
+    private final List<PklPlacementProjection> penempatan = new ArrayList<>();
+    private final LocalDate today = LocalDate.now();
+
+    private GeofenceIndex index;
+
+    @BeforeEach
+    void setUp() {
+        when(lokasiKantorRepository.findByIsActive(true)).thenReturn(sekolah);
+        when(dudiRepository.findGeofenceSites()).thenReturn(dudi);
+        when(penempatanPklRepository.findActivePlacements(any())).thenReturn(penempatan);
+        index = new GeofenceIndex(lokasiKantorRepository, dudiRepository, penempatanPklRepository);
+    }
+
+    @Test
+    void noSitesMeansUnrestricted() {
+        GeofenceIndex.Match match = index.locate(1L, SEKOLAH_LAT, SEKOLAH_LON, today);
+
+        assertThat(match.allowed()).isTrue();
+        assertThat(match.site()).isNull();
+    }
+
+    @Test
+    void distanceAroundRadiusBoundary() {
+        sekolah.add(lokasi(1L, SEKOLAH_LAT, SEKOLAH_LON, 100));
+
+        GeofenceIndex.Match inside = index.locate(1L, north(SEKOLAH_LAT, 99), SEKOLAH_LON, today);
+        GeofenceIndex.Match outside = index.locate(1L, north(SEKOLAH_LAT, 101), SEKOLAH_LON, today);
+
+        assertThat(inside.allowed()).isTrue();
+        assertThat(inside.site().type()).isEqualTo(GeofenceSiteType.SEKOLAH);
+        assertThat(inside.distanceMeter()).isCloseTo(99, within(0.01));
+        assertThat(outside.allowed()).isFalse();
+        assertThat(outside.site().id()).isEqualTo(1L);
+        assertThat(outside.distanceMeter()).isCloseTo(101, within(0.01));
+    }
+
+    @Test
+    void equirectangularDistanceMatchesHaversine() {
+        sekolah.add(lokasi(1L, SEKOLAH_LAT, SEKOLAH_LON, 2000));
+        double lat = north(SEKOLAH_LAT, 700);
+        double lon = SEKOLAH_LON + 0.009;
+
+        GeofenceIndex.Match match = index.locate(1L, lat, lon, today);
+
+        assertThat(match.allowed()).isTrue();
+        assertThat(match.distanceMeter())
+                .isCloseTo(GeofenceIndex.haversineMeters(SEKOLAH_LAT, SEKOLAH_LON, lat, lon), within(0.5));
+    }
+
+    @Test
+    void siteSpanningCellBorderIsFoundFromNeighbourCell() {
+        // -6.95 = batas sel grid (0.05°); titik 200 m di selatan ada di sel lain
+        sekolah.add(lokasi(1L, -6.9500, 107.6000, 300));
+
+        GeofenceIndex.Match match = index.locate(1L, north(-6.9500, -200), 107.6000, today);
+
+        assertThat(match.allowed()).isTrue();
+        assertThat(match.site().id()).isEqualTo(1L);
+    }
+
+    @Test
+    void nearestOfSeveralCampusesWins() {
+        sekolah.add(lokasi(1L, SEKOLAH_LAT, SEKOLAH_LON, 500));
+        sekolah.add(lokasi(2L, north(SEKOLAH_LAT, 400), SEKOLAH_LON, 500));
+
+        GeofenceIndex.Match match = index.locate(1L, north(SEKOLAH_LAT, 300), SEKOLAH_LON, today);
+
+        assertThat(match.allowed()).isTrue();
+        assertThat(match.site().id()).isEqualTo(2L);
+        assertThat(match.distanceMeter()).isCloseTo(100, within(0.5));
+    }
+
+    @Test
+    void dudiOnlyForPlacedStudentWithinPlacementDates() {
+        sekolah.add(lokasi(1L, SEKOLAH_LAT, SEKOLAH_LON, 100));
+        dudi.add(dudi(7L, -6.2000, 106.8166, 150));
+        penempatan.add(placement(10L, 7L, today.minusDays(1), today.plusDays(1)));
+
+        GeofenceIndex.Match placed = index.locate(10L, -6.2000, 106.8166, today);
+        GeofenceIndex.Match other = index.locate(11L, -6.2000, 106.8166, today);
+        GeofenceIndex.Match afterPlacement = index.locate(10L, -6.2000, 106.8166, today.plusDays(2));
+
+        assertThat(placed.allowed()).isTrue();
+        assertThat(placed.site().type()).isEqualTo(GeofenceSiteType.DUDI);
+        assertThat(other.allowed()).isFalse();
+        assertThat(other.site().type()).isEqualTo(GeofenceSiteType.SEKOLAH);
+        assertThat(afterPlacement.allowed()).isFalse();
+    }
+
+    @Test
+    void locateAllMatchesLocate() {
+        sekolah.add(lokasi(1L, SEKOLAH_LAT, SEKOLAH_LON, 100));
+        List<GeofenceIndex.GeoPoint> points = List.of(
+                new GeofenceIndex.GeoPoint(1L, SEKOLAH_LAT, SEKOLAH_LON),
+                new GeofenceIndex.GeoPoint(2L, north(SEKOLAH_LAT, 500), SEKOLAH_LON));
+
+        List<GeofenceIndex.Match> matches = index.locateAll(points, today);
+
+        assertThat(matches).extracting(GeofenceIndex.Match::allowed).containsExactly(true, false);
+    }
+
+    @Test
+    void invalidateReloadsOnNextLookup() {
+        index.locate(1L, SEKOLAH_LAT, SEKOLAH_LON, today);
+        index.locate(1L, SEKOLAH_LAT, SEKOLAH_LON, today);
+        verify(lokasiKantorRepository, times(1)).findByIsActive(true);
+
+        sekolah.add(lokasi(1L, SEKOLAH_LAT, SEKOLAH_LON, 100));
+        index.invalidate();
+        GeofenceIndex.Match match = index.locate(1L, north(SEKOLAH_LAT, 500), SEKOLAH_LON, today);
+
+        verify(lokasiKantorRepository, times(2)).findByIsActive(true);
+        assertThat(match.allowed()).isFalse();
+    }
+
+    private static double north(double latitude, double meters) {
+        return latitude + meters / METERS_PER_DEGREE;
+    }
+
+    private static LokasiKantor lokasi(Long id, double latitude, double longitude, int radius) {
+        LokasiKantor lokasi = new LokasiKantor();
+        lokasi.setId(id);
+        lokasi.setNama("Kampus " + id);
+        lokasi.setLatitude(latitude);
+        lokasi.setLongitude(longitude);
+        lokasi.setRadiusValidasi(radius);
+        lokasi.setIsActive(true);
+        return lokasi;
+    }
+
+    private static Dudi dudi(Long id, double latitude, double longitude, int radius) {
+        Dudi dudi = new Dudi();
+        dudi.setId(id);
+        dudi.setNama("DUDI " + id);
+        dudi.setLatitude(latitude);
+        dudi.setLongitude(longitude);
+        dudi.setRadiusValidasi(radius);
+        return dudi;
+    }
+
+    private static PklPlacementProjection placement(Long userId, Long dudiId, LocalDate mulai, LocalDate selesai) {
+        return new PklPlacementProjection() {
+            @Override
+            public Long getUserId() {
+                return userId;
+            }
+
+            @Override
+            public Long getDudiId() {
+                return dudiId;
+            }
+
+            @Override
+            public LocalDate getTanggalMulai() {
+                return mulai;
+            }
+
+            @Override
+            public LocalDate getTanggalSelesai() {
+                return selesai;
+            }
+        };
+    }
+}
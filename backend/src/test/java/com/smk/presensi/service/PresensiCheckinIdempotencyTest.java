@@ -0,0 +1,91 @@
+package com.smk.presensi.service;
+
+import com.smk.presensi.PostgresIntegrationTest;
+import com.smk.presensi.dto.presensi.PresensiResponse;
+import com.smk.presensi.dto.presensi.RfidCheckinRequest;
+import com.smk.presensi.entity.Siswa;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Satu presensi per user per hari: INSERT ... ON CONFLICT (user_id, tanggal)
+ * yang menentukan pemenang, idempotency key mengembalikan presensi yang sama.
+ */
+class PresensiCheckinIdempotencyTest extends PostgresIntegrationTest {
+
+    private static final String COUNT = "SELECT COUNT(*) FROM presensi WHERE user_id = ? AND tanggal = ?";
+
+    @Autowired
+    private PresensiService presensiService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void concurrentTapsCreateOnePresensi() throws Exception {
+        Siswa siswa = createSiswa("ID0501", "XI TKJ 1", "TKJ");
+        int taps = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(taps);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<PresensiResponse>> results = new ArrayList<>();
+        try {
+            for (int i = 0; i < taps; i++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return presensiService.checkinRfid(new RfidCheckinRequest(siswa.getRfidCardId(), null));
+                }));
+            }
+            start.countDown();
+
+            int ok = 0;
+            int duplicate = 0;
+            for (Future<PresensiResponse> result : results) {
+                try {
+                    result.get(30, TimeUnit.SECONDS);
+                    ok++;
+                } catch (ExecutionException e) {
+                    assertThat(e.getCause()).isInstanceOf(CheckinRejectedException.class);
+                    assertThat(((CheckinRejectedException) e.getCause()).getOutcome())
+                            .isEqualTo(AttendanceMetrics.OUTCOME_DUPLICATE);
+                    duplicate++;
+                }
+            }
+            assertThat(ok).isEqualTo(1);
+            assertThat(duplicate).isEqualTo(taps - 1);
+        } finally {
+            executor.shutdownNow();
+        }
+        assertThat(jdbcTemplate.queryForObject(COUNT, Long.class, siswa.getUser().getId(), LocalDate.now()))
+                .isEqualTo(1L);
+    }
+
+    @Test
+    void retryWithSameKeyReturnsRecordedPresensi() {
+        Siswa siswa = createSiswa("ID0502", "XI TKJ 1", "TKJ");
+
+        PresensiResponse first = presensiService.checkinRfid(new RfidCheckinRequest(siswa.getRfidCardId(), "tap-1"));
+        PresensiResponse retry = presensiService.checkinRfid(new RfidCheckinRequest(siswa.getRfidCardId(), "tap-1"));
+
+        assertThat(retry.id()).isEqualTo(first.id());
+        assertThatThrownBy(() -> presensiService.checkinRfid(new RfidCheckinRequest(siswa.getRfidCardId(), "tap-2")))
+                .isInstanceOf(CheckinRejectedException.class);
+        assertThatThrownBy(() -> presensiService.checkinRfid(new RfidCheckinRequest(siswa.getRfidCardId(), null)))
+                .isInstanceOf(CheckinRejectedException.class);
+        assertThat(jdbcTemplate.queryForObject(COUNT, Long.class, siswa.getUser().getId(), LocalDate.now()))
+                .isEqualTo(1L);
+    }
+}
@@ -0,0 +1,87 @@
+package com.smk.presensi.service;
+
+import com.smk.presensi.PostgresIntegrationTest;
+import com.smk.presensi.dto.presensi.PresensiResponse;
+import com.smk.presensi.entity.Siswa;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checkout saat DailyAttendanceState tidak tahu presensi hari ini.
+ *
+ * Baris presensi di test ini ditulis langsung lewat JDBC: tanpa entity listener,
+ * jadi state tidak pernah menerima onSaved (sama seperti baris dari proses lain
+ * atau commit yang jatuh di tengah rebuild).
+ */
+class PresensiCheckoutStateTest extends PostgresIntegrationTest {
+
+    private static final String INSERT = "INSERT INTO presensi (id, user_id, tipe, tanggal, jam_masuk, status, method) "
+            + "VALUES (nextval('presensi_id_seq'), ?, 'SISWA', ?, '07:00', 'HADIR', 'RFID')";
+
+    @Autowired
+    private PresensiService presensiService;
+
+    @Autowired
+    private DailyAttendanceState attendanceState;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Test
+    void checkoutFallsBackToDatabaseOnStateMiss() {
+        Siswa siswa = createSiswa("CO0401", "XI RPL 1", "RPL");
+        LocalDate today = LocalDate.now();
+        attendanceState.rebuild(today);
+        jdbcTemplate.update(INSERT, siswa.getUser().getId(), today);
+        assertThat(attendanceState.findPresensiId(siswa.getUser().getId(), today)).isEmpty();
+
+        PresensiResponse response = presensiService.checkoutRfid(siswa.getRfidCardId());
+
+        assertThat(response.jamPulang()).isNotNull();
+        assertThat(jdbcTemplate.queryForObject("SELECT jam_pulang IS NOT NULL FROM presensi "
+                + "WHERE user_id = ? AND tanggal = ?", Boolean.class, siswa.getUser().getId(), today)).isTrue();
+    }
+
+    /**
+     * Ganti hari: state di-rebuild untuk tanggal baru SEBELUM checkin pertama commit,
+     * jadi snapshot rebuild tidak melihat baris itu dan onSaved-nya tidak pernah sampai.
+     */
+    @Test
+    void checkoutFindsCheckinCommittedDuringRollover() throws SQLException {
+        Siswa siswa = createSiswa("CO0402", "XI RPL 1", "RPL");
+        Long userId = siswa.getUser().getId();
+        LocalDate today = LocalDate.now();
+        attendanceState.rebuild(today.minusDays(1));
+
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            try (PreparedStatement insert = connection.prepareStatement(INSERT)) {
+                insert.setLong(1, userId);
+                insert.setObject(2, today);
+                insert.executeUpdate();
+            }
+            // Akses pertama hari ini → rebuild, baris di atas belum commit
+            assertThat(attendanceState.isCheckedIn(userId, today)).isFalse();
+            connection.commit();
+        }
+        assertThat(attendanceState.findPresensiId(userId, today)).isEmpty();
+
+        PresensiResponse response = presensiService.checkoutRfid(siswa.getRfidCardId());
+
+        assertThat(response.userId()).isEqualTo(userId);
+        assertThat(response.tanggal()).isEqualTo(today);
+        assertThat(response.jamPulang()).isNotNull();
+    }
+}
@@ -0,0 +1,60 @@
+package com.smk.presensi.service;
+
+import com.smk.presensi.PostgresIntegrationTest;
+import com.smk.presensi.dto.presensi.GateScanRequest;
+import com.smk.presensi.dto.presensi.GateScanResult;
+import com.smk.presensi.entity.Siswa;
+import com.smk.presensi.enums.GateScanStatus;
+import com.smk.presensi.enums.MethodPresensi;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Gate memakai jam device (scannedAt), tapi hanya dalam jendela offline hari ini:
+ * endpoint gate publik, jadi scan lama tidak boleh membuat/memundurkan presensi.
+ */
+class PresensiGateBatchTest extends PostgresIntegrationTest {
+
+    private static final String COUNT = "SELECT COUNT(*) FROM presensi WHERE user_id = ?";
+
+    @Autowired
+    private PresensiService presensiService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void rejectsScansOlderThanOfflineWindow() {
+        Siswa kemarin = createSiswa("GT0601", "XI TKJ 1", "TKJ");
+        Siswa mundur = createSiswa("GT0602", "XI TKJ 1", "TKJ");
+        Siswa baru = createSiswa("GT0603", "XI TKJ 1", "TKJ");
+        LocalDateTime now = LocalDateTime.now();
+
+        List<GateScanResult> results = presensiService.checkinGateBatch(List.of(
+                scan(kemarin, now.minusDays(1)),
+                // presensi.gate.max-offline-minutes default 10
+                scan(mundur, now.minusMinutes(11)),
+                scan(baru, now)));
+
+        assertThat(results).extracting(GateScanResult::result)
+                .containsExactly(GateScanStatus.INVALID, GateScanStatus.INVALID, GateScanStatus.ACCEPTED);
+        assertThat(count(kemarin)).isZero();
+        assertThat(count(mundur)).isZero();
+        assertThat(count(baru)).isEqualTo(1L);
+    }
+
+    private static PresensiService.GateScan scan(Siswa siswa, LocalDateTime scannedAt) {
+        return new PresensiService.GateScan("gate-test",
+                new GateScanRequest(MethodPresensi.RFID, siswa.getRfidCardId(), scannedAt, null));
+    }
+
+    private Long count(Siswa siswa) {
+        return jdbcTemplate.queryForObject(COUNT, Long.class, siswa.getUser().getId());
+    }
+}
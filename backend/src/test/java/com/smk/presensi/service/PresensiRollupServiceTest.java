@@ -0,0 +1,113 @@
+package com.smk.presensi.service;
+
+import com.smk.presensi.PostgresIntegrationTest;
+import com.smk.presensi.dto.presensi.PresensiResponse;
+import com.smk.presensi.dto.presensi.RfidCheckinRequest;
+import com.smk.presensi.entity.Kelas;
+import com.smk.presensi.entity.Presensi;
+import com.smk.presensi.entity.Siswa;
+import com.smk.presensi.enums.StatusPresensi;
+import com.smk.presensi.repository.KelasRepository;
+import com.smk.presensi.repository.PresensiRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Delta rollup ditulis di transaksi presensi itu sendiri: tidak butuh koneksi
+ * kedua (checkin serentak > ukuran pool), dan perubahan yang baru di-flush saat
+ * commit tetap tercatat.
+ */
+class PresensiRollupServiceTest extends PostgresIntegrationTest {
+
+    private static final String JUMLAH = "SELECT COALESCE(SUM(jumlah), 0) FROM presensi_daily_rollup "
+            + "WHERE tanggal = ? AND tipe = 'SISWA' AND kelas_id = ?";
+    private static final String JUMLAH_STATUS = JUMLAH + " AND status = ?";
+
+    @Autowired
+    private PresensiService presensiService;
+
+    @Autowired
+    private PresensiRepository presensiRepository;
+
+    @Autowired
+    private KelasRepository kelasRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void concurrentCheckinsBeyondPoolSizeComplete() throws Exception {
+        Kelas kelas = createKelas("X RS 1");
+        int taps = 30; // > pool Hikari (10)
+        List<Siswa> siswa = new ArrayList<>();
+        for (int i = 0; i < taps; i++) {
+            siswa.add(createSiswa(String.format("RS%04d", i), kelas.getNama(), "RPL"));
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(taps);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<PresensiResponse>> results = new ArrayList<>();
+        try {
+            for (Siswa s : siswa) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return presensiService.checkinRfid(new RfidCheckinRequest(s.getRfidCardId(), null));
+                }));
+            }
+            start.countDown();
+
+            // Pool habis → tiap checkin menunggu connection-timeout Hikari (30 detik)
+            for (Future<PresensiResponse> result : results) {
+                assertThat(result.get(20, TimeUnit.SECONDS).id()).isNotNull();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertThat(jdbcTemplate.queryForObject(JUMLAH, Long.class, LocalDate.now(), kelas.getId()))
+                .isEqualTo((long) taps);
+    }
+
+    @Test
+    void statusChangeFlushedAtCommitMovesRollup() {
+        Kelas kelas = createKelas("X RS 2");
+        Siswa siswa = createSiswa("RS1001", kelas.getNama(), "RPL");
+        LocalDate today = LocalDate.now();
+        PresensiResponse checkin = presensiService.checkinRfid(new RfidCheckinRequest(siswa.getRfidCardId(), null));
+        StatusPresensi awal = checkin.status();
+
+        // Tanpa flush manual: UPDATE (dan @PostUpdate) baru terjadi saat commit
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            Presensi presensi = presensiRepository.findById(checkin.id()).orElseThrow();
+            presensi.setStatus(StatusPresensi.IZIN);
+        });
+
+        assertThat(jdbcTemplate.queryForObject(JUMLAH_STATUS, Long.class, today, kelas.getId(), awal.name()))
+                .isZero();
+        assertThat(jdbcTemplate.queryForObject(JUMLAH_STATUS, Long.class, today, kelas.getId(), "IZIN"))
+                .isEqualTo(1L);
+    }
+
+    private Kelas createKelas(String nama) {
+        Kelas kelas = new Kelas();
+        kelas.setNama(nama);
+        kelas.setTingkat("X");
+        kelas.setJurusan("RPL");
+        return kelasRepository.save(kelas);
+    }
+}
@@ -0,0 +1,109 @@
+# JMH benchmark backend + cek regresi terhadap baseline
+#
+# Hasil JMH (JSON) dibandingkan dengan baseline yang di-commit di
+# backend/src/jmh/results/baseline.json. Benchmark yang lebih lambat dari
+# baseline lebih dari -Threshold persen dianggap regresi (exit code 1),
+# jadi script ini bisa dipasang sebelum deploy.
+#
+# Cara pakai:
+#   .\bench-jmh.ps1                              # jalankan semua, bandingkan dengan baseline
+#   .\bench-jmh.ps1 -Include FaceRecognition     # hanya benchmark tertentu (regex JMH)
+#   .\bench-jmh.ps1 -UpdateBaseline              # simpan hasil sebagai baseline baru (lalu commit)
+#
+# Jalankan di mesin yang sama dengan baseline (hasil JMH tidak bisa
+# dibandingkan antar CPU yang berbeda).
+#
+# baseline.json yang di-commit: Linux 1 vCPU, Temurin 17.0.9, setting default
+# benchmark (warmup 3 x 1 s, measurement 5 x 1 s, 1 fork). Di mesin lain,
+# buat baseline sendiri dulu dengan -UpdateBaseline sebelum membandingkan.
+
+param (
+    [string]$Include = ".*",
+    [double]$Threshold = 15,
+    [switch]$UpdateBaseline
+)
+
+$backendDir = Join-Path $PSScriptRoot "backend"
+$resultsDir = Join-Path $backendDir "src\jmh\results"
+$resultFile = Join-Path $backendDir "target\jmh-result.json"
+$baselineFile = Join-Path $resultsDir "baseline.json"
+
+Write-Host "========================================" -ForegroundColor Cyan
+Write-Host "JMH Benchmark (include: $Include)" -ForegroundColor Cyan
+Write-Host "========================================" -ForegroundColor Cyan
+Write-Host ""
+
+Push-Location $backendDir
+try {
+    mvn -B -q -Pjmh test-compile exec:exec@jmh "-Djmh.include=$Include" "-Djmh.result=$resultFile"
+    if ($LASTEXITCODE -ne 0) {
+        Write-Host "Benchmark gagal dijalankan" -ForegroundColor Red
+        exit $LASTEXITCODE
+    }
+} finally {
+    Pop-Location
+}
+
+# Kunci unik per benchmark + kombinasi @Param
+function Get-BenchmarkKey {
+    param ($result)
+    $key = $result.benchmark -replace '^com\.smk\.presensi\.', ''
+    if ($result.params) {
+        $params = $result.params.PSObject.Properties | Sort-Object Name | ForEach-Object { "$($_.Name)=$($_.Value)" }
+        $key += " [" + ($params -join ", ") + "]"
+    }
+    return $key
+}
+
+$current = Get-Content $resultFile -Raw | ConvertFrom-Json
+
+# Simpan juga salinan bertanggal (riwayat)
+New-Item -ItemType Directory -Force -Path $resultsDir | Out-Null
+$stamp = Get-Date -Format "yyyy-MM-dd_HHmm"
+Copy-Item $resultFile (Join-Path $resultsDir "jmh-$stamp.json")
+
+if ($UpdateBaseline -or -not (Test-Path $baselineFile)) {
+    Copy-Item $resultFile $baselineFile -Force
+    Write-Host "Baseline disimpan: $baselineFile" -ForegroundColor Green
+    exit 0
+}
+
+$baseline = @{}
+foreach ($result in (Get-Content $baselineFile -Raw | ConvertFrom-Json)) {
+    $baseline[(Get-BenchmarkKey $result)] = $result
+}
+
+$regressions = 0
+foreach ($result in $current) {
+    $key = Get-BenchmarkKey $result
+    $score = $result.primaryMetric.score
+    $unit = $result.primaryMetric.scoreUnit
+    $base = $baseline[$key]
+    if (-not $base) {
+        Write-Host ("{0,-80} {1,12:N3} {2,-10} (baru)" -f $key, $score, $unit) -ForegroundColor Gray
+        continue
+    }
+
+    # thrpt: makin besar makin baik; avgt/ss: makin kecil makin baik
+    $baseScore = $base.primaryMetric.score
+    if ($result.mode -eq "thrpt") {
+        $change = ($baseScore - $score) / $baseScore * 100
+    } else {
+        $change = ($score - $baseScore) / $baseScore * 100
+    }
+    $color = "White"
+    if ($change -gt $Threshold) {
+        $color = "Red"
+        $regressions++
+    } elseif ($change -lt -$Threshold) {
+        $color = "Green"
+    }
+    Write-Host ("{0,-80} {1,12:N3} {2,-10} {3,7:+0.0;-0.0}% vs baseline" -f $key, $score, $unit, $change) -ForegroundColor $color
+}
+
+Write-Host ""
+if ($regressions -gt 0) {
+    Write-Host "$regressions benchmark lebih lambat > $Threshold% dari baseline" -ForegroundColor Red
+    exit 1
+}
+Write-Host "Tidak ada regresi (threshold $Threshold%)" -ForegroundColor Green
@@ -0,0 +1,186 @@
+// Benchmark: platform thread vs virtual thread (backend request path)
+//
+// Versi Java dari bench-virtual-threads.ps1 (skenario dan output sama), untuk
+// mesin tanpa PowerShell. Tidak butuh build: java menjalankan file ini langsung.
+//
+// Cara pakai (jalankan dua kali, lalu bandingkan hasilnya):
+//   1. Platform thread : cd backend; mvn spring-boot:run
+//                        java bench-virtual-threads.java --label platform
+//   2. Virtual thread  : PRESENSI_VIRTUAL_THREADS=true; cd backend; mvn spring-boot:run   (Java 21+)
+//                        java bench-virtual-threads.java --label virtual
+//
+// Parameter (default sama dengan script PowerShell):
+//   --label run --host localhost --port 8081 --slow-clients 400
+//   --requests 200 --concurrency 50 --drip-interval-ms 1000
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+public class BenchVirtualThreads {
+
+    private static String label = "run";
+    private static String host = "localhost";
+    private static int port = 8081;
+    private static int slowClientCount = 400;
+    private static int requests = 200;
+    private static int concurrency = 50;
+    private static int dripIntervalMs = 1000;
+
+    private static HttpClient http;
+    private static URI helloUri;
+
+    public static void main(String[] args) throws Exception {
+        parseArgs(args);
+        helloUri = URI.create("http://" + host + ":" + port + "/api/hello");
+
+        System.out.println("========================================");
+        System.out.println("Thread Model Benchmark (" + label + ")");
+        System.out.println("========================================");
+        System.out.println();
+
+        http = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(60))
+                .build();
+
+        // Phase 1: baseline tanpa beban
+        measureRequests("baseline");
+
+        // Phase 2: buka client lambat. Header lengkap dikirim (request langsung
+        // masuk ke thread Tomcat), body dikirim 1 byte per dripIntervalMs.
+        System.out.println();
+        System.out.println("Membuka " + slowClientCount + " client lambat...");
+        String slowBody = "{\"username\":\"bench\",\"password\":\"" + "x".repeat(200) + "\"}";
+        byte[] body = slowBody.getBytes(StandardCharsets.US_ASCII);
+        String header = "POST /api/auth/login HTTP/1.1\r\nHost: " + host + ":" + port + "\r\n"
+                + "Content-Type: application/json\r\nContent-Length: " + body.length + "\r\n\r\n";
+        List<Socket> slowClients = new ArrayList<>();
+        for (int i = 0; i < slowClientCount; i++) {
+            try {
+                Socket socket = new Socket(host, port);
+                socket.getOutputStream().write(header.getBytes(StandardCharsets.US_ASCII));
+                socket.getOutputStream().flush();
+                slowClients.add(socket);
+            } catch (IOException e) {
+                System.out.println("  gagal membuka client ke-" + i + " : " + e.getMessage());
+                break;
+            }
+        }
+        System.out.println("  " + slowClients.size() + " client lambat terhubung");
+
+        // Tetes body di thread terpisah (thread utama sibuk menunggu request),
+        // supaya koneksi tidak di-timeout server
+        Thread dripper = new Thread(() -> {
+            int offset = 0;
+            while (!Thread.currentThread().isInterrupted() && offset < body.length - 1) {
+                for (Socket socket : slowClients) {
+                    try {
+                        OutputStream out = socket.getOutputStream();
+                        out.write(body[offset]);
+                        out.flush();
+                    } catch (IOException e) {
+                        // koneksi ditutup server, abaikan
+                    }
+                }
+                offset++;
+                try {
+                    Thread.sleep(dripIntervalMs);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        }, "dripper");
+        dripper.setDaemon(true);
+        dripper.start();
+        Thread.sleep(2000);
+
+        // Phase 3: request normal saat client lambat memegang thread
+        measureRequests("slow-clients");
+
+        dripper.interrupt();
+        for (Socket socket : slowClients) {
+            socket.close();
+        }
+
+        System.out.println();
+        System.out.println("Selesai. Bandingkan baris 'slow-clients' antara --label platform dan --label virtual.");
+        System.exit(0);
+    }
+
+    /**
+     * Kirim requests GET /hello dengan concurrency request bersamaan, cetak statistik latency
+     */
+    private static void measureRequests(String phase) {
+        List<Double> latencies = Collections.synchronizedList(new ArrayList<>());
+        int errors = 0;
+        long totalStart = System.nanoTime();
+
+        for (int sent = 0; sent < requests; sent += concurrency) {
+            int batch = Math.min(concurrency, requests - sent);
+            List<CompletableFuture<Boolean>> tasks = new ArrayList<>(batch);
+            for (int i = 0; i < batch; i++) {
+                long start = System.nanoTime();
+                HttpRequest request = HttpRequest.newBuilder(helloUri).timeout(Duration.ofSeconds(60)).GET().build();
+                tasks.add(http.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                        .thenApply(response -> {
+                            if (response.statusCode() / 100 != 2) {
+                                return false;
+                            }
+                            latencies.add((System.nanoTime() - start) / 1_000_000.0);
+                            return true;
+                        }));
+            }
+            for (CompletableFuture<Boolean> task : tasks) {
+                try {
+                    if (!task.join()) {
+                        errors++;
+                    }
+                } catch (RuntimeException e) {
+                    errors++;
+                }
+            }
+        }
+        double totalSeconds = (System.nanoTime() - totalStart) / 1_000_000_000.0;
+
+        List<Double> sorted = new ArrayList<>(latencies);
+        Collections.sort(sorted);
+        int count = sorted.size();
+        if (count == 0) {
+            System.out.printf("%-14s semua request gagal (%d error)%n", phase, errors);
+            return;
+        }
+        double p50 = sorted.get((int) Math.floor((count - 1) * 0.50));
+        double p95 = sorted.get((int) Math.floor((count - 1) * 0.95));
+        double max = sorted.get(count - 1);
+        double rps = count / totalSeconds;
+        System.out.printf("%-14s ok=%-5d err=%-4d p50=%7.1f ms  p95=%7.1f ms  max=%7.1f ms  %7.1f req/s%n",
+                phase, count, errors, p50, p95, max, rps);
+    }
+
+    private static void parseArgs(String[] args) {
+        Map<String, String> values = new HashMap<>();
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            values.put(args[i], args[i + 1]);
+        }
+        label = values.getOrDefault("--label", label);
+        host = values.getOrDefault("--host", host);
+        port = Integer.parseInt(values.getOrDefault("--port", String.valueOf(port)));
+        slowClientCount = Integer.parseInt(values.getOrDefault("--slow-clients", String.valueOf(slowClientCount)));
+        requests = Integer.parseInt(values.getOrDefault("--requests", String.valueOf(requests)));
+        concurrency = Integer.parseInt(values.getOrDefault("--concurrency", String.valueOf(concurrency)));
+        dripIntervalMs = Integer.parseInt(values.getOrDefault("--drip-interval-ms", String.valueOf(dripIntervalMs)));
+    }
+}
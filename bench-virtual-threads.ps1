@@ -0,0 +1,145 @@
+# Benchmark: platform thread vs virtual thread (backend request path)
+#
+# Mensimulasikan jam 07:00: banyak client gate yang lambat (body dikirim
+# sedikit demi sedikit) memegang thread request, sementara client normal
+# tetap harus dilayani cepat.
+#
+# Cara pakai (jalankan dua kali, lalu bandingkan hasilnya):
+#   1. Platform thread : cd backend; mvn spring-boot:run
+#                        .\bench-virtual-threads.ps1 -Label platform
+#   2. Virtual thread  : $env:PRESENSI_VIRTUAL_THREADS="true"; cd backend; mvn spring-boot:run   (Java 21+)
+#                        .\bench-virtual-threads.ps1 -Label virtual
+#
+# Dengan platform thread (200 thread Tomcat), SlowClients > 200 membuat
+# request normal ikut antre sampai client lambat selesai / timeout.
+# Dengan virtual thread, latency request normal seharusnya hampir sama
+# dengan baseline.
+#
+# Tanpa PowerShell: java bench-virtual-threads.java (skenario dan output sama).
+# Hasil yang sudah dicatat: docs/BENCH-VIRTUAL-THREADS.md
+
+param (
+    [string]$Label = "run",
+    [string]$Host_ = "localhost",
+    [int]$Port = 8081,
+    [int]$SlowClients = 400,
+    [int]$Requests = 200,
+    [int]$Concurrency = 50,
+    [int]$DripIntervalMs = 1000
+)
+
+$baseUrl = "http://${Host_}:${Port}/api"
+
+Write-Host "========================================" -ForegroundColor Cyan
+Write-Host "Thread Model Benchmark ($Label)" -ForegroundColor Cyan
+Write-Host "========================================" -ForegroundColor Cyan
+Write-Host ""
+
+$http = New-Object System.Net.Http.HttpClient
+$http.Timeout = [TimeSpan]::FromSeconds(60)
+
+# Kirim $Requests GET /hello dengan $Concurrency request bersamaan, kembalikan statistik latency
+function Measure-Requests {
+    param ([string]$Phase)
+
+    $latencies = New-Object System.Collections.Generic.List[double]
+    $errors = 0
+    $total = [System.Diagnostics.Stopwatch]::StartNew()
+
+    for ($sent = 0; $sent -lt $Requests; $sent += $Concurrency) {
+        $batch = [Math]::Min($Concurrency, $Requests - $sent)
+        $tasks = @()
+        $watches = @()
+        for ($i = 0; $i -lt $batch; $i++) {
+            $watches += [System.Diagnostics.Stopwatch]::StartNew()
+            $tasks += $http.GetAsync("$baseUrl/hello")
+        }
+        for ($i = 0; $i -lt $batch; $i++) {
+            try {
+                $response = $tasks[$i].GetAwaiter().GetResult()
+                $watches[$i].Stop()
+                if ($response.IsSuccessStatusCode) {
+                    $latencies.Add($watches[$i].Elapsed.TotalMilliseconds)
+                } else {
+                    $errors++
+                }
+            } catch {
+                $errors++
+            }
+        }
+    }
+    $total.Stop()
+
+    $sorted = $latencies | Sort-Object
+    $count = $sorted.Count
+    if ($count -eq 0) {
+        Write-Host ("{0,-14} semua request gagal ({1} error)" -f $Phase, $errors) -ForegroundColor Red
+        return
+    }
+    $p50 = $sorted[[int][Math]::Floor(($count - 1) * 0.50)]
+    $p95 = $sorted[[int][Math]::Floor(($count - 1) * 0.95)]
+    $max = $sorted[$count - 1]
+    $rps = $count / $total.Elapsed.TotalSeconds
+    Write-Host ("{0,-14} ok={1,-5} err={2,-4} p50={3,7:N1} ms  p95={4,7:N1} ms  max={5,7:N1} ms  {6,7:N1} req/s" -f `
+        $Phase, $count, $errors, $p50, $p95, $max, $rps)
+}
+
+# Phase 1: baseline tanpa beban
+Measure-Requests "baseline"
+
+# Phase 2: buka client lambat. Header lengkap dikirim (request langsung
+# masuk ke thread Tomcat), body dikirim 1 byte per DripIntervalMs.
+Write-Host ""
+Write-Host "Membuka $SlowClients client lambat..." -ForegroundColor Yellow
+$slowBody = '{"username":"bench","password":"' + ("x" * 200) + '"}'
+$slowClients = New-Object System.Collections.Generic.List[object]
+for ($i = 0; $i -lt $SlowClients; $i++) {
+    try {
+        $tcp = New-Object System.Net.Sockets.TcpClient($Host_, $Port)
+        $stream = $tcp.GetStream()
+        $header = "POST /api/auth/login HTTP/1.1`r`nHost: ${Host_}:${Port}`r`n" +
+                  "Content-Type: application/json`r`nContent-Length: $($slowBody.Length)`r`n`r`n"
+        $bytes = [System.Text.Encoding]::ASCII.GetBytes($header)
+        $stream.Write($bytes, 0, $bytes.Length)
+        $slowClients.Add(@{ Tcp = $tcp; Stream = $stream; Offset = 0 })
+    } catch {
+        Write-Host "  gagal membuka client ke-$i : $_" -ForegroundColor Red
+        break
+    }
+}
+Write-Host "  $($slowClients.Count) client lambat terhubung" -ForegroundColor Gray
+
+# Tetes body di runspace terpisah (runspace utama sibuk menunggu request),
+# supaya koneksi tidak di-timeout server
+$dripper = [PowerShell]::Create()
+[void]$dripper.AddScript({
+    param ($clients, $body, $intervalMs)
+    while ($true) {
+        foreach ($client in $clients) {
+            if ($client.Offset -lt $body.Length - 1) {
+                try {
+                    $client.Stream.WriteByte([byte][char]$body[$client.Offset])
+                    $client.Offset++
+                } catch {
+                    # koneksi ditutup server, abaikan
+                }
+            }
+        }
+        Start-Sleep -Milliseconds $intervalMs
+    }
+}).AddArgument($slowClients).AddArgument($slowBody).AddArgument($DripIntervalMs)
+$null = $dripper.BeginInvoke()
+Start-Sleep -Seconds 2
+
+# Phase 3: request normal saat client lambat memegang thread
+Measure-Requests "slow-clients"
+
+$dripper.Stop()
+$dripper.Dispose()
+foreach ($client in $slowClients) {
+    $client.Tcp.Close()
+}
+$http.Dispose()
+
+Write-Host ""
+Write-Host "Selesai. Bandingkan baris 'slow-clients' antara -Label platform dan -Label virtual." -ForegroundColor Cyan
@@ -1,5 +1,6 @@
 package com.smk.presensi.desktop;
 
+import com.smk.presensi.desktop.service.LocalCacheService;
 import com.smk.presensi.desktop.service.SyncService;
 
 import javafx.application.Application;
@@ -54,6 +55,7 @@ public class DesktopApp extends Application {
     public void stop() {
         // Cleanup resources when app closes
         SyncService.getInstance().stop();
+        LocalCacheService.getInstance().close();
     }
 
     public static void main(String[] args) {
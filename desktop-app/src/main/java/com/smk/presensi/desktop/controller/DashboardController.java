@@ -1,6 +1,7 @@
 package com.smk.presensi.desktop.controller;
 
 import com.smk.presensi.desktop.service.SessionManager;
+import com.smk.presensi.desktop.service.WebSocketService;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
 import javafx.fxml.Initializable;
@@ -109,6 +110,7 @@ public class DashboardController implements Initializable {
         if (sessionManager != null) {
             sessionManager.logout();
         }
+        WebSocketService.getInstance().disconnect();
         try {
             FXMLLoader loader = new FXMLLoader(getClass().getResource("/fxml/login.fxml"));
             Parent root = loader.load();
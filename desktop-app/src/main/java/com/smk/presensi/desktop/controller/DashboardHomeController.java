@@ -4,9 +4,9 @@ import com.google.gson.Gson;
 import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
+import com.smk.presensi.desktop.model.LiveEvent;
 import com.smk.presensi.desktop.service.ApiClient;
-import javafx.animation.KeyFrame;
-import javafx.animation.Timeline;
+import com.smk.presensi.desktop.service.WebSocketService;
 import javafx.application.Platform;
 import javafx.beans.property.SimpleStringProperty;
 import javafx.beans.property.StringProperty;
@@ -20,7 +20,6 @@ import javafx.scene.chart.XYChart;
 import javafx.scene.control.Label;
 import javafx.scene.control.TableColumn;
 import javafx.scene.control.TableView;
-import javafx.util.Duration;
 
 import java.net.URL;
 import java.net.http.HttpResponse;
@@ -32,6 +31,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.ResourceBundle;
 import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 
 public class DashboardHomeController implements Initializable {
 
@@ -57,22 +57,35 @@ public class DashboardHomeController implements Initializable {
 
     private final ApiClient apiClient = ApiClient.getInstance();
     private final Gson gson = new Gson();
-    private Timeline autoRefreshTimeline;
+    private final Consumer<LiveEvent> liveListener = this::onLiveEvent;
     private final ObservableList<LowAttendanceRow> lowAttendanceData = FXCollections.observableArrayList();
 
     @Override
     public void initialize(URL url, ResourceBundle resourceBundle) {
         setupLowAttendanceTable();
         loadDashboardData();
-        setupAutoRefresh();
+        // Pengganti polling 30 detik: counter hari ini ikut di setiap event live,
+        // load ulang penuh hanya saat RESET/RELOAD (tersambung ulang, fallback 5 menit saat putus)
+        WebSocketService.getInstance().attach(lowAttendanceTable, liveListener);
     }
 
-    private void setupAutoRefresh() {
-        autoRefreshTimeline = new Timeline(new KeyFrame(Duration.seconds(30), event -> {
+    /**
+     * Terapkan event live (dipanggil di FX thread).
+     * Counter hari ini langsung dipakai; grafik 7/30 hari hanya di-load ulang saat RESET/RELOAD.
+     */
+    private void onLiveEvent(LiveEvent event) {
+        if (event.requiresReload()) {
             loadDashboardData();
-        }));
-        autoRefreshTimeline.setCycleCount(Timeline.INDEFINITE);
-        autoRefreshTimeline.play();
+            return;
+        }
+        LiveEvent.Counters counters = event.getCounters();
+        if (counters == null || !LocalDate.now().equals(counters.getTanggal())) {
+            return;
+        }
+        siswaHadirLabel.setText(String.valueOf(counters.getStatus("HADIR")));
+        siswaAlfaLabel.setText(String.valueOf(counters.getStatus("ALPHA")));
+        siswaIzinLabel.setText(String.valueOf(counters.getStatus("IZIN")));
+        siswaSakitLabel.setText(String.valueOf(counters.getStatus("SAKIT")));
     }
 
     private void loadDashboardData() {
@@ -1,9 +1,11 @@
 package com.smk.presensi.desktop.controller;
 
 import com.smk.presensi.desktop.model.Izin;
+import com.smk.presensi.desktop.model.LiveEvent;
 import com.smk.presensi.desktop.service.ApiClient;
 import com.smk.presensi.desktop.service.IzinService;
 import com.smk.presensi.desktop.service.SessionManager;
+import com.smk.presensi.desktop.service.WebSocketService;
 import javafx.application.Platform;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
@@ -20,12 +22,19 @@ import javafx.scene.Scene;
 import java.net.URL;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Objects;
 import java.util.ResourceBundle;
+import java.util.Set;
+import java.util.function.Consumer;
 
 /**
  * Dashboard sederhana untuk Guru Piket.
  * Menampilkan ringkasan izin pending hari ini.
+ *
+ * Live update: event IZIN dari server diterapkan per baris
+ * (izin yang diputuskan dihapus, izin baru ditambahkan).
  */
 public class DashboardPiketController implements Initializable {
 
@@ -51,6 +60,7 @@ public class DashboardPiketController implements Initializable {
 
     private IzinService izinService;
     private ObservableList<Izin> izinList;
+    private final Consumer<LiveEvent> liveListener = this::onLiveEvent;
 
     @Override
     public void initialize(URL url, ResourceBundle resourceBundle) {
@@ -66,6 +76,8 @@ public class DashboardPiketController implements Initializable {
         setupTable();
         initHeader();
         loadData();
+
+        WebSocketService.getInstance().attach(izinTable, liveListener);
     }
 
     private void setupTable() {
@@ -134,6 +146,59 @@ public class DashboardPiketController implements Initializable {
         }).start();
     }
 
+    /**
+     * Terapkan event live (dipanggil di FX thread).
+     */
+    private void onLiveEvent(LiveEvent event) {
+        if (event.requiresReload()) {
+            loadData();
+            return;
+        }
+        if (!LiveEvent.IZIN.equals(event.getType()) || event.getIzinId() == null) {
+            return;
+        }
+
+        if (!"PENDING".equals(event.getStatus())) {
+            // Sudah di-approve/reject → keluar dari daftar pending
+            izinList.removeIf(izin -> Objects.equals(izin.getId(), event.getIzinId()));
+            updateCounts();
+            return;
+        }
+
+        // Izin baru: event tidak memuat detail izin, ambil daftar pending lalu tambahkan yang belum ada
+        new Thread(() -> {
+            try {
+                List<Izin> pending = izinService.getPendingToday();
+                Platform.runLater(() -> mergePending(pending));
+            } catch (Exception e) {
+                e.printStackTrace();
+            }
+        }).start();
+    }
+
+    private void mergePending(List<Izin> pending) {
+        Set<Long> pendingIds = new HashSet<>();
+        for (Izin izin : pending) {
+            pendingIds.add(izin.getId());
+        }
+        Set<Long> shownIds = new HashSet<>();
+        izinList.removeIf(izin -> !pendingIds.contains(izin.getId()));
+        for (Izin izin : izinList) {
+            shownIds.add(izin.getId());
+        }
+        for (Izin izin : pending) {
+            if (!shownIds.contains(izin.getId())) {
+                izinList.add(izin);
+            }
+        }
+        updateCounts();
+    }
+
+    private void updateCounts() {
+        pendingCountLabel.setText(String.valueOf(izinList.size()));
+        totalIzinLabel.setText(String.valueOf(izinList.size()));
+    }
+
     private void setLoading(boolean loading, String message) {
         loadingIndicator.setVisible(loading);
         statusLabel.setText(message);
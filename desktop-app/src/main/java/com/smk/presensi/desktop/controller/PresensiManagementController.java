@@ -1,5 +1,6 @@
 package com.smk.presensi.desktop.controller;
 
+import com.smk.presensi.desktop.model.LiveEvent;
 import com.smk.presensi.desktop.model.Presensi;
 import com.smk.presensi.desktop.service.ApiClient;
 import com.smk.presensi.desktop.model.Kelas;
@@ -7,6 +8,7 @@ import com.smk.presensi.desktop.service.CachedPresensiService;
 import com.smk.presensi.desktop.service.KelasService;
 import com.smk.presensi.desktop.service.PresensiService;
 import com.smk.presensi.desktop.service.UserService;
+import com.smk.presensi.desktop.service.WebSocketService;
 import com.smk.presensi.desktop.util.InAppNotification;
 import com.smk.presensi.desktop.model.User;
 import javafx.application.Platform;
@@ -30,7 +32,9 @@ import java.time.LocalTime;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
 import java.util.Optional;
+import java.util.Objects;
 import java.util.ResourceBundle;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 /**
@@ -83,6 +87,7 @@ public class PresensiManagementController implements Initializable {
     private ObservableList<Presensi> presensiList;
     private ObservableList<Presensi> filteredList;
     private final DateTimeFormatter timeFormatter = DateTimeFormatter.ofPattern("HH:mm");
+    private final Consumer<LiveEvent> liveListener = this::onLiveEvent;
     
     @Override
     public void initialize(URL url, ResourceBundle resourceBundle) {
@@ -106,6 +111,9 @@ public class PresensiManagementController implements Initializable {
         
         // Load data
         loadData();
+        
+        // Live update: perubahan presensi diterapkan per baris, tanpa reload
+        WebSocketService.getInstance().attach(presensiTable, liveListener);
     }
     
     private void setupFilters() {
@@ -200,24 +208,86 @@ public class PresensiManagementController implements Initializable {
         String status = statusFilter.getValue();
         
         List<Presensi> filtered = presensiList.stream()
-            .filter(p -> {
-                boolean matchSearch = searchText.isEmpty() || 
-                    p.getUsername().toLowerCase().contains(searchText);
-                
-                boolean matchTipe = tipe == null || tipe.equals("ALL") || 
-                    p.getTipe().equals(tipe);
-                
-                boolean matchStatus = status == null || status.equals("ALL") || 
-                    p.getStatus().equals(status);
-                
-                return matchSearch && matchTipe && matchStatus;
-            })
+            .filter(p -> matchesFilter(p, searchText, tipe, status))
             .collect(Collectors.toList());
         
         filteredList.setAll(filtered);
         updateInfoLabel();
     }
     
+    private boolean matchesFilter(Presensi p, String searchText, String tipe, String status) {
+        boolean matchSearch = searchText.isEmpty() || 
+            (p.getUsername() != null && p.getUsername().toLowerCase().contains(searchText));
+        
+        boolean matchTipe = tipe == null || tipe.equals("ALL") || 
+            tipe.equals(p.getTipe());
+        
+        boolean matchStatus = status == null || status.equals("ALL") || 
+            status.equals(p.getStatus());
+        
+        return matchSearch && matchTipe && matchStatus;
+    }
+    
+    /**
+     * Terapkan event live ke tabel (dipanggil di FX thread).
+     * Hanya baris yang berubah yang di-update; filter yang aktif tetap berlaku.
+     */
+    private void onLiveEvent(LiveEvent event) {
+        if (mockDataCheckbox.isSelected()) {
+            return;
+        }
+        if (event.requiresReload()) {
+            // Terlalu banyak event terlewat / tersambung ulang → satu kali load ulang
+            cachedService.clearMemoryCache();
+            loadData();
+            return;
+        }
+        // Tabel ini menampilkan presensi hari ini (lihat loadData)
+        if (!event.isPresensiChange() || !LocalDate.now().equals(event.getTanggal())) {
+            return;
+        }
+        
+        Presensi row = event.toPresensi();
+        if (LiveEvent.DELETE.equals(event.getType())) {
+            removeById(presensiList, row.getId());
+            removeById(filteredList, row.getId());
+        } else {
+            upsertById(presensiList, row);
+            if (matchesFilter(row, searchField.getText().toLowerCase(), 
+                              tipeFilter.getValue(), statusFilter.getValue())) {
+                upsertById(filteredList, row);
+            } else {
+                removeById(filteredList, row.getId());
+            }
+        }
+        updateInfoLabel();
+    }
+    
+    private static int indexOfId(List<Presensi> list, Long id) {
+        for (int i = 0; i < list.size(); i++) {
+            if (Objects.equals(list.get(i).getId(), id)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+    
+    private static void upsertById(ObservableList<Presensi> list, Presensi row) {
+        int index = indexOfId(list, row.getId());
+        if (index >= 0) {
+            list.set(index, row);
+        } else {
+            list.add(row);
+        }
+    }
+    
+    private static void removeById(ObservableList<Presensi> list, Long id) {
+        int index = indexOfId(list, id);
+        if (index >= 0) {
+            list.remove(index);
+        }
+    }
+    
     @FXML
     private void handleReset() {
         searchField.clear();
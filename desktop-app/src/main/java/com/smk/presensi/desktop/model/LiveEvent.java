@@ -0,0 +1,206 @@
+package com.smk.presensi.desktop.model;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.Map;
+
+/**
+ * Model untuk event live dari backend (GET /api/events/presensi)
+ *
+ * type:
+ * - CHECKIN, CHECKOUT, UPDATE, DELETE → perubahan 1 presensi
+ * - KOREKSI, IZIN → pengajuan koreksi/izin dibuat atau diputuskan
+ * - COUNTERS → snapshot counter saat koneksi baru (tanpa data presensi)
+ * - RESET → client tertinggal terlalu jauh, data harus di-load ulang
+ * - RELOAD → dibuat client sendiri (WebSocketService): tersambung ulang setelah putus,
+ *   atau fallback berkala selama putus; data di-load ulang seperti RESET
+ */
+public class LiveEvent {
+    public static final String CHECKIN = "CHECKIN";
+    public static final String CHECKOUT = "CHECKOUT";
+    public static final String UPDATE = "UPDATE";
+    public static final String DELETE = "DELETE";
+    public static final String KOREKSI = "KOREKSI";
+    public static final String IZIN = "IZIN";
+    public static final String COUNTERS = "COUNTERS";
+    public static final String RESET = "RESET";
+    public static final String RELOAD = "RELOAD";
+
+    private long id;
+    private String type;
+    private LocalDateTime at;
+    private Long presensiId;
+    private Long koreksiId;
+    private Long izinId;
+    private Long userId;
+    private String username;
+    private String nama;
+    private String tipe;
+    private LocalDate tanggal;
+    private LocalTime jamMasuk;
+    private LocalTime jamPulang;
+    private String status;
+    private String method;
+    private String keterangan;
+    private String kelas;
+    private String jurusan;
+    private Counters counters;
+
+    public LiveEvent() {}
+
+    /**
+     * Event tanpa data presensi (COUNTERS / RESET / RELOAD)
+     */
+    public static LiveEvent of(String type, long id, Counters counters) {
+        LiveEvent event = new LiveEvent();
+        event.type = type;
+        event.id = id;
+        event.counters = counters;
+        return event;
+    }
+
+    /**
+     * Apakah layar harus load ulang datanya lewat REST (RESET / RELOAD)
+     */
+    public boolean requiresReload() {
+        return RESET.equals(type) || RELOAD.equals(type);
+    }
+
+    /**
+     * Apakah event ini perubahan data presensi (bisa diterapkan ke tabel)
+     */
+    public boolean isPresensiChange() {
+        return CHECKIN.equals(type) || CHECKOUT.equals(type)
+                || UPDATE.equals(type) || DELETE.equals(type);
+    }
+
+    /**
+     * Baris presensi hasil event (untuk upsert ke ObservableList)
+     */
+    public Presensi toPresensi() {
+        return new Presensi(presensiId, userId, username, tipe, tanggal,
+                jamMasuk, jamPulang, status, method, keterangan);
+    }
+
+    // Getters
+
+    public long getId() {
+        return id;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public LocalDateTime getAt() {
+        return at;
+    }
+
+    public Long getPresensiId() {
+        return presensiId;
+    }
+
+    public Long getKoreksiId() {
+        return koreksiId;
+    }
+
+    public Long getIzinId() {
+        return izinId;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public String getNama() {
+        return nama;
+    }
+
+    public String getTipe() {
+        return tipe;
+    }
+
+    public LocalDate getTanggal() {
+        return tanggal;
+    }
+
+    public LocalTime getJamMasuk() {
+        return jamMasuk;
+    }
+
+    public LocalTime getJamPulang() {
+        return jamPulang;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public String getMethod() {
+        return method;
+    }
+
+    public String getKeterangan() {
+        return keterangan;
+    }
+
+    public String getKelas() {
+        return kelas;
+    }
+
+    public String getJurusan() {
+        return jurusan;
+    }
+
+    public Counters getCounters() {
+        return counters;
+    }
+
+    /**
+     * Counter presensi hari ini (seluruh sekolah, siswa + guru)
+     */
+    public static class Counters {
+        private LocalDate tanggal;
+        private long total;
+        private long sudahPulang;
+        private Map<String, Long> perStatus;
+
+        public LocalDate getTanggal() {
+            return tanggal;
+        }
+
+        public long getTotal() {
+            return total;
+        }
+
+        public long getSudahPulang() {
+            return sudahPulang;
+        }
+
+        /**
+         * Jumlah untuk satu status (HADIR, TERLAMBAT, IZIN, SAKIT, ALPHA, DISPENSASI)
+         */
+        public long getStatus(String status) {
+            if (perStatus == null) {
+                return 0L;
+            }
+            Long value = perStatus.get(status);
+            return value != null ? value : 0L;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "LiveEvent{" +
+                "id=" + id +
+                ", type='" + type + '\'' +
+                ", presensiId=" + presensiId +
+                ", status='" + status + '\'' +
+                '}';
+    }
+}
@@ -0,0 +1,188 @@
+package com.smk.presensi.desktop.model;
+
+import java.util.List;
+
+/**
+ * Model untuk ringkasan performa backend (GET /admin/perf).
+ * Nilai kumulatif sejak server start, durasi dalam milidetik.
+ */
+public class PerfSummary {
+    private List<TimerStat> checkin;
+    private List<TimerStat> faceMatch;
+    private List<SummaryStat> faceCandidates;
+    private List<TimerStat> jwtFilter;
+    private List<TimerStat> report;
+    private List<TimerStat> export;
+    private List<SummaryStat> exportRows;
+    private List<SummaryStat> exportSize;
+    private Pool pool;
+
+    public List<TimerStat> getCheckin() {
+        return checkin;
+    }
+
+    public List<TimerStat> getFaceMatch() {
+        return faceMatch;
+    }
+
+    public List<SummaryStat> getFaceCandidates() {
+        return faceCandidates;
+    }
+
+    public List<TimerStat> getJwtFilter() {
+        return jwtFilter;
+    }
+
+    public List<TimerStat> getReport() {
+        return report;
+    }
+
+    public List<TimerStat> getExport() {
+        return export;
+    }
+
+    public List<SummaryStat> getExportRows() {
+        return exportRows;
+    }
+
+    public List<SummaryStat> getExportSize() {
+        return exportSize;
+    }
+
+    public Pool getPool() {
+        return pool;
+    }
+
+    /**
+     * Satu timer; hanya tag yang relevan yang terisi (mis. method/source untuk checkin)
+     */
+    public static class TimerStat {
+        private String method;
+        private String source;
+        private String outcome;
+        private String report;
+        private String type;
+        private long count;
+        private double meanMs;
+        private double maxMs;
+        private Double p50Ms;
+        private Double p95Ms;
+        private Double p99Ms;
+
+        public String getMethod() {
+            return method;
+        }
+
+        public String getSource() {
+            return source;
+        }
+
+        public String getOutcome() {
+            return outcome;
+        }
+
+        public String getReport() {
+            return report;
+        }
+
+        public String getType() {
+            return type;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public double getMeanMs() {
+            return meanMs;
+        }
+
+        public double getMaxMs() {
+            return maxMs;
+        }
+
+        public Double getP50Ms() {
+            return p50Ms;
+        }
+
+        public Double getP95Ms() {
+            return p95Ms;
+        }
+
+        public Double getP99Ms() {
+            return p99Ms;
+        }
+    }
+
+    /**
+     * Distribusi nilai (kandidat wajah, baris/byte export)
+     */
+    public static class SummaryStat {
+        private String type;
+        private long count;
+        private double mean;
+        private double max;
+        private Double p95;
+
+        public String getType() {
+            return type;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public double getMean() {
+            return mean;
+        }
+
+        public double getMax() {
+            return max;
+        }
+
+        public Double getP95() {
+            return p95;
+        }
+    }
+
+    /**
+     * Pool koneksi Hikari + antrian di depannya (null = meter tidak aktif)
+     */
+    public static class Pool {
+        private Double active;
+        private Double idle;
+        private Double pending;
+        private Double max;
+        private List<TimerStat> acquire;
+        private Double limiterWaiting;
+        private Double gateQueue;
+
+        public Double getActive() {
+            return active;
+        }
+
+        public Double getIdle() {
+            return idle;
+        }
+
+        public Double getPending() {
+            return pending;
+        }
+
+        public Double getMax() {
+            return max;
+        }
+
+        public List<TimerStat> getAcquire() {
+            return acquire;
+        }
+
+        public Double getLimiterWaiting() {
+            return limiterWaiting;
+        }
+
+        public Double getGateQueue() {
+            return gateQueue;
+        }
+    }
+}
@@ -2,72 +2,133 @@ package com.smk.presensi.desktop.service;
 
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
-import com.google.gson.JsonDeserializer;
+import com.google.gson.JsonParseException;
 import com.google.gson.TypeAdapter;
 import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
 import com.google.gson.stream.JsonWriter;
 
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Type;
 import java.net.URI;
 import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
 
 /**
  * HTTP Client untuk komunikasi dengan Backend API
  * Handles authentication (JWT), request/response, error handling
  * Uses Singleton pattern to share JWT token across the application
+ *
+ * - HTTP/2 jika server mendukung (fallback otomatis ke HTTP/1.1)
+ * - Response gzip/deflate di-decode otomatis (Accept-Encoding dikirim di setiap request)
+ * - getJson/getList: parse langsung dari stream ke model (JsonReader),
+ *   tanpa String body dan tanpa Map<String, Object> perantara
+ * - Versi *Async mengembalikan CompletableFuture (tidak memblokir thread pemanggil)
+ * - getJson/getList menyimpan body yang punya ETag; request berikutnya mengirim
+ *   If-None-Match dan 304 Not Modified langsung di-parse dari body tersimpan
  */
 public class ApiClient {
     private static final String BASE_URL = "http://localhost:8081/api";
     private static final Duration TIMEOUT = Duration.ofSeconds(30);
+    private static final String ACCEPT_ENCODING = "gzip, deflate";
+    /** Batas cache ETag: jumlah endpoint dan ukuran satu body */
+    private static final int ETAG_CACHE_ENTRIES = 64;
+    private static final int ETAG_CACHE_MAX_BODY = 2 * 1024 * 1024;
     
+    /** Body sebagai String (UTF-8), sudah di-decode dari gzip/deflate */
+    private static final HttpResponse.BodyHandler<String> TEXT_BODY = info ->
+            HttpResponse.BodySubscribers.mapping(HttpResponse.BodySubscribers.ofByteArray(), bytes -> {
+                try (InputStream in = decode(new ByteArrayInputStream(bytes), info.headers())) {
+                    return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+
     private static ApiClient instance;
     
     private final HttpClient httpClient;
     private final Gson gson;
-    private String jwtToken;
+    // Parse JSON dari stream tidak boleh di thread selector HttpClient
+    private final ExecutorService parseExecutor;
+    private volatile String jwtToken;
+
+    /** Body (sudah di-decode) terakhir per endpoint + ETag-nya */
+    private record CachedBody(String etag, byte[] body) {
+    }
+
+    // accessOrder = true → entry paling lama tidak dipakai dibuang lebih dulu
+    private final Map<String, CachedBody> etagCache = Collections.synchronizedMap(
+            new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, CachedBody> eldest) {
+                    return size() > ETAG_CACHE_ENTRIES;
+                }
+            });
 
     private ApiClient() {
         this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
                 .connectTimeout(TIMEOUT)
                 .build();
+        this.parseExecutor = Executors.newFixedThreadPool(2, runnable -> {
+            Thread thread = new Thread(runnable, "api-json");
+            thread.setDaemon(true);
+            return thread;
+        });
 
-        // Custom Gson with LocalDate/LocalTime adapters
+        // Custom Gson with java.time adapters (streaming TypeAdapter, tanpa JsonElement per field)
         this.gson = new GsonBuilder()
-                .registerTypeAdapter(LocalDate.class, 
-                    (JsonDeserializer<LocalDate>) (json, type, context) -> 
-                        LocalDate.parse(json.getAsString()))
-                .registerTypeAdapter(LocalTime.class,
-                    (JsonDeserializer<LocalTime>) (json, type, context) -> 
-                        LocalTime.parse(json.getAsString(), DateTimeFormatter.ISO_LOCAL_TIME))
-                .registerTypeAdapter(LocalDateTime.class, new TypeAdapter<LocalDateTime>() {
-                    @Override
-                    public void write(JsonWriter out, LocalDateTime value) throws IOException {
-                        if (value == null) {
-                            out.nullValue();
-                        } else {
-                            out.value(value.format(DateTimeFormatter.ISO_LOCAL_DATE_TIME));
-                        }
-                    }
-
-                    @Override
-                    public LocalDateTime read(JsonReader in) throws IOException {
-                        if (in.peek() == com.google.gson.stream.JsonToken.NULL) {
-                            in.nextNull();
-                            return null;
-                        }
-                        return LocalDateTime.parse(in.nextString(), DateTimeFormatter.ISO_LOCAL_DATE_TIME);
-                    }
-                })
+                .registerTypeAdapter(LocalDate.class, isoAdapter(LocalDate::toString, LocalDate::parse))
+                .registerTypeAdapter(LocalTime.class, isoAdapter(
+                        value -> value.format(DateTimeFormatter.ISO_LOCAL_TIME),
+                        text -> LocalTime.parse(text, DateTimeFormatter.ISO_LOCAL_TIME)))
+                .registerTypeAdapter(LocalDateTime.class, isoAdapter(
+                        value -> value.format(DateTimeFormatter.ISO_LOCAL_DATE_TIME),
+                        text -> LocalDateTime.parse(text, DateTimeFormatter.ISO_LOCAL_DATE_TIME)))
                 .create();
     }
+
+    private static <T> TypeAdapter<T> isoAdapter(Function<T, String> format,
+                                                 Function<String, T> parse) {
+        return new TypeAdapter<T>() {
+            @Override
+            public void write(JsonWriter out, T value) throws IOException {
+                out.value(format.apply(value));
+            }
+
+            @Override
+            public T read(JsonReader in) throws IOException {
+                return parse.apply(in.nextString());
+            }
+        }.nullSafe();
+    }
     
     /**
      * Get singleton instance of ApiClient
@@ -83,26 +144,27 @@ public class ApiClient {
      * Login dan simpan JWT token
      */
     public boolean login(String username, String password) throws IOException, InterruptedException {
-        String jsonBody = String.format("{\"username\":\"%s\",\"password\":\"%s\"}", 
-                                       username, password);
+        // Lewat Gson: password berisi tanda kutip / backslash tetap JSON yang valid
+        String jsonBody = gson.toJson(Map.of("username", username, "password", password));
 
         HttpRequest request = HttpRequest.newBuilder()
                 .uri(URI.create(BASE_URL + "/auth/login"))
                 .header("Content-Type", "application/json")
+                .header("Accept-Encoding", ACCEPT_ENCODING)
                 .POST(HttpRequest.BodyPublishers.ofString(jsonBody))
                 .timeout(TIMEOUT)
                 .build();
 
-        HttpResponse<String> response = httpClient.send(request, 
-                                                        HttpResponse.BodyHandlers.ofString());
+        HttpResponse<InputStream> response = httpClient.send(request, HttpResponse.BodyHandlers.ofInputStream());
 
         if (response.statusCode() == 200) {
             // Parse token dari response
-            var jsonResponse = gson.fromJson(response.body(), LoginResponse.class);
-            this.jwtToken = jsonResponse.token;
+            LoginResponse jsonResponse = readJson(response, LoginResponse.class);
+            setJwtToken(jsonResponse.token);
             return true;
         }
 
+        discard(response);
         return false;
     }
 
@@ -110,17 +172,7 @@ public class ApiClient {
      * GET request dengan JWT token
      */
     public HttpResponse<String> get(String endpoint) throws IOException, InterruptedException {
-        HttpRequest.Builder builder = HttpRequest.newBuilder()
-                .uri(URI.create(BASE_URL + endpoint))
-                .header("Content-Type", "application/json")
-                .timeout(TIMEOUT)
-                .GET();
-
-        if (jwtToken != null) {
-            builder.header("Authorization", "Bearer " + jwtToken);
-        }
-
-        return httpClient.send(builder.build(), HttpResponse.BodyHandlers.ofString());
+        return httpClient.send(newRequest(endpoint).GET().build(), TEXT_BODY);
     }
 
     /**
@@ -143,17 +195,8 @@ public class ApiClient {
      * POST request dengan JWT token
      */
     public HttpResponse<String> post(String endpoint, String jsonBody) throws IOException, InterruptedException {
-        HttpRequest.Builder builder = HttpRequest.newBuilder()
-                .uri(URI.create(BASE_URL + endpoint))
-                .header("Content-Type", "application/json")
-                .timeout(TIMEOUT)
-                .POST(HttpRequest.BodyPublishers.ofString(jsonBody));
-
-        if (jwtToken != null) {
-            builder.header("Authorization", "Bearer " + jwtToken);
-        }
-
-        return httpClient.send(builder.build(), HttpResponse.BodyHandlers.ofString());
+        return httpClient.send(newRequest(endpoint)
+                .POST(HttpRequest.BodyPublishers.ofString(jsonBody)).build(), TEXT_BODY);
     }
 
     /**
@@ -161,17 +204,8 @@ public class ApiClient {
      */
     public HttpResponse<String> put(String endpoint, String jsonBody) 
             throws IOException, InterruptedException {
-        HttpRequest.Builder builder = HttpRequest.newBuilder()
-                .uri(URI.create(BASE_URL + endpoint))
-                .header("Content-Type", "application/json")
-                .timeout(TIMEOUT)
-                .PUT(HttpRequest.BodyPublishers.ofString(jsonBody));
-
-        if (jwtToken != null) {
-            builder.header("Authorization", "Bearer " + jwtToken);
-        }
-
-        return httpClient.send(builder.build(), HttpResponse.BodyHandlers.ofString());
+        return httpClient.send(newRequest(endpoint)
+                .PUT(HttpRequest.BodyPublishers.ofString(jsonBody)).build(), TEXT_BODY);
     }
     
     /**
@@ -179,17 +213,7 @@ public class ApiClient {
      */
     public HttpResponse<String> delete(String endpoint) 
             throws IOException, InterruptedException {
-        HttpRequest.Builder builder = HttpRequest.newBuilder()
-                .uri(URI.create(BASE_URL + endpoint))
-                .header("Content-Type", "application/json")
-                .timeout(TIMEOUT)
-                .DELETE();
-
-        if (jwtToken != null) {
-            builder.header("Authorization", "Bearer " + jwtToken);
-        }
-
-        return httpClient.send(builder.build(), HttpResponse.BodyHandlers.ofString());
+        return httpClient.send(newRequest(endpoint).DELETE().build(), TEXT_BODY);
     }
 
     /**
@@ -211,6 +235,7 @@ public class ApiClient {
         HttpRequest.Builder builder = HttpRequest.newBuilder()
                 .uri(URI.create(BASE_URL + endpoint))
                 .header("Content-Type", "multipart/form-data; boundary=" + boundary)
+                .header("Accept-Encoding", ACCEPT_ENCODING)
                 .timeout(Duration.ofMinutes(5)) // Longer timeout for upload
                 .POST(HttpRequest.BodyPublishers.ofByteArrays(byteArrays));
 
@@ -218,7 +243,224 @@ public class ApiClient {
             builder.header("Authorization", "Bearer " + jwtToken);
         }
 
-        return httpClient.send(builder.build(), HttpResponse.BodyHandlers.ofString());
+        return httpClient.send(builder.build(), TEXT_BODY);
+    }
+
+    // ===== Async & streaming JSON =====
+
+    /**
+     * GET asynchronous (body String, sudah di-decode)
+     */
+    public CompletableFuture<HttpResponse<String>> getAsync(String endpoint) {
+        return httpClient.sendAsync(newRequest(endpoint).GET().build(), TEXT_BODY);
+    }
+
+    /**
+     * POST asynchronous (body String, sudah di-decode)
+     */
+    public CompletableFuture<HttpResponse<String>> postAsync(String endpoint, String jsonBody) {
+        return httpClient.sendAsync(newRequest(endpoint)
+                .POST(HttpRequest.BodyPublishers.ofString(jsonBody)).build(), TEXT_BODY);
+    }
+
+    /**
+     * GET lalu parse langsung ke tipe model.
+     *
+     * @param path Nama field yang ditelusuri dulu, mis. "data" untuk { "data": {...} }
+     * @throws HttpStatusException status bukan 2xx
+     */
+    public <T> T getJson(String endpoint, Type type, String... path) throws IOException, InterruptedException {
+        return await(getJsonAsync(endpoint, type, path));
+    }
+
+    public <T> CompletableFuture<T> getJsonAsync(String endpoint, Type type, String... path) {
+        return sendJson(endpoint, reader -> seek(reader, path) ? gson.<T>fromJson(reader, type) : null);
+    }
+
+    /**
+     * GET array JSON, elemen di-parse satu per satu dari stream.
+     * Tidak ada String body / Map perantara: response besar (mis. /laporan/periode)
+     * cukup dialokasikan sebagai list model hasil akhirnya.
+     *
+     * @param path Lokasi array, mis. "data", "daftarPresensi"; kosong = array di root
+     * @return List (kosong jika path tidak ada / null)
+     */
+    public <T> List<T> getList(String endpoint, Class<T> itemType, String... path)
+            throws IOException, InterruptedException {
+        return await(getListAsync(endpoint, itemType, path));
+    }
+
+    public <T> CompletableFuture<List<T>> getListAsync(String endpoint, Class<T> itemType, String... path) {
+        return sendJson(endpoint, reader -> {
+            List<T> items = new ArrayList<>();
+            if (seek(reader, path) && reader.peek() == JsonToken.BEGIN_ARRAY) {
+                reader.beginArray();
+                while (reader.hasNext()) {
+                    items.add(gson.fromJson(reader, itemType));
+                }
+                reader.endArray();
+            }
+            return items;
+        });
+    }
+
+    /**
+     * Parse body stream ke satu object (root)
+     */
+    public <T> T readJson(HttpResponse<InputStream> response, Type type) throws IOException {
+        try (JsonReader reader = open(response)) {
+            return gson.fromJson(reader, type);
+        }
+    }
+
+    @FunctionalInterface
+    private interface StreamParser<T> {
+        T parse(JsonReader reader) throws IOException;
+    }
+
+    /**
+     * GET + parse JSON (conditional GET jika endpoint pernah mengembalikan ETag)
+     *
+     * - 304: parse dari body tersimpan, server tidak mengirim ulang data
+     * - 200 dengan ETag: body dibaca penuh, disimpan, lalu di-parse
+     * - 200 tanpa ETag: parse langsung dari stream seperti biasa
+     */
+    private <T> CompletableFuture<T> sendJson(String endpoint, StreamParser<T> parser) {
+        CachedBody cached = etagCache.get(endpoint);
+        HttpRequest.Builder builder = newRequest(endpoint).GET();
+        if (cached != null) {
+            builder.header("If-None-Match", cached.etag());
+        }
+        return httpClient.sendAsync(builder.build(), HttpResponse.BodyHandlers.ofInputStream())
+                .thenApplyAsync(response -> {
+                    try {
+                        if (response.statusCode() == 304 && cached != null) {
+                            discard(response);
+                            return parse(new ByteArrayInputStream(cached.body()), parser);
+                        }
+                        if (response.statusCode() < 200 || response.statusCode() >= 300) {
+                            throw new HttpStatusException(endpoint, response.statusCode(), readText(response));
+                        }
+                        String etag = response.headers().firstValue("ETag").orElse(null);
+                        if (etag == null) {
+                            etagCache.remove(endpoint);
+                            return parse(decode(response.body(), response.headers()), parser);
+                        }
+                        byte[] body = readBytes(response);
+                        if (body.length <= ETAG_CACHE_MAX_BODY) {
+                            etagCache.put(endpoint, new CachedBody(etag, body));
+                        }
+                        return parse(new ByteArrayInputStream(body), parser);
+                    } catch (IOException e) {
+                        throw new CompletionException(e);
+                    } catch (JsonParseException e) {
+                        throw new CompletionException(new IOException("Invalid JSON from " + endpoint, e));
+                    }
+                }, parseExecutor);
+    }
+
+    private static <T> T parse(InputStream body, StreamParser<T> parser) throws IOException {
+        try (JsonReader reader = new JsonReader(new InputStreamReader(body, StandardCharsets.UTF_8))) {
+            return parser.parse(reader);
+        }
+    }
+
+    private JsonReader open(HttpResponse<InputStream> response) throws IOException {
+        return new JsonReader(new InputStreamReader(decode(response.body(), response.headers()),
+                StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Maju ke value dari field path (object bertingkat). Field lain di-skip tanpa di-parse.
+     *
+     * @return false jika salah satu field tidak ada atau null
+     */
+    private static boolean seek(JsonReader reader, String... path) throws IOException {
+        for (String field : path) {
+            if (reader.peek() != JsonToken.BEGIN_OBJECT) {
+                return false;
+            }
+            reader.beginObject();
+            boolean found = false;
+            while (reader.hasNext()) {
+                if (reader.nextName().equals(field)) {
+                    found = true;
+                    break;
+                }
+                reader.skipValue();
+            }
+            if (!found) {
+                return false;
+            }
+        }
+        if (reader.peek() == JsonToken.NULL) {
+            reader.nextNull();
+            return false;
+        }
+        return true;
+    }
+
+    private static String readText(HttpResponse<InputStream> response) throws IOException {
+        return new String(readBytes(response), StandardCharsets.UTF_8);
+    }
+
+    private static byte[] readBytes(HttpResponse<InputStream> response) throws IOException {
+        try (InputStream in = decode(response.body(), response.headers())) {
+            return in.readAllBytes();
+        }
+    }
+
+    private static void discard(HttpResponse<InputStream> response) throws IOException {
+        response.body().close();
+    }
+
+    private static InputStream decode(InputStream body, HttpHeaders headers) throws IOException {
+        String encoding = headers.firstValue("Content-Encoding").orElse("").trim();
+        if (encoding.equalsIgnoreCase("gzip")) {
+            return new GZIPInputStream(body);
+        }
+        if (encoding.equalsIgnoreCase("deflate")) {
+            return new InflaterInputStream(body);
+        }
+        return body;
+    }
+
+    /**
+     * Tunggu future dengan exception yang sama seperti versi blocking
+     */
+    private static <T> T await(CompletableFuture<T> future) throws IOException, InterruptedException {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException io) {
+                throw io;
+            }
+            if (cause instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IOException(cause);
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            throw e;
+        }
+    }
+
+    /**
+     * Request builder dengan header standar (JSON, kompresi, JWT)
+     */
+    private HttpRequest.Builder newRequest(String endpoint) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder()
+                .uri(URI.create(BASE_URL + endpoint))
+                .header("Content-Type", "application/json")
+                .header("Accept-Encoding", ACCEPT_ENCODING)
+                .timeout(TIMEOUT);
+
+        String token = jwtToken;
+        if (token != null) {
+            builder.header("Authorization", "Bearer " + token);
+        }
+        return builder;
     }
 
     /**
@@ -241,6 +483,8 @@ public class ApiClient {
 
     public void setJwtToken(String jwtToken) {
         this.jwtToken = jwtToken;
+        // Isi response bisa berbeda per user/role
+        etagCache.clear();
     }
     
     public HttpClient getHttpClient() {
@@ -251,6 +495,28 @@ public class ApiClient {
         return BASE_URL;
     }
     
+    /**
+     * Response dengan status bukan 2xx (body error ikut disimpan)
+     */
+    public static class HttpStatusException extends IOException {
+        private final int statusCode;
+        private final String body;
+
+        public HttpStatusException(String endpoint, int statusCode, String body) {
+            super("Request " + endpoint + " failed: " + statusCode);
+            this.statusCode = statusCode;
+            this.body = body;
+        }
+
+        public int getStatusCode() {
+            return statusCode;
+        }
+
+        public String getBody() {
+            return body;
+        }
+    }
+
     // Inner class untuk parse login response
     private static class LoginResponse {
         String token;
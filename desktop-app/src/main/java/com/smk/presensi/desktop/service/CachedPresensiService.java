@@ -4,71 +4,46 @@ import com.smk.presensi.desktop.model.Presensi;
 
 import java.time.LocalDate;
 import java.util.List;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Cached wrapper for PresensiService
- * Implements in-memory cache with TTL (Time-To-Live)
+ * Memory cache per hari (PresensiRangeCache, dipakai bersama semua layar)
+ * dengan fallback ke cache lokal SQLite saat offline
  */
 public class CachedPresensiService {
     private final PresensiService presensiService;
     private final LocalCacheService localCache;
-    private final Map<String, CacheEntry<List<Presensi>>> memoryCache;
-    private static final long DEFAULT_TTL = 5 * 60 * 1000; // 5 minutes
+    private final PresensiRangeCache rangeCache;
 
     public CachedPresensiService(PresensiService presensiService) {
         this.presensiService = presensiService;
         this.localCache = LocalCacheService.getInstance();
-        this.memoryCache = new ConcurrentHashMap<>();
+        this.rangeCache = PresensiRangeCache.getInstance();
     }
 
     /**
      * Get presensi by date range with caching
-     * Try: Memory Cache -> API -> Local Cache (fallback)
+     * Try: Memory Cache (per hari) -> API (hanya hari yang belum ada) -> Local Cache (fallback)
      */
     public List<Presensi> getPresensiByDateRange(LocalDate startDate, LocalDate endDate) throws Exception {
-        String cacheKey = startDate + "_" + endDate;
-
-        // 1. Check memory cache
-        CacheEntry<List<Presensi>> cached = memoryCache.get(cacheKey);
-        if (cached != null && !cached.isExpired()) {
-            System.out.println("✓ Returning data from memory cache");
-            return cached.getData();
-        }
-
-        // 2. Try fetch from API
         try {
-            List<Presensi> data = presensiService.getPresensiByDateRange(startDate, endDate);
-            
-            // Cache to memory
-            memoryCache.put(cacheKey, new CacheEntry<>(data, DEFAULT_TTL));
-            
-            // Cache to local database (async)
-            new Thread(() -> {
-                try {
-                    localCache.cachePresensi(data);
-                } catch (Exception e) {
-                    System.err.println("Failed to cache to local DB: " + e.getMessage());
-                }
-            }).start();
-            
-            System.out.println("✓ Fetched fresh data from API");
-            return data;
-            
+            return rangeCache.getRange(startDate, endDate, (start, end) -> {
+                List<Presensi> data = presensiService.getPresensiByDateRange(start, end);
+                // Cache to local database (async, antre di thread writer)
+                localCache.cachePresensi(data);
+                System.out.println("✓ Fetched " + start + " to " + end + " from API");
+                return data;
+            });
         } catch (Exception e) {
-            // 3. Fallback to local cache
+            // Fallback to local cache (tidak disimpan di memory: begitu online lagi, ambil dari API)
             System.err.println("⚠ API failed, using local cache: " + e.getMessage());
-            
+
             List<Presensi> cachedData = localCache.getCachedPresensi(startDate, endDate);
-            
+
             if (cachedData.isEmpty()) {
                 throw new Exception("No cached data available (offline mode)");
             }
-            
-            // Cache to memory for next access
-            memoryCache.put(cacheKey, new CacheEntry<>(cachedData, DEFAULT_TTL));
-            
+
             return cachedData;
         }
     }
@@ -85,7 +60,7 @@ public class CachedPresensiService {
      * Clear memory cache
      */
     public void clearMemoryCache() {
-        memoryCache.clear();
+        rangeCache.clear();
         System.out.println("Memory cache cleared");
     }
 
@@ -110,7 +85,7 @@ public class CachedPresensiService {
      */
     public String getCacheStats() {
         LocalCacheService.CacheStats stats = localCache.getStats();
-        return String.format("Memory: %d entries | Local: %s", memoryCache.size(), stats.toString());
+        return String.format("Memory: %s | Local: %s", rangeCache.getStats(), stats.toString());
     }
 
     /**
@@ -121,52 +96,25 @@ public class CachedPresensiService {
         try {
             // Try API first
             Presensi created = presensiService.createPresensi(presensi);
-            
+
             // If success, cache it (synced=1)
-            new Thread(() -> localCache.cachePresensi(List.of(created))).start();
-            
-            // Invalidate memory cache
-            clearMemoryCache();
-            
+            localCache.cachePresensi(List.of(created));
+
+            // Invalidate memory cache (hanya hari yang berubah)
+            rangeCache.invalidate(created.getTanggal());
+
             return created;
         } catch (Exception e) {
             System.err.println("⚠ API failed, saving offline: " + e.getMessage());
-            
+
             // Save offline (synced=0)
             localCache.saveOfflinePresensi(presensi);
-            
+
             // Invalidate memory cache
-            clearMemoryCache();
-            
+            rangeCache.invalidate(presensi.getTanggal());
+
             // Return the object (it won't have a real ID yet)
             return presensi;
         }
     }
-
-    /**
-     * Cache entry with TTL
-     */
-    private static class CacheEntry<T> {
-        private final T data;
-        private final long timestamp;
-        private final long ttl;
-
-        public CacheEntry(T data, long ttl) {
-            this.data = data;
-            this.timestamp = System.currentTimeMillis();
-            this.ttl = ttl;
-        }
-
-        public boolean isExpired() {
-            return System.currentTimeMillis() - timestamp > ttl;
-        }
-
-        public T getData() {
-            return data;
-        }
-
-        public long getAge() {
-            return System.currentTimeMillis() - timestamp;
-        }
-    }
 }
@@ -2,10 +2,8 @@ package com.smk.presensi.desktop.service;
 
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
-import com.google.gson.reflect.TypeToken;
 import com.smk.presensi.desktop.model.Jurusan;
 
-import java.lang.reflect.Type;
 import java.net.http.HttpResponse;
 import java.util.ArrayList;
 import java.util.List;
@@ -26,15 +24,7 @@ public class JurusanService {
 
     public List<Jurusan> getAllJurusan() {
         try {
-            HttpResponse<String> response = apiClient.get("/jurusan");
-
-            if (response.statusCode() == 200) {
-                Type listType = new TypeToken<List<Jurusan>>() {}.getType();
-                return gson.fromJson(response.body(), listType);
-            } else {
-                System.err.println("Error getting jurusan list: " + response.statusCode());
-                return new ArrayList<>();
-            }
+            return apiClient.getList("/jurusan", Jurusan.class);
         } catch (Exception e) {
             System.err.println("Error getting jurusan list: " + e.getMessage());
             e.printStackTrace();
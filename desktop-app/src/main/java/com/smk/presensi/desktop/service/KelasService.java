@@ -27,15 +27,7 @@ public class KelasService {
 
     public List<Kelas> getAllKelas() {
         try {
-            HttpResponse<String> response = apiClient.get("/kelas");
-
-            if (response.statusCode() == 200) {
-                Type listType = new TypeToken<List<Kelas>>() {}.getType();
-                return gson.fromJson(response.body(), listType);
-            } else {
-                System.err.println("Error getting kelas list: " + response.statusCode());
-                return new ArrayList<>();
-            }
+            return apiClient.getList("/kelas", Kelas.class);
         } catch (Exception e) {
             System.err.println("Error getting kelas list: " + e.getMessage());
             e.printStackTrace();
@@ -62,15 +54,7 @@ public class KelasService {
 
     public List<Kelas> getKelasByJurusan(String jurusan) {
         try {
-            HttpResponse<String> response = apiClient.get("/kelas/jurusan/" + jurusan);
-
-            if (response.statusCode() == 200) {
-                Type listType = new TypeToken<List<Kelas>>() {}.getType();
-                return gson.fromJson(response.body(), listType);
-            } else {
-                System.err.println("Error getting kelas by jurusan: " + response.statusCode());
-                return new ArrayList<>();
-            }
+            return apiClient.getList("/kelas/jurusan/" + jurusan, Kelas.class);
         } catch (Exception e) {
             System.err.println("Error getting kelas by jurusan: " + e.getMessage());
             e.printStackTrace();
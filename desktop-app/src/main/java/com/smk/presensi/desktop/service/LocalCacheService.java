@@ -1,148 +1,139 @@
 package com.smk.presensi.desktop.service;
 
 import com.smk.presensi.desktop.model.Presensi;
-import com.google.gson.Gson;
-import com.google.gson.reflect.TypeToken;
 
 import java.io.File;
-import java.sql.*;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Service for local data caching using SQLite
  * Provides offline mode functionality
+ *
+ * Thread-safe: write masuk antrean satu thread writer, read memakai pool koneksi
+ * (lihat LocalDatabase). Method boleh dipanggil dari FX thread maupun background.
  */
 public class LocalCacheService {
     private static LocalCacheService instance;
-    private Connection connection;
-    private final String dbPath;
-    private final Gson gson = new Gson();
+
+    // Nilai kolom synced
+    public static final int SYNC_PENDING = 0;
+    public static final int SYNC_DONE = 1;
+    /** Server sudah punya presensi lain untuk user + tanggal yang sama */
+    public static final int SYNC_CONFLICT = 2;
+    /** Ditolak server (data tidak valid) atau gagal terus-menerus */
+    public static final int SYNC_REJECTED = 3;
+
+    /** Setelah gagal sebanyak ini (ERROR dari server), baris berhenti dikirim ulang */
+    private static final int MAX_SYNC_ATTEMPTS = 10;
+
+    private static final String SQL_UPSERT = """
+        INSERT OR REPLACE INTO presensi_cache
+        (id, user_id, username, tipe, tanggal, jam_masuk, jam_pulang, status, method, keterangan, synced, updated_at)
+        VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, 1, datetime('now'))
+    """;
+    /**
+     * ID lokal negatif (-1, -2, ...) supaya tidak pernah bentrok dengan ID server
+     * yang nanti di-cache lewat INSERT OR REPLACE.
+     */
+    private static final String SQL_INSERT_OFFLINE = """
+        INSERT INTO presensi_cache
+        (id, user_id, username, tipe, tanggal, jam_masuk, jam_pulang, status, method, keterangan,
+         synced, client_key, updated_at)
+        VALUES ((SELECT MIN(0, COALESCE(MIN(id), 0)) - 1 FROM presensi_cache),
+                ?, ?, ?, ?, ?, ?, ?, ?, ?, 0, ?, datetime('now'))
+    """;
+    // Baris CONFLICT/REJECTED tidak ditampilkan: versi server yang berlaku
+    private static final String SQL_BY_RANGE = "SELECT " + PresensiRowMapper.COLUMNS
+            + " FROM presensi_cache WHERE tanggal BETWEEN ? AND ? AND synced IN (0, 1)"
+            + " ORDER BY tanggal DESC, jam_masuk DESC";
+    private static final String SQL_ALL = "SELECT " + PresensiRowMapper.COLUMNS
+            + " FROM presensi_cache WHERE synced IN (0, 1) ORDER BY tanggal DESC, jam_masuk DESC LIMIT 1000";
+    private static final String SQL_PENDING_CHUNK = "SELECT " + PresensiRowMapper.COLUMNS + ", client_key"
+            + " FROM presensi_cache WHERE synced = 0 AND id > ? ORDER BY id LIMIT ?";
+    private static final String SQL_DELETE_BY_ID = "DELETE FROM presensi_cache WHERE id = ?";
+    private static final String SQL_SYNC_DONE = """
+        UPDATE presensi_cache SET id = ?, synced = 1, sync_error = NULL, updated_at = datetime('now')
+        WHERE id = ?
+    """;
+    private static final String SQL_SYNC_FAILED = """
+        UPDATE presensi_cache SET synced = ?, sync_error = ?, updated_at = datetime('now')
+        WHERE id = ?
+    """;
+    private static final String SQL_SYNC_RETRY = """
+        UPDATE presensi_cache
+        SET sync_attempts = sync_attempts + 1, sync_error = ?, updated_at = datetime('now'),
+            synced = CASE WHEN sync_attempts + 1 >= ? THEN 3 ELSE 0 END
+        WHERE id = ?
+    """;
+    private static final String SQL_STATS = """
+        SELECT COUNT(*) AS total, MIN(tanggal) AS min_date, MAX(tanggal) AS max_date,
+               SUM(CASE WHEN synced = 0 THEN 1 ELSE 0 END) AS pending,
+               SUM(CASE WHEN synced IN (2, 3) THEN 1 ELSE 0 END) AS failed
+        FROM presensi_cache
+    """;
+
+    private final LocalDatabase database;
 
     private LocalCacheService() {
         // Store database in user home directory
         String userHome = System.getProperty("user.home");
         String appDir = userHome + File.separator + ".sija";
-        this.dbPath = appDir + File.separator + "cache.db";
-        
-        initDatabase();
-    }
+        String dbPath = appDir + File.separator + "cache.db";
 
-    public static LocalCacheService getInstance() {
-        if (instance == null) {
-            instance = new LocalCacheService();
-        }
-        return instance;
-    }
-
-    private void initDatabase() {
+        LocalDatabase db = null;
         try {
-            // Create directory if not exists
-            File dbFile = new File(dbPath);
-            File parentDir = dbFile.getParentFile();
-            if (!parentDir.exists()) {
-                parentDir.mkdirs();
-                System.out.println("Created cache directory: " + parentDir.getAbsolutePath());
-            }
-
-            // Connect to database
-            connection = DriverManager.getConnection("jdbc:sqlite:" + dbPath);
-            
-            // Create tables
-            createTables();
-            
+            db = new LocalDatabase(dbPath);
             System.out.println("Local cache database initialized at: " + dbPath);
         } catch (SQLException e) {
+            // Tanpa cache lokal aplikasi tetap jalan (online saja)
             System.err.println("Failed to init cache database: " + e.getMessage());
             e.printStackTrace();
         }
+        this.database = db;
     }
 
-    private void createTables() throws SQLException {
-        String createPresensiTable = """
-            CREATE TABLE IF NOT EXISTS presensi_cache (
-                id INTEGER PRIMARY KEY,
-                user_id INTEGER NOT NULL,
-                username TEXT NOT NULL,
-                tipe TEXT,
-                tanggal TEXT NOT NULL,
-                jam_masuk TEXT NOT NULL,
-                jam_pulang TEXT,
-                status TEXT NOT NULL,
-                method TEXT,
-                keterangan TEXT,
-                synced INTEGER DEFAULT 1,
-                created_at TEXT DEFAULT CURRENT_TIMESTAMP,
-                updated_at TEXT DEFAULT CURRENT_TIMESTAMP
-            )
-        """;
-
-        String createIndexTanggal = """
-            CREATE INDEX IF NOT EXISTS idx_tanggal ON presensi_cache(tanggal)
-        """;
-
-        String createIndexSynced = """
-            CREATE INDEX IF NOT EXISTS idx_synced ON presensi_cache(synced)
-        """;
-
-        String createIndexUsername = """
-            CREATE INDEX IF NOT EXISTS idx_username ON presensi_cache(username)
-        """;
-
-        try (Statement stmt = connection.createStatement()) {
-            stmt.executeUpdate(createPresensiTable);
-            stmt.executeUpdate(createIndexTanggal);
-            stmt.executeUpdate(createIndexSynced);
-            stmt.executeUpdate(createIndexUsername);
+    public static synchronized LocalCacheService getInstance() {
+        if (instance == null) {
+            instance = new LocalCacheService();
         }
+        return instance;
     }
 
     /**
      * Cache list of presensi records
+     *
+     * Asynchronous: langsung kembali, penulisan dilakukan thread writer dalam satu transaksi.
+     *
+     * @return jumlah baris yang ditulis (selesai saat commit)
      */
-    public void cachePresensi(List<Presensi> presensiList) {
-        if (presensiList == null || presensiList.isEmpty()) {
-            return;
+    public CompletableFuture<Integer> cachePresensi(List<Presensi> presensiList) {
+        if (database == null || presensiList == null || presensiList.isEmpty()) {
+            return CompletableFuture.completedFuture(0);
         }
+        List<Presensi> rows = List.copyOf(presensiList);
 
-        String sql = """
-            INSERT OR REPLACE INTO presensi_cache 
-            (id, user_id, username, tipe, tanggal, jam_masuk, jam_pulang, status, method, keterangan, synced, updated_at)
-            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, 1, datetime('now'))
-        """;
-
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
-            connection.setAutoCommit(false);
-
-            for (Presensi p : presensiList) {
+        return database.write(session -> {
+            PreparedStatement pstmt = session.prepare(SQL_UPSERT);
+            for (Presensi p : rows) {
                 pstmt.setLong(1, p.getId());
-                pstmt.setLong(2, p.getUserId());
-                pstmt.setString(3, p.getUsername());
-                pstmt.setString(4, p.getTipe());
-                pstmt.setString(5, p.getTanggal().toString());
-                pstmt.setString(6, p.getJamMasuk() != null ? p.getJamMasuk().toString() : null);
-                pstmt.setString(7, p.getJamPulang() != null ? p.getJamPulang().toString() : null);
-                pstmt.setString(8, p.getStatus());
-                pstmt.setString(9, p.getMethod());
-                pstmt.setString(10, p.getKeterangan());
+                PresensiRowMapper.bind(pstmt, 2, p);
                 pstmt.addBatch();
             }
-
-            int[] results = pstmt.executeBatch();
-            connection.commit();
-            connection.setAutoCommit(true);
-
-            System.out.println("Cached " + results.length + " presensi records");
-        } catch (SQLException e) {
-            System.err.println("Failed to cache presensi: " + e.getMessage());
-            try {
-                connection.rollback();
-                connection.setAutoCommit(true);
-            } catch (SQLException ex) {
-                System.err.println("Failed to rollback: " + ex.getMessage());
+            return pstmt.executeBatch().length;
+        }).whenComplete((count, error) -> {
+            if (error != null) {
+                System.err.println("Failed to cache presensi: " + error.getMessage());
+            } else {
+                System.out.println("Cached " + count + " presensi records");
             }
-        }
+        });
     }
 
     /**
@@ -150,24 +141,17 @@ public class LocalCacheService {
      * Used when creating presensi while offline
      */
     public void saveOfflinePresensi(Presensi p) {
-        String sql = """
-            INSERT INTO presensi_cache 
-            (user_id, username, tipe, tanggal, jam_masuk, jam_pulang, status, method, keterangan, synced, updated_at)
-            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, 0, datetime('now'))
-        """;
-
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
-            pstmt.setLong(1, p.getUserId());
-            pstmt.setString(2, p.getUsername());
-            pstmt.setString(3, p.getTipe());
-            pstmt.setString(4, p.getTanggal().toString());
-            pstmt.setString(5, p.getJamMasuk() != null ? p.getJamMasuk().toString() : null);
-            pstmt.setString(6, p.getJamPulang() != null ? p.getJamPulang().toString() : null);
-            pstmt.setString(7, p.getStatus());
-            pstmt.setString(8, p.getMethod());
-            pstmt.setString(9, p.getKeterangan());
-            
-            pstmt.executeUpdate();
+        if (database == null) {
+            return;
+        }
+        try {
+            database.writeAndWait(session -> {
+                PreparedStatement pstmt = session.prepare(SQL_INSERT_OFFLINE);
+                int next = PresensiRowMapper.bind(pstmt, 1, p);
+                // Idempotency key: tetap sama di setiap percobaan upload
+                pstmt.setString(next, UUID.randomUUID().toString());
+                return pstmt.executeUpdate();
+            });
             System.out.println("Saved offline presensi for user: " + p.getUsername());
         } catch (SQLException e) {
             System.err.println("Failed to save offline presensi: " + e.getMessage());
@@ -178,175 +162,140 @@ public class LocalCacheService {
      * Get cached presensi by date range
      */
     public List<Presensi> getCachedPresensi(LocalDate startDate, LocalDate endDate) {
-        List<Presensi> result = new ArrayList<>();
-
-        String sql = """
-            SELECT * FROM presensi_cache
-            WHERE tanggal BETWEEN ? AND ?
-            ORDER BY tanggal DESC, jam_masuk DESC
-        """;
-
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
-            pstmt.setString(1, startDate.toString());
-            pstmt.setString(2, endDate.toString());
-
-            ResultSet rs = pstmt.executeQuery();
-
-            while (rs.next()) {
-                Presensi p = new Presensi();
-                p.setId(rs.getLong("id"));
-                p.setUserId(rs.getLong("user_id"));
-                p.setUsername(rs.getString("username"));
-                p.setTipe(rs.getString("tipe"));
-                p.setTanggal(java.time.LocalDate.parse(rs.getString("tanggal")));
-                
-                String jamMasuk = rs.getString("jam_masuk");
-                if (jamMasuk != null) {
-                    p.setJamMasuk(java.time.LocalTime.parse(jamMasuk));
-                }
-                
-                String jamPulang = rs.getString("jam_pulang");
-                if (jamPulang != null) {
-                    p.setJamPulang(java.time.LocalTime.parse(jamPulang));
-                }
-                
-                p.setStatus(rs.getString("status"));
-                p.setMethod(rs.getString("method"));
-                p.setKeterangan(rs.getString("keterangan"));
-
-                result.add(p);
-            }
-
+        try {
+            List<Presensi> result = query(SQL_BY_RANGE, startDate.toString(), endDate.toString());
             System.out.println("Retrieved " + result.size() + " cached records");
+            return result;
         } catch (SQLException e) {
             System.err.println("Failed to get cached presensi: " + e.getMessage());
+            return new ArrayList<>();
         }
-
-        return result;
     }
 
     /**
      * Get all cached presensi
      */
     public List<Presensi> getAllCachedPresensi() {
-        List<Presensi> result = new ArrayList<>();
-
-        String sql = "SELECT * FROM presensi_cache ORDER BY tanggal DESC, jam_masuk DESC LIMIT 1000";
-
-        try (Statement stmt = connection.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
-
-            while (rs.next()) {
-                Presensi p = new Presensi();
-                p.setId(rs.getLong("id"));
-                p.setUserId(rs.getLong("user_id"));
-                p.setUsername(rs.getString("username"));
-                p.setTipe(rs.getString("tipe"));
-                p.setTanggal(java.time.LocalDate.parse(rs.getString("tanggal")));
-                
-                String jamMasuk = rs.getString("jam_masuk");
-                if (jamMasuk != null) {
-                    p.setJamMasuk(java.time.LocalTime.parse(jamMasuk));
-                }
-                
-                String jamPulang = rs.getString("jam_pulang");
-                if (jamPulang != null) {
-                    p.setJamPulang(java.time.LocalTime.parse(jamPulang));
-                }
-                
-                p.setStatus(rs.getString("status"));
-                p.setMethod(rs.getString("method"));
-                p.setKeterangan(rs.getString("keterangan"));
-
-                result.add(p);
-            }
-
+        try {
+            List<Presensi> result = query(SQL_ALL);
             System.out.println("Retrieved " + result.size() + " cached records");
+            return result;
         } catch (SQLException e) {
             System.err.println("Failed to get all cached presensi: " + e.getMessage());
+            return new ArrayList<>();
         }
-
-        return result;
     }
 
     /**
-     * Get all unsynced presensi records
+     * Satu chunk baris yang belum ter-sync, urut ID lokal
+     *
+     * @param afterId ambil baris dengan ID lokal > afterId (Long.MIN_VALUE untuk mulai dari awal)
      */
-    public List<Presensi> getUnsyncedPresensi() {
-        List<Presensi> result = new ArrayList<>();
-        String sql = "SELECT * FROM presensi_cache WHERE synced = 0";
-
-        try (Statement stmt = connection.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
-
-            while (rs.next()) {
-                Presensi p = new Presensi();
-                // Note: ID might be null or local ID, handled by backend on sync
-                p.setId(rs.getLong("id")); 
-                p.setUserId(rs.getLong("user_id"));
-                p.setUsername(rs.getString("username"));
-                p.setTipe(rs.getString("tipe"));
-                p.setTanggal(java.time.LocalDate.parse(rs.getString("tanggal")));
-                
-                String jamMasuk = rs.getString("jam_masuk");
-                if (jamMasuk != null) {
-                    p.setJamMasuk(java.time.LocalTime.parse(jamMasuk));
-                }
-                
-                String jamPulang = rs.getString("jam_pulang");
-                if (jamPulang != null) {
-                    p.setJamPulang(java.time.LocalTime.parse(jamPulang));
+    public List<PendingSync> getPendingSync(long afterId, int limit) {
+        if (database == null) {
+            return new ArrayList<>();
+        }
+        try {
+            return database.read(session -> {
+                PreparedStatement pstmt = session.prepare(SQL_PENDING_CHUNK);
+                pstmt.setLong(1, afterId);
+                pstmt.setInt(2, limit);
+                List<PendingSync> result = new ArrayList<>();
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        Presensi p = PresensiRowMapper.map(rs);
+                        result.add(new PendingSync(p.getId(), rs.getString("client_key"), p));
+                    }
                 }
-                
-                p.setStatus(rs.getString("status"));
-                p.setMethod(rs.getString("method"));
-                p.setKeterangan(rs.getString("keterangan"));
-
-                result.add(p);
-            }
+                return result;
+            });
         } catch (SQLException e) {
-            System.err.println("Failed to get unsynced presensi: " + e.getMessage());
+            System.err.println("Failed to get pending sync: " + e.getMessage());
+            return new ArrayList<>();
         }
-        return result;
     }
 
     /**
-     * Mark records as synced after successful upload
+     * Simpan hasil upload satu chunk dalam satu transaksi.
+     * Jika aplikasi mati setelah ini, sync berikutnya mulai dari chunk selanjutnya.
      */
-    public void markAsSynced(List<Long> ids) {
-        if (ids == null || ids.isEmpty()) return;
-
-        String sql = "UPDATE presensi_cache SET synced = 1, updated_at = datetime('now') WHERE id = ?";
+    public void applySyncOutcomes(List<SyncOutcome> outcomes) throws SQLException {
+        if (database == null || outcomes.isEmpty()) {
+            return;
+        }
+        database.writeAndWait(session -> {
+            for (SyncOutcome outcome : outcomes) {
+                switch (outcome.state()) {
+                    case SYNC_DONE -> {
+                        // Ganti ID lokal dengan ID server (hapus dulu salinan server jika sudah ter-cache)
+                        if (outcome.serverId() != outcome.localId()) {
+                            PreparedStatement delete = session.prepare(SQL_DELETE_BY_ID);
+                            delete.setLong(1, outcome.serverId());
+                            delete.executeUpdate();
+                        }
+                        PreparedStatement done = session.prepare(SQL_SYNC_DONE);
+                        done.setLong(1, outcome.serverId());
+                        done.setLong(2, outcome.localId());
+                        done.executeUpdate();
+                    }
+                    case SYNC_PENDING -> {
+                        PreparedStatement retry = session.prepare(SQL_SYNC_RETRY);
+                        retry.setString(1, outcome.error());
+                        retry.setInt(2, MAX_SYNC_ATTEMPTS);
+                        retry.setLong(3, outcome.localId());
+                        retry.executeUpdate();
+                    }
+                    default -> {
+                        PreparedStatement failed = session.prepare(SQL_SYNC_FAILED);
+                        failed.setInt(1, outcome.state());
+                        failed.setString(2, outcome.error());
+                        failed.setLong(3, outcome.localId());
+                        failed.executeUpdate();
+
+                        // CONFLICT: simpan versi server supaya tampilan offline ikut versi server
+                        Presensi serverRow = outcome.serverRow();
+                        if (serverRow != null && serverRow.getId() != null && serverRow.getId() != outcome.localId()) {
+                            PreparedStatement upsert = session.prepare(SQL_UPSERT);
+                            upsert.setLong(1, serverRow.getId());
+                            PresensiRowMapper.bind(upsert, 2, serverRow);
+                            upsert.executeUpdate();
+                        }
+                    }
+                }
+            }
+            return outcomes.size();
+        });
+    }
 
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
-            connection.setAutoCommit(false);
-            
-            for (Long id : ids) {
-                pstmt.setLong(1, id);
-                pstmt.addBatch();
+    private List<Presensi> query(String sql, String... params) throws SQLException {
+        if (database == null) {
+            return new ArrayList<>();
+        }
+        return database.read(session -> {
+            PreparedStatement pstmt = session.prepare(sql);
+            for (int i = 0; i < params.length; i++) {
+                pstmt.setString(i + 1, params[i]);
             }
-            
-            pstmt.executeBatch();
-            connection.commit();
-            connection.setAutoCommit(true);
-            System.out.println("Marked " + ids.size() + " records as synced");
-        } catch (SQLException e) {
-            System.err.println("Failed to mark as synced: " + e.getMessage());
-            try {
-                connection.rollback();
-                connection.setAutoCommit(true);
-            } catch (SQLException ex) {
-                ex.printStackTrace();
+            List<Presensi> result = new ArrayList<>();
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    result.add(PresensiRowMapper.map(rs));
+                }
             }
-        }
+            return result;
+        });
     }
 
     /**
      * Clear all cache
      */
     public void clearCache() {
-        try (Statement stmt = connection.createStatement()) {
-            int deleted = stmt.executeUpdate("DELETE FROM presensi_cache");
+        if (database == null) {
+            return;
+        }
+        try {
+            int deleted = database.writeAndWait(session ->
+                    session.prepare("DELETE FROM presensi_cache").executeUpdate());
             System.out.println("Cache cleared: " + deleted + " records deleted");
         } catch (SQLException e) {
             System.err.println("Failed to clear cache: " + e.getMessage());
@@ -358,27 +307,25 @@ public class LocalCacheService {
      */
     public CacheStats getStats() {
         CacheStats stats = new CacheStats();
+        if (database == null) {
+            return stats;
+        }
 
-        try (Statement stmt = connection.createStatement()) {
-            // Total records
-            ResultSet rs = stmt.executeQuery("SELECT COUNT(*) as total FROM presensi_cache");
-            if (rs.next()) {
-                stats.totalRecords = rs.getInt("total");
-            }
-
-            // Date range
-            rs = stmt.executeQuery("SELECT MIN(tanggal) as min_date, MAX(tanggal) as max_date FROM presensi_cache");
-            if (rs.next()) {
-                stats.oldestDate = rs.getString("min_date");
-                stats.newestDate = rs.getString("max_date");
-            }
-
-            // Database size
-            File dbFile = new File(dbPath);
-            if (dbFile.exists()) {
-                stats.dbSizeBytes = dbFile.length();
-            }
-
+        try {
+            database.read(session -> {
+                try (ResultSet rs = session.prepare(SQL_STATS).executeQuery()) {
+                    if (rs.next()) {
+                        stats.totalRecords = rs.getInt("total");
+                        stats.oldestDate = rs.getString("min_date");
+                        stats.newestDate = rs.getString("max_date");
+                        stats.pendingRecords = rs.getInt("pending");
+                        stats.failedRecords = rs.getInt("failed");
+                    }
+                }
+                return stats;
+            });
+            // Database size (termasuk file WAL yang belum di-checkpoint)
+            stats.dbSizeBytes = database.sizeOnDisk();
         } catch (SQLException e) {
             System.err.println("Failed to get cache stats: " + e.getMessage());
         }
@@ -387,16 +334,11 @@ public class LocalCacheService {
     }
 
     /**
-     * Close database connection
+     * Close database connection (write yang masih antre diselesaikan dulu)
      */
     public void close() {
-        try {
-            if (connection != null && !connection.isClosed()) {
-                connection.close();
-                System.out.println("Cache database connection closed");
-            }
-        } catch (SQLException e) {
-            System.err.println("Failed to close cache connection: " + e.getMessage());
+        if (database != null) {
+            database.close();
         }
     }
 
@@ -408,11 +350,49 @@ public class LocalCacheService {
         public String oldestDate;
         public String newestDate;
         public long dbSizeBytes;
+        public int pendingRecords;
+        /** CONFLICT + REJECTED */
+        public int failedRecords;
 
         @Override
         public String toString() {
-            return String.format("CacheStats{records=%d, dateRange=%s to %s, size=%d KB}",
-                    totalRecords, oldestDate, newestDate, dbSizeBytes / 1024);
+            return String.format("CacheStats{records=%d, dateRange=%s to %s, size=%d KB, pending=%d, failed=%d}",
+                    totalRecords, oldestDate, newestDate, dbSizeBytes / 1024, pendingRecords, failedRecords);
+        }
+    }
+
+    /**
+     * Baris offline yang menunggu upload
+     *
+     * @param localId  ID di cache lokal
+     * @param clientKey idempotency key untuk server
+     */
+    public record PendingSync(long localId, String clientKey, Presensi presensi) {
+    }
+
+    /**
+     * Hasil upload satu baris
+     *
+     * @param state     SYNC_DONE, SYNC_CONFLICT, SYNC_REJECTED, atau SYNC_PENDING (kirim ulang nanti)
+     * @param serverId  ID di server (SYNC_DONE)
+     * @param serverRow presensi versi server (SYNC_CONFLICT)
+     */
+    public record SyncOutcome(long localId, int state, long serverId, Presensi serverRow, String error) {
+
+        public static SyncOutcome done(long localId, long serverId) {
+            return new SyncOutcome(localId, SYNC_DONE, serverId, null, null);
+        }
+
+        public static SyncOutcome conflict(long localId, Presensi serverRow, String error) {
+            return new SyncOutcome(localId, SYNC_CONFLICT, 0L, serverRow, error);
+        }
+
+        public static SyncOutcome rejected(long localId, String error) {
+            return new SyncOutcome(localId, SYNC_REJECTED, 0L, null, error);
+        }
+
+        public static SyncOutcome retry(long localId, String error) {
+            return new SyncOutcome(localId, SYNC_PENDING, 0L, null, error);
         }
     }
 }
@@ -0,0 +1,306 @@
+package com.smk.presensi.desktop.service;
+
+import java.io.File;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Embedded SQLite storage (WAL mode)
+ *
+ * Aturan akses:
+ * - WRITE: semua lewat satu thread writer dengan satu koneksi.
+ *   Transaksi (commit/rollback) hanya terjadi di thread ini, jadi tidak ada
+ *   setAutoCommit bolak-balik dari banyak thread di koneksi yang sama.
+ * - READ: pool kecil koneksi read-only. Dengan WAL, pembaca tidak menunggu
+ *   penulis: SELECT dari FX thread tetap jalan saat cachePresensi menulis ribuan baris.
+ *
+ * Setiap koneksi menyimpan PreparedStatement yang sudah pernah dipakai (per SQL),
+ * jadi query yang sama tidak di-compile ulang oleh SQLite.
+ *
+ * Skema dikelola lewat tabel schema_version: migration yang belum tercatat
+ * dijalankan berurutan saat database dibuka.
+ */
+public class LocalDatabase {
+
+    private static final int READ_POOL_SIZE = 3;
+    private static final int BUSY_TIMEOUT_MS = 5000;
+
+    /**
+     * Migration berurutan. Index 0 = versi 1, dst. Jangan ubah yang sudah rilis, tambahkan di akhir.
+     */
+    private static final List<String[]> MIGRATIONS = List.<String[]>of(
+            // v1: tabel cache presensi (IF NOT EXISTS: database lama sebelum ada schema_version)
+            new String[] {
+                    """
+                    CREATE TABLE IF NOT EXISTS presensi_cache (
+                        id INTEGER PRIMARY KEY,
+                        user_id INTEGER NOT NULL,
+                        username TEXT NOT NULL,
+                        tipe TEXT,
+                        tanggal TEXT NOT NULL,
+                        jam_masuk TEXT NOT NULL,
+                        jam_pulang TEXT,
+                        status TEXT NOT NULL,
+                        method TEXT,
+                        keterangan TEXT,
+                        synced INTEGER DEFAULT 1,
+                        created_at TEXT DEFAULT CURRENT_TIMESTAMP,
+                        updated_at TEXT DEFAULT CURRENT_TIMESTAMP
+                    )
+                    """,
+                    "CREATE INDEX IF NOT EXISTS idx_tanggal ON presensi_cache(tanggal)",
+                    "CREATE INDEX IF NOT EXISTS idx_synced ON presensi_cache(synced)",
+                    "CREATE INDEX IF NOT EXISTS idx_username ON presensi_cache(username)"
+            },
+            // v2: sync offline per chunk (idempotency key + status per baris)
+            new String[] {
+                    "ALTER TABLE presensi_cache ADD COLUMN client_key TEXT",
+                    "ALTER TABLE presensi_cache ADD COLUMN sync_attempts INTEGER DEFAULT 0",
+                    "ALTER TABLE presensi_cache ADD COLUMN sync_error TEXT",
+                    "UPDATE presensi_cache SET client_key = lower(hex(randomblob(16))) WHERE synced = 0",
+                    "CREATE UNIQUE INDEX IF NOT EXISTS idx_client_key ON presensi_cache(client_key)"
+            }
+    );
+
+    /**
+     * Pekerjaan database yang dijalankan dengan satu Session
+     */
+    @FunctionalInterface
+    public interface Work<T> {
+        T run(Session session) throws SQLException;
+    }
+
+    /**
+     * Satu koneksi + cache PreparedStatement-nya
+     */
+    public static final class Session {
+        private final Connection connection;
+        private final Map<String, PreparedStatement> statements = new HashMap<>();
+
+        private Session(Connection connection) {
+            this.connection = connection;
+        }
+
+        /**
+         * PreparedStatement untuk SQL ini (dibuat sekali per koneksi, lalu dipakai ulang).
+         * Tutup ResultSet-nya setelah dipakai, tapi JANGAN tutup statement-nya.
+         */
+        public PreparedStatement prepare(String sql) throws SQLException {
+            PreparedStatement statement = statements.get(sql);
+            if (statement == null || statement.isClosed()) {
+                statement = connection.prepareStatement(sql);
+                statements.put(sql, statement);
+            } else {
+                statement.clearParameters();
+                statement.clearBatch();
+            }
+            return statement;
+        }
+
+        public Connection getConnection() {
+            return connection;
+        }
+
+        private void close() {
+            for (PreparedStatement statement : statements.values()) {
+                try {
+                    statement.close();
+                } catch (SQLException ignored) {
+                    // koneksi tetap ditutup di bawah
+                }
+            }
+            statements.clear();
+            try {
+                connection.close();
+            } catch (SQLException e) {
+                System.err.println("Failed to close SQLite connection: " + e.getMessage());
+            }
+        }
+    }
+
+    private final String dbPath;
+    private final Session writeSession;
+    private final ExecutorService writer;
+    private final BlockingQueue<Session> readPool = new ArrayBlockingQueue<>(READ_POOL_SIZE);
+    private final List<Session> allReadSessions = new ArrayList<>();
+    private volatile boolean closed = false;
+
+    /**
+     * Buka (atau buat) database dan jalankan migration yang belum diterapkan
+     */
+    public LocalDatabase(String dbPath) throws SQLException {
+        this.dbPath = dbPath;
+
+        File parentDir = new File(dbPath).getParentFile();
+        if (parentDir != null && !parentDir.exists()) {
+            parentDir.mkdirs();
+            System.out.println("Created cache directory: " + parentDir.getAbsolutePath());
+        }
+
+        Connection writeConnection = open(false);
+        try (Statement stmt = writeConnection.createStatement()) {
+            // WAL tersimpan di file database, cukup diset dari koneksi writer
+            stmt.execute("PRAGMA journal_mode=WAL");
+        }
+        writeConnection.setAutoCommit(false);
+        this.writeSession = new Session(writeConnection);
+        migrate(writeSession);
+
+        for (int i = 0; i < READ_POOL_SIZE; i++) {
+            Session session = new Session(open(true));
+            allReadSessions.add(session);
+            readPool.add(session);
+        }
+
+        this.writer = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "sqlite-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    private Connection open(boolean readOnly) throws SQLException {
+        Connection connection = DriverManager.getConnection("jdbc:sqlite:" + dbPath);
+        try (Statement stmt = connection.createStatement()) {
+            stmt.execute("PRAGMA busy_timeout=" + BUSY_TIMEOUT_MS);
+            // NORMAL aman untuk WAL: commit terakhir bisa hilang saat listrik mati, file tidak korup
+            stmt.execute("PRAGMA synchronous=NORMAL");
+            if (readOnly) {
+                stmt.execute("PRAGMA query_only=ON");
+            }
+        }
+        return connection;
+    }
+
+    private void migrate(Session session) throws SQLException {
+        Connection connection = session.getConnection();
+        try (Statement stmt = connection.createStatement()) {
+            stmt.executeUpdate("""
+                CREATE TABLE IF NOT EXISTS schema_version (
+                    version INTEGER PRIMARY KEY,
+                    applied_at TEXT DEFAULT CURRENT_TIMESTAMP
+                )
+            """);
+            int current = 0;
+            try (ResultSet rs = stmt.executeQuery("SELECT COALESCE(MAX(version), 0) FROM schema_version")) {
+                if (rs.next()) {
+                    current = rs.getInt(1);
+                }
+            }
+            for (int version = current + 1; version <= MIGRATIONS.size(); version++) {
+                for (String sql : MIGRATIONS.get(version - 1)) {
+                    stmt.executeUpdate(sql);
+                }
+                stmt.executeUpdate("INSERT INTO schema_version (version) VALUES (" + version + ")");
+                System.out.println("Local cache schema migrated to v" + version);
+            }
+            connection.commit();
+        } catch (SQLException e) {
+            connection.rollback();
+            throw e;
+        }
+    }
+
+    /**
+     * Jalankan write di thread writer dalam satu transaksi (commit jika sukses, rollback jika gagal)
+     */
+    public <T> CompletableFuture<T> write(Work<T> work) {
+        if (closed) {
+            return CompletableFuture.failedFuture(new SQLException("Local database closed"));
+        }
+        return CompletableFuture.supplyAsync(() -> {
+            Connection connection = writeSession.getConnection();
+            try {
+                T result = work.run(writeSession);
+                connection.commit();
+                return result;
+            } catch (SQLException e) {
+                try {
+                    connection.rollback();
+                } catch (SQLException ex) {
+                    System.err.println("Failed to rollback: " + ex.getMessage());
+                }
+                throw new CompletionException(e);
+            }
+        }, writer);
+    }
+
+    /**
+     * Sama dengan write(), tapi menunggu sampai selesai
+     */
+    public <T> T writeAndWait(Work<T> work) throws SQLException {
+        try {
+            return write(work).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof SQLException sqlException) {
+                throw sqlException;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Jalankan read dengan salah satu koneksi read-only dari pool
+     */
+    public <T> T read(Work<T> work) throws SQLException {
+        if (closed) {
+            throw new SQLException("Local database closed");
+        }
+        Session session;
+        try {
+            session = readPool.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for read connection", e);
+        }
+        try {
+            return work.run(session);
+        } finally {
+            readPool.add(session);
+        }
+    }
+
+    /**
+     * Ukuran file database + file WAL (byte)
+     */
+    public long sizeOnDisk() {
+        return new File(dbPath).length() + new File(dbPath + "-wal").length();
+    }
+
+    public String getPath() {
+        return dbPath;
+    }
+
+    /**
+     * Tutup semua koneksi. Write yang sudah antre tetap diselesaikan dulu.
+     */
+    public void close() {
+        closed = true;
+        writer.shutdown();
+        try {
+            writer.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        writeSession.close();
+        for (Session session : allReadSessions) {
+            session.close();
+        }
+        System.out.println("Cache database connection closed");
+    }
+}
@@ -1,15 +1,11 @@
 package com.smk.presensi.desktop.service;
 
 import com.google.gson.Gson;
-import com.google.gson.reflect.TypeToken;
 import com.smk.presensi.desktop.model.LokasiKantor;
 
 import java.io.IOException;
-import java.lang.reflect.Type;
 import java.net.http.HttpResponse;
-import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
 
 public class LokasiKantorService {
 
@@ -22,19 +18,7 @@ public class LokasiKantorService {
     }
 
     public List<LokasiKantor> getAll() throws IOException, InterruptedException {
-        HttpResponse<String> response = apiClient.get("/lokasi-kantor");
-        if (response.statusCode() != 200) {
-            throw new IOException("Failed to fetch locations: " + response.statusCode());
-        }
-
-        Type mapType = new TypeToken<Map<String, Object>>(){}.getType();
-        Map<String, Object> responseMap = gson.fromJson(response.body(), mapType);
-        
-        Object data = responseMap.get("data");
-        String jsonList = gson.toJson(data);
-        
-        Type listType = new TypeToken<List<LokasiKantor>>(){}.getType();
-        return gson.fromJson(jsonList, listType);
+        return apiClient.getList("/lokasi-kantor", LokasiKantor.class, "data");
     }
 
     public LokasiKantor create(LokasiKantor lokasi) throws IOException, InterruptedException {
@@ -42,10 +26,7 @@ public class LokasiKantorService {
         HttpResponse<String> response = apiClient.post("/lokasi-kantor", json);
         
         if (response.statusCode() == 201 || response.statusCode() == 200) {
-            Type mapType = new TypeToken<Map<String, Object>>(){}.getType();
-            Map<String, Object> responseMap = gson.fromJson(response.body(), mapType);
-            Object data = responseMap.get("data");
-            return gson.fromJson(gson.toJson(data), LokasiKantor.class);
+            return gson.fromJson(response.body(), DataResponse.class).data;
         }
         throw new IOException("Failed to create location: " + response.statusCode());
     }
@@ -55,10 +36,7 @@ public class LokasiKantorService {
         HttpResponse<String> response = apiClient.put("/lokasi-kantor/" + id, json);
         
         if (response.statusCode() == 200) {
-            Type mapType = new TypeToken<Map<String, Object>>(){}.getType();
-            Map<String, Object> responseMap = gson.fromJson(response.body(), mapType);
-            Object data = responseMap.get("data");
-            return gson.fromJson(gson.toJson(data), LokasiKantor.class);
+            return gson.fromJson(response.body(), DataResponse.class).data;
         }
         throw new IOException("Failed to update location: " + response.statusCode());
     }
@@ -76,4 +54,9 @@ public class LokasiKantorService {
             throw new IOException("Failed to activate location: " + response.statusCode());
         }
     }
+
+    // Response: { "message": "...", "data": { ...lokasi... } }
+    private static class DataResponse {
+        LokasiKantor data;
+    }
 }
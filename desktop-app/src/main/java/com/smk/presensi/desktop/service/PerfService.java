@@ -0,0 +1,25 @@
+package com.smk.presensi.desktop.service;
+
+import com.smk.presensi.desktop.model.PerfSummary;
+
+import java.io.IOException;
+
+/**
+ * Service untuk ringkasan performa backend (khusus ADMIN).
+ */
+public class PerfService {
+
+    private final ApiClient apiClient;
+
+    public PerfService(ApiClient apiClient) {
+        this.apiClient = apiClient;
+    }
+
+    /**
+     * Ambil ringkasan performa (checkin, face match, JWT, laporan, export, pool koneksi).
+     */
+    public PerfSummary getSummary() throws IOException, InterruptedException {
+        // Response: { "message": "...", "data": { "checkin": [...], "pool": {...}, ... } }
+        return apiClient.getJson("/admin/perf", PerfSummary.class, "data");
+    }
+}
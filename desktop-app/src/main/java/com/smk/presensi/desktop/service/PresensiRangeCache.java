@@ -0,0 +1,315 @@
+package com.smk.presensi.desktop.service;
+
+import com.smk.presensi.desktop.model.LiveEvent;
+import com.smk.presensi.desktop.model.Presensi;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Memory cache presensi per HARI (bukan per rentang)
+ *
+ * - Rentang apa pun disusun dari segmen harian: "7 hari terakhir" setelah
+ *   "30 hari terakhir" tidak perlu request lagi, cukup hari yang belum ada
+ * - Hari yang belum ada digabung jadi rentang berurutan → satu request per rentang
+ * - Single-flight: beberapa layar yang minta hari yang sama bersamaan
+ *   menunggu satu request yang sama
+ * - LRU dengan batas jumlah baris (bukan jumlah entry), hari yang paling lama
+ *   tidak dipakai dibuang lebih dulu
+ *
+ * Dipakai bersama oleh semua CachedPresensiService (singleton), jadi
+ * pindah antara dashboard dan analytics memakai cache yang sama.
+ * Perubahan dari event live (CHECKIN/CHECKOUT/UPDATE/DELETE) langsung
+ * diterapkan ke segmen hari yang bersangkutan.
+ */
+public class PresensiRangeCache {
+
+    /** Batas total baris presensi di memory (≈ beberapa MB) */
+    private static final long MAX_WEIGHT = 50_000;
+    /** Hari ini masih berubah (checkin/checkout) → cepat kadaluarsa */
+    private static final long TODAY_TTL_MS = 5 * 60 * 1000;
+    private static final long PAST_TTL_MS = 30 * 60 * 1000;
+    /** Lebih dari ini rentang yang hilang → ambil sekali dari hari pertama s/d terakhir */
+    private static final int MAX_FETCH_RUNS = 3;
+
+    /**
+     * Loader untuk satu rentang tanggal (biasanya PresensiService.getPresensiByDateRange)
+     */
+    @FunctionalInterface
+    public interface RangeLoader {
+        List<Presensi> load(LocalDate startDate, LocalDate endDate) throws Exception;
+    }
+
+    private record DaySegment(List<Presensi> rows, long expiresAt) {
+        long weight() {
+            return Math.max(1, rows.size());
+        }
+    }
+
+    private static PresensiRangeCache instance;
+
+    // accessOrder = true → urutan iterasi = LRU dulu; dijaga dengan synchronized (this)
+    private final LinkedHashMap<LocalDate, DaySegment> segments = new LinkedHashMap<>(64, 0.75f, true);
+    private final Map<LocalDate, CompletableFuture<List<Presensi>>> inFlight = new ConcurrentHashMap<>();
+    private long weight = 0;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+    private final AtomicLong loads = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    private PresensiRangeCache() {
+        // Event live menjaga segmen tetap segar tanpa membuangnya (hari ini berubah terus saat jam masuk)
+        WebSocketService.getInstance().addListener(this::onLiveEvent);
+    }
+
+    public static synchronized PresensiRangeCache getInstance() {
+        if (instance == null) {
+            instance = new PresensiRangeCache();
+        }
+        return instance;
+    }
+
+    /**
+     * Presensi untuk rentang tanggal (urut tanggal), hanya hari yang belum ada yang di-load
+     */
+    public List<Presensi> getRange(LocalDate startDate, LocalDate endDate, RangeLoader loader) throws Exception {
+        Map<LocalDate, List<Presensi>> days = new HashMap<>();
+        Map<LocalDate, CompletableFuture<List<Presensi>>> mine = new LinkedHashMap<>();
+        Map<LocalDate, CompletableFuture<List<Presensi>>> waiting = new HashMap<>();
+
+        // 1. Ambil yang ada di cache, klaim hari yang belum ada
+        long now = System.currentTimeMillis();
+        for (LocalDate day = startDate; !day.isAfter(endDate); day = day.plusDays(1)) {
+            List<Presensi> cached = lookup(day, now);
+            if (cached != null) {
+                hits.incrementAndGet();
+                days.put(day, cached);
+                continue;
+            }
+            misses.incrementAndGet();
+            CompletableFuture<List<Presensi>> future = new CompletableFuture<>();
+            CompletableFuture<List<Presensi>> existing = inFlight.putIfAbsent(day, future);
+            if (existing == null) {
+                mine.put(day, future);
+            } else {
+                coalesced.incrementAndGet();
+                waiting.put(day, existing);
+            }
+        }
+
+        // 2. Load hari yang diklaim (digabung per rentang berurutan)
+        if (!mine.isEmpty()) {
+            try {
+                for (LocalDate[] run : toRuns(new ArrayList<>(mine.keySet()))) {
+                    loads.incrementAndGet();
+                    Map<LocalDate, List<Presensi>> loaded = splitByDay(run[0], run[1], loader.load(run[0], run[1]));
+                    for (Map.Entry<LocalDate, List<Presensi>> entry : loaded.entrySet()) {
+                        store(entry.getKey(), entry.getValue());
+                        if (!waiting.containsKey(entry.getKey())) {
+                            days.put(entry.getKey(), entry.getValue());
+                        }
+                        CompletableFuture<List<Presensi>> future = mine.get(entry.getKey());
+                        if (future != null) {
+                            inFlight.remove(entry.getKey(), future);
+                            future.complete(entry.getValue());
+                        }
+                    }
+                }
+            } catch (Exception e) {
+                for (Map.Entry<LocalDate, CompletableFuture<List<Presensi>>> entry : mine.entrySet()) {
+                    inFlight.remove(entry.getKey(), entry.getValue());
+                    entry.getValue().completeExceptionally(e);
+                }
+                throw e;
+            }
+        }
+
+        // 3. Tunggu hari yang sedang di-load oleh pemanggil lain
+        for (Map.Entry<LocalDate, CompletableFuture<List<Presensi>>> entry : waiting.entrySet()) {
+            try {
+                days.put(entry.getKey(), entry.getValue().get());
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof Exception cause) {
+                    throw cause;
+                }
+                throw e;
+            }
+        }
+
+        List<Presensi> result = new ArrayList<>();
+        for (LocalDate day = startDate; !day.isAfter(endDate); day = day.plusDays(1)) {
+            result.addAll(days.getOrDefault(day, List.of()));
+        }
+        return result;
+    }
+
+    /**
+     * Hapus satu hari (mis. setelah presensi dibuat/diubah di hari itu)
+     */
+    public synchronized void invalidate(LocalDate day) {
+        DaySegment removed = segments.remove(day);
+        if (removed != null) {
+            weight -= removed.weight();
+        }
+    }
+
+    public synchronized void clear() {
+        segments.clear();
+        weight = 0;
+    }
+
+    public synchronized int size() {
+        return segments.size();
+    }
+
+    public synchronized Stats getStats() {
+        return new Stats(segments.size(), weight, hits.get(), misses.get(),
+                coalesced.get(), loads.get(), evictions.get());
+    }
+
+    /**
+     * Terapkan event live ke segmen yang sudah ada (upsert/hapus per ID), RESET = kosongkan
+     */
+    private synchronized void onLiveEvent(LiveEvent event) {
+        if (LiveEvent.RESET.equals(event.getType())) {
+            clear();
+            return;
+        }
+        if (!event.isPresensiChange() || event.getTanggal() == null || event.getPresensiId() == null) {
+            return;
+        }
+        DaySegment segment = segments.get(event.getTanggal());
+        if (segment == null) {
+            return;
+        }
+
+        List<Presensi> rows = new ArrayList<>(segment.rows());
+        int index = -1;
+        for (int i = 0; i < rows.size(); i++) {
+            if (event.getPresensiId().equals(rows.get(i).getId())) {
+                index = i;
+                break;
+            }
+        }
+        if (LiveEvent.DELETE.equals(event.getType())) {
+            if (index < 0) {
+                return;
+            }
+            rows.remove(index);
+        } else if (index >= 0) {
+            rows.set(index, event.toPresensi());
+        } else {
+            rows.add(event.toPresensi());
+        }
+
+        DaySegment updated = new DaySegment(List.copyOf(rows), segment.expiresAt());
+        segments.put(event.getTanggal(), updated);
+        weight += updated.weight() - segment.weight();
+    }
+
+    private synchronized List<Presensi> lookup(LocalDate day, long now) {
+        DaySegment segment = segments.get(day);
+        if (segment == null) {
+            return null;
+        }
+        if (segment.expiresAt() < now) {
+            segments.remove(day);
+            weight -= segment.weight();
+            return null;
+        }
+        return segment.rows();
+    }
+
+    private synchronized void store(LocalDate day, List<Presensi> rows) {
+        long ttl = day.equals(LocalDate.now()) ? TODAY_TTL_MS : PAST_TTL_MS;
+        DaySegment segment = new DaySegment(List.copyOf(rows), System.currentTimeMillis() + ttl);
+        DaySegment previous = segments.put(day, segment);
+        if (previous != null) {
+            weight -= previous.weight();
+        }
+        weight += segment.weight();
+
+        Iterator<Map.Entry<LocalDate, DaySegment>> iterator = segments.entrySet().iterator();
+        while (weight > MAX_WEIGHT && iterator.hasNext()) {
+            Map.Entry<LocalDate, DaySegment> eldest = iterator.next();
+            if (eldest.getKey().equals(day)) {
+                continue; // jangan buang yang baru saja dimasukkan
+            }
+            weight -= eldest.getValue().weight();
+            iterator.remove();
+            evictions.incrementAndGet();
+        }
+    }
+
+    /**
+     * Gabungkan hari (urut) jadi rentang berurutan [start, end]
+     */
+    private static List<LocalDate[]> toRuns(List<LocalDate> days) {
+        List<LocalDate[]> runs = new ArrayList<>();
+        LocalDate start = days.get(0);
+        LocalDate end = start;
+        for (int i = 1; i < days.size(); i++) {
+            LocalDate day = days.get(i);
+            if (day.equals(end.plusDays(1))) {
+                end = day;
+            } else {
+                runs.add(new LocalDate[] {start, end});
+                start = day;
+                end = day;
+            }
+        }
+        runs.add(new LocalDate[] {start, end});
+
+        if (runs.size() > MAX_FETCH_RUNS) {
+            // Banyak lubang kecil: satu request besar lebih cepat dari banyak request kecil
+            return List.<LocalDate[]>of(new LocalDate[] {days.get(0), days.get(days.size() - 1)});
+        }
+        return runs;
+    }
+
+    /**
+     * Pecah hasil load per tanggal; hari tanpa presensi tetap dicatat (list kosong)
+     */
+    private static Map<LocalDate, List<Presensi>> splitByDay(LocalDate startDate, LocalDate endDate,
+                                                            List<Presensi> rows) {
+        Map<LocalDate, List<Presensi>> byDay = new LinkedHashMap<>();
+        for (LocalDate day = startDate; !day.isAfter(endDate); day = day.plusDays(1)) {
+            byDay.put(day, new ArrayList<>());
+        }
+        for (Presensi p : rows) {
+            List<Presensi> dayRows = byDay.get(p.getTanggal());
+            if (dayRows != null) {
+                dayRows.add(p);
+            }
+        }
+        return byDay;
+    }
+
+    /**
+     * Statistik cache (hits/misses dihitung per hari)
+     */
+    public record Stats(int days, long rows, long hits, long misses, long coalesced, long loads, long evictions) {
+
+        public double hitRate() {
+            long total = hits + misses;
+            return total == 0 ? 0.0 : (double) hits / total;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("days=%d, rows=%d, hit=%.0f%% (%d/%d), loads=%d, coalesced=%d, evicted=%d",
+                    days, rows, hitRate() * 100, hits, hits + misses, loads, coalesced, evictions);
+        }
+    }
+}
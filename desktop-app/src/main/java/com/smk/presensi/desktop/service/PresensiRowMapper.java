@@ -0,0 +1,71 @@
+package com.smk.presensi.desktop.service;
+
+import com.smk.presensi.desktop.model.Presensi;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+/**
+ * Mapping Presensi <-> baris tabel presensi_cache (satu tempat untuk semua query)
+ */
+final class PresensiRowMapper {
+
+    /**
+     * Kolom yang dibaca map(); pakai ini di SELECT, bukan SELECT *
+     */
+    static final String COLUMNS =
+            "id, user_id, username, tipe, tanggal, jam_masuk, jam_pulang, status, method, keterangan";
+
+    private PresensiRowMapper() {
+    }
+
+    static Presensi map(ResultSet rs) throws SQLException {
+        Presensi p = new Presensi();
+        p.setId(rs.getLong("id"));
+        p.setUserId(rs.getLong("user_id"));
+        p.setUsername(rs.getString("username"));
+        p.setTipe(rs.getString("tipe"));
+        p.setTanggal(LocalDate.parse(rs.getString("tanggal")));
+
+        String jamMasuk = rs.getString("jam_masuk");
+        if (jamMasuk != null) {
+            p.setJamMasuk(LocalTime.parse(jamMasuk));
+        }
+
+        String jamPulang = rs.getString("jam_pulang");
+        if (jamPulang != null) {
+            p.setJamPulang(LocalTime.parse(jamPulang));
+        }
+
+        p.setStatus(rs.getString("status"));
+        p.setMethod(rs.getString("method"));
+        p.setKeterangan(rs.getString("keterangan"));
+        return p;
+    }
+
+    /**
+     * Isi parameter user_id s/d keterangan (9 kolom) mulai dari index tertentu
+     *
+     * @return index parameter berikutnya
+     */
+    static int bind(PreparedStatement pstmt, int index, Presensi p) throws SQLException {
+        if (p.getUserId() != null) {
+            pstmt.setLong(index++, p.getUserId());
+        } else {
+            pstmt.setNull(index++, Types.INTEGER);
+        }
+        pstmt.setString(index++, p.getUsername());
+        pstmt.setString(index++, p.getTipe());
+        pstmt.setString(index++, p.getTanggal().toString());
+        pstmt.setString(index++, p.getJamMasuk() != null ? p.getJamMasuk().toString() : null);
+        pstmt.setString(index++, p.getJamPulang() != null ? p.getJamPulang().toString() : null);
+        pstmt.setString(index++, p.getStatus());
+        pstmt.setString(index++, p.getMethod());
+        pstmt.setString(index++, p.getKeterangan());
+        return index;
+    }
+}
@@ -1,15 +1,12 @@
 package com.smk.presensi.desktop.service;
 
 import com.google.gson.Gson;
-import com.google.gson.reflect.TypeToken;
 import com.smk.presensi.desktop.model.DashboardStats;
 import com.smk.presensi.desktop.model.Presensi;
 
 import java.io.IOException;
-import java.lang.reflect.Type;
 import java.net.http.HttpResponse;
 import java.time.LocalDate;
-import java.time.LocalTime;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
@@ -51,69 +48,32 @@ public class PresensiService {
             ? "/laporan/harian?tanggal=" + tanggal.toString()
             : "/laporan/harian";
 
-        HttpResponse<String> response = apiClient.get(endpoint);
-
-        if (response.statusCode() == 200) {
-            // Parse response: { "message": "...", "data": { "daftarPresensi": [...] } }
-            Type type = new TypeToken<Map<String, Object>>(){}.getType();
-            Map<String, Object> responseMap = gson.fromJson(response.body(), type);
-            
-            Map<String, Object> data = (Map<String, Object>) responseMap.get("data");
-            List<Map<String, Object>> daftarPresensi = (List<Map<String, Object>>) data.get("daftarPresensi");
-            
-            List<Presensi> presensiList = new ArrayList<>();
-            for (Map<String, Object> item : daftarPresensi) {
-                Presensi p = new Presensi();
-                p.setId(((Double) item.get("id")).longValue());
-                p.setUserId(((Double) item.get("userId")).longValue());
-                p.setUsername((String) item.get("username"));
-                p.setTipe((String) item.get("tipe"));
-                p.setTanggal(LocalDate.parse((String) item.get("tanggal")));
-                p.setJamMasuk(item.get("jamMasuk") != null 
-                    ? java.time.LocalTime.parse((String) item.get("jamMasuk")) 
-                    : null);
-                p.setJamPulang(item.get("jamPulang") != null
-                    ? java.time.LocalTime.parse((String) item.get("jamPulang"))
-                    : null);
-                p.setStatus((String) item.get("status"));
-                p.setMethod((String) item.get("method"));
-                p.setKeterangan((String) item.get("keterangan"));
-                presensiList.add(p);
-            }
-            
-            return presensiList;
-        }
-
-        throw new IOException("Failed to fetch laporan harian: " + response.statusCode());
+        // Response: { "message": "...", "data": { "daftarPresensi": [...] } }
+        return apiClient.getList(endpoint, Presensi.class, "data", "daftarPresensi");
     }
 
     /**
      * Get dashboard statistics (hari ini)
      */
     public DashboardStats getDashboardStats() throws IOException, InterruptedException {
-        HttpResponse<String> response = apiClient.get("/laporan/harian");
-
-        if (response.statusCode() == 200) {
-            Type type = new TypeToken<Map<String, Object>>(){}.getType();
-            Map<String, Object> responseMap = gson.fromJson(response.body(), type);
-            
-            Map<String, Object> data = (Map<String, Object>) responseMap.get("data");
-            if (data == null) {
-                throw new IOException("Invalid response: 'data' field is missing in /laporan/harian");
-            }
-
-            DashboardStats stats = new DashboardStats();
-
-            stats.setTotalPresensi(asInt(data.get("totalPresensi")));
-            stats.setTotalHadir(asInt(data.get("totalHadir")));
-            stats.setTotalTerlambat(asInt(data.get("totalTerlambat")));
-            stats.setTotalAlpha(asInt(data.get("totalAlfa")));
-            stats.setPersentaseHadir(asDouble(data.get("persentaseHadir")));
-
-            return stats;
+        // daftarPresensi di response yang sama di-skip oleh parser, tidak di-load
+        HarianSummary data = apiClient.getJson("/laporan/harian", HarianSummary.class, "data");
+        if (data == null) {
+            throw new IOException("Invalid response: 'data' field is missing in /laporan/harian");
         }
+        return new DashboardStats(data.totalPresensi, data.totalHadir, data.totalTerlambat,
+                data.totalAlfa, data.persentaseHadir);
+    }
 
-        throw new IOException("Failed to fetch dashboard stats: " + response.statusCode());
+    /**
+     * Ringkasan di field "data" response /laporan/harian
+     */
+    private static class HarianSummary {
+        int totalPresensi;
+        int totalHadir;
+        int totalTerlambat;
+        int totalAlfa;
+        double persentaseHadir;
     }
 
     /**
@@ -127,7 +87,7 @@ public class PresensiService {
      * RFID Checkin (simulasi dari desktop app)
      */
     public boolean checkinRfid(String rfidCardId) throws IOException, InterruptedException {
-        String jsonBody = String.format("{\"rfidCardId\":\"%s\"}", rfidCardId);
+        String jsonBody = gson.toJson(Map.of("rfidCardId", rfidCardId));
         HttpResponse<String> response = apiClient.post("/presensi/rfid/checkin", jsonBody);
         
         return response.statusCode() == 200 || response.statusCode() == 201;
@@ -179,6 +139,58 @@ public class PresensiService {
         throw new IOException("Failed to create presensi: " + response.statusCode() + " - " + response.body());
     }
 
+    /**
+     * Item untuk POST /admin/presensi/bulk
+     */
+    public static class BulkSyncItem {
+        public String idempotencyKey;
+        public AdminPresensiPayload presensi;
+    }
+
+    /**
+     * Hasil per item POST /admin/presensi/bulk (urutan sama dengan request)
+     */
+    public static class BulkSyncResult {
+        public String idempotencyKey;
+        /** CREATED, ALREADY_SYNCED, CONFLICT, INVALID, ERROR */
+        public String result;
+        public Long presensiId;
+        /** Presensi versi server (hanya untuk CONFLICT) */
+        public Presensi existing;
+        public String message;
+    }
+
+    /**
+     * ADMIN: Upload presensi offline sekaligus (satu request per chunk).
+     *
+     * @throws IOException jaringan/server error (5xx) → boleh dicoba ulang
+     * @throws IllegalStateException request ditolak (4xx) → percuma dicoba ulang
+     */
+    public List<BulkSyncResult> syncBulk(List<LocalCacheService.PendingSync> pending)
+            throws IOException, InterruptedException {
+        List<BulkSyncItem> items = new ArrayList<>(pending.size());
+        for (LocalCacheService.PendingSync row : pending) {
+            BulkSyncItem item = new BulkSyncItem();
+            item.idempotencyKey = row.clientKey();
+            item.presensi = toAdminPayload(row.presensi());
+            items.add(item);
+        }
+        String jsonBody = gson.toJson(Map.of("items", items));
+        HttpResponse<String> response = apiClient.post("/admin/presensi/bulk", jsonBody);
+
+        if (response.statusCode() == 200) {
+            BulkSyncResult[] results = apiClient.parseResponse(response.body(), BulkSyncResult[].class);
+            if (results == null || results.length != pending.size()) {
+                throw new IOException("Bulk sync response does not match request size");
+            }
+            return List.of(results);
+        }
+        if (response.statusCode() >= 400 && response.statusCode() < 500) {
+            throw new IllegalStateException("Bulk sync rejected: " + response.statusCode() + " - " + response.body());
+        }
+        throw new IOException("Bulk sync failed: " + response.statusCode() + " - " + response.body());
+    }
+
     /**
      * ADMIN: Update presensi record.
      */
@@ -204,26 +216,6 @@ public class PresensiService {
         return response.statusCode() == 200 || response.statusCode() == 204;
     }
 
-    /**
-     * Helper: safely convert Object number ke int (default 0 kalau null / bukan Number).
-     */
-    private int asInt(Object value) {
-        if (value instanceof Number number) {
-            return number.intValue();
-        }
-        return 0;
-    }
-
-    /**
-     * Helper: safely convert Object number ke double (default 0.0 kalau null / bukan Number).
-     */
-    private double asDouble(Object value) {
-        if (value instanceof Number number) {
-            return number.doubleValue();
-        }
-        return 0.0;
-    }
-
     private AdminPresensiPayload toAdminPayload(Presensi p) {
         AdminPresensiPayload payload = new AdminPresensiPayload();
         payload.userId = p.getUserId();
@@ -240,27 +232,7 @@ public class PresensiService {
     }
 
     private Presensi parseSinglePresensi(String json) {
-        Type type = new TypeToken<Map<String, Object>>(){}.getType();
-        Map<String, Object> map = gson.fromJson(json, type);
-
-        Presensi p = new Presensi();
-        p.setId(((Double) map.get("id")).longValue());
-        p.setUserId(((Double) map.get("userId")).longValue());
-        p.setUsername((String) map.get("username"));
-        p.setTipe(map.get("tipe").toString());
-        p.setTanggal(LocalDate.parse((String) map.get("tanggal")));
-        Object jamMasukObj = map.get("jamMasuk");
-        if (jamMasukObj != null) {
-            p.setJamMasuk(LocalTime.parse(jamMasukObj.toString()));
-        }
-        Object jamPulangObj = map.get("jamPulang");
-        if (jamPulangObj != null) {
-            p.setJamPulang(LocalTime.parse(jamPulangObj.toString()));
-        }
-        p.setStatus(map.get("status").toString());
-        p.setMethod(map.get("method").toString());
-        p.setKeterangan((String) map.get("keterangan"));
-        return p;
+        return apiClient.parseResponse(json, Presensi.class);
     }
     
     /**
@@ -269,39 +241,8 @@ public class PresensiService {
     public List<Presensi> getPresensiByDateRange(LocalDate startDate, LocalDate endDate) 
             throws IOException, InterruptedException {
         String endpoint = "/laporan/periode?startDate=" + startDate + "&endDate=" + endDate;
-        
-        HttpResponse<String> response = apiClient.get(endpoint);
-        
-        if (response.statusCode() == 200) {
-            Type type = new TypeToken<Map<String, Object>>(){}.getType();
-            Map<String, Object> responseMap = gson.fromJson(response.body(), type);
-            
-            Map<String, Object> data = (Map<String, Object>) responseMap.get("data");
-            List<Map<String, Object>> daftarPresensi = (List<Map<String, Object>>) data.get("daftarPresensi");
-            
-            List<Presensi> presensiList = new ArrayList<>();
-            for (Map<String, Object> item : daftarPresensi) {
-                Presensi p = new Presensi();
-                p.setId(((Double) item.get("id")).longValue());
-                p.setUserId(((Double) item.get("userId")).longValue());
-                p.setUsername((String) item.get("username"));
-                p.setTipe((String) item.get("tipe"));
-                p.setTanggal(LocalDate.parse((String) item.get("tanggal")));
-                p.setJamMasuk(item.get("jamMasuk") != null 
-                    ? java.time.LocalTime.parse((String) item.get("jamMasuk")) 
-                    : null);
-                p.setJamPulang(item.get("jamPulang") != null
-                    ? java.time.LocalTime.parse((String) item.get("jamPulang"))
-                    : null);
-                p.setStatus((String) item.get("status"));
-                p.setMethod((String) item.get("method"));
-                p.setKeterangan((String) item.get("keterangan"));
-                presensiList.add(p);
-            }
-            
-            return presensiList;
-        }
-        
-        throw new IOException("Failed to fetch presensi by date range: " + response.statusCode());
+
+        // Bisa ribuan baris: di-parse per elemen dari stream, tanpa Map perantara
+        return apiClient.getList(endpoint, Presensi.class, "data", "daftarPresensi");
     }
 }
@@ -2,10 +2,8 @@ package com.smk.presensi.desktop.service;
 
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
-import com.google.gson.reflect.TypeToken;
 import com.smk.presensi.desktop.model.Siswa;
 
-import java.lang.reflect.Type;
 import java.net.http.HttpResponse;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
@@ -31,15 +29,7 @@ public class SiswaService {
      */
     public List<Siswa> getAllSiswa() {
         try {
-            HttpResponse<String> response = apiClient.get("/siswa");
-            
-            if (response.statusCode() == 200) {
-                Type listType = new TypeToken<List<Siswa>>(){}.getType();
-                return gson.fromJson(response.body(), listType);
-            } else {
-                System.err.println("Error getting siswa list: " + response.statusCode());
-                return new ArrayList<>();
-            }
+            return apiClient.getList("/siswa", Siswa.class);
         } catch (Exception e) {
             System.err.println("Error getting siswa list: " + e.getMessage());
             e.printStackTrace();
@@ -72,15 +62,7 @@ public class SiswaService {
      */
     public List<Siswa> getSiswaByKelas(String kelas) {
         try {
-            HttpResponse<String> response = apiClient.get("/siswa/kelas/" + kelas);
-            
-            if (response.statusCode() == 200) {
-                Type listType = new TypeToken<List<Siswa>>(){}.getType();
-                return gson.fromJson(response.body(), listType);
-            } else {
-                System.err.println("Error getting siswa by kelas: " + response.statusCode());
-                return new ArrayList<>();
-            }
+            return apiClient.getList("/siswa/kelas/" + kelas, Siswa.class);
         } catch (Exception e) {
             System.err.println("Error getting siswa by kelas: " + e.getMessage());
             e.printStackTrace();
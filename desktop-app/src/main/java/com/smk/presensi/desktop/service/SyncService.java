@@ -1,31 +1,49 @@
 package com.smk.presensi.desktop.service;
 
-import com.smk.presensi.desktop.model.Presensi;
-import javafx.concurrent.Task;
-
+import java.io.IOException;
+import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * Service to handle background synchronization of offline data.
+ *
+ * - Upload per chunk lewat POST /admin/presensi/bulk (bukan satu request per baris)
+ * - Setiap baris membawa idempotency key sendiri: kirim ulang chunk yang sama aman
+ * - Hasil setiap chunk langsung disimpan ke cache lokal, jadi jika aplikasi
+ *   mati di tengah jalan, sync berikutnya lanjut dari baris yang belum selesai
+ * - Gagal jaringan/server: coba ulang dengan exponential backoff + jitter
+ * - Bentrok (server sudah punya presensi user di tanggal itu) dicatat sebagai
+ *   CONFLICT di cache lokal, versi server yang disimpan
  */
 public class SyncService {
+    private static final int CHUNK_SIZE = 200;
+    private static final int MAX_CHUNK_ATTEMPTS = 5;
+    private static final long INITIAL_BACKOFF_MS = 2_000;
+    private static final long MAX_BACKOFF_MS = 60_000;
+
     private static SyncService instance;
     private final LocalCacheService localCache;
     private final PresensiService presensiService;
     private final ScheduledExecutorService scheduler;
-    private boolean isSyncing = false;
+    private final AtomicBoolean syncing = new AtomicBoolean(false);
 
     private SyncService() {
         this.localCache = LocalCacheService.getInstance();
         this.presensiService = new PresensiService(ApiClient.getInstance());
-        this.scheduler = Executors.newSingleThreadScheduledExecutor();
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "offline-sync");
+            thread.setDaemon(true);
+            return thread;
+        });
     }
 
-    public static SyncService getInstance() {
+    public static synchronized SyncService getInstance() {
         if (instance == null) {
             instance = new SyncService();
         }
@@ -36,64 +54,124 @@ public class SyncService {
      * Start background sync scheduler (runs every 5 minutes)
      */
     public void startBackgroundSync() {
-        scheduler.scheduleAtFixedRate(this::syncNow, 1, 5, TimeUnit.MINUTES);
+        scheduler.scheduleWithFixedDelay(this::runSync, 1, 5, TimeUnit.MINUTES);
         System.out.println("Background sync scheduler started");
     }
 
     /**
-     * Stop scheduler
+     * Stop scheduler (backoff yang sedang menunggu ikut dihentikan)
      */
     public void stop() {
-        scheduler.shutdown();
+        scheduler.shutdownNow();
     }
 
     /**
-     * Trigger manual sync
+     * Trigger manual sync (asynchronous, diabaikan jika sync sedang berjalan)
      */
     public void syncNow() {
-        if (isSyncing) return;
-        
-        Task<Void> syncTask = new Task<>() {
-            @Override
-            protected Void call() throws Exception {
-                isSyncing = true;
-                try {
-                    List<Presensi> unsynced = localCache.getUnsyncedPresensi();
-                    if (unsynced.isEmpty()) {
-                        return null;
-                    }
+        if (!syncing.get()) {
+            scheduler.execute(this::runSync);
+        }
+    }
 
-                    System.out.println("Found " + unsynced.size() + " unsynced records. Syncing...");
-                    List<Long> syncedIds = new ArrayList<>();
-
-                    for (Presensi p : unsynced) {
-                        try {
-                            // Try to create on server
-                            // Note: We might need a specific endpoint for batch sync or handle ID conflicts
-                            // For now, we treat them as new records
-                            Presensi created = presensiService.createPresensi(p);
-                            if (created != null) {
-                                syncedIds.add(p.getId()); // Use local ID to mark as synced
-                            }
-                        } catch (Exception e) {
-                            System.err.println("Failed to sync record for " + p.getUsername() + ": " + e.getMessage());
-                            // Continue to next record
-                        }
-                    }
+    private void runSync() {
+        if (!syncing.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            if (ApiClient.getInstance().getJwtToken() == null) {
+                return; // belum login, endpoint admin pasti ditolak
+            }
 
-                    if (!syncedIds.isEmpty()) {
-                        localCache.markAsSynced(syncedIds);
-                        NotificationService.getInstance().showInfo("Sync Complete", 
-                            "Successfully synced " + syncedIds.size() + " records.");
-                    }
+            int synced = 0;
+            int failed = 0;
+            long cursor = Long.MIN_VALUE;
+            while (!Thread.currentThread().isInterrupted()) {
+                List<LocalCacheService.PendingSync> chunk = localCache.getPendingSync(cursor, CHUNK_SIZE);
+                if (chunk.isEmpty()) {
+                    break;
+                }
+                cursor = chunk.get(chunk.size() - 1).localId();
+                System.out.println("Syncing " + chunk.size() + " offline records...");
+
+                List<PresensiService.BulkSyncResult> results = uploadWithRetry(chunk);
+                if (results == null) {
+                    break; // server belum bisa dihubungi, lanjut di jadwal berikutnya
+                }
 
-                } finally {
-                    isSyncing = false;
+                List<LocalCacheService.SyncOutcome> outcomes = new ArrayList<>(chunk.size());
+                for (int i = 0; i < chunk.size(); i++) {
+                    LocalCacheService.SyncOutcome outcome = toOutcome(chunk.get(i).localId(), results.get(i));
+                    outcomes.add(outcome);
+                    if (outcome.state() == LocalCacheService.SYNC_DONE) {
+                        synced++;
+                    } else if (outcome.state() != LocalCacheService.SYNC_PENDING) {
+                        failed++;
+                    }
                 }
+                localCache.applySyncOutcomes(outcomes);
+            }
+
+            if (synced > 0) {
+                NotificationService.getInstance().showInfo("Sync Complete",
+                        "Successfully synced " + synced + " records.");
+            }
+            if (failed > 0) {
+                NotificationService.getInstance().showWarning("Sync Conflict",
+                        failed + " offline records were not accepted by the server.");
+            }
+        } catch (SQLException e) {
+            System.err.println("Failed to save sync progress: " + e.getMessage());
+        } catch (RuntimeException e) {
+            System.err.println("Sync failed: " + e.getMessage());
+        } finally {
+            syncing.set(false);
+        }
+    }
+
+    /**
+     * Upload satu chunk, coba ulang dengan backoff jika jaringan/server error
+     *
+     * @return hasil per baris, atau null jika tetap gagal / ditolak
+     */
+    private List<PresensiService.BulkSyncResult> uploadWithRetry(List<LocalCacheService.PendingSync> chunk) {
+        long backoff = INITIAL_BACKOFF_MS;
+        for (int attempt = 1; attempt <= MAX_CHUNK_ATTEMPTS; attempt++) {
+            try {
+                return presensiService.syncBulk(chunk);
+            } catch (IllegalStateException e) {
+                System.err.println(e.getMessage());
+                return null;
+            } catch (IOException e) {
+                System.err.println("Sync attempt " + attempt + " failed: " + e.getMessage());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
                 return null;
             }
-        };
 
-        new Thread(syncTask).start();
+            if (attempt < MAX_CHUNK_ATTEMPTS) {
+                long delay = backoff / 2 + ThreadLocalRandom.current().nextLong(backoff / 2 + 1);
+                try {
+                    Thread.sleep(delay);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return null;
+                }
+                backoff = Math.min(backoff * 2, MAX_BACKOFF_MS);
+            }
+        }
+        return null;
+    }
+
+    private static LocalCacheService.SyncOutcome toOutcome(long localId, PresensiService.BulkSyncResult result) {
+        String status = result.result != null ? result.result : "ERROR";
+        return switch (status) {
+            case "CREATED", "ALREADY_SYNCED" -> result.presensiId != null
+                    ? LocalCacheService.SyncOutcome.done(localId, result.presensiId)
+                    : LocalCacheService.SyncOutcome.retry(localId, "Server did not return presensi ID");
+            case "CONFLICT" -> LocalCacheService.SyncOutcome.conflict(localId, result.existing, result.message);
+            case "INVALID" -> LocalCacheService.SyncOutcome.rejected(localId, result.message);
+            default -> LocalCacheService.SyncOutcome.retry(localId, result.message);
+        };
     }
 }
@@ -1,88 +1,425 @@
 package com.smk.presensi.desktop.service;
 
-import com.smk.presensi.desktop.model.DashboardStats;
-import com.smk.presensi.desktop.model.Presensi;
+import com.google.gson.JsonParseException;
+import com.smk.presensi.desktop.model.LiveEvent;
+import javafx.animation.KeyFrame;
+import javafx.animation.Timeline;
+import javafx.application.Platform;
+import javafx.scene.Node;
+import javafx.scene.Scene;
+import javafx.stage.Window;
+import javafx.stage.WindowEvent;
+import javafx.util.Duration;
 
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
 
 /**
- * WebSocket Service untuk real-time updates dari backend
- * 
- * NOTE: WebSocket implementation is currently disabled due to complexity with Jakarta WebSocket API
- * Alternative: Using polling mechanism via DashboardViewModel's auto-refresh
- * 
- * TODO untuk Tahap 04: Implement proper WebSocket dengan Spring STOMP atau SockJS client
+ * Live update service - menerima event real-time dari backend
+ *
+ * Transport: Server-Sent Events (GET /api/events/presensi), bukan WebSocket.
+ * Backend hanya menyediakan SSE; cukup java.net.http bawaan JDK, tanpa Tyrus.
+ * Nama class dipertahankan supaya pemanggil lama tidak berubah.
+ *
+ * Features:
+ * - Satu koneksi untuk seluruh aplikasi (singleton), dibagi ke semua layar
+ * - Auto reconnect dengan exponential backoff + jitter (1 detik s/d 30 detik)
+ * - Resume: id event terakhir dikirim sebagai Last-Event-ID saat reconnect,
+ *   event yang terlewat selama putus dikirim ulang oleh server
+ * - Heartbeat: server kirim komentar tiap 15 detik; jika 45 detik tidak ada
+ *   data sama sekali, koneksi dianggap mati dan dibuka ulang
+ * - Fallback: setelah tersambung ulang, dan tiap 5 menit selama putus, listener
+ *   menerima event RELOAD → layar load ulang lewat REST (pengganti polling lama)
+ *
+ * Listener selalu dipanggil di JavaFX Application Thread.
  */
 public class WebSocketService {
-    
-    private final String wsUrl;
-    private boolean connected = false;
-    
-    // Callbacks untuk UI updates
-    private Consumer<Presensi> onPresensiCreated;
-    private Consumer<Presensi> onPresensiUpdated;
-    private Consumer<DashboardStats> onStatsUpdate;
-    private Consumer<String> onConnectionStatusChanged;
-    
-    // Settings
-    private boolean autoReconnect = true;
-    
-    public WebSocketService(String wsUrl) {
-        this.wsUrl = wsUrl;
-    }
-    
+
+    private static final String EVENTS_ENDPOINT = "/events/presensi";
+    private static final long INITIAL_BACKOFF_MS = 1_000;
+    private static final long MAX_BACKOFF_MS = 30_000;
+    private static final long STALE_AFTER_MS = 45_000;
+    private static final long WATCHDOG_INTERVAL_MS = 5_000;
+    private static final Duration FALLBACK_REFRESH = Duration.minutes(5);
+
+    private static WebSocketService instance;
+
+    private final ApiClient apiClient;
+    private final List<Consumer<LiveEvent>> listeners = new CopyOnWriteArrayList<>();
+    private final List<Consumer<String>> statusListeners = new CopyOnWriteArrayList<>();
+
+    private volatile boolean running = false;
+    private volatile boolean connected = false;
+    private volatile boolean everConnected = false;
+    private volatile String lastEventId;
+    private volatile long lastReceivedAt;
+    private volatile EventStreamSubscriber currentStream;
+
+    private Thread readerThread;
+    private ScheduledExecutorService watchdog;
+
+    private WebSocketService(ApiClient apiClient) {
+        this.apiClient = apiClient;
+    }
+
     /**
-     * Connect to WebSocket server dengan JWT token
-     * Currently not implemented - using polling instead
+     * Get singleton instance
      */
-    public void connect(String jwtToken) throws Exception {
-        System.out.println("[WebSocketService] Connection not implemented yet - using polling");
-        System.out.println("[WebSocketService] Target URL: " + wsUrl);
-        
-        connected = false;
-        notifyConnectionStatus("Polling mode (WebSocket not implemented)");
+    public static synchronized WebSocketService getInstance() {
+        if (instance == null) {
+            instance = new WebSocketService(ApiClient.getInstance());
+        }
+        return instance;
     }
-    
+
     /**
-     * Disconnect dari WebSocket server
+     * Mulai koneksi (jika belum). Token diambil dari ApiClient setiap kali connect.
      */
-    public void disconnect() {
-        connected = false;
-        System.out.println("[WebSocketService] Disconnected");
+    public synchronized void connect() {
+        if (running) {
+            return;
+        }
+        running = true;
+
+        readerThread = new Thread(this::runLoop, "live-events");
+        readerThread.setDaemon(true);
+        readerThread.start();
+
+        watchdog = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "live-events-watchdog");
+            thread.setDaemon(true);
+            return thread;
+        });
+        watchdog.scheduleWithFixedDelay(this::checkStale,
+                WATCHDOG_INTERVAL_MS, WATCHDOG_INTERVAL_MS, TimeUnit.MILLISECONDS);
     }
-    
+
     /**
-     * Check if WebSocket is connected
+     * Tutup koneksi (mis. saat logout). Posisi resume ikut dibuang.
      */
+    public synchronized void disconnect() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        connected = false;
+        everConnected = false;
+        lastEventId = null;
+
+        EventStreamSubscriber stream = currentStream;
+        if (stream != null) {
+            stream.cancel();
+        }
+        readerThread.interrupt();
+        watchdog.shutdownNow();
+        notifyStatus("Disconnected");
+    }
+
     public boolean isConnected() {
         return connected;
     }
-    
-    private void notifyConnectionStatus(String status) {
-        if (onConnectionStatusChanged != null) {
-            onConnectionStatusChanged.accept(status);
+
+    public void addListener(Consumer<LiveEvent> listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(Consumer<LiveEvent> listener) {
+        listeners.remove(listener);
+    }
+
+    public void addStatusListener(Consumer<String> listener) {
+        statusListeners.add(listener);
+    }
+
+    public void removeStatusListener(Consumer<String> listener) {
+        statusListeners.remove(listener);
+    }
+
+    /**
+     * Daftarkan listener untuk satu layar, lalu connect (dipanggil di FX thread).
+     *
+     * Selama koneksi live putus, listener menerima RELOAD tiap 5 menit
+     * (fallback lambat, supaya layar tetap ter-update walaupun SSE diblokir proxy).
+     *
+     * Listener dan fallback otomatis dilepas saat layar diganti (node dilepas dari scene),
+     * scene diganti (logout), atau window ditutup.
+     */
+    public void attach(Node owner, Consumer<LiveEvent> listener) {
+        addListener(listener);
+        Timeline fallback = new Timeline(new KeyFrame(FALLBACK_REFRESH, e -> {
+            if (!connected) {
+                listener.accept(LiveEvent.of(LiveEvent.RELOAD, 0L, null));
+            }
+        }));
+        fallback.setCycleCount(Timeline.INDEFINITE);
+        fallback.play();
+
+        Runnable detach = () -> {
+            removeListener(listener);
+            fallback.stop();
+        };
+        owner.sceneProperty().addListener((obs, oldScene, scene) -> {
+            if (scene == null) {
+                detach.run();
+            } else {
+                detachWithWindow(scene, detach);
+            }
+        });
+        if (owner.getScene() != null) {
+            detachWithWindow(owner.getScene(), detach);
         }
+        connect();
     }
-    
-    // ===== Setters for callbacks =====
-    
-    public void setOnPresensiCreated(Consumer<Presensi> callback) {
-        this.onPresensiCreated = callback;
+
+    private void detachWithWindow(Scene scene, Runnable detach) {
+        scene.windowProperty().addListener((obs, oldWindow, window) -> {
+            if (window == null) {
+                detach.run();
+            } else {
+                window.addEventHandler(WindowEvent.WINDOW_HIDDEN, e -> detach.run());
+            }
+        });
+        Window window = scene.getWindow();
+        if (window != null) {
+            window.addEventHandler(WindowEvent.WINDOW_HIDDEN, e -> detach.run());
+        }
     }
-    
-    public void setOnPresensiUpdated(Consumer<Presensi> callback) {
-        this.onPresensiUpdated = callback;
+
+    // ===== Connection loop =====
+
+    private void runLoop() {
+        long backoff = INITIAL_BACKOFF_MS;
+        while (running) {
+            try {
+                if (readStream()) {
+                    backoff = INITIAL_BACKOFF_MS;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (Exception e) {
+                System.err.println("[WebSocketService] Stream error: " + e.getMessage());
+            }
+
+            connected = false;
+            if (!running) {
+                break;
+            }
+
+            // Jitter: 10 layar yang putus bersamaan tidak reconnect di detik yang sama
+            long delay = backoff / 2 + ThreadLocalRandom.current().nextLong(backoff / 2 + 1);
+            notifyStatus("Reconnecting in " + Math.max(1, delay / 1000) + "s");
+            try {
+                Thread.sleep(delay);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            backoff = Math.min(backoff * 2, MAX_BACKOFF_MS);
+        }
     }
-    
-    public void setOnStatsUpdate(Consumer<DashboardStats> callback) {
-        this.onStatsUpdate = callback;
+
+    /**
+     * Buka satu koneksi SSE dan tunggu sampai selesai/putus.
+     *
+     * @return true jika koneksi sempat terbuka (status 200)
+     */
+    private boolean readStream() throws InterruptedException {
+        HttpRequest.Builder builder = HttpRequest.newBuilder()
+                .uri(URI.create(apiClient.getBaseUrl() + EVENTS_ENDPOINT))
+                .header("Accept", "text/event-stream")
+                .GET();
+        // Tanpa timeout: stream memang dibiarkan terbuka, mati/hidupnya dijaga watchdog
+
+        String token = apiClient.getJwtToken();
+        if (token != null) {
+            builder.header("Authorization", "Bearer " + token);
+        }
+        String resumeFrom = lastEventId;
+        if (resumeFrom != null) {
+            builder.header("Last-Event-ID", resumeFrom);
+        }
+
+        EventStreamSubscriber stream = new EventStreamSubscriber();
+        currentStream = stream;
+        lastReceivedAt = System.currentTimeMillis();
+
+        CompletableFuture<HttpResponse<Void>> response = apiClient.getHttpClient().sendAsync(builder.build(),
+                info -> {
+                    if (info.statusCode() == 200) {
+                        connected = true;
+                        notifyStatus("Connected");
+                        if (everConnected) {
+                            // Data bisa berubah selama putus (server restart, event di luar buffer)
+                            publish(LiveEvent.of(LiveEvent.RELOAD, 0L, null));
+                        }
+                        everConnected = true;
+                        return HttpResponse.BodySubscribers.fromLineSubscriber(stream);
+                    }
+                    return HttpResponse.BodySubscribers.replacing(null);
+                });
+        response.whenComplete((result, error) -> {
+            if (error != null) {
+                stream.done.completeExceptionally(error);
+            } else if (result.statusCode() != 200) {
+                notifyStatus("Rejected by server (" + result.statusCode() + ")");
+                stream.done.complete(null);
+            }
+        });
+
+        try {
+            stream.done.get();
+        } catch (ExecutionException e) {
+            System.err.println("[WebSocketService] Connection lost: " + e.getCause().getMessage());
+        } catch (InterruptedException e) {
+            stream.cancel();
+            throw e;
+        } finally {
+            currentStream = null;
+        }
+        return stream.opened;
+    }
+
+    private void checkStale() {
+        EventStreamSubscriber stream = currentStream;
+        if (stream != null && connected
+                && System.currentTimeMillis() - lastReceivedAt > STALE_AFTER_MS) {
+            System.err.println("[WebSocketService] No heartbeat, reconnecting");
+            stream.cancel();
+        }
+    }
+
+    // ===== SSE parsing =====
+
+    private void dispatch(String id, String name, String data) {
+        if (id != null) {
+            lastEventId = id;
+        }
+        if (data.isEmpty()) {
+            return;
+        }
+
+        LiveEvent event;
+        try {
+            if ("counters".equals(name) || "reset".equals(name)) {
+                LiveEvent.Counters counters = apiClient.parseResponse(data, LiveEvent.Counters.class);
+                long eventId = id != null ? Long.parseLong(id) : 0L;
+                event = LiveEvent.of("reset".equals(name) ? LiveEvent.RESET : LiveEvent.COUNTERS, eventId, counters);
+            } else {
+                event = apiClient.parseResponse(data, LiveEvent.class);
+            }
+        } catch (JsonParseException | NumberFormatException e) {
+            System.err.println("[WebSocketService] Invalid event ignored: " + e.getMessage());
+            return;
+        }
+
+        publish(event);
+    }
+
+    private void publish(LiveEvent event) {
+        Platform.runLater(() -> {
+            for (Consumer<LiveEvent> listener : listeners) {
+                try {
+                    listener.accept(event);
+                } catch (RuntimeException e) {
+                    e.printStackTrace();
+                }
+            }
+        });
     }
-    
-    public void setOnConnectionStatusChanged(Consumer<String> callback) {
-        this.onConnectionStatusChanged = callback;
+
+    private void notifyStatus(String status) {
+        if (statusListeners.isEmpty()) {
+            return;
+        }
+        Platform.runLater(() -> statusListeners.forEach(listener -> listener.accept(status)));
     }
-    
-    public void setAutoReconnect(boolean autoReconnect) {
-        this.autoReconnect = autoReconnect;
+
+    /**
+     * Menerima response SSE baris per baris (format: "field: value", baris kosong = akhir event)
+     */
+    private class EventStreamSubscriber implements Flow.Subscriber<String> {
+        final CompletableFuture<Void> done = new CompletableFuture<>();
+        volatile boolean opened = false;
+        private volatile Flow.Subscription subscription;
+
+        private String id;
+        private String name;
+        private final StringBuilder data = new StringBuilder();
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            opened = true;
+            if (done.isDone()) {
+                subscription.cancel();
+            } else {
+                subscription.request(Long.MAX_VALUE);
+            }
+        }
+
+        @Override
+        public void onNext(String line) {
+            lastReceivedAt = System.currentTimeMillis();
+            if (line.isEmpty()) {
+                dispatch(id, name, data.toString());
+                id = null;
+                name = null;
+                data.setLength(0);
+                return;
+            }
+            if (line.startsWith(":")) {
+                return; // komentar = heartbeat
+            }
+
+            int colon = line.indexOf(':');
+            String field = colon < 0 ? line : line.substring(0, colon);
+            String value = colon < 0 ? "" : line.substring(colon + 1);
+            if (value.startsWith(" ")) {
+                value = value.substring(1);
+            }
+            switch (field) {
+                case "id" -> id = value;
+                case "event" -> name = value;
+                case "data" -> {
+                    if (data.length() > 0) {
+                        data.append('\n');
+                    }
+                    data.append(value);
+                }
+                default -> {
+                    // "retry" dan field lain tidak dipakai
+                }
+            }
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            done.completeExceptionally(throwable);
+        }
+
+        @Override
+        public void onComplete() {
+            done.complete(null);
+        }
+
+        void cancel() {
+            Flow.Subscription current = subscription;
+            if (current != null) {
+                current.cancel();
+            }
+            done.complete(null);
+        }
     }
 }